@@ -78,6 +78,9 @@ public class JolokiaServer {
     // HttpContext created when we start it up
     private HttpContext httpContext;
 
+    // Handler created for the context, null as long as it is not initialized
+    private volatile JolokiaHttpHandler jolokiaHttpHandler;
+
     private final List<File> filesToWatch = new ArrayList<>();
 
     /**
@@ -150,8 +153,8 @@ public class JolokiaServer {
      */
     public void start(boolean pLazy) {
 
-        HttpHandler jolokiaHttpHandler = createJolokiaHttpHandler(pLazy);
-        httpContext = httpServer.createContext(config.getContextPath(), jolokiaHttpHandler);
+        HttpHandler httpHandler = createJolokiaHttpHandler(pLazy);
+        httpContext = httpServer.createContext(config.getContextPath(), httpHandler);
 
         setupAuthentication();
         if (useOwnServer) {
@@ -164,6 +167,10 @@ public class JolokiaServer {
      */
     public void stop() {
         httpServer.removeContext(httpContext);
+        if (jolokiaHttpHandler != null) {
+            jolokiaHttpHandler.destroy();
+            jolokiaHttpHandler = null;
+        }
         serviceManager.stop();
 
         if (cleaner != null) {
@@ -292,7 +299,7 @@ public class JolokiaServer {
     // Startup the context and create the HttpHandler
     private HttpHandler startupJolokiaContext() {
         JolokiaContext jolokiaContext = serviceManager.start();
-        JolokiaHttpHandler jolokiaHttpHandler = new JolokiaHttpHandler(jolokiaContext);
+        jolokiaHttpHandler = new JolokiaHttpHandler(jolokiaContext);
         updateAgentUrl(jolokiaContext);
         return jolokiaHttpHandler;
 }
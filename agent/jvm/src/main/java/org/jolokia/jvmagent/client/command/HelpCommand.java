@@ -140,6 +140,18 @@ public class HelpCommand extends AbstractBaseCommand {
 "    --includeStackTrace <t|f>       whether to include StackTraces for error messages (default: false)\n" +
 "    --serializeException <t|f>      whether to add a serialized version of the exception in the Jolokia response (default: false)\n" +
 "    --includeRequest <t|f>          whether to include entire request in the response (default: true)\n" +
+"    --includeEtag <t|f>             whether to add an ETag of the value to read responses (default: false)\n" +
+"    --deferSerialization <t|f>      whether to serialize values while writing the response (default: false)\n" +
+"    --bulkThreads <nr>              Number of threads for executing bulk requests in parallel (default: 0, disabled)\n" +
+"    --bulkParallelism <nr>          Number of requests of a bulk request executed in parallel (default: 1)\n" +
+"    --bulkMaxParallelism <nr>       Upper limit for the parallelism of a single bulk request (default: 4)\n" +
+"    --mbeanInfoCacheSize <nr>       Maximum number of cached MBeanInfos (default: 1000, 0 disables caching)\n" +
+"    --mbeanInfoCacheTtl <sec>       Time to live of cached MBeanInfos in seconds (default: 0, only immutable ones until unregistered)\n" +
+"    --mbeanNameIndex <t|f>          whether to index the names of all MBeans for answering queries (default: false)\n" +
+"    --responseCache <json>          Seconds to cache read values by MBean pattern as JSON object (best given in a config file)\n" +
+"    --responseCacheSize <nr>        Maximum number of cached read values (default: 1000)\n" +
+"    --responseCacheMaxAge <sec>     Maximum time in seconds a client can request with maxAge (default: 60)\n" +
+"    --requestCollapsing <t|f>       whether to execute identical concurrent read and list requests only once (default: false)\n" +
 "    --dateFormat <format>           DateFormat to use for serializing dates/times/calendars/temporals (default: yyyy-MM-dd'T'HH:mm:ssXXX)\n" +
 "    --dateFormatTimeZone <tz>       TimeZone to use for formatting dates/times/calendars/temporals (default: local time zone)\n" +
 "    --config <configfile>           Path to a property file from where to read the configuration\n" +
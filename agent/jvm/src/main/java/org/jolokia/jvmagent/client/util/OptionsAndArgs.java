@@ -55,8 +55,11 @@ public final class OptionsAndArgs {
             "logHandlerClass", "logHandlerName", "maxDepth", "maxCollectionSize",
             "maxObjects", "serializeLong", "restrictorClass", "policyLocation", "mbeanQualifier",
             "disableDetectors!", "enabledServices", "disabledServices",
-            "canonicalNaming", "includeStackTrace", "serializeException", "includeRequest",
+            "canonicalNaming", "includeStackTrace", "serializeException", "includeRequest", "includeEtag", "deferSerialization",
             "dateFormat", "dateFormatTimeZone",
+            "bulkThreads", "bulkParallelism", "bulkMaxParallelism",
+            "mbeanInfoCacheSize", "mbeanInfoCacheTtl", "mbeanNameIndex", "responseCache", "responseCacheSize", "responseCacheMaxAge",
+            "requestCollapsing",
             "discoveryEnabled", "discoveryAgentUrl", "agentId", "agentDescription",
             // Others:
             "config", "help!"));
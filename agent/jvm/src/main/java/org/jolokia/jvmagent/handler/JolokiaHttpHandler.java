@@ -19,8 +19,6 @@ package org.jolokia.jvmagent.handler;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -53,6 +51,8 @@ import org.jolokia.server.core.request.EmptyResponseException;
 import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.util.IoUtil;
 import org.jolokia.server.core.util.MimeTypeUtil;
+import org.jolokia.json.CBORWriter;
+import org.jolokia.json.JSONObject;
 import org.jolokia.json.JSONStructure;
 
 /**
@@ -90,6 +90,13 @@ public class JolokiaHttpHandler implements HttpHandler {
         requestHandler = new HttpRequestHandler(jolokiaContext);
     }
 
+    /**
+     * Release the resources used for handling requests. This handler must not be used anymore afterwards.
+     */
+    public void destroy() {
+        requestHandler.destroy();
+    }
+
     /**
      * Handler a request. If the handler is not yet started, an exception is thrown
      *
@@ -171,7 +178,9 @@ public class JolokiaHttpHandler implements HttpHandler {
             // Dispatch for the proper HTTP request method
             if ("GET".equalsIgnoreCase(method)) {
                 setHeaders(pExchange);
-                json = executeGetRequest(parsedUri);
+                boolean cbor = isCborRequested(pExchange, parsedUri);
+                json = executeGetRequest(pExchange, parsedUri, cbor);
+                setETagHeader(pExchange, json, cbor);
             } else if ("POST".equalsIgnoreCase(method)) {
                 setHeaders(pExchange);
                 json = executePostRequest(pExchange, parsedUri);
@@ -231,8 +240,22 @@ public class JolokiaHttpHandler implements HttpHandler {
         return Boolean.parseBoolean(jolokiaContext.getConfig(ConfigKey.ALLOW_DNS_REVERSE_LOOKUP)) ? address.getHostName() : null;
     }
 
-    private JSONStructure executeGetRequest(ParsedUri parsedUri) throws EmptyResponseException {
-        return requestHandler.handleGetRequest(parsedUri.getUri().toString(),parsedUri.getPathInfo(), parsedUri.getParameterMap());
+    private JSONStructure executeGetRequest(HttpExchange pExchange, ParsedUri parsedUri, boolean pCbor) throws EmptyResponseException {
+        return requestHandler.handleGetRequest(parsedUri.getUri().toString(),parsedUri.getPathInfo(), parsedUri.getParameterMap(),
+                                               MimeTypeUtil.getIfNoneMatch(pExchange.getRequestHeaders().getFirst("If-None-Match"), pCbor));
+    }
+
+    // Set the ETag of a read response also as HTTP header, which differs for JSON and CBOR responses
+    private void setETagHeader(HttpExchange pExchange, JSONStructure pJson, boolean pCbor) {
+        Object etag = pJson instanceof JSONObject ? ((JSONObject) pJson).get("etag") : null;
+        if (etag != null) {
+            pExchange.getResponseHeaders().set("ETag", MimeTypeUtil.getETagHeader(etag.toString(), pCbor));
+        }
+    }
+
+    private boolean isCborRequested(HttpExchange pExchange, ParsedUri pParsedUri) {
+        return MimeTypeUtil.isCborRequested(pExchange.getRequestHeaders().getFirst("Accept"),
+                                            pParsedUri.getParameter(ConfigKey.CALLBACK.getKeyValue()));
     }
 
     private JSONStructure executePostRequest(HttpExchange pExchange, ParsedUri pUri) throws IOException, EmptyResponseException {
@@ -270,6 +293,8 @@ public class JolokiaHttpHandler implements HttpHandler {
 
         // Avoid caching at all costs
         headers.set("Cache-Control", "no-cache");
+        // The encoding of the response (and so the ETag of a read response) depends on the Accept header
+        headers.set("Vary", "Accept");
 
         // Check for a date header and set it accordingly to the recommendations of
         // RFC-2616. See also {@link AgentServlet#setNoCacheHeaders()}
@@ -309,19 +334,39 @@ public class JolokiaHttpHandler implements HttpHandler {
 
     private void sendResponse(HttpExchange pExchange, ParsedUri pParsedUri, JSONStructure pJson) throws IOException {
         Headers headers = pExchange.getResponseHeaders();
+        if (isNotModified(pExchange, pParsedUri, pJson)) {
+            // Validation of the ETag given in the HTTP header, so answer with an HTTP 304 without body
+            pExchange.sendResponseHeaders(304, -1);
+            return;
+        }
         if (pJson != null) {
+            String callback = pParsedUri.getParameter(ConfigKey.CALLBACK.getKeyValue());
+            if (isCborRequested(pExchange, pParsedUri)) {
+                // binary encoding of the same response, if the client asks for it
+                headers.set("Content-Type", CBORWriter.MIME_TYPE);
+                pExchange.sendResponseHeaders(200, 0);
+                IoUtil.streamCborResponseAndClose(pExchange.getResponseBody(), pJson);
+                return;
+            }
             headers.set("Content-Type", getMimeType(pParsedUri) + "; charset=utf-8");
             pExchange.sendResponseHeaders(200, 0);
-            Writer writer = new OutputStreamWriter(pExchange.getResponseBody(), StandardCharsets.UTF_8);
-
-            String callback = pParsedUri.getParameter(ConfigKey.CALLBACK.getKeyValue());
-            IoUtil.streamResponseAndClose(writer, pJson, callback != null && MimeTypeUtil.isValidCallback(callback) ? callback : null);
+            IoUtil.streamResponseAndClose(pExchange.getResponseBody(), pJson, callback != null && MimeTypeUtil.isValidCallback(callback) ? callback : null);
         } else {
             headers.set("Content-Type", "text/plain");
             pExchange.sendResponseHeaders(200,-1);
         }
     }
 
+    // Whether a GET request was answered with "304 Not Modified" because of the If-None-Match header.
+    // A client using the ifNoneMatch parameter instead gets the status within the JSON response.
+    private boolean isNotModified(HttpExchange pExchange, ParsedUri pParsedUri, JSONStructure pJson) {
+        return pExchange.getRequestHeaders().getFirst("If-None-Match") != null &&
+               "GET".equalsIgnoreCase(pExchange.getRequestMethod()) &&
+               pParsedUri.getParameter(ConfigKey.IF_NONE_MATCH.getKeyValue()) == null &&
+               pJson instanceof JSONObject &&
+               Integer.valueOf(304).equals(((JSONObject) pJson).get("status"));
+    }
+
     private void sendAllJSON(HttpExchange pExchange, ParsedUri pParsedUri, JSONStructure pJson) throws IOException {
         OutputStream out = null;
         try {
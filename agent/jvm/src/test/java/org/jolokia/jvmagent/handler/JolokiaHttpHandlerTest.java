@@ -37,6 +37,7 @@ import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.service.serializer.Serializer;
 import org.jolokia.server.core.util.*;
 import org.jolokia.json.JSONObject;
+import org.jolokia.json.parser.CBORParser;
 import org.jolokia.json.parser.JSONParser;
 import org.jolokia.json.parser.ParseException;
 import org.testng.annotations.*;
@@ -45,6 +46,7 @@ import static org.easymock.EasyMock.anyInt;
 import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
@@ -112,6 +114,25 @@ public class JolokiaHttpHandlerTest {
     }
 
 
+    @Test
+    public void testCborGet() throws IOException, URISyntaxException, ParseException {
+        HttpExchange exchange = prepareExchange("http://localhost:8080/jolokia/read/java.lang:type=Memory/HeapMemoryUsage",
+                                                "Accept", "application/cbor, application/json;q=0.5");
+
+        // Simple GET method
+        expect(exchange.getRequestMethod()).andReturn("GET");
+
+        Headers header = new Headers();
+        ByteArrayOutputStream out = prepareResponse(exchange, header);
+
+        handler.handle(exchange);
+
+        assertEquals(header.getFirst("content-type"), "application/cbor");
+        JSONObject response = (JSONObject) new CBORParser().parse(out.toByteArray());
+        assertEquals(response.get("status"), 200L);
+        assertEquals(((JSONObject) response.get("request")).get("mbean"), "java.lang:type=Memory");
+    }
+
     @Test
     public void testInvalidMimeType() throws IOException, URISyntaxException {
         checkMimeType("text/html", "text/plain");
@@ -279,6 +300,87 @@ public class JolokiaHttpHandlerTest {
         assertTrue(resp.containsKey("value"));
     }
 
+    @Test
+    public void notModifiedWithIfNoneMatchHeader() throws URISyntaxException, IOException, ParseException, NoSuchFieldException, IllegalAccessException {
+        injectRequestDispatcher(handler, pRequest -> Collections.singletonMap("used", 4711L));
+        String url = "http://localhost:8080/jolokia/read/java.lang:type=Memory/HeapMemoryUsage";
+
+        HttpExchange exchange = prepareExchange(url + "?includeEtag=true");
+        expect(exchange.getRequestMethod()).andReturn("GET");
+        Headers header = new Headers();
+        ByteArrayOutputStream out = prepareResponse(exchange, header);
+        handler.doHandle(exchange);
+        JSONObject resp = new JSONParser().parse(out.toString(StandardCharsets.UTF_8), JSONObject.class);
+        String etag = (String) resp.get("etag");
+        assertEquals(header.getFirst("ETag"), "\"" + etag + "\"");
+
+        // Validation by the HTTP header is answered with a real 304 without body
+        exchange = prepareExchange(url, "If-None-Match", "\"" + etag + "\"");
+        expect(exchange.getRequestMethod()).andReturn("GET").anyTimes();
+        header = new Headers();
+        expect(exchange.getResponseHeaders()).andReturn(header).anyTimes();
+        exchange.sendResponseHeaders(304, -1);
+        replay(exchange);
+        handler.doHandle(exchange);
+        verify(exchange);
+        assertEquals(header.getFirst("ETag"), "\"" + etag + "\"");
+
+        // Validation by the processing parameter gets the status within the JSON response
+        exchange = prepareExchange(url + "?ifNoneMatch=" + etag);
+        expect(exchange.getRequestMethod()).andReturn("GET").anyTimes();
+        out = prepareResponse(exchange, new Headers());
+        handler.doHandle(exchange);
+        resp = new JSONParser().parse(out.toString(StandardCharsets.UTF_8), JSONObject.class);
+        assertEquals(resp.get("status"), 304L);
+        assertEquals(resp.get("etag"), etag);
+    }
+
+    @Test
+    public void notModifiedOnlyForSameEncoding() throws URISyntaxException, IOException, ParseException, NoSuchFieldException, IllegalAccessException {
+        injectRequestDispatcher(handler, pRequest -> Collections.singletonMap("used", 4711L));
+        String url = "http://localhost:8080/jolokia/read/java.lang:type=Memory/HeapMemoryUsage";
+
+        HttpExchange exchange = prepareExchange(url + "?includeEtag=true");
+        expect(exchange.getRequestMethod()).andReturn("GET");
+        Headers header = new Headers();
+        ByteArrayOutputStream out = prepareResponse(exchange, header);
+        handler.doHandle(exchange);
+        String etag = (String) new JSONParser().parse(out.toString(StandardCharsets.UTF_8), JSONObject.class).get("etag");
+        String jsonTag = header.getFirst("ETag");
+        assertEquals(header.getFirst("Vary"), "Accept");
+
+        // The tag of the JSON response doesn't validate a CBOR response, which is sent in full with its own tag
+        exchange = prepareExchange(url, "If-None-Match", jsonTag, "Accept", "application/cbor");
+        expect(exchange.getRequestMethod()).andReturn("GET").anyTimes();
+        header = new Headers();
+        expect(exchange.getResponseHeaders()).andReturn(header).anyTimes();
+        exchange.sendResponseHeaders(200, 0);
+        out = new ByteArrayOutputStream();
+        expect(exchange.getResponseBody()).andReturn(out);
+        replay(exchange);
+        handler.doHandle(exchange);
+        verify(exchange);
+        assertEquals(header.getFirst("Content-Type"), "application/cbor");
+        assertEquals(header.getFirst("Vary"), "Accept");
+        String cborTag = header.getFirst("ETag");
+        assertNotNull(cborTag);
+        assertFalse(cborTag.equals(jsonTag));
+        JSONObject resp = (JSONObject) new CBORParser().parse(out.toByteArray());
+        assertEquals(resp.get("status"), 200L);
+        assertEquals(resp.get("etag"), etag);
+
+        // The tag of the CBOR response validates a CBOR response
+        exchange = prepareExchange(url, "If-None-Match", cborTag, "Accept", "application/cbor");
+        expect(exchange.getRequestMethod()).andReturn("GET").anyTimes();
+        header = new Headers();
+        expect(exchange.getResponseHeaders()).andReturn(header).anyTimes();
+        exchange.sendResponseHeaders(304, -1);
+        replay(exchange);
+        handler.doHandle(exchange);
+        verify(exchange);
+        assertEquals(header.getFirst("ETag"), cborTag);
+    }
+
     private HttpExchange prepareExchange(String pUri) throws URISyntaxException {
         return prepareExchange(pUri,"Origin","");
     }
@@ -88,7 +88,22 @@ public class J4pClient extends J4pClientBuilderFactory {
      * @param pExtractor response extractor to use
      */
     public J4pClient(String pJ4pServerUrl, HttpClient pHttpClient,J4pTargetConfig pTargetConfig,J4pResponseExtractor pExtractor) {
-        requestHandler = new J4pRequestHandler(pJ4pServerUrl,pTargetConfig);
+        this(pJ4pServerUrl,pHttpClient,pTargetConfig,pExtractor,false);
+    }
+
+    /**
+     * Constructor using a given Agent URL, HttpClient and a proxy target config. If the HttpClient is null,
+     * a default client is used. If no target config is given, a plain request is performed
+     *
+     * @param pJ4pServerUrl the agent URL for how to contact the server.
+     * @param pHttpClient HTTP client to use for the connecting to the agent
+     * @param pTargetConfig optional target
+     * @param pExtractor response extractor to use
+     * @param pUseCbor whether to request CBOR encoded responses from the agent
+     */
+    public J4pClient(String pJ4pServerUrl, HttpClient pHttpClient,J4pTargetConfig pTargetConfig,J4pResponseExtractor pExtractor,
+                     boolean pUseCbor) {
+        requestHandler = new J4pRequestHandler(pJ4pServerUrl,pTargetConfig,pUseCbor);
         responseExtractor = pExtractor;
         // Using the default as defined in the client builder
         if (pHttpClient != null) {
@@ -117,6 +117,9 @@ public class J4pClientBuilder {
     // Default http headers to use for each HTTP requests
     private Collection<? extends Header> defaultHttpHeaders;
 
+    // Whether to request CBOR encoded responses
+    private boolean useCbor;
+
     /**
      * Package access constructor, use static method on J4pClient for creating
      * the builder.
@@ -433,6 +436,18 @@ public class J4pClientBuilder {
         return this;
     }
 
+    /**
+     * Request responses in the binary CBOR format instead of JSON. CBOR is more compact and faster to parse,
+     * and keeps long values exact. Agents without CBOR support still answer with JSON, which is handled as usual.
+     *
+     * @param pUseCbor whether to use CBOR
+     * @return this builder object
+     */
+    public final J4pClientBuilder useCbor(boolean pUseCbor) {
+        this.useCbor = pUseCbor;
+        return this;
+    }
+
     // =====================================================================================
 
     /**
@@ -443,7 +458,8 @@ public class J4pClientBuilder {
     public J4pClient build() {
         return new J4pClient(url,createHttpClient(),
                              targetUrl != null ? new J4pTargetConfig(targetUrl,targetUser,targetPassword) :  null,
-                             responseExtractor);
+                             responseExtractor,
+                             useCbor);
     }
 
     public HttpClient createHttpClient() {
@@ -85,7 +85,18 @@ public enum J4pQueryParameter {
      * For security reasons (writing responses directly into some DB), it may be required to exclude
      * the request from its response JSON. This parameter can control the inclusion of request.
      */
-    INCLUDE_REQUEST("includeRequest");
+    INCLUDE_REQUEST("includeRequest"),
+
+    /**
+     * For READ requests, whether to add an ETag calculated from the value to the response
+     */
+    INCLUDE_ETAG("includeEtag"),
+
+    /**
+     * For READ requests this property can be used to obtain the value only if its ETag
+     * differs from the given one, which has been taken from a previous response
+     */
+    IF_NONE_MATCH("ifNoneMatch");
 
     // =======================================================================
 
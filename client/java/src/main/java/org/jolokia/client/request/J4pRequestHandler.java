@@ -23,6 +23,8 @@ import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.http.*;
 import org.apache.http.client.methods.*;
@@ -31,6 +33,7 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 import org.jolokia.json.*;
+import org.jolokia.json.parser.CBORParser;
 import org.jolokia.json.parser.JSONParser;
 import org.jolokia.json.parser.ParseException;
 
@@ -49,6 +52,9 @@ public class J4pRequestHandler {
     // Optional default target configuration
     private final J4pTargetConfig defaultTargetConfig;
 
+    // Whether to ask the agent for CBOR encoded responses
+    private final boolean useCbor;
+
     /**
      * Constructor
      *
@@ -56,9 +62,22 @@ public class J4pRequestHandler {
      * @param pTargetConfig optional default target configuration for proxy requests
      */
     public J4pRequestHandler(String pJ4pServerUrl, J4pTargetConfig pTargetConfig) {
+        this(pJ4pServerUrl, pTargetConfig, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param pJ4pServerUrl URL to remote agent
+     * @param pTargetConfig optional default target configuration for proxy requests
+     * @param pUseCbor whether to request binary (CBOR) encoded responses from the agent. Agents
+     *                 which don't support CBOR will still answer with JSON.
+     */
+    public J4pRequestHandler(String pJ4pServerUrl, J4pTargetConfig pTargetConfig, boolean pUseCbor) {
         try {
             j4pServerUrl = new URI(pJ4pServerUrl);
             defaultTargetConfig = pTargetConfig;
+            useCbor = pUseCbor;
         } catch (URISyntaxException e) {
             throw new IllegalArgumentException("Invalid URL " + pJ4pServerUrl,e);
         }
@@ -98,7 +117,7 @@ public class J4pRequestHandler {
                     requestPath.append("/");
                     requestPath.append(escape(p));
                 }
-                return new HttpGet(createRequestURI(requestPath.toString(),queryParams));
+                return addAcceptHeader(new HttpGet(createRequestURI(requestPath.toString(),queryParams)));
             }
         }
 
@@ -107,7 +126,14 @@ public class J4pRequestHandler {
         HttpPost postReq = new HttpPost(createRequestURI(j4pServerUrl.getPath(),queryParams));
         postReq.setEntity(new StringEntity(requestContent.toJSONString(),"utf-8"));
         postReq.addHeader(HTTP.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
-        return postReq;
+        return addAcceptHeader(postReq);
+    }
+
+    private HttpUriRequest addAcceptHeader(HttpUriRequest pRequest) {
+        if (useCbor) {
+            pRequest.addHeader(HttpHeaders.ACCEPT, CBORWriter.MIME_TYPE + ", " + ContentType.APPLICATION_JSON.getMimeType() + ";q=0.9");
+        }
+        return pRequest;
     }
 
     private boolean doUseProxy(J4pRequest pRequest) {
@@ -142,7 +168,7 @@ public class J4pRequestHandler {
         }
         postReq.setEntity(new StringEntity(bulkRequest.toJSONString(),"utf-8"));
         postReq.addHeader(HTTP.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
-        return postReq;
+        return addAcceptHeader(postReq);
     }
 
 
@@ -156,6 +182,13 @@ public class J4pRequestHandler {
     public JSONStructure extractJsonResponse(HttpResponse pHttpResponse) throws IOException, ParseException {
         HttpEntity entity = pHttpResponse.getEntity();
         try {
+            if (useCbor) {
+                // CBOR is only sent by the agent when asked for it
+                Header contentType = entity.getContentType();
+                if (contentType != null && CBORWriter.MIME_TYPE.equals(ContentType.parse(contentType.getValue()).getMimeType())) {
+                    return (JSONStructure) new CBORParser().parse(decodeContent(entity));
+                }
+            }
             JSONParser parser = new JSONParser();
             Header contentEncoding = entity.getContentEncoding();
             if (contentEncoding != null) {
@@ -170,6 +203,28 @@ public class J4pRequestHandler {
         }
     }
 
+    // Binary content has to be decoded according to its Content-Encoding, if not already done by the HTTP client
+    private InputStream decodeContent(HttpEntity pEntity) throws IOException {
+        InputStream content = pEntity.getContent();
+        Header contentEncoding = pEntity.getContentEncoding();
+        if (contentEncoding == null) {
+            return content;
+        }
+        String encoding = contentEncoding.getValue().trim().toLowerCase();
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(content);
+            case "deflate":
+                return new InflaterInputStream(content);
+            case "identity":
+            case "":
+                return content;
+            default:
+                throw new IOException("Unsupported Content-Encoding " + encoding + " of CBOR response");
+        }
+    }
+
     /**
      * Get the J4p Server URL
      * @return the URL to the Jolokia agent on the server side
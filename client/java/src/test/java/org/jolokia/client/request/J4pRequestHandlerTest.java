@@ -0,0 +1,53 @@
+package org.jolokia.client.request;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.jolokia.json.CBORWriter;
+import org.jolokia.json.JSONObject;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class J4pRequestHandlerTest {
+
+    @Test
+    public void cborWithContentEncoding() throws Exception {
+        JSONObject json = new JSONObject();
+        json.put("status", 200L);
+        json.put("value", "test");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            CBORWriter.serialize(json, gzip);
+        }
+        ByteArrayEntity entity = new ByteArrayEntity(bytes.toByteArray());
+        entity.setContentType(CBORWriter.MIME_TYPE);
+        entity.setContentEncoding("gzip");
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.setEntity(entity);
+
+        J4pRequestHandler handler = new J4pRequestHandler("http://localhost:8080/jolokia", null, true);
+        assertEquals(handler.extractJsonResponse(response), json);
+    }
+}
@@ -18,7 +18,10 @@ package org.jolokia.client.request;
 
 import java.util.Set;
 
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.jolokia.client.BasicAuthenticator;
+import org.jolokia.client.J4pClient;
 import org.jolokia.server.core.Version;
 import org.jolokia.client.exception.J4pException;
 import org.testng.annotations.Test;
@@ -48,6 +51,21 @@ public class J4pVersionIntegrationTest extends AbstractJ4pIntegrationTest {
         }
     }
 
+    @Test
+    public void versionWithCbor() throws J4pException {
+        J4pClient cborClient = J4pClient.url(j4pUrl)
+                .user("jolokia")
+                .password("jolokia")
+                .authenticator(new BasicAuthenticator().preemptive())
+                .useCbor(true)
+                .build();
+        for (String method : new String[] { HttpGet.METHOD_NAME, HttpPost.METHOD_NAME }) {
+            J4pVersionRequest req = new J4pVersionRequest();
+            req.setPreferredHttpMethod(method);
+            verifyResponse(cborClient.execute(req));
+        }
+    }
+
    private void verifyResponse(J4pVersionResponse pResp) {
        assertEquals("Proper agent version", Version.getAgentVersion(), pResp.getAgentVersion());
        assertEquals("Proper protocol version",Version.getProtocolVersion(), pResp.getProtocolVersion());
@@ -0,0 +1,518 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <p>Writer encoding the same values as {@link JSONWriter} in <a href="https://www.rfc-editor.org/rfc/rfc8949">CBOR</a>
+ * (Concise Binary Object Representation) format. Objects become CBOR maps with text keys, collections and arrays
+ * become CBOR arrays, all with definite length. Objects and arrays produced with {@link JSONSink} events have
+ * indefinite length, because their size is not known upfront.</p>
+ *
+ * <p>Unlike in JSON, numbers are exact without any textual representation involved:</p>
+ * <ul>
+ *     <li>{@link Long}, {@link Integer}, {@link Short} and {@link Byte} are encoded as CBOR integers (1-9 bytes)</li>
+ *     <li>{@link BigInteger} is encoded as CBOR integer if it fits into 64 bits or as bignum (tags 2 and 3)</li>
+ *     <li>{@link BigDecimal} is encoded as decimal fraction (tag 4)</li>
+ *     <li>{@link Double} is encoded as single precision float if there's no loss of precision, otherwise as
+ *     double precision float. Non-finite values are written as {@code null}, like in JSON</li>
+ * </ul>
+ *
+ * <p>Like {@link Utf8JSONWriter}, the output is collected in a byte buffer taken from a per-thread pool, so a
+ * writer should be closed (or {@link #finish() finished}) after use and must not be shared between threads.</p>
+ */
+public final class CBORWriter implements JSONSink, Flushable, Closeable {
+
+    /** Media type of CBOR data */
+    public static final String MIME_TYPE = "application/cbor";
+
+    static final int BUFFER_SIZE = 8192;
+
+    // CBOR major types (already shifted to the upper 3 bits of initial byte)
+    static final int MAJOR_UNSIGNED = 0x00;
+    static final int MAJOR_NEGATIVE = 0x20;
+    static final int MAJOR_BYTES = 0x40;
+    static final int MAJOR_TEXT = 0x60;
+    static final int MAJOR_ARRAY = 0x80;
+    static final int MAJOR_MAP = 0xa0;
+    static final int MAJOR_TAG = 0xc0;
+    static final int MAJOR_SIMPLE = 0xe0;
+
+    static final int TAG_POSITIVE_BIGNUM = 2;
+    static final int TAG_NEGATIVE_BIGNUM = 3;
+    static final int TAG_DECIMAL_FRACTION = 4;
+
+    static final int FALSE = 0xf4;
+    static final int TRUE = 0xf5;
+    static final int NULL = 0xf6;
+    static final int FLOAT32 = 0xfa;
+    static final int FLOAT64 = 0xfb;
+    static final int BREAK = 0xff;
+
+    private static final BigInteger MAX_UINT64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    private static final ThreadLocal<byte[]> BUFFER_POOL = new ThreadLocal<>();
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int pos;
+
+    /**
+     * Create a writer which encodes data into given {@link OutputStream}.
+     * @param out
+     */
+    public CBORWriter(OutputStream out) {
+        this.out = out;
+        byte[] pooled = BUFFER_POOL.get();
+        if (pooled != null) {
+            BUFFER_POOL.remove();
+            buffer = pooled;
+        } else {
+            buffer = new byte[BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Serialize generic value as CBOR into {@link OutputStream}. The stream is neither flushed nor closed.
+     * @param value
+     * @param out
+     * @throws IOException
+     */
+    public static void serialize(Object value, OutputStream out) throws IOException {
+        CBORWriter writer = new CBORWriter(out);
+        try {
+            writer.write(value);
+        } finally {
+            writer.finish();
+        }
+    }
+
+    /**
+     * Serialize generic value - the same kinds of values are supported as in {@link JSONWriter}. Values of
+     * other types are written as text using {@link Object#toString()}.
+     * @param value
+     * @throws IOException
+     */
+    public void write(Object value) throws IOException {
+        if (value == null) {
+            writeByte(NULL);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writeByte((boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            writeDouble((double) value);
+        } else if (value instanceof Float) {
+            writeFloat((float) value);
+        } else if (value instanceof BigInteger) {
+            writeBigInteger((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            writeBigDecimal((BigDecimal) value);
+        } else if (value instanceof Number) {
+            // other number implementations (like AtomicLong) - CBOR has no generic number type
+            writeString(value.toString());
+        } else if (value instanceof Character) {
+            writeString(value.toString());
+        } else if (value instanceof Collection) {
+            //noinspection unchecked
+            writeCollection((Collection<Object>) value);
+        } else if (value instanceof Map) {
+            //noinspection unchecked
+            writeMap((Map<Object, Object>) value);
+        } else if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof JSONStreamable) {
+            ((JSONStreamable) value).writeTo(this);
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        // indefinite length map
+        writeByte(MAJOR_MAP | 31);
+    }
+
+    @Override
+    public void key(String key) throws IOException {
+        writeString(key);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        writeByte(BREAK);
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        // indefinite length array
+        writeByte(MAJOR_ARRAY | 31);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        writeByte(BREAK);
+    }
+
+    @Override
+    public void value(Object value) throws IOException {
+        write(value);
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        writeLong(value);
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        writeDouble(value);
+    }
+
+    /**
+     * Serialize a map (including {@link JSONObject}), using {@link Object#toString()} for non-string keys
+     * @param map
+     * @throws IOException
+     */
+    public void writeMap(Map<?, ?> map) throws IOException {
+        writeHeader(MAJOR_MAP, map.size());
+        for (Map.Entry<?, ?> el : map.entrySet()) {
+            Object key = el.getKey();
+            writeString(key instanceof String ? (String) key : key == null ? "" : key.toString());
+            write(el.getValue());
+        }
+    }
+
+    /**
+     * Serialize a collection (including {@link JSONArray})
+     * @param collection
+     * @throws IOException
+     */
+    public void writeCollection(Collection<?> collection) throws IOException {
+        writeHeader(MAJOR_ARRAY, collection.size());
+        for (Object el : collection) {
+            write(el);
+        }
+    }
+
+    /**
+     * Serialize a Java array. Arrays of {@code long} and {@code int} are written without boxing of the elements.
+     * @param array
+     * @throws IOException
+     */
+    public void writeArray(Object array) throws IOException {
+        int size = Array.getLength(array);
+        writeHeader(MAJOR_ARRAY, size);
+        if (array instanceof long[]) {
+            for (long v : (long[]) array) {
+                writeLong(v);
+            }
+        } else if (array instanceof int[]) {
+            for (int v : (int[]) array) {
+                writeLong(v);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                write(Array.get(array, i));
+            }
+        }
+    }
+
+    /**
+     * Write a text string. Unpaired surrogates are replaced with {@code '?'} (as in {@link Utf8JSONWriter}).
+     * @param value
+     * @throws IOException
+     */
+    public void writeString(String value) throws IOException {
+        int len = value.length();
+        // CBOR requires the length in bytes upfront
+        int utf8Length = 0;
+        boolean ascii = true;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length++;
+            } else {
+                ascii = false;
+                if (c < 0x800) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    utf8Length++;
+                } else {
+                    utf8Length += 3;
+                }
+            }
+        }
+        writeHeader(MAJOR_TEXT, utf8Length);
+        if (ascii) {
+            int i = 0;
+            while (i < len) {
+                if (pos == buffer.length) {
+                    flushBuffer();
+                }
+                int limit = Math.min(len, i + buffer.length - pos);
+                while (i < limit) {
+                    buffer[pos++] = (byte) value.charAt(i++);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            ensureCapacity(4);
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xc0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer[pos++] = (byte) (0xf0 | (cp >> 18));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xe0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    /**
+     * Write a {@code long} value as CBOR integer
+     * @param value
+     * @throws IOException
+     */
+    public void writeLong(long value) throws IOException {
+        if (value >= 0) {
+            writeHeader(MAJOR_UNSIGNED, value);
+        } else {
+            // -1 - n, which for negative long is the same as bitwise not (and can't overflow)
+            writeHeader(MAJOR_NEGATIVE, ~value);
+        }
+    }
+
+    /**
+     * Write a {@code double} value - as single precision float if it can be represented exactly.
+     * @param value
+     * @throws IOException
+     */
+    public void writeDouble(double value) throws IOException {
+        if (!Double.isFinite(value)) {
+            // same as JSONWriter, so that the response doesn't depend on the encoding
+            writeByte(NULL);
+            return;
+        }
+        float f = (float) value;
+        if (f == value) {
+            writeFloat(f);
+        } else {
+            ensureCapacity(9);
+            buffer[pos++] = (byte) FLOAT64;
+            writeRawLong(Double.doubleToLongBits(value));
+        }
+    }
+
+    /**
+     * Write a {@code float} value as single precision float
+     * @param value
+     * @throws IOException
+     */
+    public void writeFloat(float value) throws IOException {
+        if (!Float.isFinite(value)) {
+            writeByte(NULL);
+            return;
+        }
+        ensureCapacity(5);
+        buffer[pos++] = (byte) FLOAT32;
+        writeRawInt(Float.floatToIntBits(value));
+    }
+
+    /**
+     * Write a {@link BigInteger} value. Values within 64 bit range (both positive and negative - CBOR stores
+     * the sign separately) are written as integers, bigger values as bignums.
+     * @param value
+     * @throws IOException
+     */
+    public void writeBigInteger(BigInteger value) throws IOException {
+        if (value.bitLength() < 64) {
+            writeLong(value.longValue());
+            return;
+        }
+        boolean negative = value.signum() < 0;
+        BigInteger magnitude = negative ? value.not() : value;
+        if (magnitude.compareTo(MAX_UINT64) <= 0) {
+            writeHeader(negative ? MAJOR_NEGATIVE : MAJOR_UNSIGNED, magnitude.longValue());
+            return;
+        }
+        writeHeader(MAJOR_TAG, negative ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        byte[] bytes = magnitude.toByteArray();
+        // skip sign byte
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeHeader(MAJOR_BYTES, bytes.length - offset);
+        writeBytes(bytes, offset, bytes.length - offset);
+    }
+
+    /**
+     * Write a {@link BigDecimal} as decimal fraction - array of exponent (negated scale) and mantissa
+     * (unscaled value).
+     * @param value
+     * @throws IOException
+     */
+    public void writeBigDecimal(BigDecimal value) throws IOException {
+        writeHeader(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+        writeHeader(MAJOR_ARRAY, 2);
+        writeLong(-(long) value.scale());
+        writeBigInteger(value.unscaledValue());
+    }
+
+    /**
+     * Write pending bytes to the {@link OutputStream} and flush it.
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Write pending bytes, return the buffer to the pool and close the target {@link OutputStream}. The
+     * stream is closed even if writing the remaining bytes fails.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+            out.flush();
+        } finally {
+            release();
+            out.close();
+        }
+    }
+
+    /**
+     * Write pending bytes and return the buffer to the pool without closing the target {@link OutputStream}.
+     * The writer can't be used after this call.
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (buffer.length == BUFFER_SIZE) {
+            BUFFER_POOL.set(buffer);
+        }
+        buffer = null;
+    }
+
+    // initial byte with major type and argument in the shortest possible form. The argument is
+    // treated as unsigned 64-bit value
+    private void writeHeader(int major, long argument) throws IOException {
+        ensureCapacity(9);
+        if (argument >= 0 && argument < 24) {
+            buffer[pos++] = (byte) (major | argument);
+        } else if (argument >= 0 && argument <= 0xffL) {
+            buffer[pos++] = (byte) (major | 24);
+            buffer[pos++] = (byte) argument;
+        } else if (argument >= 0 && argument <= 0xffffL) {
+            buffer[pos++] = (byte) (major | 25);
+            buffer[pos++] = (byte) (argument >> 8);
+            buffer[pos++] = (byte) argument;
+        } else if (argument >= 0 && argument <= 0xffffffffL) {
+            buffer[pos++] = (byte) (major | 26);
+            writeRawInt((int) argument);
+        } else {
+            buffer[pos++] = (byte) (major | 27);
+            writeRawLong(argument);
+        }
+    }
+
+    private void writeRawInt(int v) {
+        buffer[pos++] = (byte) (v >> 24);
+        buffer[pos++] = (byte) (v >> 16);
+        buffer[pos++] = (byte) (v >> 8);
+        buffer[pos++] = (byte) v;
+    }
+
+    private void writeRawLong(long v) {
+        writeRawInt((int) (v >> 32));
+        writeRawInt((int) v);
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (pos == buffer.length) {
+            flushBuffer();
+        }
+        buffer[pos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - pos) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, pos, length);
+        pos += length;
+    }
+
+    private void ensureCapacity(int required) throws IOException {
+        if (buffer.length - pos < required) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+
+}
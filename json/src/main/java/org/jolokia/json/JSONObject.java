@@ -16,14 +16,144 @@
 package org.jolokia.json;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.*;
 
 /**
- * <a href="https://datatracker.ietf.org/doc/html/rfc8259#section-4">JSON Object</a>.
+ * <p><a href="https://datatracker.ietf.org/doc/html/rfc8259#section-4">JSON Object</a>.</p>
+ *
+ * <p>Most of JSON objects in Jolokia (responses, requests, attribute maps) have only a few keys, so instead
+ * of a hash table, the entries are kept in a flat array of alternating keys and values, searched linearly.
+ * Only after exceeding {@link #COMPACT_LIMIT} entries, the object switches to {@link LinkedHashMap}.
+ * In both cases the iteration order is the insertion order, which gives stable serialized output.</p>
  */
-public class JSONObject extends HashMap<String, Object> implements JSONStructure {
+public class JSONObject extends AbstractMap<String, Object> implements JSONStructure, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Maximum number of entries kept in the flat array */
+    static final int COMPACT_LIMIT = 8;
+
+    // [key0, value0, key1, value1, ...] - used until the size exceeds COMPACT_LIMIT
+    private Object[] table;
+    // hash-based storage used after exceeding COMPACT_LIMIT
+    private LinkedHashMap<String, Object> map;
+    private int size;
+
+    private transient int modCount;
+    private transient Set<Map.Entry<String, Object>> entrySet;
+
+    public JSONObject() {
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (map != null) {
+            return map.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (map != null) {
+            return map.containsValue(value);
+        }
+        for (int i = 1; i < size << 1; i += 2) {
+            if (Objects.equals(value, table[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        int idx = indexOf(key);
+        return idx >= 0 ? table[idx + 1] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (map != null) {
+            return map.put(key, value);
+        }
+        int idx = indexOf(key);
+        if (idx >= 0) {
+            Object previous = table[idx + 1];
+            table[idx + 1] = value;
+            return previous;
+        }
+        modCount++;
+        if (size == COMPACT_LIMIT) {
+            map = new LinkedHashMap<>(COMPACT_LIMIT * 4);
+            for (int i = 0; i < size << 1; i += 2) {
+                map.put((String) table[i], table[i + 1]);
+            }
+            map.put(key, value);
+            table = null;
+            size = 0;
+            return null;
+        }
+        if (table == null) {
+            table = new Object[COMPACT_LIMIT];
+        } else if (size << 1 == table.length) {
+            table = Arrays.copyOf(table, COMPACT_LIMIT << 1);
+        }
+        table[size << 1] = key;
+        table[(size << 1) + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (map != null) {
+            return map.remove(key);
+        }
+        int idx = indexOf(key);
+        if (idx < 0) {
+            return null;
+        }
+        Object previous = table[idx + 1];
+        removeAt(idx);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        map = null;
+        table = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (map != null) {
+            return map.entrySet();
+        }
+        Set<Map.Entry<String, Object>> es = entrySet;
+        if (es == null) {
+            es = entrySet = new CompactEntrySet();
+        }
+        return es;
+    }
 
     @Override
     public String toJSONString() {
@@ -46,4 +176,153 @@ public class JSONObject extends HashMap<String, Object> implements JSONStructure
         return toJSONString();
     }
 
+    private int indexOf(Object key) {
+        Object[] t = table;
+        int len = size << 1;
+        if (key == null) {
+            for (int i = 0; i < len; i += 2) {
+                if (t[i] == null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < len; i += 2) {
+            Object k = t[i];
+            if (k == key || key.equals(k)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int idx) {
+        modCount++;
+        int len = size << 1;
+        System.arraycopy(table, idx + 2, table, idx, len - idx - 2);
+        table[len - 2] = null;
+        table[len - 1] = null;
+        size--;
+    }
+
+    // entry set view of the flat array. After switching to LinkedHashMap, entrySet() returns map's view
+    private final class CompactEntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            if (map != null) {
+                return map.entrySet().iterator();
+            }
+            return new CompactIterator();
+        }
+
+        @Override
+        public int size() {
+            return JSONObject.this.size();
+        }
+
+        @Override
+        public void clear() {
+            JSONObject.this.clear();
+        }
+    }
+
+    private final class CompactIterator implements Iterator<Map.Entry<String, Object>> {
+
+        // index of the next key in the table
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size << 1;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new CompactEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount || map != null) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private final class CompactEntry implements Map.Entry<String, Object> {
+
+        private final String key;
+        private final int idx;
+        private final int expectedModCount = modCount;
+
+        private CompactEntry(int idx) {
+            this.idx = idx;
+            this.key = (String) table[idx];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return valid() ? table[idx + 1] : get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            if (valid()) {
+                Object previous = table[idx + 1];
+                table[idx + 1] = value;
+                return previous;
+            }
+            return put(key, value);
+        }
+
+        // the entry still points to the right place in the table (no structural modification since creation)
+        private boolean valid() {
+            return map == null && modCount == expectedModCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.io.IOException;
+
+/**
+ * <p>Receiver of JSON events - an alternative to building {@link JSONObject}/{@link JSONArray} trees, when
+ * the JSON data should be written out while it is produced.</p>
+ *
+ * <p>Objects are written as {@link #beginObject()}, a sequence of {@link #key(String)} calls each followed by a
+ * single value and {@link #endObject()}. Arrays are written as {@link #beginArray()}, a sequence of values and
+ * {@link #endArray()}. A value is either a nested object/array or a single {@link #value(Object)} call
+ * (or one of its primitive variants),
+ * which accepts everything that {@link JSONWriter} can serialize (including complete {@link JSONStructure JSON
+ * structures} and {@link JSONStreamable streamable values}).</p>
+ */
+public interface JSONSink {
+
+    /**
+     * Start a JSON object
+     * @throws IOException
+     */
+    void beginObject() throws IOException;
+
+    /**
+     * Write the key of the next object member. Must be followed by exactly one value.
+     * @param key
+     * @throws IOException
+     */
+    void key(String key) throws IOException;
+
+    /**
+     * End current JSON object
+     * @throws IOException
+     */
+    void endObject() throws IOException;
+
+    /**
+     * Start a JSON array
+     * @throws IOException
+     */
+    void beginArray() throws IOException;
+
+    /**
+     * End current JSON array
+     * @throws IOException
+     */
+    void endArray() throws IOException;
+
+    /**
+     * Write complete value - simple one or a nested structure serialized as a whole.
+     * @param value
+     * @throws IOException
+     */
+    void value(Object value) throws IOException;
+
+    /**
+     * Write an integral number. Sinks writing directly to an output override this method to avoid boxing.
+     * @param value
+     * @throws IOException
+     */
+    default void value(long value) throws IOException {
+        value((Object) value);
+    }
+
+    /**
+     * Write a floating point number (non-finite values are written as {@code null} like with {@link #value(Object)}).
+     * Sinks writing directly to an output override this method to avoid boxing.
+     * @param value
+     * @throws IOException
+     */
+    default void value(double value) throws IOException {
+        value((Object) value);
+    }
+
+}
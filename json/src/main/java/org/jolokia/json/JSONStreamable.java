@@ -0,0 +1,38 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.io.IOException;
+
+/**
+ * <p>Value which is not kept in memory as JSON data, but which produces its JSON representation only when
+ * being written. It can be put into {@link JSONObject} or {@link JSONArray} like any other value and all the
+ * writers ({@link JSONWriter}, {@link Utf8JSONWriter} and {@link CBORWriter}) let it emit its content
+ * directly into the output.</p>
+ *
+ * <p>The value may be written more than once (for example for debug logging), so an implementation should
+ * produce the same events each time.</p>
+ */
+public interface JSONStreamable {
+
+    /**
+     * Write exactly one JSON value (simple value, object or array) into given sink.
+     * @param sink
+     * @throws IOException
+     */
+    void writeTo(JSONSink sink) throws IOException;
+
+}
@@ -16,16 +16,37 @@
 package org.jolokia.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
 /**
- * Jolokia JSON serialization support
+ * Jolokia JSON serialization support. Character-based serialization into {@link Writer} is available
+ * together with byte-based UTF-8 serialization into {@link OutputStream} (see {@link Utf8JSONWriter}).
  */
 public class JSONWriter {
 
+    private static final char[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    /**
+     * Serialize generic object as UTF-8 encoded JSON into {@link OutputStream}. The stream is neither
+     * flushed nor closed.
+     * @param value
+     * @param out
+     * @throws IOException
+     */
+    public static void serialize(Object value, OutputStream out) throws IOException {
+        Utf8JSONWriter writer = new Utf8JSONWriter(out);
+        try {
+            writer.write(value);
+        } finally {
+            writer.finish();
+        }
+    }
+
     /**
      * Serialize a string-keyed map (including {@link JSONObject}) into a {@link Writer}
      * @param map
@@ -36,7 +57,7 @@ public class JSONWriter {
         writer.write('{');
         int pos = map.size() - 1;
         for (Map.Entry<String, Object> el : map.entrySet()) {
-            escape(writer, el.getKey().toCharArray());
+            escape(writer, el.getKey());
             writer.write(':');
             serialize(el.getValue(), writer);
             if (pos-- > 0) {
@@ -111,9 +132,9 @@ public class JSONWriter {
             // includes BigDecimals and BigIntegers
             writer.write(value.toString());
         } else if (value instanceof Character) {
-            escape(writer, new char[] { (char) value });
+            escape(writer, String.valueOf((char) value));
         } else if (value instanceof String) {
-            escape(writer, ((String) value).toCharArray());
+            escape(writer, (String) value);
         } else if (value instanceof Collection) {
             //noinspection unchecked
             serialize((Collection<Object>) value, writer);
@@ -133,18 +154,21 @@ public class JSONWriter {
                 }
             }
             writer.write(']');
+        } else if (value instanceof JSONStreamable) {
+            ((JSONStreamable) value).writeTo(new WriterSink(writer));
         }
     }
 
     /**
-     * When writing string values we have to escape characters. This method writes escaped char array into
-     * the target {@link Writer} but optimizing the process by not writing it one char at a time. Also
-     * the char array is surrounded by quotes.
-     * @param characters
+     * When writing string values we have to escape characters. This method writes escaped string into
+     * the target {@link Writer} but optimizing the process by not writing it one char at a time - runs of
+     * characters which don't need escaping are written directly from the string. Also
+     * the value is surrounded by quotes.
      * @param writer
+     * @param value
      * @throws IOException
      */
-    private static void escape(Writer writer, char[] characters) throws IOException {
+    private static void escape(Writer writer, String value) throws IOException {
         // https://datatracker.ietf.org/doc/html/rfc8259#section-7
         //     All Unicode characters may be placed within the
         //     quotation marks, except for the characters that MUST be escaped:
@@ -165,49 +189,136 @@ public class JSONWriter {
         // single "char" which java.lang.Character.isSurrogate() is passed directly, to be decoded by parser
         // when needed
 
-        StringBuilder buffer = new StringBuilder();
-
-        buffer.append('"');
-        for (char c : characters) {
+        writer.write('"');
+        int len = value.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c > '\\' || (c >= 0x20 && c != '"' && c != '\\')) {
+                // there's no escape
+                continue;
+            }
+            if (i > start) {
+                writer.write(value, start, i - start);
+            }
+            start = i + 1;
             switch (c) {
                 case '"': // %x22
-                    buffer.append("\\\"");
+                    writer.write("\\\"");
                     break;
                 case '\\': // %x5C
-                    buffer.append("\\\\");
+                    writer.write("\\\\");
                     break;
                 // RFC 8259 says that "/" may be escaped and we unescape it when parsing `\/`. But we don't escape
                 // it during serialization
                 case '\b':
-                    buffer.append("\\b");
+                    writer.write("\\b");
                     break;
                 case '\f':
-                    buffer.append("\\f");
+                    writer.write("\\f");
                     break;
                 case '\n':
-                    buffer.append("\\n");
+                    writer.write("\\n");
                     break;
                 case '\r':
-                    buffer.append("\\r");
+                    writer.write("\\r");
                     break;
                 case '\t':
-                    buffer.append("\\t");
+                    writer.write("\\t");
                     break;
                 default:
-                    if (c <= 0x1F) {
-                        buffer.append("\\u00");
-                        buffer.append((char)(((c & 0xf0) >> 4) + '0'));
-                        buffer.append((char)((c & 0x0f) + '0'));
-                    } else {
-                        // there's no escape
-                        buffer.append(c);
-                    }
+                    writer.write("\\u00");
+                    writer.write(HEX[(c >> 4) & 0x0f]);
+                    writer.write(HEX[c & 0x0f]);
                     break;
             }
         }
-        buffer.append('"');
+        if (start < len) {
+            writer.write(value, start, len - start);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * {@link JSONSink} writing into a {@link Writer} - used for {@link JSONStreamable} values.
+     */
+    private static final class WriterSink implements JSONSink {
+
+        private final Writer writer;
+
+        // whether an object/array at given nesting level already has members
+        private boolean[] hasMembers = new boolean[16];
+        private int depth;
+        private boolean valueExpected;
+
+        private WriterSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void beginObject() throws IOException {
+            beforeValue();
+            writer.write('{');
+            enter();
+        }
+
+        @Override
+        public void key(String key) throws IOException {
+            if (hasMembers[depth]) {
+                writer.write(',');
+            }
+            hasMembers[depth] = true;
+            escape(writer, key);
+            writer.write(':');
+            valueExpected = true;
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            depth--;
+            writer.write('}');
+        }
+
+        @Override
+        public void beginArray() throws IOException {
+            beforeValue();
+            writer.write('[');
+            enter();
+        }
 
-        writer.write(buffer.toString());
+        @Override
+        public void endArray() throws IOException {
+            depth--;
+            writer.write(']');
+        }
+
+        @Override
+        public void value(Object value) throws IOException {
+            if (value instanceof JSONStreamable) {
+                ((JSONStreamable) value).writeTo(this);
+                return;
+            }
+            beforeValue();
+            serialize(value, writer);
+        }
+
+        private void beforeValue() throws IOException {
+            if (valueExpected) {
+                valueExpected = false;
+            } else if (depth > 0) {
+                if (hasMembers[depth]) {
+                    writer.write(',');
+                }
+                hasMembers[depth] = true;
+            }
+        }
+
+        private void enter() {
+            if (++depth == hasMembers.length) {
+                hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+            }
+            hasMembers[depth] = false;
+        }
     }
 
 }
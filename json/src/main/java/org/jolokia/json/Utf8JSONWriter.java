@@ -0,0 +1,558 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <p>Byte-oriented variant of {@link JSONWriter}. JSON is encoded as UTF-8 directly into a byte buffer which is
+ * flushed to an {@link OutputStream} when full. There's no {@link java.io.Writer} and no
+ * {@link java.nio.charset.CharsetEncoder} involved, strings are not copied into intermediate char arrays
+ * and numbers of integral types are written digit by digit without creating temporary strings.</p>
+ *
+ * <p>The byte buffer is taken from a per-thread pool when the writer is created and given back on
+ * {@link #close()}, so a writer instance should be closed after use and must not be shared between threads.</p>
+ *
+ * <p>Besides writing complete values, the writer is a {@link JSONSink}, so JSON can be produced event by event
+ * without building {@link JSONObject}/{@link JSONArray} trees first.</p>
+ */
+public final class Utf8JSONWriter implements JSONSink, Flushable, Closeable {
+
+    static final int BUFFER_SIZE = 8192;
+
+    // one spare buffer per thread - the writer is short-lived and used within single request processing
+    private static final ThreadLocal<byte[]> BUFFER_POOL = new ThreadLocal<>();
+
+    private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+    // Escape table for ASCII characters. 0 means "no escaping", 'u' means "\\u00XX" escaping and other
+    // values are the characters to put after reverse solidus (see https://datatracker.ietf.org/doc/html/rfc8259#section-7)
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int pos;
+
+    // state of JSONSink events - whether an object/array at given nesting level already has members
+    // (so the next one needs a separator) and whether a value follows without separator (after a key)
+    private boolean[] hasMembers = new boolean[16];
+    private int depth;
+    private boolean valueExpected;
+
+    /**
+     * Create a writer which encodes JSON data into given {@link OutputStream}.
+     * @param out
+     */
+    public Utf8JSONWriter(OutputStream out) {
+        this.out = out;
+        byte[] pooled = BUFFER_POOL.get();
+        if (pooled != null) {
+            BUFFER_POOL.remove();
+            buffer = pooled;
+        } else {
+            buffer = new byte[BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Serialize generic value as JSON - with the same rules as {@link JSONWriter#serialize(Object, java.io.Writer)}.
+     * @param value
+     * @throws IOException
+     */
+    public void write(Object value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writeBytes((boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Float) {
+            if (Float.isFinite((float) value)) {
+                writeAscii(value.toString());
+            } else {
+                writeBytes(NULL);
+            }
+        } else if (value instanceof Double) {
+            if (Double.isFinite((double) value)) {
+                writeAscii(value.toString());
+            } else {
+                writeBytes(NULL);
+            }
+        } else if (value instanceof Number) {
+            // includes BigDecimals and BigIntegers
+            writeAscii(value.toString());
+        } else if (value instanceof Character) {
+            writeChar((char) value);
+        } else if (value instanceof Collection) {
+            //noinspection unchecked
+            writeCollection((Collection<Object>) value);
+        } else if (value instanceof JSONObject) {
+            writeMap((JSONObject) value);
+        } else if (value instanceof Map) {
+            // not sure about the key types, so be extra careful
+            //noinspection unchecked
+            writeAnyMap((Map<Object, Object>) value);
+        } else if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof JSONStreamable) {
+            // the position of the value is already known, so the first event doesn't need any separator
+            valueExpected = true;
+            ((JSONStreamable) value).writeTo(this);
+        }
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        beforeValue();
+        writeByte('{');
+        enter();
+    }
+
+    @Override
+    public void key(String key) throws IOException {
+        if (hasMembers[depth]) {
+            writeByte(',');
+        }
+        hasMembers[depth] = true;
+        writeString(key);
+        writeByte(':');
+        valueExpected = true;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        depth--;
+        writeByte('}');
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        beforeValue();
+        writeByte('[');
+        enter();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        depth--;
+        writeByte(']');
+    }
+
+    @Override
+    public void value(Object value) throws IOException {
+        if (value instanceof JSONStreamable) {
+            // separator is handled by the first event of the streamable value
+            ((JSONStreamable) value).writeTo(this);
+            return;
+        }
+        beforeValue();
+        write(value);
+    }
+
+    @Override
+    public void value(long value) throws IOException {
+        beforeValue();
+        writeLong(value);
+    }
+
+    @Override
+    public void value(double value) throws IOException {
+        beforeValue();
+        if (Double.isFinite(value)) {
+            writeAscii(Double.toString(value));
+        } else {
+            writeBytes(NULL);
+        }
+    }
+
+    /**
+     * Serialize a string-keyed map (including {@link JSONObject})
+     * @param map
+     * @throws IOException
+     */
+    public void writeMap(Map<String, Object> map) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> el : map.entrySet()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeString(el.getKey());
+            writeByte(':');
+            write(el.getValue());
+        }
+        writeByte('}');
+    }
+
+    /**
+     * Serialize any map, using {@link Object#toString()} for the keys
+     * @param map
+     * @throws IOException
+     */
+    public void writeAnyMap(Map<Object, Object> map) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<Object, Object> el : map.entrySet()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeString(el.getKey() == null ? "" : el.getKey().toString());
+            writeByte(':');
+            write(el.getValue());
+        }
+        writeByte('}');
+    }
+
+    /**
+     * Serialize a collection (including {@link JSONArray})
+     * @param collection
+     * @throws IOException
+     */
+    public void writeCollection(Collection<Object> collection) throws IOException {
+        writeByte('[');
+        boolean first = true;
+        for (Object el : collection) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            write(el);
+        }
+        writeByte(']');
+    }
+
+    /**
+     * Serialize a Java array. Arrays of {@code long} and {@code int} are written without boxing of the elements.
+     * @param array
+     * @throws IOException
+     */
+    public void writeArray(Object array) throws IOException {
+        writeByte('[');
+        if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeLong(values[i]);
+            }
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeLong(values[i]);
+            }
+        } else {
+            int size = Array.getLength(array);
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                write(Array.get(array, i));
+            }
+        }
+        writeByte(']');
+    }
+
+    /**
+     * Write quoted and escaped string value
+     * @param value
+     * @throws IOException
+     */
+    public void writeString(String value) throws IOException {
+        writeByte('"');
+        int len = value.length();
+        int i = 0;
+        while (i < len) {
+            // fast path for ASCII characters which don't need escaping
+            int limit = Math.min(len, i + buffer.length - pos);
+            while (i < limit) {
+                char c = value.charAt(i);
+                if (c >= 0x80 || ESCAPES[c] != 0) {
+                    break;
+                }
+                buffer[pos++] = (byte) c;
+                i++;
+            }
+            if (i == len) {
+                break;
+            }
+            if (pos == buffer.length) {
+                flushBuffer();
+                continue;
+            }
+            char c = value.charAt(i++);
+            if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(value.charAt(i))) {
+                writeCodePoint(Character.toCodePoint(c, value.charAt(i++)));
+            } else {
+                writeEscaped(c);
+            }
+        }
+        writeByte('"');
+    }
+
+    /**
+     * Write single {@code char} as JSON string
+     * @param c
+     * @throws IOException
+     */
+    public void writeChar(char c) throws IOException {
+        writeByte('"');
+        writeEscaped(c);
+        writeByte('"');
+    }
+
+    /**
+     * Write a {@code long} value without creating intermediate {@link String}
+     * @param value
+     * @throws IOException
+     */
+    public void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            // can't be negated
+            writeBytes(MIN_LONG);
+            return;
+        }
+        // 19 digits + sign
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int p = pos + digits;
+        pos = p;
+        do {
+            buffer[--p] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+    }
+
+    /**
+     * Write a string without any escaping or quoting, but with proper UTF-8 encoding. Useful for JSONP callbacks
+     * surrounding the JSON data.
+     * @param raw
+     * @throws IOException
+     */
+    public void writeRaw(String raw) throws IOException {
+        int len = raw.length();
+        for (int i = 0; i < len; i++) {
+            char c = raw.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(raw.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, raw.charAt(++i)));
+            } else {
+                writeCodePoint(c);
+            }
+        }
+    }
+
+    /**
+     * Write pending bytes to the {@link OutputStream} and flush it.
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Write pending bytes, return the buffer to the pool and close the target {@link OutputStream}. The
+     * stream is closed even if writing the remaining bytes fails.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+            out.flush();
+        } finally {
+            release();
+            out.close();
+        }
+    }
+
+    /**
+     * Write pending bytes and return the buffer to the pool without closing the target {@link OutputStream}.
+     * The writer can't be used after this call.
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            release();
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        if (valueExpected) {
+            valueExpected = false;
+        } else if (depth > 0) {
+            if (hasMembers[depth]) {
+                writeByte(',');
+            }
+            hasMembers[depth] = true;
+        }
+    }
+
+    private void enter() {
+        if (++depth == hasMembers.length) {
+            hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+        }
+        hasMembers[depth] = false;
+    }
+
+    private void release() {
+        if (buffer.length == BUFFER_SIZE) {
+            BUFFER_POOL.set(buffer);
+        }
+        buffer = null;
+    }
+
+    private void writeEscaped(char c) throws IOException {
+        // worst case - 6 bytes for "\\u00XX"
+        ensureCapacity(6);
+        if (c < 0x80) {
+            byte escape = ESCAPES[c];
+            if (escape == 0) {
+                buffer[pos++] = (byte) c;
+            } else if (escape == 'u') {
+                buffer[pos++] = '\\';
+                buffer[pos++] = 'u';
+                buffer[pos++] = '0';
+                buffer[pos++] = '0';
+                buffer[pos++] = HEX[(c >> 4) & 0x0f];
+                buffer[pos++] = HEX[c & 0x0f];
+            } else {
+                buffer[pos++] = '\\';
+                buffer[pos++] = escape;
+            }
+        } else if (Character.isSurrogate(c)) {
+            // unpaired surrogate can't be encoded in UTF-8 - same replacement as in CharsetEncoder
+            buffer[pos++] = '?';
+        } else {
+            writeCodePoint(c);
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        ensureCapacity(4);
+        if (cp < 0x80) {
+            buffer[pos++] = (byte) cp;
+        } else if (cp < 0x800) {
+            buffer[pos++] = (byte) (0xc0 | (cp >> 6));
+            buffer[pos++] = (byte) (0x80 | (cp & 0x3f));
+        } else if (cp < 0x10000) {
+            if (Character.isSurrogate((char) cp)) {
+                buffer[pos++] = '?';
+                return;
+            }
+            buffer[pos++] = (byte) (0xe0 | (cp >> 12));
+            buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+            buffer[pos++] = (byte) (0x80 | (cp & 0x3f));
+        } else {
+            buffer[pos++] = (byte) (0xf0 | (cp >> 18));
+            buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+            buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+            buffer[pos++] = (byte) (0x80 | (cp & 0x3f));
+        }
+    }
+
+    // only for strings known to contain ASCII characters (like numbers)
+    private void writeAscii(String value) throws IOException {
+        int len = value.length();
+        ensureCapacity(len);
+        if (len > buffer.length) {
+            for (int i = 0; i < len; i++) {
+                writeByte(value.charAt(i));
+            }
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            buffer[pos++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (pos == buffer.length) {
+            flushBuffer();
+        }
+        buffer[pos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    private void ensureCapacity(int required) throws IOException {
+        if (buffer.length - pos < required) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json.parser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import org.jolokia.json.CBORWriter;
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONObject;
+
+/**
+ * <p>Parser for <a href="https://www.rfc-editor.org/rfc/rfc8949">CBOR</a> data as produced by {@link CBORWriter}.
+ * The result has the same shape as the one of {@link JSONParser} - {@link JSONObject}, {@link JSONArray},
+ * {@link String}, {@link Boolean}, {@code null} and numbers:</p>
+ * <ul>
+ *     <li>integers are returned as {@link Long} or as {@link BigInteger} if they don't fit</li>
+ *     <li>decimal fractions (tag 4) are returned as {@link BigDecimal}</li>
+ *     <li>floats (of any precision) are returned as {@link Double}</li>
+ * </ul>
+ *
+ * <p>Both definite and indefinite lengths are supported. Other tags are ignored (the tagged value is
+ * returned), byte strings are returned as {@code byte[]} and non-text map keys are converted to strings.</p>
+ */
+public class CBORParser {
+
+    // maximum nesting of arrays and maps
+    private static final int MAX_DEPTH = 1000;
+
+    private static final int BREAK = 0xff;
+
+    // marker for "break" stop code when reading items of indefinite length containers
+    private static final Object BREAK_MARKER = new Object();
+
+    private InputStream in;
+    private long offset;
+    private int depth;
+
+    /**
+     * Parse single CBOR data item from a stream. The stream is not closed.
+     *
+     * @param stream
+     * @return
+     */
+    public Object parse(InputStream stream) throws ParseException, IOException {
+        in = stream instanceof BufferedInputStream || stream instanceof ByteArrayInputStream ? stream : new BufferedInputStream(stream);
+        offset = 0;
+        depth = 0;
+        Object result = readItem();
+        if (result == BREAK_MARKER) {
+            throw error("Unexpected break stop code");
+        }
+        return result;
+    }
+
+    /**
+     * Parse single CBOR data item from byte array.
+     *
+     * @param data
+     * @return
+     */
+    public Object parse(byte[] data) throws ParseException, IOException {
+        return parse(new ByteArrayInputStream(data));
+    }
+
+    private Object readItem() throws ParseException, IOException {
+        int initial = readByte();
+        if (initial == BREAK) {
+            return BREAK_MARKER;
+        }
+        int major = initial & 0xe0;
+        int info = initial & 0x1f;
+        switch (major) {
+            case 0x00:
+                return unsigned(readArgument(info));
+            case 0x20: {
+                long n = readArgument(info);
+                // -1 - n, treating n as unsigned
+                return n >= 0 ? (Object) (-1 - n) : BigInteger.valueOf(n).add(BigInteger.ONE.shiftLeft(64)).not();
+            }
+            case 0x40:
+                return readBytes(info);
+            case 0x60:
+                return new String(readBytes(info), StandardCharsets.UTF_8);
+            case 0x80:
+                return readArray(info);
+            case 0xa0:
+                return readMap(info);
+            case 0xc0:
+                return readTagged(readArgument(info));
+            default:
+                return readSimple(info);
+        }
+    }
+
+    private JSONArray readArray(int info) throws ParseException, IOException {
+        enter();
+        JSONArray array;
+        if (info == 31) {
+            array = new JSONArray();
+            Object item;
+            while ((item = readItem()) != BREAK_MARKER) {
+                array.add(item);
+            }
+        } else {
+            int size = length(readArgument(info));
+            array = new JSONArray(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                array.add(readNonBreak());
+            }
+        }
+        depth--;
+        return array;
+    }
+
+    private JSONObject readMap(int info) throws ParseException, IOException {
+        enter();
+        JSONObject object = new JSONObject();
+        if (info == 31) {
+            Object key;
+            while ((key = readItem()) != BREAK_MARKER) {
+                object.put(keyToString(key), readNonBreak());
+            }
+        } else {
+            int size = length(readArgument(info));
+            for (int i = 0; i < size; i++) {
+                object.put(keyToString(readNonBreak()), readNonBreak());
+            }
+        }
+        depth--;
+        return object;
+    }
+
+    private Object readTagged(long tag) throws ParseException, IOException {
+        Object value = readNonBreak();
+        if (tag == 2 || tag == 3) {
+            if (!(value instanceof byte[])) {
+                throw error("Bignum must be a byte string");
+            }
+            BigInteger magnitude = new BigInteger(1, (byte[]) value);
+            return tag == 2 ? magnitude : magnitude.not();
+        }
+        if (tag == 4) {
+            if (!(value instanceof JSONArray) || ((JSONArray) value).size() != 2
+                || !(((JSONArray) value).get(0) instanceof Long)) {
+                throw error("Decimal fraction must be an array of exponent and mantissa");
+            }
+            JSONArray fraction = (JSONArray) value;
+            long exponent = (Long) fraction.get(0);
+            Object mantissa = fraction.get(1);
+            BigInteger unscaled;
+            if (mantissa instanceof Long) {
+                unscaled = BigInteger.valueOf((Long) mantissa);
+            } else if (mantissa instanceof BigInteger) {
+                unscaled = (BigInteger) mantissa;
+            } else {
+                throw error("Mantissa of decimal fraction must be an integer");
+            }
+            if (exponent > Integer.MAX_VALUE || exponent <= Integer.MIN_VALUE) {
+                throw error("Exponent of decimal fraction out of range");
+            }
+            return new BigDecimal(unscaled, (int) -exponent);
+        }
+        return value;
+    }
+
+    private Object readSimple(int info) throws ParseException, IOException {
+        switch (info) {
+            case 20:
+                return Boolean.FALSE;
+            case 21:
+                return Boolean.TRUE;
+            case 22:
+            case 23:
+                // null and undefined
+                return null;
+            case 25:
+                return (double) halfToFloat((readByte() << 8) | readByte());
+            case 26:
+                return (double) Float.intBitsToFloat((int) readUnsigned(4));
+            case 27:
+                return Double.longBitsToDouble(readUnsigned(8));
+            default:
+                throw error("Unsupported simple value " + info);
+        }
+    }
+
+    private Object readNonBreak() throws ParseException, IOException {
+        Object item = readItem();
+        if (item == BREAK_MARKER) {
+            throw error("Unexpected break stop code");
+        }
+        return item;
+    }
+
+    private byte[] readBytes(int info) throws ParseException, IOException {
+        if (info == 31) {
+            // indefinite length string - concatenation of definite length chunks
+            ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+            while (true) {
+                int initial = readByte();
+                if (initial == BREAK) {
+                    return chunks.toByteArray();
+                }
+                if ((initial & 0xc0) != 0x40 || (initial & 0x1f) == 31) {
+                    throw error("Invalid chunk of indefinite length string");
+                }
+                byte[] chunk = readBytes(initial & 0x1f);
+                chunks.write(chunk, 0, chunk.length);
+            }
+        }
+        int length = length(readArgument(info));
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0) {
+                throw error("Unexpected end of CBOR data");
+            }
+            read += n;
+        }
+        offset += length;
+        return bytes;
+    }
+
+    private long readArgument(int info) throws ParseException, IOException {
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                return readByte();
+            case 25:
+                return readUnsigned(2);
+            case 26:
+                return readUnsigned(4);
+            case 27:
+                return readUnsigned(8);
+            default:
+                throw error("Invalid additional information " + info);
+        }
+    }
+
+    private long readUnsigned(int bytes) throws ParseException, IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private int readByte() throws ParseException, IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw error("Unexpected end of CBOR data");
+        }
+        offset++;
+        return b;
+    }
+
+    private void enter() throws ParseException {
+        if (++depth > MAX_DEPTH) {
+            throw error("CBOR data nested too deeply");
+        }
+    }
+
+    private int length(long length) throws ParseException {
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw error("Length " + Long.toUnsignedString(length) + " too big");
+        }
+        return (int) length;
+    }
+
+    private Object unsigned(long value) {
+        return value >= 0 ? (Object) value : new BigInteger(Long.toUnsignedString(value));
+    }
+
+    private String keyToString(Object key) {
+        return key instanceof String ? (String) key : String.valueOf(key);
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >> 10) & 0x1f;
+        int mantissa = half & 0x3ff;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * 0x1p-24f;
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (mantissa + 1024) * (float) Math.pow(2, exponent - 25);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private ParseException error(String message) {
+        return new ParseException(message + " at offset " + offset);
+    }
+
+}
@@ -16,9 +16,11 @@
 package org.jolokia.json.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
@@ -55,6 +57,28 @@ public class JSONParser {
     // null marker, because ArrayDeque doesn't allow real nulls
     private final Object NULL = new Object();
 
+    // whether decimal values should be returned as Doubles when there's no precision loss
+    private final boolean decimalsAsDouble;
+
+    /**
+     * Create a parser which returns integer values as {@link Long} (or {@link BigInteger} if the value
+     * doesn't fit) and decimal values as {@link java.math.BigDecimal}.
+     */
+    public JSONParser() {
+        this(false);
+    }
+
+    /**
+     * Create a parser with configurable handling of decimal values.
+     *
+     * @param decimalsAsDouble when {@code true}, decimal values with up to 15 significant digits (and
+     *                         reasonable exponent) are returned as {@link Double}. Other decimal values
+     *                         (which would lose precision) are still returned as {@link java.math.BigDecimal}.
+     */
+    public JSONParser(boolean decimalsAsDouble) {
+        this.decimalsAsDouble = decimalsAsDouble;
+    }
+
     /**
      * Main <em>parse</em> method that extract {@link JSONStructure} or primitive value (string, number,
      * boolean or null) from JSON stream.
@@ -64,6 +88,7 @@ public class JSONParser {
      */
     public Object parse(Reader reader) throws ParseException, IOException, IllegalStateException {
         Yylex lexer = new Yylex(reader, 16);
+        lexer.setDecimalsAsDouble(decimalsAsDouble);
 
         states.push(State.INITIAL);
 
@@ -150,11 +175,10 @@ public class JSONParser {
                 primitiveValue = token.getStringValue();
                 break;
             case VALUE_INTEGER:
-                primitiveValue = optimizedIntegerValue(token.getIntegerValue());
-                break;
             case VALUE_DECIMAL:
-                // never optimize to Double or Float
-                primitiveValue = token.getDecimalValue();
+                // the lexer already returns Long for integers (BigInteger only on overflow) and BigDecimal
+                // for decimals (or Double, when configured and there's no precision loss)
+                primitiveValue = token.getNumberValue();
                 break;
             case VALUE_BOOLEAN:
                 primitiveValue = token.getBooleanValue();
@@ -398,27 +422,6 @@ public class JSONParser {
         throw new ParseException("Multiple top-level values").at(lexer.line(), lexer.column());
     }
 
-    /**
-     * If we can fit {@link BigInteger} in smaller object, we'll do it
-     * @param v
-     * @return
-     */
-    private Number optimizedIntegerValue(BigInteger v) {
-//        if (v.bitLength() <= 7) {
-//            return v.byteValue();
-//        }
-//        if (v.bitLength() <= 15) {
-//            return v.shortValue();
-//        }
-//        if (v.bitLength() <= 31) {
-//            return v.intValue();
-//        }
-        if (v.bitLength() <= 63) {
-            return v.longValue();
-        }
-        return v;
-    }
-
     /**
      * Parse JSON data expecting specific object type.
      *
@@ -457,4 +460,37 @@ public class JSONParser {
         return parse(new StringReader(json), clazz);
     }
 
+    /**
+     * Parse UTF-8 encoded JSON data from {@link InputStream}. The bytes are decoded directly by the parser
+     * (without {@link java.io.InputStreamReader}) and malformed UTF-8 sequences are reported as
+     * {@link java.io.CharConversionException}. The stream is not closed.
+     *
+     * @param stream
+     * @return
+     */
+    public Object parse(InputStream stream) throws ParseException, IOException {
+        return parse(new Utf8Reader(stream));
+    }
+
+    /**
+     * Parse UTF-8 encoded JSON data from byte array (without copying it).
+     *
+     * @param data
+     * @return
+     */
+    public Object parse(byte[] data) throws ParseException, IOException {
+        return parse(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Parse UTF-8 encoded JSON data between position and limit of a {@link ByteBuffer}. Position
+     * of the buffer is not changed.
+     *
+     * @param data
+     * @return
+     */
+    public Object parse(ByteBuffer data) throws ParseException, IOException {
+        return parse(new Utf8Reader(data));
+    }
+
 }
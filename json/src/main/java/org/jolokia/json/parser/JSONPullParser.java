@@ -0,0 +1,434 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONObject;
+
+/**
+ * <p>Event based (pull) JSON parser using the same {@link Yylex} lexer as {@link JSONParser}. Instead of building
+ * complete {@link JSONObject}/{@link JSONArray} tree, the caller asks for next {@link Event} and may decide
+ * which parts of the JSON stream should be materialized (see {@link #readValue()}) and which should be
+ * skipped (see {@link #skipValue()}).</p>
+ *
+ * <p>Unlike {@link JSONParser}, this parser checks for missing commas and colons between values and reports
+ * all syntax problems (including premature end of stream) as {@link ParseException}.</p>
+ */
+public class JSONPullParser {
+
+    /**
+     * Events emitted by the parser
+     */
+    public enum Event {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        /** Key of JSON object - available with {@link #getString()} */
+        FIELD_NAME,
+        /** String value - available with {@link #getString()} */
+        VALUE_STRING,
+        /** Numeric value - available with {@link #getNumber()} */
+        VALUE_NUMBER,
+        /** {@code true} or {@code false} - available with {@link #getBoolean()} */
+        VALUE_BOOLEAN,
+        VALUE_NULL
+    }
+
+    // parser states - what is expected at current nesting level
+    private static final int INITIAL = 0;
+    private static final int DONE = 1;
+    private static final int OBJECT_START = 2;
+    private static final int OBJECT_KEY = 3;
+    private static final int OBJECT_VALUE = 4;
+    private static final int OBJECT_NEXT = 5;
+    private static final int ARRAY_START = 6;
+    private static final int ARRAY_VALUE = 7;
+    private static final int ARRAY_NEXT = 8;
+
+    private final Yylex lexer;
+
+    // stack of enclosing structures - true for objects, false for arrays
+    private boolean[] objects = new boolean[32];
+    private int depth;
+
+    private int state = INITIAL;
+
+    private Event event;
+    private Yytoken token;
+
+    /**
+     * Create a parser reading JSON data from a {@link Reader}
+     * @param reader
+     */
+    public JSONPullParser(Reader reader) {
+        this(reader, false);
+    }
+
+    /**
+     * Create a parser reading JSON data from a {@link Reader} with configurable handling of decimal values
+     * (see {@link JSONParser#JSONParser(boolean)}).
+     * @param reader
+     * @param decimalsAsDouble
+     */
+    public JSONPullParser(Reader reader, boolean decimalsAsDouble) {
+        this.lexer = new Yylex(reader, 16);
+        this.lexer.setDecimalsAsDouble(decimalsAsDouble);
+    }
+
+    /**
+     * Create a parser reading JSON data from a {@link String}
+     * @param json
+     */
+    public JSONPullParser(String json) {
+        this(new StringReader(json));
+    }
+
+    /**
+     * Create a parser reading UTF-8 encoded JSON data directly from an {@link InputStream}
+     * @param stream
+     */
+    public JSONPullParser(InputStream stream) {
+        this(stream, false);
+    }
+
+    /**
+     * Create a parser reading UTF-8 encoded JSON data directly from an {@link InputStream}. Malformed
+     * UTF-8 input is reported as {@link java.io.CharConversionException}.
+     * @param stream
+     * @param decimalsAsDouble
+     */
+    public JSONPullParser(InputStream stream, boolean decimalsAsDouble) {
+        this(new Utf8Reader(stream), decimalsAsDouble);
+    }
+
+    /**
+     * Create a parser reading UTF-8 encoded JSON data between position and limit of a {@link ByteBuffer}.
+     * Heap buffers are read without copying.
+     * @param data
+     */
+    public JSONPullParser(ByteBuffer data) {
+        this(new Utf8Reader(data), false);
+    }
+
+    /**
+     * Move to the next event in JSON stream.
+     *
+     * @return next event or {@code null} if there's no more data after complete top-level value.
+     */
+    public Event next() throws ParseException, IOException {
+        while (true) {
+            Yytoken t = lexer.yylex();
+            if (t == null) {
+                if (state == DONE) {
+                    event = null;
+                    token = null;
+                    return null;
+                }
+                if (state == INITIAL) {
+                    throw error("Can't parse any value from JSON stream");
+                }
+                throw error("Unexpected end of JSON stream");
+            }
+            Yytoken.Kind kind = t.getKind();
+            switch (state) {
+                case INITIAL:
+                case OBJECT_VALUE:
+                    return value(t);
+                case DONE:
+                    throw error("Multiple top-level values");
+                case OBJECT_START:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_BRACE) {
+                        return end(Event.END_OBJECT);
+                    }
+                    return key(t);
+                case OBJECT_KEY:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_BRACE) {
+                        throw error("Trailing comma is not allowed within JSON object");
+                    }
+                    return key(t);
+                case OBJECT_NEXT:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_BRACE) {
+                        return end(Event.END_OBJECT);
+                    }
+                    if (kind != Yytoken.Kind.SYMBOL_COMMA) {
+                        throw error("Expected ',' or '}' (got: " + kind + ") when parsing JSON object");
+                    }
+                    state = OBJECT_KEY;
+                    break;
+                case ARRAY_START:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_SQUARE) {
+                        return end(Event.END_ARRAY);
+                    }
+                    if (kind == Yytoken.Kind.SYMBOL_COMMA) {
+                        throw error("Leading comma is not allowed within JSON array");
+                    }
+                    return value(t);
+                case ARRAY_VALUE:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_SQUARE) {
+                        throw error("Trailing comma is not allowed within JSON array");
+                    }
+                    return value(t);
+                case ARRAY_NEXT:
+                    if (kind == Yytoken.Kind.SYMBOL_RIGHT_SQUARE) {
+                        return end(Event.END_ARRAY);
+                    }
+                    if (kind != Yytoken.Kind.SYMBOL_COMMA) {
+                        throw error("Expected ',' or ']' (got: " + kind + ") when parsing JSON array");
+                    }
+                    state = ARRAY_VALUE;
+                    break;
+                default:
+                    throw new IllegalStateException("Bad parser state " + state);
+            }
+        }
+    }
+
+    /**
+     * Current event - the one returned by last call to {@link #next()}
+     * @return
+     */
+    public Event currentEvent() {
+        return event;
+    }
+
+    /**
+     * Key for {@link Event#FIELD_NAME} or string value for {@link Event#VALUE_STRING}
+     * @return
+     */
+    public String getString() {
+        if (event != Event.FIELD_NAME && event != Event.VALUE_STRING) {
+            throw new IllegalStateException("No string value available for event " + event);
+        }
+        return token.getStringValue();
+    }
+
+    /**
+     * Numeric value for {@link Event#VALUE_NUMBER}. Integers which fit into {@code long} are returned as
+     * {@link Long}, other numbers as {@link java.math.BigInteger} or {@link java.math.BigDecimal}
+     * (or {@link Double} if configured) - the same as in {@link JSONParser}.
+     * @return
+     */
+    public Number getNumber() {
+        if (event != Event.VALUE_NUMBER) {
+            throw new IllegalStateException("No numeric value available for event " + event);
+        }
+        return token.getNumberValue();
+    }
+
+    /**
+     * Value for {@link Event#VALUE_BOOLEAN}
+     * @return
+     */
+    public boolean getBoolean() {
+        if (event != Event.VALUE_BOOLEAN) {
+            throw new IllegalStateException("No boolean value available for event " + event);
+        }
+        return token.getBooleanValue();
+    }
+
+    /**
+     * <p>Materialize the value at current event. For primitive values it's just the value. For
+     * {@link Event#START_OBJECT} and {@link Event#START_ARRAY} the entire structure is read into
+     * {@link JSONObject} or {@link JSONArray} and the parser is positioned at matching end event.</p>
+     *
+     * <p>When called for {@link Event#FIELD_NAME}, the value for this key is read.</p>
+     *
+     * @return
+     */
+    public Object readValue() throws ParseException, IOException {
+        if (event == Event.FIELD_NAME) {
+            next();
+        }
+        if (event == null) {
+            throw new IllegalStateException("No current value to read");
+        }
+        switch (event) {
+            case START_OBJECT:
+            case START_ARRAY:
+                return readStructure();
+            case VALUE_STRING:
+                return getString();
+            case VALUE_NUMBER:
+                return getNumber();
+            case VALUE_BOOLEAN:
+                return getBoolean();
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IllegalStateException("Can't read value at event " + event);
+        }
+    }
+
+    /**
+     * Skip the value at current event. For structures, the parser is moved to the matching end event, without
+     * creating any intermediate objects (except tokens). When called for {@link Event#FIELD_NAME}, the value for this key is skipped.
+     */
+    public void skipValue() throws ParseException, IOException {
+        if (event == Event.FIELD_NAME) {
+            next();
+        }
+        if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+            int target = depth - 1;
+            while (depth > target) {
+                if (next() == null) {
+                    throw error("Unexpected end of JSON stream");
+                }
+            }
+        }
+    }
+
+    /**
+     * Line of the last token
+     * @return
+     */
+    public int line() {
+        return lexer.line();
+    }
+
+    /**
+     * Column of the last token
+     * @return
+     */
+    public int column() {
+        return lexer.column();
+    }
+
+    // Read JSON object or array starting at current event. Done without recursion, so deeply nested
+    // data doesn't exhaust the stack
+    private Object readStructure() throws ParseException, IOException {
+        Object[] stack = new Object[8];
+        String[] keys = new String[8];
+        int top = 0;
+        stack[0] = event == Event.START_OBJECT ? new JSONObject() : new JSONArray();
+        String key = null;
+        while (true) {
+            Event e = next();
+            Object value;
+            switch (e) {
+                case FIELD_NAME:
+                    key = getString();
+                    continue;
+                case START_OBJECT:
+                case START_ARRAY:
+                    if (++top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                        keys = Arrays.copyOf(keys, top * 2);
+                    }
+                    keys[top] = key;
+                    stack[top] = e == Event.START_OBJECT ? new JSONObject() : new JSONArray();
+                    continue;
+                case END_OBJECT:
+                case END_ARRAY:
+                    if (top == 0) {
+                        return stack[0];
+                    }
+                    value = stack[top];
+                    stack[top] = null;
+                    key = keys[top--];
+                    break;
+                default:
+                    value = readValue();
+                    break;
+            }
+            Object container = stack[top];
+            if (container instanceof JSONObject) {
+                ((JSONObject) container).put(key, value);
+            } else {
+                ((JSONArray) container).add(value);
+            }
+        }
+    }
+
+    private Event value(Yytoken t) throws ParseException {
+        token = t;
+        switch (t.getKind()) {
+            case SYMBOL_LEFT_BRACE:
+                push(true);
+                state = OBJECT_START;
+                return event = Event.START_OBJECT;
+            case SYMBOL_LEFT_SQUARE:
+                push(false);
+                state = ARRAY_START;
+                return event = Event.START_ARRAY;
+            case VALUE_STRING:
+                valueDone();
+                return event = Event.VALUE_STRING;
+            case VALUE_INTEGER:
+            case VALUE_DECIMAL:
+                valueDone();
+                return event = Event.VALUE_NUMBER;
+            case VALUE_BOOLEAN:
+                valueDone();
+                return event = Event.VALUE_BOOLEAN;
+            case VALUE_NULL:
+                valueDone();
+                return event = Event.VALUE_NULL;
+            default:
+                throw error(state == INITIAL
+                    ? "Unexpected top-level token (kind: " + t.getKind().name() + ")"
+                    : "Unexpected token (kind: " + t.getKind().name() + ")");
+        }
+    }
+
+    private Event key(Yytoken t) throws ParseException, IOException {
+        if (t.getKind() != Yytoken.Kind.VALUE_STRING) {
+            throw error("Only string keys are allowed within JSON object");
+        }
+        Yytoken expectedColon = lexer.yylex();
+        if (expectedColon == null || expectedColon.getKind() != Yytoken.Kind.SYMBOL_COLON) {
+            throw error("Expected ':' after key");
+        }
+        token = t;
+        state = OBJECT_VALUE;
+        return event = Event.FIELD_NAME;
+    }
+
+    private Event end(Event e) {
+        depth--;
+        valueDone();
+        token = null;
+        return event = e;
+    }
+
+    private void push(boolean object) {
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+        }
+        objects[depth++] = object;
+    }
+
+    // after complete value, the state depends on enclosing structure
+    private void valueDone() {
+        if (depth == 0) {
+            state = DONE;
+        } else {
+            state = objects[depth - 1] ? OBJECT_NEXT : ARRAY_NEXT;
+        }
+    }
+
+    private ParseException error(String message) {
+        return new ParseException(message).at(lexer.line(), lexer.column());
+    }
+
+}
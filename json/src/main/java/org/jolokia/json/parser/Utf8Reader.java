@@ -0,0 +1,192 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json.parser;
+
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>{@link Reader} decoding UTF-8 bytes directly from {@code byte[]}, {@link ByteBuffer} or {@link InputStream}
+ * for the {@link Yylex} lexer. It replaces {@link java.io.InputStreamReader} (and its {@link java.nio.charset.CharsetDecoder})
+ * with a loop specialized for UTF-8 with fast path for ASCII. Heap byte arrays are read without copying.</p>
+ *
+ * <p>Unlike {@link java.io.InputStreamReader}, malformed input is not replaced with U+FFFD, but reported
+ * as {@link CharConversionException} - overlong encodings, encoded surrogates, code points above U+10FFFF
+ * and truncated sequences are rejected.</p>
+ */
+final class Utf8Reader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    // number of bytes consumed before current buf content - for error reporting
+    private long consumed;
+
+    // low surrogate which didn't fit into the target array
+    private char pendingLowSurrogate;
+
+    Utf8Reader(InputStream in) {
+        this.in = in;
+        this.source = null;
+        this.buf = new byte[BUFFER_SIZE];
+    }
+
+    Utf8Reader(ByteBuffer data) {
+        this.in = null;
+        if (data.hasArray()) {
+            // direct access to the array - no copy
+            this.source = null;
+            this.buf = data.array();
+            this.pos = data.arrayOffset() + data.position();
+            this.limit = data.arrayOffset() + data.limit();
+            this.consumed = -this.pos;
+        } else {
+            this.source = data.duplicate();
+            this.buf = new byte[Math.min(BUFFER_SIZE, Math.max(4, data.remaining()))];
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        if (pendingLowSurrogate != 0) {
+            cbuf[off + n++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        while (n < len) {
+            if (pos == limit && !fill(1)) {
+                break;
+            }
+            // ASCII fast path
+            int max = Math.min(limit, pos + len - n);
+            byte b;
+            while (pos < max && (b = buf[pos]) >= 0) {
+                cbuf[off + n++] = (char) b;
+                pos++;
+            }
+            if (n == len || pos == limit) {
+                continue;
+            }
+            int cp = decodeMultiByte();
+            if (cp < 0x10000) {
+                cbuf[off + n++] = (char) cp;
+            } else {
+                cbuf[off + n++] = Character.highSurrogate(cp);
+                if (n < len) {
+                    cbuf[off + n++] = Character.lowSurrogate(cp);
+                } else {
+                    pendingLowSurrogate = Character.lowSurrogate(cp);
+                }
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    // decode a sequence starting with non-ASCII byte at current position
+    private int decodeMultiByte() throws IOException {
+        int b0 = buf[pos] & 0xff;
+        int length;
+        int cp;
+        int min;
+        if (b0 >= 0xc2 && b0 <= 0xdf) {
+            length = 2;
+            cp = b0 & 0x1f;
+            min = 0x80;
+        } else if (b0 >= 0xe0 && b0 <= 0xef) {
+            length = 3;
+            cp = b0 & 0x0f;
+            min = 0x800;
+        } else if (b0 >= 0xf0 && b0 <= 0xf4) {
+            length = 4;
+            cp = b0 & 0x07;
+            min = 0x10000;
+        } else {
+            // 0x80-0xc1 (continuation bytes or overlong 2-byte sequences) and 0xf5-0xff
+            throw malformed();
+        }
+        if (limit - pos < length && !fill(length)) {
+            throw new CharConversionException("Truncated UTF-8 sequence at offset " + (consumed + pos));
+        }
+        for (int i = 1; i < length; i++) {
+            int b = buf[pos + i];
+            if ((b & 0xc0) != 0x80) {
+                throw malformed();
+            }
+            cp = (cp << 6) | (b & 0x3f);
+        }
+        if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+            throw malformed();
+        }
+        pos += length;
+        return cp;
+    }
+
+    // ensure at least `required` bytes are available after pos (when possible)
+    private boolean fill(int required) throws IOException {
+        if (in == null && source == null) {
+            return limit - pos >= required;
+        }
+        int remaining = limit - pos;
+        if (remaining > 0 && pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        }
+        consumed += pos;
+        pos = 0;
+        limit = remaining;
+        while (limit < required) {
+            int read;
+            if (in != null) {
+                read = in.read(buf, limit, buf.length - limit);
+            } else {
+                read = Math.min(source.remaining(), buf.length - limit);
+                if (read == 0) {
+                    read = -1;
+                } else {
+                    source.get(buf, limit, read);
+                }
+            }
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private CharConversionException malformed() {
+        return new CharConversionException(String.format("Invalid UTF-8 sequence starting with byte 0x%02x at offset %d",
+            buf[pos] & 0xff, consumed + pos));
+    }
+
+}
@@ -56,6 +56,17 @@ public class Yytoken {
         }
     }
 
+    // shared instances of tokens which don't carry variable values - used by the lexer to reduce allocation
+    static final Yytoken TRUE = new Yytoken(Kind.VALUE_BOOLEAN, true);
+    static final Yytoken FALSE = new Yytoken(Kind.VALUE_BOOLEAN, false);
+    static final Yytoken NULL = new Yytoken(Kind.VALUE_NULL);
+    static final Yytoken LEFT_BRACE = new Yytoken(Kind.SYMBOL_LEFT_BRACE);
+    static final Yytoken RIGHT_BRACE = new Yytoken(Kind.SYMBOL_RIGHT_BRACE);
+    static final Yytoken LEFT_SQUARE = new Yytoken(Kind.SYMBOL_LEFT_SQUARE);
+    static final Yytoken RIGHT_SQUARE = new Yytoken(Kind.SYMBOL_RIGHT_SQUARE);
+    static final Yytoken COMMA = new Yytoken(Kind.SYMBOL_COMMA);
+    static final Yytoken COLON = new Yytoken(Kind.SYMBOL_COLON);
+
     private final Kind kind;
 
     private boolean booleanValue;
@@ -81,6 +92,16 @@ public class Yytoken {
         this.numberValue = value;
     }
 
+    public Yytoken(Kind kind, long value) {
+        this.kind = kind;
+        this.numberValue = value;
+    }
+
+    public Yytoken(Kind kind, double value) {
+        this.kind = kind;
+        this.numberValue = value;
+    }
+
     public Yytoken(Kind kind, boolean value) {
         this.kind = kind;
         this.booleanValue = value;
@@ -94,12 +115,28 @@ public class Yytoken {
         return stringValue;
     }
 
+    /**
+     * Numeric value of the token as produced by the lexer - {@link Long} or {@link BigInteger} (only when the
+     * value doesn't fit into {@code long}) for {@link Kind#VALUE_INTEGER} and {@link BigDecimal} or
+     * {@link Double} (only when configured) for {@link Kind#VALUE_DECIMAL}.
+     * @return
+     */
+    public Number getNumberValue() {
+        return numberValue;
+    }
+
     public BigInteger getIntegerValue() {
-        return kind == Kind.VALUE_INTEGER ? (BigInteger) numberValue : null;
+        if (kind != Kind.VALUE_INTEGER) {
+            return null;
+        }
+        return numberValue instanceof BigInteger ? (BigInteger) numberValue : BigInteger.valueOf(numberValue.longValue());
     }
 
     public BigDecimal getDecimalValue() {
-        return kind == Kind.VALUE_DECIMAL ? (BigDecimal) numberValue : null;
+        if (kind != Kind.VALUE_DECIMAL) {
+            return null;
+        }
+        return numberValue instanceof BigDecimal ? (BigDecimal) numberValue : new BigDecimal(numberValue.toString());
     }
 
     public boolean getBooleanValue() {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jolokia.json.parser.CBORParser;
+import org.jolokia.json.parser.JSONParser;
+import org.jolokia.json.parser.ParseException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class CBORTest {
+
+    @Test
+    public void encodingExamples() throws IOException {
+        // examples from RFC 8949, Appendix A
+        assertEquals(hex(0L), "00");
+        assertEquals(hex(23), "17");
+        assertEquals(hex(24), "1818");
+        assertEquals(hex(1000), "1903e8");
+        assertEquals(hex(1000000L), "1a000f4240");
+        assertEquals(hex(1000000000000L), "1b000000e8d4a51000");
+        assertEquals(hex(-1), "20");
+        assertEquals(hex(-1000), "3903e7");
+        assertEquals(hex(Long.MIN_VALUE), "3b7fffffffffffffff");
+        assertEquals(hex(new BigInteger("18446744073709551615")), "1bffffffffffffffff");
+        assertEquals(hex(new BigInteger("18446744073709551616")), "c249010000000000000000");
+        assertEquals(hex(new BigInteger("-18446744073709551616")), "3bffffffffffffffff");
+        assertEquals(hex(new BigInteger("-18446744073709551617")), "c349010000000000000000");
+        assertEquals(hex(new BigDecimal("273.15")), "c48221196ab3");
+        assertEquals(hex(1.5), "fa3fc00000");
+        assertEquals(hex(1.1), "fb3ff199999999999a");
+        // non-finite numbers are null, like in JSON
+        assertEquals(hex(Double.POSITIVE_INFINITY), "f6");
+        assertEquals(hex(Double.NaN), "f6");
+        assertEquals(hex(Float.NEGATIVE_INFINITY), "f6");
+        assertEquals(hex(false), "f4");
+        assertEquals(hex(true), "f5");
+        assertEquals(hex(null), "f6");
+        assertEquals(hex(""), "60");
+        assertEquals(hex("IETF"), "6449455446");
+        assertEquals(hex("ü"), "62c3bc");
+        assertEquals(hex("水"), "63e6b0b4");
+        assertEquals(hex("𐅑"), "64f0908591");
+        assertEquals(hex(Collections.emptyList()), "80");
+        assertEquals(hex(new int[] { 1, 2, 3 }), "83010203");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put("b", Arrays.asList(2, 3));
+        assertEquals(hex(map), "a26161016162820203");
+    }
+
+    @Test
+    public void roundTrip() throws IOException, ParseException {
+        String json = "{\"request\":{\"mbean\":\"java.lang:type=Memory\",\"type\":\"read\"}," +
+            "\"value\":{\"long\":9223372036854775807,\"negative\":-9223372036854775808,\"big\":123456789012345678901234567890," +
+            "\"decimal\":-0.000123456789012345678901234567890,\"list\":[1,\"two\",3.5,true,null,[],{}]," +
+            "\"text\":\"quotes \\\" and unicode ü水😀\"},\"status\":200,\"timestamp\":1700000000}";
+        Object value = new JSONParser().parse(json);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CBORWriter.serialize(value, out);
+        Object parsed = new CBORParser().parse(out.toByteArray());
+        assertEquals(parsed, value);
+        assertTrue(out.size() < json.length());
+    }
+
+    @Test
+    public void streamableValue() throws IOException, ParseException {
+        JSONObject response = new JSONObject();
+        response.put("value", (JSONStreamable) sink -> {
+            sink.beginObject();
+            sink.key("list");
+            sink.beginArray();
+            sink.value(1L);
+            sink.value("two");
+            sink.endArray();
+            sink.key("empty");
+            sink.beginObject();
+            sink.endObject();
+            sink.endObject();
+        });
+        response.put("status", 200L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CBORWriter.serialize(response, out);
+        assertEquals(new CBORParser().parse(out.toByteArray()),
+            new JSONParser().parse("{\"value\":{\"list\":[1,\"two\"],\"empty\":{}},\"status\":200}"));
+    }
+
+    @Test
+    public void largeValuesAcrossBufferBoundaries() throws IOException, ParseException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < CBORWriter.BUFFER_SIZE; i++) {
+            sb.append(i % 10 == 0 ? 'é' : (char) ('a' + i % 26));
+        }
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            array.add(sb.toString());
+            array.add(sb.toString().replace('é', 'e'));
+            array.add(new BigInteger(sb.length() * 4, new java.util.Random(i)).negate());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CBORWriter writer = new CBORWriter(out)) {
+            writer.write(array);
+        }
+        assertEquals(new CBORParser().parse(out.toByteArray()), array);
+    }
+
+    @Test
+    public void indefiniteLengthAndOtherTags() throws IOException, ParseException {
+        // {_ "a": 1, "b": [_ 2, 3]} and tagged date string
+        assertEquals(new CBORParser().parse(bytes("bf61610161629f0203ffff")).toString(), "{\"a\":1,\"b\":[2,3]}");
+        assertEquals(new CBORParser().parse(bytes("7f657374726561646d696e67ff")), "streaming");
+        assertEquals(new CBORParser().parse(bytes("c074323031332d30332d32315432303a30343a30305a")), "2013-03-21T20:04:00Z");
+        assertEquals(new CBORParser().parse(bytes("f93e00")), 1.5);
+        assertNull(new CBORParser().parse(bytes("f7")));
+    }
+
+    @Test
+    public void invalidData() throws IOException {
+        String[][] data = new String[][] {
+            { "", "Unexpected end of CBOR data at offset 0" },
+            { "8201", "Unexpected end of CBOR data at offset 2" },
+            { "ff", "Unexpected break stop code at offset 1" },
+            { "1c", "Invalid additional information 28 at offset 1" },
+            { "c261", "Unexpected end of CBOR data at offset 2" },
+            { "c201", "Bignum must be a byte string at offset 2" },
+        };
+        for (String[] d : data) {
+            try {
+                new CBORParser().parse(bytes(d[0]));
+                fail("Should have failed for " + d[0]);
+            } catch (ParseException exp) {
+                assertEquals(exp.getMessage(), d[1]);
+            }
+        }
+    }
+
+    private String hex(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CBORWriter.serialize(value, out);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : out.toByteArray()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private byte[] bytes(String hex) {
+        byte[] ret = new byte[hex.length() / 2];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return ret;
+    }
+
+    @Test
+    public void primitiveValues() throws IOException, ParseException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CBORWriter.serialize((JSONStreamable) sink -> {
+            sink.beginArray();
+            sink.value(-5L);
+            sink.value(Long.MAX_VALUE);
+            sink.value(0.5d);
+            sink.value(0.1d);
+            sink.endArray();
+        }, out);
+        assertEquals(((JSONArray) new CBORParser().parse(out.toByteArray())).toJSONString(),
+            "[-5,9223372036854775807,0.5,0.1]");
+    }
+
+}
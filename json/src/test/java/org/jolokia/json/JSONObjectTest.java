@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class JSONObjectTest {
+
+    @Test
+    public void insertionOrder() {
+        for (int count : new int[] { 3, JSONObject.COMPACT_LIMIT, JSONObject.COMPACT_LIMIT + 5 }) {
+            JSONObject object = new JSONObject();
+            List<String> expected = new ArrayList<>();
+            for (int i = count; i > 0; i--) {
+                object.put("k" + i, i);
+                expected.add("k" + i);
+            }
+            assertEquals(object.size(), count);
+            assertEquals(new ArrayList<>(object.keySet()), expected);
+            assertEquals(object.get("k1"), 1);
+            assertTrue(object.containsKey("k" + count));
+            assertTrue(object.containsValue(count));
+            assertFalse(object.containsKey("k0"));
+        }
+    }
+
+    @Test
+    public void mapContract() {
+        Map<String, Object> expected = new HashMap<>();
+        JSONObject object = new JSONObject();
+        for (int i = 0; i < JSONObject.COMPACT_LIMIT * 2; i++) {
+            expected.put("k" + i, "v" + i);
+            assertNull(object.put("k" + i, "v" + i));
+            assertEquals(object, expected);
+            assertEquals(expected, object);
+            assertEquals(object.hashCode(), expected.hashCode());
+        }
+        assertEquals(object.put("k0", "x"), "v0");
+        assertEquals(object.remove("k0"), "x");
+        assertNull(object.remove("k0"));
+        object.clear();
+        assertTrue(object.isEmpty());
+        object.put("a", null);
+        assertTrue(object.containsKey("a"));
+        assertNull(object.get("a"));
+    }
+
+    @Test
+    public void iteratorRemoveAndSetValue() {
+        JSONObject object = new JSONObject();
+        object.put("a", 1);
+        object.put("b", 2);
+        object.put("c", 3);
+        Iterator<Map.Entry<String, Object>> it = object.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> e = it.next();
+            if (e.getKey().equals("b")) {
+                it.remove();
+            } else {
+                e.setValue((Integer) e.getValue() * 10);
+            }
+        }
+        assertEquals(object.toJSONString(), "{\"a\":10,\"c\":30}");
+        object.values().remove(30);
+        assertEquals(object.toJSONString(), "{\"a\":10}");
+    }
+
+    @Test(expectedExceptions = ConcurrentModificationException.class)
+    public void failFastIterator() {
+        JSONObject object = new JSONObject();
+        object.put("a", 1);
+        object.put("b", 2);
+        for (String key : object.keySet()) {
+            object.put(key + "x", 3);
+        }
+    }
+
+}
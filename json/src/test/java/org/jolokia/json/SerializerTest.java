@@ -15,9 +15,11 @@
  */
 package org.jolokia.json;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -139,4 +141,118 @@ public class SerializerTest {
         assertEquals(sw.toString(), "[1,[2,3],[[4,5],[6,7]],8]");
     }
 
+    @Test
+    public void serializeControlCharacters() throws IOException {
+        StringWriter sw = new StringWriter();
+        JSONWriter.serialize("a\u001Fb\u0000", sw);
+        assertEquals(sw.toString(), "\"a\\u001fb\\u0000\"");
+    }
+
+    @Test
+    public void serializeUtf8Bytes() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ascii", "Hello World!");
+        map.put("escaped", "\b\f\n\r\t\"\\/\u0001\u001b");
+        map.put("multibyte", "ąあツ\uD83D\uDE00");
+        map.put("numbers", Arrays.asList(0, -1, 42L, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, (short) 7, (byte) -8, 1.3, 2.5f, Double.NaN));
+        map.put("primitives", Arrays.asList(new long[] { 1L, -2L }, new int[] { 3, -4 }, new double[] { 0.5 }, new boolean[] { true }));
+        map.put("other", Arrays.asList(true, false, null, 'x', '\n'));
+        JSONObject nested = new JSONObject();
+        nested.put("k", "v");
+        map.put("nested", nested);
+
+        StringWriter sw = new StringWriter();
+        JSONWriter.serialize(map, sw);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter.serialize(map, out);
+        assertEquals(out.toString(StandardCharsets.UTF_8), sw.toString());
+        assertEquals(out.toByteArray(), sw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void serializeUtf8BytesBiggerThanBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Utf8JSONWriter.BUFFER_SIZE; i++) {
+            sb.append(i % 3 == 0 ? 'ą' : i % 3 == 1 ? '\n' : 'a');
+        }
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(sb.toString());
+            list.add((long) i * 1_000_000_007L);
+        }
+
+        StringWriter sw = new StringWriter();
+        JSONWriter.serialize(list, sw);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter.serialize(list, out);
+        assertEquals(out.toString(StandardCharsets.UTF_8), sw.toString());
+    }
+
+    @Test
+    public void serializeStreamable() throws IOException {
+        JSONStreamable streamable = sink -> {
+            sink.beginObject();
+            sink.key("a");
+            sink.value(1L);
+            sink.key("b");
+            sink.beginArray();
+            sink.value("x");
+            sink.beginObject();
+            sink.endObject();
+            sink.value(Arrays.asList(1, 2));
+            sink.endArray();
+            sink.key("c");
+            sink.value(null);
+            sink.endObject();
+        };
+        JSONObject response = new JSONObject();
+        response.put("value", streamable);
+        JSONArray bulk = new JSONArray();
+        bulk.add(response);
+        bulk.add(streamable);
+        String expected = "[{\"value\":{\"a\":1,\"b\":[\"x\",{},[1,2]],\"c\":null}},{\"a\":1,\"b\":[\"x\",{},[1,2]],\"c\":null}]";
+
+        assertEquals(bulk.toJSONString(), expected);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter.serialize(bulk, out);
+        assertEquals(out.toString(StandardCharsets.UTF_8), expected);
+    }
+
+    @Test
+    public void serializeEventsWithNestedStreamable() throws IOException {
+        JSONStreamable streamable = sink -> {
+            sink.beginArray();
+            sink.value(true);
+            sink.value(false);
+            sink.endArray();
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Utf8JSONWriter writer = new Utf8JSONWriter(out)) {
+            writer.beginArray();
+            writer.value(streamable);
+            writer.value(Map.of("s", streamable));
+            writer.value(streamable);
+            writer.endArray();
+        }
+        assertEquals(out.toString(StandardCharsets.UTF_8), "[[true,false],{\"s\":[true,false]},[true,false]]");
+    }
+
+    @Test
+    public void serializePrimitiveEvents() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Utf8JSONWriter writer = new Utf8JSONWriter(out)) {
+            writer.beginArray();
+            writer.value(Long.MIN_VALUE);
+            writer.value(42L);
+            writer.value(0.25d);
+            writer.value(Double.NaN);
+            writer.beginObject();
+            writer.key("d");
+            writer.value(-1.5d);
+            writer.endObject();
+            writer.endArray();
+        }
+        assertEquals(out.toString(StandardCharsets.UTF_8), "[-9223372036854775808,42,0.25,null,{\"d\":-1.5}]");
+    }
+
 }
@@ -98,6 +98,39 @@ public class LexerNumericValuesTest {
         assertTrue(lexer.yyatEOF());
     }
 
+    @Test
+    public void integerLimits() throws IOException, ParseException {
+        Yylex lexer = new Yylex(new StringReader("9223372036854775807 -9223372036854775808 9223372036854775808 -9223372036854775809 123456789012345678901234567890"), 16);
+        assertEquals(lexer.yylex().getNumberValue(), Long.MAX_VALUE);
+        assertEquals(lexer.yylex().getNumberValue(), Long.MIN_VALUE);
+        assertEquals(lexer.yylex().getNumberValue(), new BigInteger("9223372036854775808"));
+        assertEquals(lexer.yylex().getNumberValue(), new BigInteger("-9223372036854775809"));
+        assertEquals(lexer.yylex().getNumberValue(), new BigInteger("123456789012345678901234567890"));
+        assertNull(lexer.yylex());
+    }
+
+    @Test
+    public void decimalsAsDoubles() throws IOException, ParseException {
+        Yylex lexer = new Yylex(new StringReader("1.3 -2.4 0.0 -0.0 1.0e3 -0.4e-1 123456789.012345 1e22 1e-22 "
+            + "1234567890.1234567 1e23 1e-23 1e400"), 16);
+        lexer.setDecimalsAsDouble(true);
+        assertEquals(lexer.yylex().getNumberValue(), 1.3d);
+        assertEquals(lexer.yylex().getNumberValue(), -2.4d);
+        assertEquals(lexer.yylex().getNumberValue(), 0.0d);
+        assertEquals(lexer.yylex().getNumberValue(), -0.0d);
+        assertEquals(lexer.yylex().getNumberValue(), 1000d);
+        assertEquals(lexer.yylex().getNumberValue(), -0.04d);
+        assertEquals(lexer.yylex().getNumberValue(), 123456789.012345d);
+        assertEquals(lexer.yylex().getNumberValue(), 1e22d);
+        assertEquals(lexer.yylex().getNumberValue(), 1e-22d);
+        // precision loss or exponent out of fast-path range - BigDecimal fallback
+        assertEquals(lexer.yylex().getNumberValue(), new BigDecimal("1234567890.1234567"));
+        assertEquals(lexer.yylex().getNumberValue(), new BigDecimal("1e23"));
+        assertEquals(lexer.yylex().getNumberValue(), new BigDecimal("1e-23"));
+        assertEquals(lexer.yylex().getNumberValue(), new BigDecimal("1e400"));
+        assertNull(lexer.yylex());
+    }
+
     private void assertNextIntToken(Yylex lexer, int value) throws IOException, ParseException {
         assertFalse(lexer.yyatEOF());
         Yytoken token = lexer.yylex();
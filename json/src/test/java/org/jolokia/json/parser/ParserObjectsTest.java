@@ -18,7 +18,10 @@ package org.jolokia.json.parser;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.jolokia.json.JSONArray;
 import org.jolokia.json.JSONObject;
 import org.testng.annotations.Test;
 
@@ -126,4 +129,32 @@ public class ParserObjectsTest {
         assertNull(object.get("keyNull"));
     }
 
+    @Test
+    public void repeatedKeysAreCanonicalized() throws ParseException, IOException {
+        StringBuilder longKey = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longKey.append('k');
+        }
+        JSONArray array = new JSONParser().parse("[{\"type\":\"read\",\"custom\":\"java.lang:type=Memory\",\"" + longKey + "\":1}," +
+            "{\"type\":\"read\",\"custom\":\"java.lang:type=Memory\",\"" + longKey + "\":2}]", JSONArray.class);
+        JSONObject o1 = (JSONObject) array.get(0);
+        JSONObject o2 = (JSONObject) array.get(1);
+        List<String> keys1 = new ArrayList<>(o1.keySet());
+        List<String> keys2 = new ArrayList<>(o2.keySet());
+        // well-known keys are the interned literals
+        assertSame(keys1.get(0), "type");
+        assertSame(o1.get("type"), "read");
+        assertSame(keys1.get(1), keys2.get(1));
+        assertSame(o1.get("custom"), o2.get("custom"));
+        // long strings are not canonicalized
+        assertNotSame(keys1.get(2), keys2.get(2));
+        assertEquals(keys1.get(2), keys2.get(2));
+    }
+
+    @Test
+    public void unicodeEscapesInKeys() throws ParseException, IOException {
+        JSONObject object = new JSONParser().parse("{\"\\u0041\\u00e9\\uD83D\\uDE00\":\"x\\u002Fy\"}", JSONObject.class);
+        assertEquals(object.get("A\u00e9\uD83D\uDE00"), "x/y");
+    }
+
 }
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.jolokia.json.JSONArray;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.*;
@@ -100,4 +101,18 @@ public class ParserValuesTest {
         assertEquals((long) value, 2147483645L);
     }
 
+    @Test
+    public void parseNumbers() throws ParseException, IOException {
+        String json = "[42, 4.2, 1234567890.1234567]";
+        JSONArray defaults = new JSONParser().parse(json, JSONArray.class);
+        assertEquals(defaults.get(0), 42L);
+        assertEquals(defaults.get(1), new BigDecimal("4.2"));
+        assertEquals(defaults.get(2), new BigDecimal("1234567890.1234567"));
+
+        JSONArray doubles = new JSONParser(true).parse(json, JSONArray.class);
+        assertEquals(doubles.get(0), 42L);
+        assertEquals(doubles.get(1), 4.2d);
+        assertEquals(doubles.get(2), new BigDecimal("1234567890.1234567"));
+    }
+
 }
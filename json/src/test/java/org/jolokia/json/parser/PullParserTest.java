@@ -0,0 +1,112 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json.parser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONObject;
+import org.testng.annotations.Test;
+
+import static org.jolokia.json.parser.JSONPullParser.Event.*;
+import static org.testng.Assert.*;
+
+public class PullParserTest {
+
+    @Test
+    public void events() throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser("{\"a\":[1,2.5,\"s\",true,null],\"b\":{}}");
+        assertEquals(parser.next(), START_OBJECT);
+        assertEquals(parser.next(), FIELD_NAME);
+        assertEquals(parser.getString(), "a");
+        assertEquals(parser.next(), START_ARRAY);
+        assertEquals(parser.next(), VALUE_NUMBER);
+        assertEquals(parser.getNumber(), 1L);
+        assertEquals(parser.next(), VALUE_NUMBER);
+        assertEquals(parser.getNumber(), new BigDecimal("2.5"));
+        assertEquals(parser.next(), VALUE_STRING);
+        assertEquals(parser.getString(), "s");
+        assertEquals(parser.next(), VALUE_BOOLEAN);
+        assertTrue(parser.getBoolean());
+        assertEquals(parser.next(), VALUE_NULL);
+        assertEquals(parser.next(), END_ARRAY);
+        assertEquals(parser.next(), FIELD_NAME);
+        assertEquals(parser.getString(), "b");
+        assertEquals(parser.next(), START_OBJECT);
+        assertEquals(parser.next(), END_OBJECT);
+        assertEquals(parser.next(), END_OBJECT);
+        assertNull(parser.next());
+    }
+
+    @Test
+    public void readAndSkipValues() throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser("[{\"k\":[[1],{\"x\":{\"y\":null}}]},[3,[4]],\"last\"]");
+        assertEquals(parser.next(), START_ARRAY);
+        assertEquals(parser.next(), START_OBJECT);
+        JSONObject object = (JSONObject) parser.readValue();
+        assertEquals(parser.currentEvent(), END_OBJECT);
+        JSONArray k = (JSONArray) object.get("k");
+        assertEquals(k.size(), 2);
+        assertEquals(((JSONArray) k.get(0)).get(0), 1L);
+        assertTrue(((JSONObject) ((JSONObject) k.get(1)).get("x")).containsKey("y"));
+        assertEquals(parser.next(), START_ARRAY);
+        parser.skipValue();
+        assertEquals(parser.currentEvent(), END_ARRAY);
+        assertEquals(parser.next(), VALUE_STRING);
+        assertEquals(parser.readValue(), "last");
+        assertEquals(parser.next(), END_ARRAY);
+        assertNull(parser.next());
+    }
+
+    @Test
+    public void sameResultAsTreeParser() throws ParseException, IOException {
+        String json = "{\"type\":\"exec\",\"arguments\":[[1,2],{\"a\":\"b\"},null,-3.14e2,18446744073709551616]," +
+            "\"config\":{\"maxDepth\":\"3\"}}";
+        JSONPullParser parser = new JSONPullParser(json);
+        parser.next();
+        assertEquals(parser.readValue(), new JSONParser().parse(json));
+    }
+
+    @Test
+    public void invalidJson() throws IOException {
+        String[][] data = new String[][] {
+            { "", "Can't parse any value from JSON stream" },
+            { "[", "Unexpected end of JSON stream" },
+            { "[1 2]", "Expected ',' or ']' (got: VALUE_INTEGER) when parsing JSON array" },
+            { "{\"a\":1 \"b\":2}", "Expected ',' or '}' (got: VALUE_STRING) when parsing JSON object" },
+            { "[,1]", "Leading comma is not allowed within JSON array" },
+            { "[1,]", "Trailing comma is not allowed within JSON array" },
+            { "{\"a\":1,}", "Trailing comma is not allowed within JSON object" },
+            { "{1:1}", "Only string keys are allowed within JSON object" },
+            { "{\"a\" 1}", "Expected ':' after key" },
+            { "[]]", "Multiple top-level values" },
+            { ":", "Unexpected top-level token (kind: SYMBOL_COLON)" },
+        };
+        for (String[] d : data) {
+            JSONPullParser parser = new JSONPullParser(d[0]);
+            try {
+                //noinspection StatementWithEmptyBody
+                while (parser.next() != null) {
+                }
+                fail("Should have thrown an exception for " + d[0]);
+            } catch (ParseException e) {
+                assertEquals(e.getMessage(), d[1]);
+            }
+        }
+    }
+
+}
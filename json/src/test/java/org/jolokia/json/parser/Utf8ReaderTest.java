@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.json.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jolokia.json.JSONObject;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class Utf8ReaderTest {
+
+    private static final String TEXT = "{\"ascii\":\"abc\",\"latin\":\"éß\",\"cjk\":\"日本\"," +
+        "\"emoji\":\"😀\",\"mixed\":\"aé日😀z\"}";
+
+    @Test
+    public void decodeAllSources() throws IOException {
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        assertEquals(readAll(new Utf8Reader(ByteBuffer.wrap(bytes))), TEXT);
+        assertEquals(readAll(new Utf8Reader(new ByteArrayInputStream(bytes))), TEXT);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(readAll(new Utf8Reader(direct)), TEXT);
+        assertEquals(direct.position(), 0);
+
+        // slice of a larger array
+        byte[] padded = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, padded, 2, bytes.length);
+        assertEquals(readAll(new Utf8Reader(ByteBuffer.wrap(padded, 2, bytes.length).slice())), TEXT);
+    }
+
+    @Test
+    public void sequencesAcrossBoundaries() throws IOException {
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        // stream returning one byte at a time and target buffer of size 1 - surrogate pairs are split
+        Reader reader = new Utf8Reader(new TrickleInputStream(bytes));
+        StringBuilder sb = new StringBuilder();
+        char[] c = new char[1];
+        int n;
+        while ((n = reader.read(c, 0, 1)) > 0) {
+            sb.append(c, 0, n);
+        }
+        assertEquals(sb.toString(), TEXT);
+    }
+
+    @Test
+    public void parseBytes() throws ParseException, IOException {
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        JSONObject expected = new JSONParser().parse(TEXT, JSONObject.class);
+        assertEquals(new JSONParser().parse(bytes), expected);
+        assertEquals(new JSONParser().parse(new ByteArrayInputStream(bytes)), expected);
+        JSONPullParser parser = new JSONPullParser(new ByteArrayInputStream(bytes));
+        parser.next();
+        assertEquals(parser.readValue(), expected);
+    }
+
+    @Test
+    public void malformedInput() throws IOException {
+        byte[][] invalid = new byte[][] {
+            { (byte) 0x80 },                                      // lone continuation byte
+            { (byte) 0xc0, (byte) 0xaf },                         // overlong '/'
+            { (byte) 0xe0, (byte) 0x80, (byte) 0xaf },            // overlong '/'
+            { (byte) 0xed, (byte) 0xa0, (byte) 0x80 },            // encoded surrogate
+            { (byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80 }, // above U+10FFFF
+            { (byte) 0xff },
+            { (byte) 0xc3, 'a' },                                 // missing continuation byte
+            { (byte) 0xe6, (byte) 0x97 },                         // truncated
+        };
+        for (byte[] b : invalid) {
+            byte[] json = new byte[b.length + 2];
+            json[0] = '"';
+            System.arraycopy(b, 0, json, 1, b.length);
+            json[json.length - 1] = '"';
+            for (Reader reader : new Reader[] {
+                new Utf8Reader(ByteBuffer.wrap(json, 0, json.length - 1)),
+                new Utf8Reader(new ByteArrayInputStream(json, 0, json.length - 1))
+            }) {
+                try {
+                    readAll(reader);
+                    fail("Should have failed for " + java.util.Arrays.toString(b));
+                } catch (CharConversionException exp) {
+                    assertTrue(exp.getMessage().contains("offset 1"), exp.getMessage());
+                }
+            }
+        }
+    }
+
+    private String readAll(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] c = new char[7];
+        int n;
+        while ((n = reader.read(c, 0, c.length)) > 0) {
+            sb.append(c, 0, n);
+        }
+        return sb.toString();
+    }
+
+    private static class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private int pos;
+
+        TrickleInputStream(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == data.length) {
+                return -1;
+            }
+            b[off] = data[pos++];
+            return 1;
+        }
+    }
+
+}
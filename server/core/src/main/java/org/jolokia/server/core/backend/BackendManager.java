@@ -2,6 +2,7 @@ package org.jolokia.server.core.backend;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 import javax.management.AttributeNotFoundException;
 import javax.management.JMException;
@@ -12,6 +13,8 @@ import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.service.request.RequestInterceptor;
 import org.jolokia.server.core.service.serializer.Serializer;
 import org.jolokia.server.core.service.serializer.SerializeOptions;
+import org.jolokia.server.core.util.CompiledPath;
+import org.jolokia.server.core.util.RequestType;
 import org.jolokia.json.JSONObject;
 
 import static org.jolokia.server.core.config.ConfigKey.*;
@@ -53,6 +56,14 @@ public class BackendManager {
 
     private boolean includeRequestGlobal;
 
+    private boolean includeEtagGlobal;
+
+    // Optional cache for values of read requests
+    private ResponseCache responseCache;
+
+    // Collapser for identical concurrent requests, null if disabled
+    private RequestCollapser requestCollapser;
+
     /**
      * Construct a new backend manager with the given configuration and with the default
      * request dispatcher
@@ -83,6 +94,24 @@ public class BackendManager {
      * @return the already converted answer.
      */
     public JSONObject handleRequest(JolokiaRequest pJmxReq) throws JMException, IOException, EmptyResponseException {
+        return handleRequest(pJmxReq, false);
+    }
+
+    /**
+     * Handle a single JMXRequest. The response status is set to 200 if the request
+     * was successful.
+     * <p>
+     * When <code>pDeferSerialization</code> is true, the value of the response may be a
+     * {@link org.jolokia.json.JSONStreamable} which serializes the result only when the response is written,
+     * so no JSON tree is built in memory. This is done only for requests without a path, when not
+     * running in debug mode and when no {@link RequestInterceptor} needs the value.
+     *
+     * @param pJmxReq request to perform
+     * @param pDeferSerialization whether the serialization of the value may be deferred until the response is written
+     * @return the answer, which is converted either already or while written
+     */
+    public JSONObject handleRequest(JolokiaRequest pJmxReq, boolean pDeferSerialization)
+            throws JMException, IOException, EmptyResponseException {
         boolean debug = jolokiaCtx.isDebug();
 
         long time = 0;
@@ -91,7 +120,7 @@ public class BackendManager {
         }
         JSONObject json;
         try {
-            json = callRequestDispatcher(pJmxReq);
+            json = callRequestDispatcher(pJmxReq, pDeferSerialization && !debug);
             json.put("status",200 /* success */);
         } catch (NotChangedException exp) {
             // A handled indicates that its value hasn't changed. We return a status with
@@ -111,6 +140,9 @@ public class BackendManager {
             }
             json.put("status",304);
             json.put("timestamp",System.currentTimeMillis() / 1000);
+            if (exp.getETag() != null) {
+                json.put("etag",exp.getETag());
+            }
         }
         // Call request logger
         intercept(pJmxReq, json);
@@ -135,6 +167,16 @@ public class BackendManager {
         }
     }
 
+    // Check whether any of the interceptors needs the serialized value for the given request
+    private boolean interceptorsNeedValue(JolokiaRequest pJmxReq) {
+        for (RequestInterceptor interceptor : jolokiaCtx.getServices(RequestInterceptor.class)) {
+            if (interceptor.needsValue(pJmxReq)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Convert a Throwable to a JSON object so that it can be included in an error response
      *
@@ -164,6 +206,11 @@ public class BackendManager {
             );
             includeRequestGlobal = pCtx.getConfig(INCLUDE_REQUEST) == null
                 || Boolean.parseBoolean(pCtx.getConfig(INCLUDE_REQUEST));
+            includeEtagGlobal = Boolean.parseBoolean(pCtx.getConfig(INCLUDE_ETAG));
+            responseCache = ResponseCache.create(pCtx);
+            if (Boolean.parseBoolean(pCtx.getConfig(REQUEST_COLLAPSING))) {
+                requestCollapser = new RequestCollapser();
+            }
         } else {
             convertOptionsBuilder = new SerializeOptions.Builder();
         }
@@ -174,20 +221,46 @@ public class BackendManager {
     }
 
     // call the an appropriate request dispatcher
-    private JSONObject callRequestDispatcher(JolokiaRequest pJmxReq)
+    private JSONObject callRequestDispatcher(JolokiaRequest pJmxReq, boolean pDeferSerialization)
             throws JMException, IOException, NotChangedException, EmptyResponseException {
-        Object result = requestDispatcher.dispatch(pJmxReq);
-
-        SerializeOptions opts = getSerializeOptions(pJmxReq);
+        // The ETag is calculated from the serialized value, so it can't be deferred
+        boolean etag = includeEtag(pJmxReq);
+        boolean defer = pDeferSerialization && !etag;
+        ResponseCache.Lookup cached = responseCache != null ? responseCache.lookup(pJmxReq, jolokiaCtx) : null;
+        Object jsonResult;
+        if (cached != null && cached.isHit()) {
+            jsonResult = cached.getValue();
+        } else {
+            RequestCollapser.Flight flight = requestCollapser != null ? requestCollapser.join(pJmxReq, jolokiaCtx) : null;
+            if (flight == null) {
+                jsonResult = dispatchAndSerialize(pJmxReq, defer && cached == null, null);
+            } else if (flight.isLeader()) {
+                try {
+                    jsonResult = dispatchAndSerialize(pJmxReq, defer && cached == null, flight);
+                    flight.complete(jsonResult);
+                } catch (Throwable exp) {
+                    flight.fail(exp);
+                    throw exp;
+                }
+            } else {
+                jsonResult = awaitOrDispatch(pJmxReq, flight, defer && cached == null);
+            }
+            if (cached != null && (flight == null || flight.isLeader())) {
+                cached.store(jsonResult);
+            }
+        }
 
-        Object jsonResult =
-                jolokiaCtx.getMandatoryService(Serializer.class).serialize(
-                        result,
-                        pJmxReq.useReturnValueWithPath() ? pJmxReq.getPathParts() : null,
-                        opts);
+        String etagValue = etag ? ValueETag.calculate(jsonResult) : null;
+        String ifNoneMatch = pJmxReq.getParameter(IF_NONE_MATCH);
+        if (etagValue != null && ifNoneMatch != null && ValueETag.matches(ifNoneMatch, etagValue)) {
+            throw new NotChangedException(pJmxReq, etagValue);
+        }
 
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("value",jsonResult);
+        if (etagValue != null) {
+            jsonObject.put("etag",etagValue);
+        }
         String includeRequestLocal = pJmxReq.getParameter(INCLUDE_REQUEST);
         if ((includeRequestGlobal && !"false".equals(includeRequestLocal))
             || (!includeRequestGlobal && "true".equals(includeRequestLocal))) {
@@ -196,6 +269,48 @@ public class BackendManager {
         return jsonObject;
     }
 
+    // Wait for the result of an identical request in flight. If it takes too long, the request is executed
+    // on its own, so that a hanging request doesn't block all others.
+    private Object awaitOrDispatch(JolokiaRequest pJmxReq, RequestCollapser.Flight pFlight, boolean pDeferSerialization)
+            throws JMException, IOException, NotChangedException, EmptyResponseException {
+        try {
+            return pFlight.await();
+        } catch (TimeoutException exp) {
+            return dispatchAndSerialize(pJmxReq, pDeferSerialization, null);
+        }
+    }
+
+    // Whether an ETag should be added to the response, which is done only for reads. A client sending
+    // an ETag for comparison gets one without asking explicitly
+    private boolean includeEtag(JolokiaRequest pJmxReq) {
+        if (pJmxReq.getType() != RequestType.READ) {
+            return false;
+        }
+        String includeEtagLocal = pJmxReq.getParameter(INCLUDE_ETAG);
+        if (includeEtagLocal != null) {
+            return Boolean.parseBoolean(includeEtagLocal);
+        }
+        return includeEtagGlobal || pJmxReq.getParameter(IF_NONE_MATCH) != null;
+    }
+
+    // Dispatch the request and serialize its result. Values shared with other requests
+    // (cached or collapsed) must be serialized right away
+    private Object dispatchAndSerialize(JolokiaRequest pJmxReq, boolean pDeferSerialization, RequestCollapser.Flight pFlight)
+            throws JMException, IOException, NotChangedException, EmptyResponseException {
+        Object result = requestDispatcher.dispatch(pJmxReq);
+
+        // Requests arriving from now on need a fresh value
+        boolean shared = pFlight != null && pFlight.close();
+
+        SerializeOptions opts = getSerializeOptions(pJmxReq);
+
+        CompiledPath path = pJmxReq.useReturnValueWithPath() ? pJmxReq.getCompiledPath() : CompiledPath.EMPTY;
+        Serializer serializer = jolokiaCtx.getMandatoryService(Serializer.class);
+        return pDeferSerialization && !shared && path.isEmpty() && !interceptorsNeedValue(pJmxReq) ?
+                serializer.serializeDeferred(result, opts) :
+                serializer.serializeWithPath(result, path, opts);
+    }
+
     private SerializeOptions getSerializeOptions(JolokiaRequest pJmxReq) {
         return convertOptionsBuilder.
                     maxDepth(pJmxReq.getParameterAsInt(ConfigKey.MAX_DEPTH)).
@@ -30,4 +30,24 @@ public class MBeanServerHandler implements MBeanServerHandlerMBean {
         return mBeanServers.dumpMBeanServers();
     }
 
+    @Override
+    public long getMBeanInfoCacheHits() {
+        return mBeanServers.getMBeanInfoCache().getHits();
+    }
+
+    @Override
+    public long getMBeanInfoCacheMisses() {
+        return mBeanServers.getMBeanInfoCache().getMisses();
+    }
+
+    @Override
+    public int getMBeanInfoCacheSize() {
+        return mBeanServers.getMBeanInfoCache().size();
+    }
+
+    @Override
+    public void clearMBeanInfoCache() {
+        mBeanServers.getMBeanInfoCache().clear();
+    }
+
 }
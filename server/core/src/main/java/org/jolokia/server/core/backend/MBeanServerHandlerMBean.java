@@ -35,4 +35,30 @@ public interface MBeanServerHandlerMBean {
      * @return the server's information.
      */
     String mBeanServersInfo();
+
+    /**
+     * Number of MBeanInfo lookups answered from the cache
+     *
+     * @return number of cache hits
+     */
+    long getMBeanInfoCacheHits();
+
+    /**
+     * Number of MBeanInfo lookups which had to be fetched from an MBeanServer
+     *
+     * @return number of cache misses
+     */
+    long getMBeanInfoCacheMisses();
+
+    /**
+     * Number of currently cached MBeanInfos
+     *
+     * @return size of the cache
+     */
+    int getMBeanInfoCacheSize();
+
+    /**
+     * Remove all cached MBeanInfos
+     */
+    void clearMBeanInfoCache();
 }
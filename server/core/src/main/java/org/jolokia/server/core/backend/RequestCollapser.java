@@ -0,0 +1,237 @@
+package org.jolokia.server.core.backend;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.AccessController;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.security.auth.Subject;
+
+import org.jolokia.server.core.config.ConfigKey;
+import org.jolokia.server.core.request.EmptyResponseException;
+import org.jolokia.server.core.request.JolokiaReadRequest;
+import org.jolokia.server.core.request.JolokiaRequest;
+import org.jolokia.server.core.request.NotChangedException;
+import org.jolokia.server.core.service.api.Restrictor;
+import org.jolokia.server.core.util.RequestType;
+
+/**
+ * Collapses identical <code>read</code> and <code>list</code> requests which are executed concurrently,
+ * so that only the first of them is dispatched and all others wait for and share its serialized
+ * value (or its exception). Requests are identical if they have the same JSON representation, the
+ * same processing parameters and are executed with the same JAAS subject.
+ *
+ * The restrictor is checked for every request before it joins a request in flight. Requests which are not
+ * allowed are not collapsed, so that they fail as usual.
+ */
+final class RequestCollapser {
+
+    // Default time to wait for the result of a request in flight
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30 * 1000L;
+
+    private final Map<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+
+    // Maximum time in milliseconds a request waits for the request it has joined
+    private final long timeout;
+
+    /**
+     * Constructor with the default timeout of 30 seconds
+     */
+    RequestCollapser() {
+        this(DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param pTimeout maximum time in milliseconds to wait for the result of a request in flight
+     */
+    RequestCollapser(long pTimeout) {
+        timeout = pTimeout;
+    }
+
+    /**
+     * Join the execution of an identical request in flight or start a new one
+     *
+     * @param pRequest request to execute
+     * @param pRestrictor restrictor to check whether the request is allowed at all
+     * @return the flight to execute (if {@link Flight#isLeader()}) or to wait for. <code>null</code> if the
+     *         request can't be collapsed and has to be executed as usual.
+     */
+    Flight join(JolokiaRequest pRequest, Restrictor pRestrictor) {
+        if (!isCollapsible(pRequest, pRestrictor)) {
+            return null;
+        }
+        List<Object> key = new ArrayList<>();
+        key.add(pRequest.toJSON().toJSONString());
+        // JMX authorization may depend on the caller, which is given by the subject (null if not authenticated via JAAS)
+        key.add(Subject.getSubject(AccessController.getContext()));
+        for (ConfigKey configKey : ConfigKey.values()) {
+            if (configKey.isRequestConfig()) {
+                key.add(pRequest.getParameter(configKey));
+            }
+        }
+        Flight[] started = new Flight[1];
+        Flight flight = flights.compute(key, (k, inFlight) -> {
+            if (inFlight == null) {
+                started[0] = new Flight(k);
+                return started[0];
+            }
+            inFlight.followers++;
+            return inFlight;
+        });
+        return flight == started[0] ? flight : new Flight(flight);
+    }
+
+    /**
+     * Number of requests in flight
+     *
+     * @return number of requests which are currently executed and can be joined
+     */
+    int size() {
+        return flights.size();
+    }
+
+    // ==================================================================================================
+
+    private boolean isCollapsible(JolokiaRequest pRequest, Restrictor pRestrictor) {
+        if (pRequest.getType() == RequestType.LIST) {
+            return pRestrictor.isTypeAllowed(RequestType.LIST);
+        }
+        if (pRequest.getType() == RequestType.READ) {
+            JolokiaReadRequest request = (JolokiaReadRequest) pRequest;
+            ObjectName name = request.getObjectName();
+            List<String> attributes = request.getAttributeNames();
+            return ResponseCache.isReadAllowed(pRestrictor, name,
+                                               name.isPattern() || attributes == null || attributes.contains(null) ?
+                                                   Collections.emptyList() : attributes);
+        }
+        return false;
+    }
+
+    /**
+     * Execution of a request shared by concurrent identical requests. The first request (the leader)
+     * executes the request and must call either {@link #complete(Object)} or {@link #fail(Throwable)}.
+     * All other requests wait for the result with {@link #await()} and execute the request on their own
+     * if it takes too long.
+     */
+    final class Flight {
+        private final List<Object> key;
+        private final CompletableFuture<Object> result;
+        private final boolean leader;
+
+        // Number of requests which have joined. Only modified while the flight is in the map.
+        private volatile int followers;
+        private boolean closed;
+
+        private Flight(List<Object> pKey) {
+            key = pKey;
+            result = new CompletableFuture<>();
+            leader = true;
+        }
+
+        private Flight(Flight pLeader) {
+            key = pLeader.key;
+            result = pLeader.result;
+            leader = false;
+        }
+
+        /**
+         * Whether this request has to be executed by the caller
+         *
+         * @return true for the first of the identical requests
+         */
+        boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Stop other requests from joining this flight. Called by the leader as soon as the
+         * request has been dispatched, so that later requests get a fresh value.
+         *
+         * @return true if other requests have joined and the result will be shared
+         */
+        boolean close() {
+            if (!closed) {
+                closed = true;
+                flights.remove(key, this);
+            }
+            // The removal has been done in the map's lock for this key, so followers is up to date
+            return followers > 0;
+        }
+
+        /**
+         * Finish the flight with the serialized value of the request
+         *
+         * @param pValue value to hand out to all requests which have joined
+         */
+        void complete(Object pValue) {
+            close();
+            result.complete(pValue);
+        }
+
+        /**
+         * Finish the flight with an error
+         *
+         * @param pError error to throw for all requests which have joined
+         */
+        void fail(Throwable pError) {
+            close();
+            result.completeExceptionally(pError);
+        }
+
+        /**
+         * Wait for the value of the request executed by the leader
+         *
+         * @return the serialized value
+         * @throws TimeoutException if the leader didn't finish in time, so that the request has to be executed
+         *         by the caller
+         * @throws InterruptedIOException if the waiting thread has been interrupted
+         */
+        Object await() throws JMException, IOException, NotChangedException, EmptyResponseException, TimeoutException {
+            try {
+                return result.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException ioExp = new InterruptedIOException("Interrupted while waiting for the result of an identical request");
+                ioExp.initCause(exp);
+                throw ioExp;
+            } catch (ExecutionException exp) {
+                Throwable cause = exp.getCause();
+                if (cause instanceof JMException) {
+                    throw (JMException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof NotChangedException) {
+                    throw (NotChangedException) cause;
+                } else if (cause instanceof EmptyResponseException) {
+                    throw (EmptyResponseException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("Error while executing request: " + cause, cause);
+            }
+        }
+    }
+}
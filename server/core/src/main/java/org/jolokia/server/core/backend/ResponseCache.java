@@ -0,0 +1,256 @@
+package org.jolokia.server.core.backend;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.security.AccessController;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.ObjectName;
+import javax.security.auth.Subject;
+
+import org.jolokia.json.JSONObject;
+import org.jolokia.json.parser.JSONParser;
+import org.jolokia.server.core.config.ConfigKey;
+import org.jolokia.server.core.request.JolokiaReadRequest;
+import org.jolokia.server.core.request.JolokiaRequest;
+import org.jolokia.server.core.service.api.JolokiaContext;
+import org.jolokia.server.core.service.api.Restrictor;
+import org.jolokia.server.core.util.RequestType;
+
+/**
+ * Cache for the serialized values of <code>read</code> requests. Only reads of explicitly given attributes
+ * of a single, local MBean are cached. The values are cached by the request (including the path and
+ * the options influencing the serialization) for the time configured for the MBean with
+ * {@link ConfigKey#RESPONSE_CACHE}, which can be shortened or (for MBeans without a configured time)
+ * given by the request's {@link ConfigKey#MAX_AGE} parameter, which is limited to
+ * {@link ConfigKey#RESPONSE_CACHE_MAX_AGE}.
+ *
+ * The restrictor is checked for every request, also when a value is taken from the cache.
+ * Values are cached separately for each JAAS subject the request is executed with, so that
+ * a value read with the permissions of one user is never returned to another one.
+ * Cached values are shared between responses and must not be modified.
+ */
+final class ResponseCache {
+
+    // Request parameters which influence the serialized value
+    private static final ConfigKey[] SERIALIZE_KEYS = {
+        ConfigKey.MAX_DEPTH, ConfigKey.MAX_COLLECTION_SIZE, ConfigKey.MAX_OBJECTS,
+        ConfigKey.SERIALIZE_LONG, ConfigKey.IGNORE_ERRORS, ConfigKey.CANONICAL_NAMING
+    };
+
+    private final int maxSize;
+
+    // Upper limit for the maxAge request parameter in milliseconds
+    private final long maxAgeLimit;
+
+    // Time to live in milliseconds by MBean name or pattern, in configuration order
+    private final Map<ObjectName, Long> ttls;
+
+    private final Map<List<Object>, CachedValue> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param pMaxSize maximum number of cached values
+     * @param pMaxAgeLimit upper limit in milliseconds for the time a client can request with {@link ConfigKey#MAX_AGE}
+     * @param pTtls time to live in milliseconds by MBean name or pattern. The first matching entry wins.
+     */
+    ResponseCache(int pMaxSize, long pMaxAgeLimit, Map<ObjectName, Long> pTtls) {
+        maxSize = pMaxSize;
+        maxAgeLimit = pMaxAgeLimit;
+        ttls = pTtls;
+    }
+
+    /**
+     * Create a response cache from the agent configuration
+     *
+     * @param pCtx context for looking up the configuration and logging errors
+     * @return the cache or <code>null</code> if the cache is not enabled or the configuration is invalid
+     */
+    static ResponseCache create(JolokiaContext pCtx) {
+        String config = pCtx.getConfig(ConfigKey.RESPONSE_CACHE);
+        if (config == null) {
+            return null;
+        }
+        try {
+            Map<ObjectName, Long> ttls = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : new JSONParser().parse(config, JSONObject.class).entrySet()) {
+                ttls.put(new ObjectName(entry.getKey()), ((Number) entry.getValue()).longValue() * 1000);
+            }
+            return new ResponseCache(ConfigKey.RESPONSE_CACHE_SIZE.getIntValue(pCtx::getConfig),
+                                     ConfigKey.RESPONSE_CACHE_MAX_AGE.getIntValue(pCtx::getConfig) * 1000L,
+                                     ttls);
+        } catch (Exception e) {
+            pCtx.error("Could not parse response cache configuration '" + config + "', response cache is disabled: " + e, e);
+            return null;
+        }
+    }
+
+    /**
+     * Lookup the value for a request
+     *
+     * @param pRequest request to lookup
+     * @param pRestrictor restrictor to check whether the request is allowed at all
+     * @return the lookup, which carries the cached value if there is one. <code>null</code> if the request
+     *         is not cacheable or not allowed, in which case it has to be handled as usual.
+     */
+    Lookup lookup(JolokiaRequest pRequest, Restrictor pRestrictor) {
+        if (pRequest.getType() != RequestType.READ) {
+            return null;
+        }
+        JolokiaReadRequest request = (JolokiaReadRequest) pRequest;
+        ObjectName name = request.getObjectName();
+        List<String> attributes = request.getAttributeNames();
+        if (name.isPattern() || attributes == null || attributes.isEmpty() || attributes.contains(null)) {
+            return null;
+        }
+        long ttl = getTtl(request);
+        if (ttl <= 0 || !isReadAllowed(pRestrictor, name, attributes)) {
+            return null;
+        }
+        JSONObject json = request.toJSON();
+        if (json.containsKey("options")) {
+            // Requests to other targets
+            return null;
+        }
+        List<Object> key = new ArrayList<>(SERIALIZE_KEYS.length + 2);
+        key.add(json.toJSONString());
+        // JMX authorization may depend on the caller, which is given by the subject (null if not authenticated via JAAS)
+        key.add(Subject.getSubject(AccessController.getContext()));
+        for (ConfigKey configKey : SERIALIZE_KEYS) {
+            key.add(request.getParameter(configKey));
+        }
+        CachedValue cached = cache.get(key);
+        long now = System.currentTimeMillis();
+        return new Lookup(key, ttl, cached != null && now - cached.created < ttl ? cached : null);
+    }
+
+    /**
+     * Number of cached values
+     *
+     * @return cache size
+     */
+    int size() {
+        return cache.size();
+    }
+
+    // ==================================================================================================
+
+    // Time to live for the given request, 0 if it should not be cached
+    private long getTtl(JolokiaReadRequest pRequest) {
+        Long ttl = null;
+        for (Map.Entry<ObjectName, Long> entry : ttls.entrySet()) {
+            if (entry.getKey().apply(pRequest.getObjectName())) {
+                ttl = entry.getValue();
+                break;
+            }
+        }
+        String maxAge = pRequest.getParameter(ConfigKey.MAX_AGE);
+        if (maxAge != null) {
+            long maxAgeMillis = Math.min(Long.parseLong(maxAge.trim()) * 1000, maxAgeLimit);
+            return ttl != null ? Math.min(ttl, maxAgeMillis) : maxAgeMillis;
+        }
+        return ttl != null ? ttl : 0;
+    }
+
+    /**
+     * Check whether a read request is allowed by the restrictor
+     *
+     * @param pRestrictor restrictor to check
+     * @param pName MBean to read. Patterns are not checked for being hidden.
+     * @param pAttributes attributes to read
+     * @return true if reading all attributes is allowed
+     */
+    static boolean isReadAllowed(Restrictor pRestrictor, ObjectName pName, List<String> pAttributes) {
+        if (!pRestrictor.isTypeAllowed(RequestType.READ) ||
+            (!pName.isPattern() && pRestrictor.isObjectNameHidden(pName))) {
+            return false;
+        }
+        for (String attribute : pAttributes) {
+            if (!pRestrictor.isAttributeReadAllowed(pName, attribute)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void store(List<Object> pKey, Object pValue, long pTtl) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(v -> v.expires <= now);
+            if (cache.size() >= maxSize) {
+                return;
+            }
+        }
+        cache.put(pKey, new CachedValue(pValue, now, now + pTtl));
+    }
+
+    /**
+     * Result of a cache lookup for a cacheable request
+     */
+    final class Lookup {
+        private final List<Object> key;
+        private final long ttl;
+        private final CachedValue cached;
+
+        private Lookup(List<Object> pKey, long pTtl, CachedValue pCached) {
+            key = pKey;
+            ttl = pTtl;
+            cached = pCached;
+        }
+
+        /**
+         * Whether a value has been found in the cache
+         *
+         * @return true if {@link #getValue()} can be used
+         */
+        boolean isHit() {
+            return cached != null;
+        }
+
+        /**
+         * Get the cached value
+         *
+         * @return serialized value
+         */
+        Object getValue() {
+            return cached.value;
+        }
+
+        /**
+         * Store the serialized value for the request of this lookup
+         *
+         * @param pValue value to cache
+         */
+        void store(Object pValue) {
+            ResponseCache.this.store(key, pValue, ttl);
+        }
+    }
+
+    private static final class CachedValue {
+        private final Object value;
+        private final long created;
+        private final long expires;
+
+        private CachedValue(Object pValue, long pCreated, long pExpires) {
+            value = pValue;
+            created = pCreated;
+            expires = pExpires;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.jolokia.server.core.backend;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jolokia.json.JSONWriter;
+
+/**
+ * ETag of a serialized value. The ETag is a 64 bit FNV-1a hash of the value's JSON representation, which
+ * is calculated by writing the value into a hashing {@link Writer}, so no JSON string is created.
+ * This is an extra serialization pass in addition to writing the response, since the ETag has to be known
+ * before the response is written: it is sent as HTTP header and decides whether a value is sent at all.
+ * It is meant for detecting changed values, not for protecting against forged values.
+ */
+final class ValueETag {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ValueETag() {
+    }
+
+    /**
+     * Calculate the ETag of a value
+     *
+     * @param pValue serialized value (i.e. a JSON structure or simple value)
+     * @return the ETag as hex string
+     */
+    static String calculate(Object pValue) {
+        HashingWriter writer = new HashingWriter();
+        try {
+            JSONWriter.serialize(pValue, writer);
+        } catch (IOException e) {
+            // Cannot happen, since the writer doesn't do any IO
+            throw new IllegalStateException("Cannot calculate ETag: " + e, e);
+        }
+        return String.format("%016x", writer.hash);
+    }
+
+    /**
+     * Check whether an ETag is contained in an <code>If-None-Match</code> value
+     *
+     * @param pIfNoneMatch one or more comma separated ETags, which can be quoted and marked as weak
+     *                     (<code>W/"..."</code>) like in the HTTP header
+     * @param pETag ETag to check
+     * @return true if the ETag is contained
+     */
+    static boolean matches(String pIfNoneMatch, String pETag) {
+        for (String tag : pIfNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            if (tag.equals(pETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Writer which only hashes the chars written to it
+    private static final class HashingWriter extends Writer {
+        private long hash = FNV_OFFSET_BASIS;
+
+        @Override
+        public void write(int c) {
+            hash = (hash ^ (c & 0xffff)) * FNV_PRIME;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.Function;
 
 /**
  * Enumeration defining the various configuration constant names which
@@ -145,6 +146,91 @@ public enum ConfigKey {
      */
     STREAMING("streaming", true, false, Constants.TRUE),
 
+    /**
+     * Whether the values of HTTP responses are serialized directly into the response while it is written,
+     * without building a JSON tree in memory first. Since the response status has already been sent
+     * by then, an error during serialization (e.g. a failing getter) can't be reported as an error of
+     * the single request anymore but aborts the whole response. Default is "false"
+     */
+    DEFER_SERIALIZATION("deferSerialization", true, false, Constants.FALSE),
+
+    /**
+     * Number of threads of the pool used for executing the requests of a bulk request in parallel.
+     * When set to 0 (the default), bulk requests are always executed sequentially.
+     */
+    BULK_THREADS("bulkThreads", true, false, "0"),
+
+    /**
+     * Number of requests of a single bulk request which are executed in parallel (including the thread
+     * handling the HTTP request). Parallel execution must be enabled with {@link #BULK_THREADS}, and the value
+     * is limited by {@link #BULK_MAX_PARALLELISM}. A request parameter overrides a global configuration.
+     * Default is 1, i.e. bulk requests are executed sequentially.
+     */
+    BULK_PARALLELISM("bulkParallelism", true, true, null, Integer.class),
+
+    /**
+     * Upper limit for {@link #BULK_PARALLELISM}, so that a single bulk request cannot occupy all threads
+     * of the pool. Default is 4.
+     */
+    BULK_MAX_PARALLELISM("bulkMaxParallelism", true, false, "4"),
+
+    /**
+     * Maximum number of cached MBeanInfos. Cached entries are removed when an MBean is unregistered.
+     * When the cache is full, an arbitrary entry is evicted. A value of 0 disables the cache. Default is 1000.
+     */
+    MBEAN_INFO_CACHE_SIZE("mbeanInfoCacheSize", true, false, "1000"),
+
+    /**
+     * Time to live in seconds for cached MBeanInfos. With a value of 0 (the default) only MBeanInfos declared
+     * as immutable (descriptor field <code>immutableInfo=true</code>) are cached until the MBean is unregistered.
+     * Otherwise all MBeanInfos are cached, so that changes of dynamic MBeans become visible after this time.
+     */
+    MBEAN_INFO_CACHE_TTL("mbeanInfoCacheTtl", true, false, "0"),
+
+    /**
+     * Whether to keep an index of the names of all MBeans registered at local MBeanServers, which is
+     * used for answering pattern queries without scanning all MBeans. The index is built once for
+     * all callers, so it must not be enabled for MBeanServers which show different MBeans to different
+     * callers. MBeanServers wrapped by an {@link javax.management.remote.MBeanServerForwarder} or a proxy
+     * are never indexed. Default is "false"
+     */
+    MBEAN_NAME_INDEX("mbeanNameIndex", true, false, Constants.FALSE),
+
+    /**
+     * Enables a cache for the values of <code>read</code> requests on single MBeans with explicitly given attributes.
+     * The value is a JSON object with MBean names or patterns as keys and the time in seconds for how long
+     * values are cached as values. The first matching pattern wins. Values of MBeans not matching any pattern are
+     * only cached for requests with a {@link #MAX_AGE} parameter. E.g.
+     *
+     * <pre>
+     *     {
+     *         "java.lang:type=Memory" : 5,
+     *         "java.lang:*" : 1
+     *     }
+     * </pre>
+     *
+     * Values are cached separately for each authenticated JAAS subject.
+     */
+    RESPONSE_CACHE("responseCache", true, false),
+
+    /**
+     * Maximum number of values cached by the response cache. Default is 1000.
+     */
+    RESPONSE_CACHE_SIZE("responseCacheSize", true, false, "1000"),
+
+    /**
+     * Upper limit in seconds for the time a client can request with the {@link #MAX_AGE} parameter
+     * for caching values of MBeans without a time configured with {@link #RESPONSE_CACHE}. Default is 60.
+     */
+    RESPONSE_CACHE_MAX_AGE("responseCacheMaxAge", true, false, "60"),
+
+    /**
+     * Whether identical <code>read</code> and <code>list</code> requests which are executed concurrently
+     * are collapsed, so that only one of them is executed and all share its result. Only requests executed
+     * with the same JAAS subject are collapsed. Default is false.
+     */
+    REQUEST_COLLAPSING("requestCollapsing", true, false, Constants.FALSE),
+
     /**
      * Optional domain name for registering own MBeans
      */
@@ -171,6 +257,13 @@ public enum ConfigKey {
      */
     INCLUDE_REQUEST("includeRequest", true, true, null, Boolean.class),
 
+    /**
+     * Whether to add an ETag calculated from the value to the {@code etag} field of responses to {@code read}
+     * requests. This requires the value to be serialized before the response is written. Defaults to {@code false},
+     * but an ETag is always added when the request has an {@link #IF_NONE_MATCH} parameter.
+     */
+    INCLUDE_ETAG("includeEtag", true, true, null, Boolean.class),
+
     /**
      * A request parameter for {@code list} operation, which tells Jolokia to return a map of keys obtained from
      * {@link javax.management.ObjectName#getKeyPropertyList()} under {@code keys} field of the data for an MBean.
@@ -186,6 +279,20 @@ public enum ConfigKey {
      */
     IF_MODIFIED_SINCE("ifModifiedSince", false, true, null, Integer.class),
 
+    /**
+     * For READ requests, this option allows to return a cached value which is not older than the given
+     * number of seconds. This works only when a response cache is enabled with {@link #RESPONSE_CACHE}
+     * and is limited to {@link #RESPONSE_CACHE_MAX_AGE}.
+     */
+    MAX_AGE("maxAge", false, true, null, Integer.class),
+
+    /**
+     * For READ requests, the ETag of a value from a previous response. If the value has the same ETag,
+     * an empty response with a status 304 ("Not Modified") is returned. Multiple ETags can be given
+     * separated by commas, like in the HTTP header <code>If-None-Match</code>.
+     */
+    IF_NONE_MATCH("ifNoneMatch", false, true),
+
     /**
      * Query parameter used for providing a path in order to avoid escaping
      * issues. This can be used as an alternative for path notations
@@ -515,6 +622,18 @@ public enum ConfigKey {
         return defaultValue;
     }
 
+    /**
+     * Get the configured value of this key as int, or the default value if it is not configured
+     *
+     * @param pLookup lookup of configured values, like {@link Configuration#getConfig(ConfigKey)}
+     * @return the value as int
+     * @throws NumberFormatException if the value is not an integer
+     */
+    public int getIntValue(Function<ConfigKey, String> pLookup) {
+        String value = pLookup.apply(this);
+        return Integer.parseInt((value != null ? value : defaultValue).trim());
+    }
+
     /**
      * Whether this key is a global configuration key
      * @return true if this is a global configuration key
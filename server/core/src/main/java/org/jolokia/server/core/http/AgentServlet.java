@@ -2,7 +2,6 @@ package org.jolokia.server.core.http;
 
 import java.io.*;
 import java.net.*;
-import java.nio.charset.StandardCharsets;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.*;
@@ -24,6 +23,8 @@ import org.jolokia.server.core.util.ClassUtil;
 import org.jolokia.server.core.util.IoUtil;
 import org.jolokia.server.core.util.MimeTypeUtil;
 import org.jolokia.server.core.util.NetworkUtil;
+import org.jolokia.json.CBORWriter;
+import org.jolokia.json.JSONObject;
 import org.jolokia.json.JSONStructure;
 
 
@@ -147,6 +148,9 @@ public class AgentServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        if (requestHandler != null) {
+            requestHandler.destroy();
+        }
         serviceManager.stop();
     }
 
@@ -523,11 +527,27 @@ public class AgentServlet extends HttpServlet {
             /** {@inheritDoc} */
             public JSONStructure handleRequest(HttpServletRequest pReq, HttpServletResponse pResp)
                     throws EmptyResponseException {
-                return requestHandler.handleGetRequest(pReq.getRequestURI(),pReq.getPathInfo(), getParameterMap(pReq));
+                boolean cbor = isCborRequested(pReq);
+                JSONStructure json = requestHandler.handleGetRequest(pReq.getRequestURI(), pReq.getPathInfo(), getParameterMap(pReq),
+                                                                     MimeTypeUtil.getIfNoneMatch(pReq.getHeader("If-None-Match"), cbor));
+                setETagHeader(pResp, json, cbor);
+                return json;
             }
         };
     }
 
+    // Set the ETag of a read response also as HTTP header, which differs for JSON and CBOR responses
+    private void setETagHeader(HttpServletResponse pResp, JSONStructure pJson, boolean pCbor) {
+        Object etag = pJson instanceof JSONObject ? ((JSONObject) pJson).get("etag") : null;
+        if (etag != null) {
+            pResp.setHeader("ETag", MimeTypeUtil.getETagHeader(etag.toString(), pCbor));
+        }
+    }
+
+    private boolean isCborRequested(HttpServletRequest pReq) {
+        return MimeTypeUtil.isCborRequested(pReq.getHeader("Accept"), pReq.getParameter(ConfigKey.CALLBACK.getKeyValue()));
+    }
+
     // =======================================================================
 
     // Get parameter map either directly from a Servlet 2.4 compliant implementation
@@ -550,21 +570,45 @@ public class AgentServlet extends HttpServlet {
     }
 
     private void sendResponse(HttpServletResponse pResp, HttpServletRequest pReq, JSONStructure pJson) throws IOException {
+        if (isNotModified(pReq, pJson)) {
+            // Validation of the ETag given in the HTTP header, so answer with an HTTP 304 without body
+            pResp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            setNoCacheHeaders(pResp);
+            return;
+        }
         String callback = pReq.getParameter(ConfigKey.CALLBACK.getKeyValue());
 
-        setContentType(pResp,
-                       MimeTypeUtil.getResponseMimeType(
-                           pReq.getParameter(ConfigKey.MIME_TYPE.getKeyValue()),
-                           configMimeType, callback));
+        // binary encoding of the same response, if the client asks for it
+        boolean cbor = pJson != null && isCborRequested(pReq);
+        if (cbor) {
+            pResp.setContentType(CBORWriter.MIME_TYPE);
+        } else {
+            setContentType(pResp,
+                           MimeTypeUtil.getResponseMimeType(
+                               pReq.getParameter(ConfigKey.MIME_TYPE.getKeyValue()),
+                               configMimeType, callback));
+        }
         pResp.setStatus(HttpServletResponse.SC_OK);
         setNoCacheHeaders(pResp);
         if (pJson == null) {
             pResp.setContentLength(-1);
+        } else if (cbor) {
+            IoUtil.streamCborResponseAndClose(pResp.getOutputStream(), pJson);
         } else {
             sendStreamingResponse(pResp, callback, pJson);
         }
     }
 
+    // Whether a GET request was answered with "304 Not Modified" because of the If-None-Match header.
+    // A client using the ifNoneMatch parameter instead gets the status within the JSON response.
+    private boolean isNotModified(HttpServletRequest pReq, JSONStructure pJson) {
+        return pReq.getHeader("If-None-Match") != null &&
+               "GET".equalsIgnoreCase(pReq.getMethod()) &&
+               pReq.getParameter(ConfigKey.IF_NONE_MATCH.getKeyValue()) == null &&
+               pJson instanceof JSONObject &&
+               Integer.valueOf(HttpServletResponse.SC_NOT_MODIFIED).equals(((JSONObject) pJson).get("status"));
+    }
+
     private void validateCallbackIfGiven(HttpServletRequest pReq) {
         String callback = pReq.getParameter(ConfigKey.CALLBACK.getKeyValue());
         if (callback != null && !MimeTypeUtil.isValidCallback(callback)) {
@@ -572,12 +616,13 @@ public class AgentServlet extends HttpServlet {
         }
     }
     private void sendStreamingResponse(HttpServletResponse pResp, String pCallback, JSONStructure pJson) throws IOException {
-        Writer writer = new OutputStreamWriter(pResp.getOutputStream(), StandardCharsets.UTF_8);
-        IoUtil.streamResponseAndClose(writer, pJson, pCallback);
+        IoUtil.streamResponseAndClose(pResp.getOutputStream(), pJson, pCallback);
     }
 
     private void setNoCacheHeaders(HttpServletResponse pResp) {
         pResp.setHeader("Cache-Control", "no-cache");
+        // The encoding of the response (and so the ETag of a read response) depends on the Accept header
+        pResp.setHeader("Vary", "Accept");
         // Check for a date header and set it accordingly to the recommendations of
         // RFC-2616 (http://tools.ietf.org/html/rfc2616#section-14.21)
         //
@@ -15,31 +15,46 @@
  */
 package org.jolokia.server.core.http;
 
+import java.io.CharConversionException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.jolokia.json.JSONArray;
 import org.jolokia.json.JSONObject;
 import org.jolokia.json.JSONStructure;
-import org.jolokia.json.parser.JSONParser;
+import org.jolokia.json.parser.JSONPullParser;
 import org.jolokia.json.parser.ParseException;
+import org.jolokia.server.core.config.ConfigKey;
 import org.jolokia.server.core.request.BadRequestException;
 import org.jolokia.server.core.request.BaseRequestHandler;
+import org.jolokia.server.core.request.BulkReadGroup;
 import org.jolokia.server.core.request.EmptyResponseException;
 import org.jolokia.server.core.request.JolokiaRequest;
 import org.jolokia.server.core.request.JolokiaRequestFactory;
 import org.jolokia.server.core.request.ProcessingParameters;
 import org.jolokia.server.core.service.api.JolokiaContext;
+import org.jolokia.server.core.util.DaemonThreadFactory;
 
 /**
  * Request handler with no dependency on the servlet API, but designed for handling HTTP requests.
@@ -51,6 +66,12 @@ import org.jolokia.server.core.service.api.JolokiaContext;
  */
 public class HttpRequestHandler extends BaseRequestHandler {
 
+    // Pool for executing the requests of a bulk request in parallel, null if disabled
+    private final ExecutorService bulkExecutor;
+
+    // Maximum number of requests of a single bulk request executed in parallel
+    private final int maxBulkParallelism;
+
     /**
      * Request handler for parsing HTTP request and dispatching to the appropriate
      * request handler (with help of the backend manager)
@@ -58,7 +79,21 @@ public class HttpRequestHandler extends BaseRequestHandler {
      * @param context jolokia context
      */
     public HttpRequestHandler(JolokiaContext context) {
-        super(context);
+        // responses are always written out, so the values can be serialized directly into the output if requested
+        super(context, Boolean.parseBoolean(context.getConfig(ConfigKey.DEFER_SERIALIZATION)));
+        int bulkThreads = ConfigKey.BULK_THREADS.getIntValue(context::getConfig);
+        bulkExecutor = bulkThreads > 0 ? createBulkExecutor(bulkThreads) : null;
+        maxBulkParallelism = ConfigKey.BULK_MAX_PARALLELISM.getIntValue(context::getConfig);
+    }
+
+    /**
+     * Release the resources of this handler, i.e. stop the threads used for parallel bulk requests.
+     * This handler must not be used anymore afterwards.
+     */
+    public void destroy() {
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -70,10 +105,31 @@ public class HttpRequestHandler extends BaseRequestHandler {
      */
     public JSONStructure handleGetRequest(String pUri, String pPathInfo, Map<String, String[]> pParameterMap)
         throws EmptyResponseException {
+        return handleGetRequest(pUri, pPathInfo, pParameterMap, null);
+    }
+
+    /**
+     * Handle a GET request with the value of an HTTP <code>If-None-Match</code> header, which is used
+     * for the {@link ConfigKey#IF_NONE_MATCH} processing parameter unless this parameter is given explicitly.
+     *
+     * @param pUri          URI leading to this request
+     * @param pPathInfo     path of the request
+     * @param pParameterMap parameters of the GET request
+     * @param pIfNoneMatch  value of the <code>If-None-Match</code> header or <code>null</code>
+     * @return the response
+     */
+    public JSONStructure handleGetRequest(String pUri, String pPathInfo, Map<String, String[]> pParameterMap, String pIfNoneMatch)
+        throws EmptyResponseException {
+        Map<String, String[]> parameterMap = pParameterMap;
+        String ifNoneMatchKey = ConfigKey.IF_NONE_MATCH.getKeyValue();
+        if (pIfNoneMatch != null && (pParameterMap == null || !pParameterMap.containsKey(ifNoneMatchKey))) {
+            parameterMap = pParameterMap != null ? new HashMap<>(pParameterMap) : new HashMap<>();
+            parameterMap.put(ifNoneMatchKey, new String[] { pIfNoneMatch });
+        }
         String pathInfo = extractPathInfo(pUri, pPathInfo);
 
         JolokiaRequest jmxReq =
-            JolokiaRequestFactory.createGetRequest(pathInfo, getProcessingParameter(pParameterMap));
+            JolokiaRequestFactory.createGetRequest(pathInfo, getProcessingParameter(parameterMap));
 
         if (jolokiaCtx.isDebug()) {
             jolokiaCtx.debug("URI: " + pUri);
@@ -88,13 +144,13 @@ public class HttpRequestHandler extends BaseRequestHandler {
      *
      * @param pUri          URI leading to this request
      * @param pInputStream  input stream of the post request
-     * @param pEncoding     optional encoding for the stream. If null, the default encoding is used
+     * @param pEncoding     optional encoding for the stream. If null, the default encoding is used. UTF-8 input
+     *                      is decoded directly by the JSON parser
      * @param pParameterMap additional processing parameters
      * @return the JSON object containing the json results for one or more {@link JolokiaRequest} contained
      * within the answer.
      * @throws IOException if reading from the input stream fails
      */
-    @SuppressWarnings("unchecked")
     public JSONStructure handlePostRequest(String pUri, InputStream pInputStream, String pEncoding, Map<String, String[]> pParameterMap)
         throws IOException, EmptyResponseException {
         if (jolokiaCtx.isDebug()) {
@@ -102,25 +158,41 @@ public class HttpRequestHandler extends BaseRequestHandler {
         }
 
         ProcessingParameters parameters = getProcessingParameter(pParameterMap);
-        Object jsonRequest = extractJsonRequest(pInputStream, pEncoding);
-        if (jsonRequest instanceof JSONArray) {
-            List<JolokiaRequest> jolokiaRequests = JolokiaRequestFactory.createPostRequests((List<?>) jsonRequest, parameters);
-
-            JSONArray responseList = new JSONArray(jolokiaRequests.size());
-            for (JolokiaRequest jmxReq : jolokiaRequests) {
-                if (jolokiaCtx.isDebug()) {
-                    jolokiaCtx.debug("Request: " + jmxReq.toString());
+        try {
+            JSONPullParser parser = createJsonParser(pInputStream, pEncoding);
+            JSONPullParser.Event event = parser.next();
+            if (event == JSONPullParser.Event.START_ARRAY) {
+                // bulk request - requests are created while parsing, without building the list of JSON objects
+                List<JolokiaRequest> jolokiaRequests = JolokiaRequestFactory.createPostRequests(parser, parameters);
+                ensureEndOfStream(parser);
+                // reads on the same MBean can be fetched together
+                BulkReadGroup.groupReads(jolokiaRequests);
+
+                int parallelism = getBulkParallelism(parameters, jolokiaRequests.size());
+                if (parallelism > 1) {
+                    return new BulkExecution(jolokiaRequests).execute(parallelism);
                 }
-                // Call handler and retrieve return value
-                JSONObject resp = executeRequest(jmxReq);
-                responseList.add(resp);
+                JSONArray responseList = new JSONArray(jolokiaRequests.size());
+                for (JolokiaRequest jmxReq : jolokiaRequests) {
+                    // Call handler and retrieve return value
+                    JSONObject resp = executeBulkRequest(jmxReq);
+                    responseList.add(resp);
+                }
+                return responseList;
+            } else if (event == JSONPullParser.Event.START_OBJECT) {
+                JSONObject jsonRequest = (JSONObject) parser.readValue();
+                ensureEndOfStream(parser);
+                JolokiaRequest jmxReq = JolokiaRequestFactory.createPostRequest(jsonRequest, parameters);
+                return executeRequest(jmxReq);
+            } else {
+                throw new BadRequestException("Invalid JSON Request. Expected Object or Array");
             }
-            return responseList;
-        } else if (jsonRequest instanceof JSONObject) {
-            JolokiaRequest jmxReq = JolokiaRequestFactory.createPostRequest((Map<String, ?>) jsonRequest, parameters);
-            return executeRequest(jmxReq);
-        } else {
-            throw new BadRequestException("Invalid JSON Request. Expected Object or Array");
+        } catch (ParseException exp) {
+            // JSON parsing error means we can't even know if it's bulk request or not, so HTTP 400
+            throw new BadRequestException("Invalid JSON request", exp);
+        } catch (CharConversionException exp) {
+            // malformed UTF-8 input
+            throw new BadRequestException("Invalid JSON request: " + exp.getMessage(), exp);
         }
     }
 
@@ -151,18 +223,152 @@ public class HttpRequestHandler extends BaseRequestHandler {
         return ret;
     }
 
-    private Object extractJsonRequest(InputStream pInputStream, String pEncoding) throws IOException {
-        InputStreamReader reader;
-        try {
-            reader =
-                pEncoding != null ?
-                    new InputStreamReader(pInputStream, pEncoding) :
-                    new InputStreamReader(pInputStream);
-            JSONParser parser = new JSONParser();
-            return parser.parse(reader);
-        } catch (ParseException exp) {
-            // JSON parsing error means we can't even know if it's bulk request or not, so HTTP 400
-            throw new BadRequestException("Invalid JSON request", exp);
+    // Execute a single request of a bulk request
+    private JSONObject executeBulkRequest(JolokiaRequest pJmxReq) throws EmptyResponseException {
+        if (jolokiaCtx.isDebug()) {
+            jolokiaCtx.debug("Request: " + pJmxReq.toString());
+        }
+        return executeRequest(pJmxReq);
+    }
+
+    // Number of threads to use for a bulk request, which is 1 for sequential execution
+    private int getBulkParallelism(ProcessingParameters pParameters, int pNrRequests) throws BadRequestException {
+        if (bulkExecutor == null || pNrRequests < 2) {
+            return 1;
+        }
+        String value = pParameters.get(ConfigKey.BULK_PARALLELISM);
+        if (value == null) {
+            value = jolokiaCtx.getConfig(ConfigKey.BULK_PARALLELISM);
+        }
+        int parallelism = 1;
+        if (value != null) {
+            try {
+                parallelism = Integer.parseInt(value.trim());
+            } catch (NumberFormatException exp) {
+                parallelism = 0;
+            }
+            if (parallelism < 1) {
+                throw new BadRequestException("Invalid value of " + ConfigKey.BULK_PARALLELISM.getKeyValue() + " parameter");
+            }
+        }
+        return Math.min(Math.min(parallelism, maxBulkParallelism), pNrRequests);
+    }
+
+    private static ExecutorService createBulkExecutor(int pThreads) {
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(pThreads, pThreads, 60L, TimeUnit.SECONDS,
+                                   new LinkedBlockingQueue<>(), new DaemonThreadFactory("jolokia-bulk-"));
+        // Threads are kept only as long as bulk requests are coming in
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Parallel execution of the requests of a single bulk request. The thread handling the HTTP request
+     * takes part in the execution, so that the bulk request completes even when all threads of
+     * the pool are busy. Responses are returned in the order of the requests.
+     */
+    private final class BulkExecution {
+
+        private final List<JolokiaRequest> requests;
+        private final JSONObject[] responses;
+
+        // Index of the next request to execute
+        private final AtomicInteger next = new AtomicInteger();
+
+        // Counted down for every request which has been executed or skipped
+        private final CountDownLatch done;
+
+        // First error which occurred, remaining requests are skipped then
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private BulkExecution(List<JolokiaRequest> pRequests) {
+            requests = pRequests;
+            responses = new JSONObject[pRequests.size()];
+            done = new CountDownLatch(pRequests.size());
+        }
+
+        private JSONArray execute(int pParallelism) throws EmptyResponseException {
+            // Workers run with the security context and back channel of the HTTP request
+            AccessControlContext accessContext = AccessController.getContext();
+            BackChannel backChannel = BackChannelHolder.get();
+            for (int i = 1; i < pParallelism; i++) {
+                bulkExecutor.execute(() -> {
+                    BackChannelHolder.set(backChannel);
+                    try {
+                        AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+                            executeRemaining();
+                            return null;
+                        }, accessContext);
+                    } finally {
+                        BackChannelHolder.remove();
+                    }
+                });
+            }
+            executeRemaining();
+            try {
+                done.await();
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the responses of a bulk request", exp);
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof EmptyResponseException) {
+                throw (EmptyResponseException) error;
+            } else if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error instanceof Error) {
+                throw (Error) error;
+            }
+            JSONArray responseList = new JSONArray(responses.length);
+            for (JSONObject response : responses) {
+                responseList.add(response);
+            }
+            return responseList;
+        }
+
+        // Execute requests until all of them have been picked up
+        private void executeRemaining() {
+            int idx;
+            while ((idx = next.getAndIncrement()) < responses.length) {
+                try {
+                    responses[idx] = executeBulkRequest(requests.get(idx));
+                } catch (EmptyResponseException | RuntimeException | Error exp) {
+                    failure.compareAndSet(null, exp);
+                    // Skip all requests which haven't been started yet
+                    while (next.getAndIncrement() < responses.length) {
+                        done.countDown();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+    }
+
+    private JSONPullParser createJsonParser(InputStream pInputStream, String pEncoding) throws IOException {
+        if (isUtf8(pEncoding)) {
+            // UTF-8 (the only encoding allowed by RFC 8259 anyway) is decoded by the parser itself
+            return new JSONPullParser(pInputStream);
+        }
+        InputStreamReader reader =
+            pEncoding != null ?
+                new InputStreamReader(pInputStream, pEncoding) :
+                new InputStreamReader(pInputStream);
+        return new JSONPullParser(reader);
+    }
+
+    private boolean isUtf8(String pEncoding) {
+        if (pEncoding == null) {
+            return StandardCharsets.UTF_8.equals(Charset.defaultCharset());
+        }
+        return "UTF-8".equalsIgnoreCase(pEncoding) || "UTF8".equalsIgnoreCase(pEncoding);
+    }
+
+    private void ensureEndOfStream(JSONPullParser pParser) throws ParseException, IOException {
+        if (pParser.next() != null) {
+            throw new ParseException("Multiple top-level values").at(pParser.line(), pParser.column());
         }
     }
 
@@ -48,7 +48,22 @@ public abstract class BaseRequestHandler {
 
     protected final boolean includeRequestGlobal;
 
+    // whether values are serialized only when the response is written
+    private final boolean deferSerialization;
+
     public BaseRequestHandler(JolokiaContext context) {
+        this(context, false);
+    }
+
+    /**
+     * Constructor for handlers which write the responses out, so that the serialization of the values can
+     * be deferred until then (see {@link BackendManager#handleRequest(JolokiaRequest, boolean)})
+     *
+     * @param context jolokia context
+     * @param pDeferSerialization whether to defer the serialization of the values
+     */
+    protected BaseRequestHandler(JolokiaContext context, boolean pDeferSerialization) {
+        deferSerialization = pDeferSerialization;
         jolokiaCtx = context;
         backendManager = new BackendManager(context);
         includeRequestGlobal = jolokiaCtx.getConfig(ConfigKey.INCLUDE_REQUEST) == null
@@ -121,14 +136,18 @@ public abstract class BaseRequestHandler {
      */
     protected void validateRequestParameters(Map<ConfigKey, String> config) throws BadRequestException {
         // parameters that may be passed with HTTP request:
+        //  + bulkParallelism
         //  + callback
         //  + canonicalNaming
         //  + ifModifiedSince
+        //  + ifNoneMatch
         //  + ignoreErrors (validated in org.jolokia.server.core.request.JolokiaRequest.initParameters())
+        //  + includeEtag
         //  + includeRequest
         //  + includeStackTrace
         //  + listCache
         //  + listKeys
+        //  + maxAge
         //  + maxCollectionSize
         //  + maxDepth
         //  + maxObjects
@@ -210,7 +229,7 @@ public abstract class BaseRequestHandler {
     protected JSONObject executeRequest(JolokiaRequest pJmxReq) throws EmptyResponseException {
         // Call handler and retrieve return value
         try {
-            return backendManager.handleRequest(pJmxReq);
+            return backendManager.handleRequest(pJmxReq, deferSerialization);
         } catch (ReflectionException | InstanceNotFoundException | AttributeNotFoundException e) {
             return getErrorJSON(404, e, pJmxReq);
         } catch (MBeanException e) {
@@ -0,0 +1,154 @@
+package org.jolokia.server.core.request;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.*;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+import org.jolokia.server.core.util.RequestType;
+
+/**
+ * Group of single attribute <code>read</code> requests on the same MBean within a bulk request. The
+ * attributes of a group can be fetched with a single {@link MBeanServerConnection#getAttributes(ObjectName, String[])}
+ * call instead of one {@link MBeanServerConnection#getAttribute(ObjectName, String)} per request.
+ *
+ * Groups are only formed from reads which are not separated by other requests (like <code>write</code>
+ * or <code>exec</code>), and values are fetched lazily when the first request of a group is executed.
+ * So, a read never sees a value from before a preceding request of the bulk request has been executed.
+ * Each request is still dispatched on its own, so restrictions, error handling and serialization
+ * are applied per request.
+ */
+public final class BulkReadGroup {
+
+    private final ObjectName objectName;
+    private final List<String> attributeNames;
+
+    // Fetched values per MBeanServer
+    private final Map<MBeanServerConnection, Map<String, Object>> values = new IdentityHashMap<>();
+
+    private BulkReadGroup(ObjectName pObjectName, List<String> pAttributeNames) {
+        objectName = pObjectName;
+        attributeNames = Collections.unmodifiableList(pAttributeNames);
+    }
+
+    /**
+     * Group the single attribute reads of a bulk request by MBean. Requests which are part of a group
+     * with at least two different attributes get it set as their {@link JolokiaReadRequest#getReadGroup()}.
+     *
+     * @param pRequests requests of a bulk request in their original order
+     */
+    public static void groupReads(List<? extends JolokiaRequest> pRequests) {
+        // reads since the last non-read request, by provider and MBean
+        Map<List<Object>, List<JolokiaReadRequest>> reads = new LinkedHashMap<>();
+        for (JolokiaRequest request : pRequests) {
+            if (request.getType() != RequestType.READ) {
+                // Requests after this one may see other values
+                createGroups(reads);
+                reads.clear();
+            } else if (isGroupable((JolokiaReadRequest) request)) {
+                JolokiaReadRequest readRequest = (JolokiaReadRequest) request;
+                reads.computeIfAbsent(Arrays.asList(readRequest.getProvider(), readRequest.getObjectName()),
+                                      k -> new ArrayList<>())
+                     .add(readRequest);
+            }
+        }
+        createGroups(reads);
+    }
+
+    /**
+     * Name of the MBean of this group
+     *
+     * @return object name
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Names of the attributes of all requests in this group, without duplicates
+     *
+     * @return unmodifiable list of attribute names
+     */
+    public List<String> getAttributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * Get the values of this group's attributes from the given MBeanServer. They are fetched only for the
+     * first request of the group and cached for the others. Failed fetches are not cached.
+     *
+     * @param pServer server to fetch the attributes from
+     * @param pFetcher does the actual fetch
+     * @return map of attribute names to values. Attributes which could not be fetched are missing.
+     * @throws InstanceNotFoundException if the MBean is not registered at the given server
+     * @throws IOException if the connection to the MBeanServer fails
+     */
+    public synchronized Map<String, Object> getValues(MBeanServerConnection pServer, Fetcher pFetcher)
+        throws InstanceNotFoundException, IOException {
+        Map<String, Object> ret = values.get(pServer);
+        if (ret == null) {
+            ret = pFetcher.fetch(pServer, objectName, attributeNames);
+            values.put(pServer, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Fetches attribute values of an MBean
+     */
+    public interface Fetcher {
+        /**
+         * Fetch the values of the given attributes
+         *
+         * @param pServer server to fetch from
+         * @param pObjectName name of the MBean
+         * @param pAttributeNames names of the attributes to fetch
+         * @return map of attribute names to values for all attributes which could be fetched
+         * @throws InstanceNotFoundException if the MBean is not registered at the given server
+         * @throws IOException if the connection to the MBeanServer fails
+         */
+        Map<String, Object> fetch(MBeanServerConnection pServer, ObjectName pObjectName, List<String> pAttributeNames)
+            throws InstanceNotFoundException, IOException;
+    }
+
+    // ==================================================================================================
+
+    private static boolean isGroupable(JolokiaReadRequest pRequest) {
+        return !pRequest.getObjectName().isPattern() &&
+               !pRequest.isMultiAttributeMode() &&
+               pRequest.getAttributeName() != null;
+    }
+
+    private static void createGroups(Map<List<Object>, List<JolokiaReadRequest>> pReads) {
+        for (List<JolokiaReadRequest> requests : pReads.values()) {
+            Set<String> attributes = new LinkedHashSet<>();
+            for (JolokiaReadRequest request : requests) {
+                attributes.add(request.getAttributeName());
+            }
+            if (attributes.size() > 1) {
+                BulkReadGroup group = new BulkReadGroup(requests.get(0).getObjectName(), new ArrayList<>(attributes));
+                for (JolokiaReadRequest request : requests) {
+                    request.setReadGroup(group);
+                }
+            }
+        }
+    }
+}
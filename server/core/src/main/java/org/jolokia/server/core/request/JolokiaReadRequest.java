@@ -39,6 +39,9 @@ public class JolokiaReadRequest extends JolokiaObjectNameRequest {
     // Whether multiple attributes are to be fetched
     private boolean multiAttributeMode = false;
 
+    // Group of reads within a bulk request this request belongs to
+    private BulkReadGroup readGroup;
+
     /**
      * Constructor for GET requests
      *
@@ -110,6 +113,20 @@ public class JolokiaReadRequest extends JolokiaObjectNameRequest {
         return isMultiAttributeMode() || getAttributeName() != null;
     }
 
+    /**
+     * Group of single attribute reads on the same MBean within a bulk request, whose values can be fetched
+     * together (see {@link BulkReadGroup#groupReads(List)}).
+     *
+     * @return the group or null if this request is not part of a group
+     */
+    public BulkReadGroup getReadGroup() {
+        return readGroup;
+    }
+
+    void setReadGroup(BulkReadGroup pReadGroup) {
+        readGroup = pReadGroup;
+    }
+
     /** {@inheritDoc} */
     public JSONObject toJSON() {
         JSONObject ret = super.toJSON();
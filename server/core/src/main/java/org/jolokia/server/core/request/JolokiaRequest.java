@@ -17,6 +17,7 @@ package org.jolokia.server.core.request;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jolokia.server.core.config.ConfigKey;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
@@ -32,6 +33,11 @@ import org.jolokia.json.JSONObject;
  */
 public abstract class JolokiaRequest {
 
+    // Paths as given in POST requests, parsed only once. Clients typically use a small
+    // set of paths, the limit only protects against clients sending arbitrary paths.
+    private static final int MAX_CACHED_PATHS = 1000;
+    private static final Map<String, CompiledPath> PATH_CACHE = new ConcurrentHashMap<>();
+
     // Type of request
     private final RequestType type;
 
@@ -45,8 +51,8 @@ public abstract class JolokiaRequest {
     // constructor used.
     private final HttpMethod method;
 
-    // Path parts, which are used for selecting parts of the return value
-    private final List<String> pathParts;
+    // Path, which is used for selecting parts of the return value. null if no path is given
+    private final CompiledPath path;
 
     // Free-form options
     private JSONObject options = null;
@@ -84,7 +90,7 @@ public abstract class JolokiaRequest {
     protected JolokiaRequest(Map<String, ?> pMap, ProcessingParameters pProcessingParams, boolean pExclusive) {
         this(RequestType.getTypeByName((String) pMap.get("type")),
              HttpMethod.POST,
-             EscapeUtil.parsePath((String) pMap.get("path")),
+             compilePath((String) pMap.get("path")),
              pProcessingParams,
              pExclusive);
 
@@ -110,10 +116,14 @@ public abstract class JolokiaRequest {
 
     // Common parts of both constructors
     private JolokiaRequest(RequestType pType, HttpMethod pMethod, List<String> pPathParts, ProcessingParameters pProcessingParams, boolean pExclusive) {
+        this(pType, pMethod, pPathParts != null ? CompiledPath.of(pPathParts) : null, pProcessingParams, pExclusive);
+    }
+
+    private JolokiaRequest(RequestType pType, HttpMethod pMethod, CompiledPath pPath, ProcessingParameters pProcessingParams, boolean pExclusive) {
         method = pMethod;
         type = pType;
-        verifyPath(pPathParts);
-        pathParts = pPathParts;
+        verifyPath(pPath);
+        path = pPath;
         exclusive = pExclusive;
 
         initParameters(pProcessingParams);
@@ -228,8 +238,8 @@ public abstract class JolokiaRequest {
      */
     protected String getInfo() {
         StringBuilder ret = new StringBuilder();
-        if (pathParts != null) {
-            ret.append(", path=").append(pathParts);
+        if (path != null) {
+            ret.append(", path=").append(path);
         }
         if (options != null) {
             ret.append(", options={");
@@ -247,7 +257,17 @@ public abstract class JolokiaRequest {
      * @return the parts of an path or null if no path was used
      */
     public List<String> getPathParts() {
-        return pathParts;
+        return path != null ? path.getElements() : null;
+    }
+
+    /**
+     * Get the path in its parsed form, which can be used for navigating into a value without
+     * parsing the path again.
+     *
+     * @return the path, which is {@link CompiledPath#EMPTY} if no path was used
+     */
+    public CompiledPath getCompiledPath() {
+        return path != null ? path : CompiledPath.EMPTY;
     }
 
     /**
@@ -256,7 +276,7 @@ public abstract class JolokiaRequest {
      * @return path as string or null if no path is given.
      */
     public String getPath() {
-        return EscapeUtil.combineToPath(pathParts);
+        return path != null ? EscapeUtil.combineToPath(path.getElements()) : null;
     }
 
     /**
@@ -271,7 +291,7 @@ public abstract class JolokiaRequest {
         if (options != null) {
             ret.put("options", options);
         }
-        if (pathParts != null) {
+        if (path != null) {
             ret.put("path",getPath());
         }
         return ret;
@@ -294,11 +314,26 @@ public abstract class JolokiaRequest {
         }
     }
 
-    private void verifyPath(List<String> pPathParts) {
-        if (pPathParts != null && !pPathParts.isEmpty() && pPathParts.get(pPathParts.size() - 1) == null) {
-            String path = EscapeUtil.combineToPath(pPathParts);
+    private void verifyPath(CompiledPath pPath) {
+        if (pPath != null && !pPath.isEmpty() && pPath.get(pPath.size() - 1) == null) {
+            String path = EscapeUtil.combineToPath(pPath.getElements());
             throw new IllegalArgumentException("Path '" + path + "' must not end with a wildcard");
         }
     }
 
+    // Parse a path as given in a POST request, returns null if no path is given
+    private static CompiledPath compilePath(String pPath) {
+        if (pPath == null) {
+            return null;
+        }
+        CompiledPath path = PATH_CACHE.get(pPath);
+        if (path == null) {
+            path = CompiledPath.parse(pPath);
+            if (PATH_CACHE.size() < MAX_CACHED_PATHS) {
+                PATH_CACHE.put(pPath, path);
+            }
+        }
+        return path.isEmpty() ? null : path;
+    }
+
 }
@@ -1,9 +1,13 @@
 package org.jolokia.server.core.request;
 
+import java.io.IOException;
 import java.util.*;
 
 import javax.management.MalformedObjectNameException;
 
+import org.jolokia.json.JSONObject;
+import org.jolokia.json.parser.JSONPullParser;
+import org.jolokia.json.parser.ParseException;
 import org.jolokia.server.core.util.EscapeUtil;
 import org.jolokia.server.core.util.RequestType;
 
@@ -141,8 +145,51 @@ public final class JolokiaRequestFactory {
         return ret;
     }
 
+    /**
+     * Create a list of {@link JolokiaRequest}s directly from a streaming JSON parser positioned at the start of
+     * a JSON array (after {@link JSONPullParser.Event#START_ARRAY}). Only a single request object is materialized
+     * at a time, the list of JSON requests is never built. When request creation fails, the rest of the
+     * JSON stream is still checked, so syntax errors are reported before semantic errors.
+     *
+     * @param pParser parser positioned at the start of JSON array
+     * @param pProcessingParams processing options. Must not be null.
+     * @return list with one or more {@link JolokiaRequest}
+     * @throws ParseException if the JSON data is invalid
+     * @throws IOException if reading JSON data fails
+     */
+    public static List<JolokiaRequest> createPostRequests(JSONPullParser pParser, ProcessingParameters pProcessingParams)
+        throws ParseException, IOException {
+        if (pParser.currentEvent() != JSONPullParser.Event.START_ARRAY) {
+            throw new IllegalArgumentException("Expected JSON array with requests, but got " + pParser.currentEvent());
+        }
+        List<JolokiaRequest> ret = new ArrayList<>();
+        JSONPullParser.Event event;
+        while ((event = pParser.next()) != JSONPullParser.Event.END_ARRAY) {
+            Object o = pParser.readValue();
+            if (event != JSONPullParser.Event.START_OBJECT) {
+                drain(pParser);
+                throw new IllegalArgumentException("Not a request within the list of requests (index: " + ret.size() +
+                        "). Expected map, but found: " + o);
+            }
+            try {
+                ret.add(createPostRequest((JSONObject) o, pProcessingParams));
+            } catch (RuntimeException exp) {
+                drain(pParser);
+                throw exp;
+            }
+        }
+        return ret;
+    }
+
     // ========================================================================================================
 
+    // Consume remaining JSON data of the stream, which only verifies the syntax
+    private static void drain(JSONPullParser pParser) throws ParseException, IOException {
+        while (pParser.next() != null) {
+            pParser.skipValue();
+        }
+    }
+
     // Extract path info either from the 'real' URL path, or from an request parameter
     private static String extractPathInfo(String pPathInfo, ProcessingParameters pProcessingParams) {
         String pathInfo = pPathInfo;
@@ -10,12 +10,24 @@ public class NotChangedException extends Exception {
 
     private final JolokiaRequest request;
 
+    private final String eTag;
+
     /**
      * Constructor
      * @param pRequest which lead to this exception
      */
     public NotChangedException(JolokiaRequest pRequest) {
+        this(pRequest, null);
+    }
+
+    /**
+     * Constructor for a value which still has the ETag given by the client
+     * @param pRequest which lead to this exception
+     * @param pETag ETag of the unchanged value
+     */
+    public NotChangedException(JolokiaRequest pRequest, String pETag) {
         request = pRequest;
+        eTag = pETag;
     }
 
     /**
@@ -25,4 +37,12 @@ public class NotChangedException extends Exception {
     public JolokiaRequest getRequest() {
         return request;
     }
+
+    /**
+     * ETag of the unchanged value
+     * @return the ETag or <code>null</code> if the request was not checked by an ETag
+     */
+    public String getETag() {
+        return eTag;
+    }
 }
@@ -36,6 +36,18 @@ public interface JolokiaServiceLookup {
      */
     <T extends JolokiaService<?>> Set<T> getServices(Class<T> pType);
 
+    /**
+     * Version of the services provided by this lookup, which must change whenever services are added
+     * or removed. As long as the version stays the same, the results of {@link #getServices(Class)} can be
+     * cached by the caller. The default implementation returns -1, which means that services must be looked
+     * up on every call.
+     *
+     * @return current version or -1 if the services can change without notice
+     */
+    default long getVersion() {
+        return -1;
+    }
+
     /**
      * Lifecycle method called when the service managed starts up
      *
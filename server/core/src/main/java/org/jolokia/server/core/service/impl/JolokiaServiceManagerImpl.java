@@ -18,6 +18,8 @@ package org.jolokia.server.core.service.impl;
 
 import java.security.PrivilegedAction;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.*;
 
 import javax.management.*;
@@ -36,6 +38,7 @@ import org.jolokia.server.core.service.request.RequestHandler;
 import org.jolokia.server.core.service.request.RequestInterceptor;
 import org.jolokia.server.core.util.DebugStore;
 import org.jolokia.server.core.util.jmx.DefaultMBeanServerAccess;
+import org.jolokia.server.core.util.jmx.MBeanInfoCache;
 import org.jolokia.server.core.util.jmx.MBeanServerAccess;
 import org.jolokia.json.parser.JSONParser;
 
@@ -78,6 +81,12 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
     // The lowest order service registered - includes lowest order (highest priority) services from staticServices
     private final Map<Class<? extends JolokiaService<?>>, JolokiaService<?>> staticLowServices;
 
+    // Incremented (while holding the lock) whenever static services or lookups are added or removed
+    private volatile long staticVersion;
+
+    // Snapshots of the services per type, which are rebuilt when services change
+    private final Map<Class<?>, ServiceSnapshot<?>> snapshots = new ConcurrentHashMap<>();
+
     // Jolokia context connecting to this manager
     private JolokiaContextImpl jolokiaContext;
 
@@ -120,7 +129,7 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
         logHandler = pLogHandler;
         restrictor = pRestrictor;
         isInitialized = false;
-        serviceLookups = new ArrayList<>();
+        serviceLookups = new CopyOnWriteArrayList<>();
         staticServices = new HashMap<>();
         staticLowServices = new HashMap<>();
         detectorLookup = pDetectorLookup != null ? pDetectorLookup : new ClasspathServerDetectorLookup();
@@ -177,11 +186,13 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
         if (pLowService == null || pLowService.getOrder() > pService.getOrder()) {
             staticLowServices.put(type,pService);
         }
+        staticVersion++;
     }
 
     /** {@inheritDoc} */
-    public void addServiceLookup(JolokiaServiceLookup pLookup) {
+    public synchronized void addServiceLookup(JolokiaServiceLookup pLookup) {
         serviceLookups.add(pLookup);
+        staticVersion++;
     }
 
     /** {@inheritDoc} */
@@ -244,6 +255,7 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
                 }
             }
             staticLowServices.values().removeIf(value -> !isServiceEnabled(value.getClass().getName()));
+            staticVersion++;
 
             // All dynamic service factories are initialized as well. The factory itself is responsible
             // for initializing any new services coming in with the JolokiaContext
@@ -304,19 +316,14 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
     /**
      * Get all services of a certain type currently registered. Static services
      * are returned directly, for dynamic services a lookup to the service factory is
-     * performed.
+     * performed. The returned set is an unmodifiable snapshot, which is reused until services
+     * are added or removed.
      *
      * @param pType service type to fetch
      * @return set of services detected or an empty list
      */
     public <T extends JolokiaService<?>> SortedSet<T> getServices(Class<T> pType) {
-        @SuppressWarnings("unchecked")
-        SortedSet<T> services = (SortedSet<T>) staticServices.get(pType);
-        SortedSet<T> ret = services != null ? new TreeSet<>(services) : new TreeSet<>();
-        for (JolokiaServiceLookup factory : serviceLookups) {
-            ret.addAll(factory.getServices(pType));
-        }
-        return ret;
+        return getSnapshot(pType).services;
     }
 
     /**
@@ -328,18 +335,7 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
      * @return the requested service or null if none has been registered
      */
     public <T extends JolokiaService<?>> T getService(Class<T> pType) {
-        @SuppressWarnings("unchecked")
-        T ret = (T) staticLowServices.get(pType);
-        int order = ret != null ? ret.getOrder() : Integer.MAX_VALUE;
-        for (JolokiaServiceLookup factory : serviceLookups) {
-            for (T service : factory.getServices(pType)) {
-                if (service.getOrder() < order) {
-                    ret = service;
-                    order = ret.getOrder();
-                }
-            }
-        }
-        return ret;
+        return getSnapshot(pType).lowest;
     }
 
     /** {@inheritDoc} */
@@ -352,6 +348,84 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
         return true;
     }
 
+    // Get the current snapshot for the given type, rebuild it if services have changed
+    private <T extends JolokiaService<?>> ServiceSnapshot<T> getSnapshot(Class<T> pType) {
+        @SuppressWarnings("unchecked")
+        ServiceSnapshot<T> snapshot = (ServiceSnapshot<T>) snapshots.get(pType);
+        if (snapshot == null || !snapshot.isCurrent()) {
+            snapshot = createSnapshot(pType);
+            snapshots.put(pType, snapshot);
+        }
+        return snapshot;
+    }
+
+    private <T extends JolokiaService<?>> ServiceSnapshot<T> createSnapshot(Class<T> pType) {
+        // Versions are taken before the services are collected. If services change in between, the
+        // snapshot is outdated right away and gets rebuilt on the next lookup.
+        List<JolokiaServiceLookup> lookups;
+        long version;
+        SortedSet<T> services;
+        T lowest;
+        synchronized (this) {
+            lookups = new ArrayList<>(serviceLookups);
+            version = staticVersion;
+            @SuppressWarnings("unchecked")
+            SortedSet<T> staticOfType = (SortedSet<T>) staticServices.get(pType);
+            services = staticOfType != null ? new TreeSet<>(staticOfType) : new TreeSet<>();
+            @SuppressWarnings("unchecked")
+            T staticLowest = (T) staticLowServices.get(pType);
+            lowest = staticLowest;
+        }
+        long[] lookupVersions = new long[lookups.size()];
+        for (int i = 0; i < lookupVersions.length; i++) {
+            lookupVersions[i] = lookups.get(i).getVersion();
+        }
+
+        int order = lowest != null ? lowest.getOrder() : Integer.MAX_VALUE;
+        for (JolokiaServiceLookup factory : lookups) {
+            for (T service : factory.getServices(pType)) {
+                services.add(service);
+                if (service.getOrder() < order) {
+                    lowest = service;
+                    order = lowest.getOrder();
+                }
+            }
+        }
+        return new ServiceSnapshot<>(Collections.unmodifiableSortedSet(services), lowest, version, lookups, lookupVersions);
+    }
+
+    // Immutable view on the services of a certain type
+    private final class ServiceSnapshot<T extends JolokiaService<?>> {
+        private final SortedSet<T> services;
+        private final T lowest;
+        private final long version;
+        private final List<JolokiaServiceLookup> lookups;
+        private final long[] lookupVersions;
+
+        private ServiceSnapshot(SortedSet<T> pServices, T pLowest, long pVersion,
+                                List<JolokiaServiceLookup> pLookups, long[] pLookupVersions) {
+            services = pServices;
+            lowest = pLowest;
+            version = pVersion;
+            lookups = pLookups;
+            lookupVersions = pLookupVersions;
+        }
+
+        // Whether neither the static services nor the services of any lookup has changed since creation.
+        private boolean isCurrent() {
+            if (version != staticVersion) {
+                return false;
+            }
+            for (int i = 0; i < lookupVersions.length; i++) {
+                long lookupVersion = lookupVersions[i];
+                if (lookupVersion < 0 || lookupVersion != lookups.get(i).getVersion()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     // Access to merged MBean servers
     MBeanServerAccess getMBeanServerAccess() {
         return mbeanServerAccess;
@@ -406,8 +480,12 @@ public class JolokiaServiceManagerImpl implements JolokiaServiceManager {
                 mbeanServers.addAll(found);
             }
         }
-        return new DefaultMBeanServerAccess(mbeanServers);
+        MBeanInfoCache mBeanInfoCache = new MBeanInfoCache(ConfigKey.MBEAN_INFO_CACHE_SIZE.getIntValue(configuration::getConfig),
+                                                           ConfigKey.MBEAN_INFO_CACHE_TTL.getIntValue(configuration::getConfig) * 1000L);
+        boolean indexNames = Boolean.parseBoolean(configuration.getConfig(ConfigKey.MBEAN_NAME_INDEX));
+        return new DefaultMBeanServerAccess(mbeanServers, mBeanInfoCache, indexNames);
     }
+
     /**
      * Get the optional options used for detectors-default. This should be a JSON string specifying all options
      * for all detectors-default. Keys are the name of the detector's product, the values are JSON object containing
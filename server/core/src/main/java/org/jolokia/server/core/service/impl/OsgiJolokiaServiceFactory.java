@@ -17,6 +17,7 @@
 package org.jolokia.server.core.service.impl;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jolokia.server.core.service.api.*;
 import org.osgi.framework.*;
@@ -47,7 +48,7 @@ public class OsgiJolokiaServiceFactory implements JolokiaServiceLookup {
      */
     public OsgiJolokiaServiceFactory(BundleContext pCtx) {
         context = pCtx;
-        serviceTrackerMap = new HashMap<>();
+        serviceTrackerMap = new ConcurrentHashMap<>();
     }
 
     /** {@inheritDoc} */
@@ -86,6 +87,22 @@ public class OsgiJolokiaServiceFactory implements JolokiaServiceLookup {
         return tracker;
     }
 
+    /**
+     * The version is derived from the tracking counts of all trackers, which are incremented by the
+     * trackers after their set of services has been updated.
+     *
+     * @return current version
+     */
+    @Override
+    public long getVersion() {
+        long version = 0;
+        for (ServiceTracker<?, ?> tracker : serviceTrackerMap.values()) {
+            // tracking count is -1 for a closed tracker
+            version += tracker.getTrackingCount() + 1;
+        }
+        return version;
+    }
+
     /** {@inheritDoc} */
     public void init(JolokiaContext pJolokiaContext) {
         jolokiaContext = pJolokiaContext;
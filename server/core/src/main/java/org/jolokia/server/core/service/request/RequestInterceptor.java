@@ -23,4 +23,17 @@ public interface RequestInterceptor extends JolokiaService<RequestInterceptor> {
      * @param pRetValue the value to be returned.
      */
     void intercept(JolokiaRequest pRequest, JSONObject pRetValue);
+
+    /**
+     * Whether this interceptor needs to look at the <code>value</code> of the response for the given request.
+     * If none of the interceptors does, the value may be serialized only when the response is written
+     * and {@link #intercept(JolokiaRequest, JSONObject)} gets a {@link org.jolokia.json.JSONStreamable} as value
+     * instead of a JSON tree. By default, the value is assumed to be needed.
+     *
+     * @param pRequest request received
+     * @return true if {@link #intercept(JolokiaRequest, JSONObject)} needs the value as JSON tree
+     */
+    default boolean needsValue(JolokiaRequest pRequest) {
+        return true;
+    }
 }
@@ -7,6 +7,7 @@ import javax.management.AttributeNotFoundException;
 import javax.management.openmbean.OpenType;
 
 import org.jolokia.server.core.service.api.JolokiaService;
+import org.jolokia.server.core.util.CompiledPath;
 
 /**
  * Interface defining a Jolokia serializer which is also a plugable service. This interface
@@ -30,6 +31,41 @@ public interface Serializer extends JolokiaService<Serializer> {
     Object serialize(Object pValue, List<String> pPathParts, SerializeOptions pOptions)
             throws AttributeNotFoundException;
 
+    /**
+     * Convert the return value to a JSON object, navigating into it with an already parsed path.
+     * The default implementation is the same as calling {@link #serialize(Object, List, SerializeOptions)}
+     * with the elements of the path.
+     *
+     * @param pValue the value to convert
+     * @param pPath path to use for extraction, must not be null
+     * @param pOptions options used for parsing
+     * @return the converter object. This either a subclass of {@link org.jolokia.json.JSONStructure} or a basic data type like String or Long.
+     * @throws AttributeNotFoundException if within an path an attribute could not be found
+     */
+    default Object serializeWithPath(Object pValue, CompiledPath pPath, SerializeOptions pOptions)
+            throws AttributeNotFoundException {
+        return serialize(pValue, pPath.isEmpty() ? null : pPath.getElements(), pOptions);
+    }
+
+    /**
+     * Convert the return value to a JSON representation which is produced only when the response is written.
+     * Instead of building a complete {@link org.jolokia.json.JSONStructure} tree, a serializer supporting this
+     * returns a {@link org.jolokia.json.JSONStreamable} which emits the JSON events of the value directly into
+     * the output. The same limits as for {@link #serialize(Object, List, SerializeOptions)} apply.
+     * <p>
+     * No path is applied and errors during serialization are reported only when the value is written.
+     * The default implementation doesn't defer anything and is the same as calling
+     * {@link #serialize(Object, List, SerializeOptions)} without path.
+     *
+     * @param pValue the value to convert
+     * @param pOptions options used for parsing
+     * @return either a {@link org.jolokia.json.JSONStreamable} or the already converted value
+     * @throws AttributeNotFoundException if the serializer converts the value immediately and an attribute could not be found
+     */
+    default Object serializeDeferred(Object pValue, SerializeOptions pOptions) throws AttributeNotFoundException {
+        return serialize(pValue, null, pOptions);
+    }
+
     /**
      * Convert value from a either a given object or its string representation.
      * If the value is already assignable to the given class name it is returned directly.
@@ -45,7 +81,7 @@ public interface Serializer extends JolokiaService<Serializer> {
      *
      * @param pOuterObject the object to dive in
      * @param pNewValue the value to set
-     * @param pPathParts the path within the outer object. This object will be modified and must be a modifiable list.
+     * @param pPathParts the path within the outer object. This list is not modified.
      * @return the old value
      *
      * @throws AttributeNotFoundException
@@ -0,0 +1,194 @@
+package org.jolokia.server.core.util;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.*;
+
+/**
+ * Immutable representation of a path used for navigating into a value (like the <code>path</code> of a
+ * read request). The path is parsed only once, elements are unescaped and wildcards (<code>*</code>)
+ * are already replaced by <code>null</code>, so that the path can be traversed by index without any
+ * further processing.
+ *
+ * The syntax is the same as for {@link EscapeUtil#parsePath(String)}: elements are separated by <code>/</code>,
+ * <code>!</code> escapes the following character, and a trailing separator is ignored.
+ */
+public final class CompiledPath {
+
+    /**
+     * Path without any elements
+     */
+    public static final CompiledPath EMPTY = new CompiledPath(new String[0]);
+
+    private static final char ESCAPE = '!';
+    private static final char SEPARATOR = '/';
+    private static final String WILDCARD = "*";
+
+    // Path elements, null for wildcards
+    private final String[] elements;
+
+    // Unmodifiable view on the elements
+    private final List<String> elementList;
+
+    private final boolean wildcards;
+
+    private CompiledPath(String[] pElements) {
+        elements = pElements;
+        elementList = Collections.unmodifiableList(Arrays.asList(pElements));
+        boolean hasWildcard = false;
+        for (String element : pElements) {
+            hasWildcard |= element == null;
+        }
+        wildcards = hasWildcard;
+    }
+
+    /**
+     * Parse a path given as escaped string.
+     *
+     * @param pPath path to parse, can be null
+     * @return the parsed path, which is {@link #EMPTY} for a null, empty or <code>/</code> path
+     */
+    public static CompiledPath parse(String pPath) {
+        if (pPath == null || pPath.isEmpty() || pPath.equals("/")) {
+            return EMPTY;
+        }
+        List<String> ret = new ArrayList<>();
+        int len = pPath.length();
+        int start = 0;
+        // only used when an element contains escapes
+        StringBuilder unescaped = null;
+        for (int i = 0; i < len; i++) {
+            char c = pPath.charAt(i);
+            if (c == ESCAPE && i + 1 < len) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder();
+                }
+                unescaped.append(pPath, start, i).append(pPath.charAt(i + 1));
+                start = i + 2;
+                i++;
+            } else if (c == SEPARATOR) {
+                ret.add(element(pPath, start, i, unescaped));
+                unescaped = null;
+                start = i + 1;
+            }
+        }
+        if (start < len || unescaped != null) {
+            // A trailing separator doesn't start a new element
+            ret.add(element(pPath, start, len, unescaped));
+        }
+        return new CompiledPath(ret.toArray(new String[0]));
+    }
+
+    /**
+     * Create a path from already split and unescaped elements, with <code>null</code> for wildcards
+     * (like returned by {@link EscapeUtil#parsePath(String)}).
+     *
+     * @param pElements path elements, can be null
+     * @return the path, which is {@link #EMPTY} for a null or empty list
+     */
+    public static CompiledPath of(List<String> pElements) {
+        if (pElements == null || pElements.isEmpty()) {
+            return EMPTY;
+        }
+        return new CompiledPath(pElements.toArray(new String[0]));
+    }
+
+    /**
+     * Number of path elements
+     *
+     * @return number of elements
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Whether this path has no elements at all
+     *
+     * @return true if the path is empty
+     */
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    /**
+     * Get a single path element
+     *
+     * @param pIndex index of the element
+     * @return the element or null if it is a wildcard
+     */
+    public String get(int pIndex) {
+        return elements[pIndex];
+    }
+
+    /**
+     * Whether the path contains any wildcards
+     *
+     * @return true if at least one element is a wildcard
+     */
+    public boolean hasWildcards() {
+        return wildcards;
+    }
+
+    /**
+     * Get the path elements as an unmodifiable list, with <code>null</code> for wildcards
+     *
+     * @return list of elements
+     */
+    public List<String> getElements() {
+        return elementList;
+    }
+
+    /**
+     * Get the path as a new stack with the first element on top, as used by the serializers for
+     * navigating into values.
+     *
+     * @return a new, modifiable stack of the path elements
+     */
+    public Deque<String> toStack() {
+        // LinkedList because wildcards are null
+        return new LinkedList<>(elementList);
+    }
+
+    @Override
+    public boolean equals(Object pOther) {
+        return pOther instanceof CompiledPath && Arrays.equals(elements, ((CompiledPath) pOther).elements);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+
+    @Override
+    public String toString() {
+        return elementList.toString();
+    }
+
+    // ====================================================================================
+
+    private static String element(String pPath, int pStart, int pEnd, StringBuilder pUnescaped) {
+        String element = pUnescaped != null ?
+            pUnescaped.append(pPath, pStart, pEnd).toString() :
+            pPath.substring(pStart, pEnd);
+        return wildcardToNull(element);
+    }
+
+    private static String wildcardToNull(String pElement) {
+        return WILDCARD.equals(pElement) ? null : pElement;
+    }
+}
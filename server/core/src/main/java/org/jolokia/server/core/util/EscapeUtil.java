@@ -86,11 +86,9 @@ public final class EscapeUtil {
      * @return list of path elements or null if the initial path is null.
      */
     public static List<String> parsePath(String pPath) {
+        CompiledPath path = CompiledPath.parse(pPath);
         // Special cases which simply implies 'no path'
-        if (pPath == null || pPath.isEmpty() || pPath.equals("/")) {
-            return null;
-        }
-        return replaceWildcardsWithNull(split(pPath, PATH_ESCAPE, "/"));
+        return path.isEmpty() ? null : new ArrayList<>(path.getElements());
     }
 
     /**
@@ -100,7 +98,7 @@ public final class EscapeUtil {
      * @return stack of arguments in reverse order or an empty stack if path was null or empty
      */
     public static Deque<String> extractElementsFromPath(String pPath) {
-        return reversePath(parsePath(pPath));
+        return CompiledPath.parse(pPath).toStack();
     }
 
     /**
@@ -251,15 +249,4 @@ public final class EscapeUtil {
             return pValue;
         }
     }
-
-    private static List<String> replaceWildcardsWithNull(List<String> pParts) {
-        if (pParts  == null) {
-            return null;
-        }
-        List<String> ret = new ArrayList<>(pParts.size());
-        for (String part : pParts) {
-            ret.add("*".equals(part) ? null : part);
-        }
-        return ret;
-    }
 }
@@ -2,9 +2,12 @@ package org.jolokia.server.core.util;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 
+import org.jolokia.json.CBORWriter;
 import org.jolokia.json.JSONStructure;
+import org.jolokia.json.Utf8JSONWriter;
 
 /**
  * @author roland
@@ -49,4 +52,44 @@ public class IoUtil {
             pWriter.close();
         }
     }
+
+    /**
+     * Stream a JSON stream as UTF-8 encoded bytes to a given output stream, potentially wrap it in a callback
+     * for a JSONP response and then flush &amp; close the stream. No {@link Writer} is involved, JSON is encoded
+     * directly into a pooled byte buffer. The stream is closed in any case, also when an exception occurs
+     *
+     * @param pOut output stream to write to. Must be not null.
+     * @param pJson JSON response to stream
+     * @param callback the name of the callback function if JSONP should be used or <code>null</code> if the answer should be streamed directly
+     * @throws IOException if the streaming fails
+     */
+    public static void streamResponseAndClose(OutputStream pOut, JSONStructure pJson, String callback)
+        throws IOException {
+        // Flush and close, even on an exception to avoid locks in the thread
+        try (Utf8JSONWriter writer = new Utf8JSONWriter(pOut)) {
+            if (callback == null) {
+                writer.write(pJson);
+            } else {
+                writer.writeRaw(callback);
+                writer.writeRaw("(");
+                writer.write(pJson);
+                writer.writeRaw(");");
+            }
+        }
+    }
+
+    /**
+     * Stream a JSON structure encoded as CBOR to a given output stream and then flush &amp; close the stream.
+     * The stream is closed in any case, also when an exception occurs
+     *
+     * @param pOut output stream to write to. Must be not null.
+     * @param pJson JSON response to stream
+     * @throws IOException if writing to the stream fails
+     */
+    public static void streamCborResponseAndClose(OutputStream pOut, JSONStructure pJson)
+        throws IOException {
+        try (CBORWriter writer = new CBORWriter(pOut)) {
+            writer.write(pJson);
+        }
+    }
 }
@@ -2,6 +2,8 @@ package org.jolokia.server.core.util;
 
 import java.util.regex.Pattern;
 
+import org.jolokia.json.CBORWriter;
+
 /**
  * Helper class for handling proper response mime types
  *
@@ -12,6 +14,9 @@ public class MimeTypeUtil {
 
     public static final String[] ACCEPTED_MIME_TYPES = { "application/json", "text/plain" };
 
+    // Suffix of the HTTP ETag for a CBOR response
+    private static final String CBOR_ETAG_SUFFIX = "-cbor";
+
     /**
      * Extract the response mime type. This value is calculated for different situations:
      * <p>
@@ -72,4 +77,89 @@ public class MimeTypeUtil {
         return validJavaScriptFunctionNamePattern.matcher(pCallback).matches();
     }
 
+    /**
+     * Check whether the response should be encoded in CBOR instead of JSON. This is the case when the
+     * given {@code Accept} header contains {@code application/cbor} with a quality not lower than
+     * any other media type in this header. JSONP responses (with a valid callback) are always JSON.
+     *
+     * @param pAcceptHeader value of {@code Accept} header (can be null)
+     * @param pCallback callback given (can be null)
+     * @return true if CBOR should be used
+     */
+    public static boolean isCborRequested(String pAcceptHeader, String pCallback) {
+        if (pAcceptHeader == null || (pCallback != null && isValidCallback(pCallback))) {
+            return false;
+        }
+        float cborQuality = 0f;
+        float otherQuality = 0f;
+        for (String range : pAcceptHeader.split(",")) {
+            String[] parts = range.split(";");
+            String type = parts[0].trim();
+            float quality = 1f;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        quality = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException exp) {
+                        quality = 0f;
+                    }
+                }
+            }
+            if (CBORWriter.MIME_TYPE.equalsIgnoreCase(type)) {
+                cborQuality = Math.max(cborQuality, quality);
+            } else if (!type.isEmpty()) {
+                otherQuality = Math.max(otherQuality, quality);
+            }
+        }
+        return cborQuality > 0f && cborQuality >= otherQuality;
+    }
+
+    /**
+     * Get the value of the HTTP {@code ETag} header for a response with the given ETag. Since the ETag only
+     * depends on the value, the tag of a CBOR response gets a suffix so that it differs from the tag of the
+     * JSON response for the same value.
+     *
+     * @param pETag ETag of the response value
+     * @param pCbor whether the response is encoded in CBOR
+     * @return the quoted entity tag to use as header value
+     */
+    public static String getETagHeader(String pETag, boolean pCbor) {
+        return "\"" + (pCbor ? pETag + CBOR_ETAG_SUFFIX : pETag) + "\"";
+    }
+
+    /**
+     * Extract the ETags from an HTTP {@code If-None-Match} header which were given out for responses
+     * in the same encoding (see {@link #getETagHeader(String, boolean)}), so that a JSON response is never
+     * validated with the tag of a CBOR response and vice versa.
+     *
+     * @param pIfNoneMatch value of the {@code If-None-Match} header (can be null)
+     * @param pCbor whether the response is encoded in CBOR
+     * @return comma separated ETags of the response value or null if no header is given. The result is empty
+     *         if no tag was given for this encoding, which doesn't match any value.
+     */
+    public static String getIfNoneMatch(String pIfNoneMatch, boolean pCbor) {
+        if (pIfNoneMatch == null) {
+            return null;
+        }
+        StringBuilder ret = new StringBuilder();
+        for (String tag : pIfNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            if (tag.endsWith(CBOR_ETAG_SUFFIX) != pCbor) {
+                continue;
+            }
+            if (ret.length() > 0) {
+                ret.append(',');
+            }
+            ret.append(pCbor ? tag.substring(0, tag.length() - CBOR_ETAG_SUFFIX.length()) : tag);
+        }
+        return ret.toString();
+    }
+
 }
@@ -17,9 +17,13 @@ package org.jolokia.server.core.util.jmx;
  */
 
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.*;
+import javax.management.remote.MBeanServerForwarder;
 
 /**
  * Base class for providing access to the list of MBeanServer handled by this agent.
@@ -29,12 +33,27 @@ import javax.management.*;
  */
 public class DefaultMBeanServerAccess implements MBeanServerAccess, NotificationListener {
 
+    // Maximum number of MBeans for which the owning MBeanServer is remembered
+    private static final int MAX_ROUTES = 10000;
+
     // Timestamp of last MBeanServer change in milliseconds
     private long lastMBeanRegistrationChange;
 
     // Wrapped MBeanServers
     private final MBeanServers mbeanServers;
 
+    // Cached MBeanInfos, invalidated on registration changes
+    private final MBeanInfoCache mBeanInfoCache;
+
+    // MBeans which are not registered at the first MBeanServer, with the server to call them on.
+    // Entries are removed on registration changes.
+    private final Map<ObjectName, Route> routes = new ConcurrentHashMap<>();
+
+    // Incremented on every registration change, so that a route found concurrently to a change is not remembered
+    private final AtomicLong registrationChanges = new AtomicLong();
+
+    // Indexes of the MBean names of local MBeanServers for answering queries, if enabled
+    private final Map<MBeanServerConnection, ObjectNameIndex> nameIndexes = new ConcurrentHashMap<>();
 
     /**
      * Constructor using default MBeanServers
@@ -49,12 +68,53 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
      * @param pServers mbean servers to wrap and call
      */
     public DefaultMBeanServerAccess(Set<MBeanServerConnection> pServers) {
+        this(pServers, new MBeanInfoCache(0, 0));
+    }
+
+    /**
+     * Create an MBeanServer executor for calling MBeanServers, which caches MBeanInfos
+     *
+     * @param pServers mbean servers to wrap and call
+     * @param pMBeanInfoCache cache to use for {@link #getMBeanInfo(MBeanServerConnection, ObjectName)}
+     */
+    public DefaultMBeanServerAccess(Set<MBeanServerConnection> pServers, MBeanInfoCache pMBeanInfoCache) {
+        this(pServers, pMBeanInfoCache, false);
+    }
+
+    /**
+     * Create an MBeanServer executor for calling MBeanServers, which caches MBeanInfos and optionally
+     * indexes the names of the MBeans of local MBeanServers for answering queries
+     *
+     * @param pServers mbean servers to wrap and call
+     * @param pMBeanInfoCache cache to use for {@link #getMBeanInfo(MBeanServerConnection, ObjectName)}
+     * @param pIndexNames whether to use an index for {@link #queryNames(ObjectName)} and
+     *                    {@link #each(ObjectName, MBeanEachCallback)}
+     */
+    public DefaultMBeanServerAccess(Set<MBeanServerConnection> pServers, MBeanInfoCache pMBeanInfoCache, boolean pIndexNames) {
         mbeanServers = new MBeanServers(pServers,this);
+        mBeanInfoCache = pMBeanInfoCache;
+
+        if (pIndexNames) {
+            for (MBeanServerConnection server : mbeanServers.getMBeanServers()) {
+                if (isIndexable(server)) {
+                    nameIndexes.put(server, new ObjectNameIndex((MBeanServer) server));
+                }
+            }
+        }
 
         // Register for registers/deregister of MBean changes in order to update lastUpdateTime
         registerForMBeanNotifications(mbeanServers);
     }
 
+    // Only local servers reliably notify about every registration change. The index is shared by all
+    // callers, so servers which are wrapped (like by forwarders or proxies guarding the access per caller)
+    // are not indexed, since they might return different names for different callers.
+    static boolean isIndexable(MBeanServerConnection pServer) {
+        return pServer instanceof MBeanServer &&
+               !(pServer instanceof MBeanServerForwarder) &&
+               !Proxy.isProxyClass(pServer.getClass());
+    }
+
     /**
      * Get all MBeanServers
      *
@@ -81,7 +141,7 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
             Set<ObjectName> visited = new HashSet<>();
             for (MBeanServerConnection server : getMBeanServers()) {
                 // Query for a full name is the same as a direct lookup
-                for (ObjectInstance instance : server.queryMBeans(pObjectName, null)) {
+                for (ObjectInstance instance : queryMBeans(server, pObjectName)) {
                     // Don't add if already visited previously - while single server has unique MBeans,
                     // we may get the same MBean from different MBeanServer
                     if (!visited.contains(instance.getObjectName())) {
@@ -98,11 +158,39 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * For an MBean which has been found on a later MBeanServer before, the action is called directly
+     * on this server instead of trying all previous servers first.
+     */
     public <T> T call(ObjectName pObjectName, MBeanAction<T> pMBeanAction, Object ... pExtraArgs)
             throws IOException, ReflectionException, MBeanException, AttributeNotFoundException, InstanceNotFoundException {
+        Set<MBeanServerConnection> servers = getMBeanServers();
+        if (servers.size() < 2 || pObjectName == null || pObjectName.isPattern()) {
+            return callInOrder(servers, pObjectName, pMBeanAction, pExtraArgs);
+        }
+        Route route = routes.get(pObjectName);
+        if (route != null) {
+            if (isRouteValid(servers, pObjectName, route)) {
+                try {
+                    return pMBeanAction.execute(route.server, pObjectName, pExtraArgs);
+                } catch (InstanceNotFoundException exp) {
+                    // Has gone in the meantime, so try all servers again
+                }
+            }
+            routes.remove(pObjectName, route);
+        }
+        return callInOrder(servers, pObjectName, pMBeanAction, pExtraArgs);
+    }
+
+    // Call the action on all servers in turn, until one knows the MBean
+    private <T> T callInOrder(Set<MBeanServerConnection> pServers, ObjectName pObjectName, MBeanAction<T> pMBeanAction, Object... pExtraArgs)
+            throws IOException, ReflectionException, MBeanException, AttributeNotFoundException, InstanceNotFoundException {
+        long changes = registrationChanges.get();
         InstanceNotFoundException objNotFoundException = null;
-        for (MBeanServerConnection server : getMBeanServers()) {
+        List<MBeanServerConnection> skipped = null;
+        for (MBeanServerConnection server : pServers) {
             // Only the first MBeanServer holding the MBean wins
             try {
                 // Still to decide: Should we check eagerly or let an InstanceNotFound Exception
@@ -111,11 +199,21 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
                 // prepared for switching the guard below on or off.
 
                 //if (server.isRegistered(pObjectName)) {
-                return pMBeanAction.execute(server, pObjectName, pExtraArgs);
+                T ret = pMBeanAction.execute(server, pObjectName, pExtraArgs);
+                if (skipped != null) {
+                    addRoute(pObjectName, new Route(server, skipped), changes);
+                }
+                return ret;
                 //}
             } catch (InstanceNotFoundException exp) {
                 // Remember exceptions for later use
                 objNotFoundException = exp;
+                if (pObjectName != null && !pObjectName.isPattern()) {
+                    if (skipped == null) {
+                        skipped = new ArrayList<>(pServers.size() - 1);
+                    }
+                    skipped.add(server);
+                }
             }
         }
 
@@ -130,15 +228,85 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
         //        new IllegalArgumentException(errorMsg);
     }
 
+    // Check that no server before the routed one holds the MBean by now. Local MBeanServers which didn't
+    // hold the MBean when the route was added, notify us about a registration which removes the route.
+    // All other servers (like remote connections, where notifications can get lost, or servers added later)
+    // are probed.
+    private boolean isRouteValid(Set<MBeanServerConnection> pServers, ObjectName pObjectName, Route pRoute) throws IOException {
+        for (MBeanServerConnection server : pServers) {
+            if (server == pRoute.server) {
+                return true;
+            }
+            if (!(server instanceof MBeanServer && pRoute.skipped.contains(server)) &&
+                server.isRegistered(pObjectName)) {
+                return false;
+            }
+        }
+        // Routed server is not available anymore
+        return false;
+    }
+
+    private void addRoute(ObjectName pObjectName, Route pRoute, long pChanges) {
+        if (routes.size() < MAX_ROUTES) {
+            routes.put(pObjectName, pRoute);
+            if (registrationChanges.get() != pChanges) {
+                // The set of MBeans might have changed while calling the servers
+                routes.remove(pObjectName, pRoute);
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     public Set<ObjectName> queryNames(ObjectName pObjectName) throws IOException {
         Set<ObjectName> names = new LinkedHashSet<>();
         for (MBeanServerConnection server : getMBeanServers()) {
-            names.addAll(server.queryNames(pObjectName,null));
+            ObjectNameIndex index = nameIndexes.get(server);
+            Set<ObjectName> found = index != null ? index.query(pObjectName) : null;
+            names.addAll(found != null ? found : server.queryNames(pObjectName,null));
         }
         return names;
     }
 
+    // Query a single server, using the name index for a pattern which doesn't match all MBeans anyway
+    private Set<ObjectInstance> queryMBeans(MBeanServerConnection pServer, ObjectName pObjectName) throws IOException {
+        ObjectNameIndex index = pObjectName != null && pObjectName.isPattern() && !ObjectName.WILDCARD.equals(pObjectName) ?
+            nameIndexes.get(pServer) : null;
+        Set<ObjectName> names = index != null ? index.query(pObjectName) : null;
+        if (names == null) {
+            return pServer.queryMBeans(pObjectName, null);
+        }
+        Set<ObjectInstance> instances = new HashSet<>();
+        for (ObjectName name : names) {
+            try {
+                instances.add(pServer.getObjectInstance(name));
+            } catch (InstanceNotFoundException exp) {
+                // Unregistered in the meantime
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Get the MBeanInfo from the cache, which is invalidated whenever an MBean with this name is
+     * registered or unregistered.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public MBeanInfo getMBeanInfo(MBeanServerConnection pConn, ObjectName pName)
+        throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException {
+        return mBeanInfoCache.get(pConn, pName);
+    }
+
+    /**
+     * Get the cache used for MBeanInfos
+     *
+     * @return MBeanInfo cache
+     */
+    public MBeanInfoCache getMBeanInfoCache() {
+        return mBeanInfoCache;
+    }
+
     /**
      * Add this executor as listener for MBeanServer notification so that we can update
      * the local timestamp for when the set of registered MBeans has changed last.
@@ -148,7 +316,8 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
         StringBuilder errors = new StringBuilder();
         for (MBeanServerConnection server : pServers.getMBeanServers()) {
             try {
-                JmxUtil.addMBeanRegistrationListener(server,this,null);
+                // The server is given as handback for updating its name index
+                JmxUtil.addMBeanRegistrationListener(server,this,null,server);
             } catch (IllegalStateException e) {
                 lastExp = updateErrorMsg(errors,e);
             }
@@ -172,6 +341,7 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
                 lastExp = updateErrorMsg(errors, e);
             }
         }
+        nameIndexes.clear();
         if (lastExp != null) {
             throw new IllegalStateException(errors.substring(0,errors.length()-1),lastExp);
         }
@@ -183,6 +353,17 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
     public void handleNotification(Notification pNotification, Object pHandback) {
         // Update timestamp
         lastMBeanRegistrationChange = System.currentTimeMillis();
+        if (pNotification instanceof MBeanServerNotification) {
+            // We don't know from which server the notification comes, so evict the name for all
+            ObjectName name = ((MBeanServerNotification) pNotification).getMBeanName();
+            registrationChanges.incrementAndGet();
+            routes.remove(name);
+            mBeanInfoCache.invalidate(name);
+            ObjectNameIndex index = pHandback != null ? nameIndexes.get(pHandback) : null;
+            if (index != null) {
+                index.update((MBeanServerNotification) pNotification);
+            }
+        }
     }
 
     /** {@inheritDoc} */
@@ -200,4 +381,15 @@ public class DefaultMBeanServerAccess implements MBeanServerAccess, Notification
     public String dumpMBeanServers() {
         return mbeanServers.dump();
     }
+
+    // MBeanServer on which an MBean has been found, along with the servers tried before
+    private static final class Route {
+        private final MBeanServerConnection server;
+        private final List<MBeanServerConnection> skipped;
+
+        private Route(MBeanServerConnection pServer, List<MBeanServerConnection> pSkipped) {
+            server = pServer;
+            skipped = pSkipped;
+        }
+    }
 }
@@ -39,6 +39,19 @@ public final class JmxUtil {
      */
     public static void addMBeanRegistrationListener(MBeanServerConnection pServer, NotificationListener pListener,
                                                     ObjectName pObjectNameToFilter) {
+        addMBeanRegistrationListener(pServer, pListener, pObjectNameToFilter, null);
+    }
+
+    /**
+     * Register a notification listener which listens for registration and deregistration of MBeans at a certain server
+     *
+     * @param pServer server to register to
+     * @param pListener listener to register
+     * @param pObjectNameToFilter object name which should be listen for. If null, listens for any MBean registration
+     * @param pHandback handback given to the listener with every notification
+     */
+    public static void addMBeanRegistrationListener(MBeanServerConnection pServer, NotificationListener pListener,
+                                                    ObjectName pObjectNameToFilter, Object pHandback) {
         MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
         if (pObjectNameToFilter == null) {
             filter.enableAllObjectNames();
@@ -46,7 +59,7 @@ public final class JmxUtil {
             filter.enableObjectName(pObjectNameToFilter);
         }
         try {
-            pServer.addNotificationListener(getMBeanServerDelegateName(), pListener, filter, null);
+            pServer.addNotificationListener(getMBeanServerDelegateName(), pListener, filter, pHandback);
         } catch (InstanceNotFoundException e) {
             throw new IllegalStateException("Cannot find " + getMBeanServerDelegateName() + " in server " + pServer,e);
         } catch (IOException e) {
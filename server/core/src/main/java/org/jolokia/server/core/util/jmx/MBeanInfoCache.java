@@ -0,0 +1,183 @@
+package org.jolokia.server.core.util.jmx;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.*;
+
+/**
+ * Cache for the {@link MBeanInfo} of MBeans, which can be expensive to create for some MBeans (e.g. when
+ * it is built with reflection on every call). Entries are removed with {@link #invalidate(ObjectName)} when
+ * an MBean is (un)registered and optionally expire after a time to live. Once the maximum size is reached,
+ * an arbitrary entry is evicted for a new one.
+ *
+ * Without a time to live only infos which are declared immutable (with the descriptor field
+ * <code>immutableInfo=true</code>, like for standard MBeans and MXBeans) are cached, since a dynamic MBean can
+ * change its info at any time. With a time to live all infos are cached, and changes become visible
+ * after this time at the latest.
+ *
+ * An entry is only used for the MBeanServer from which the info was fetched, since MBeans with the same
+ * name can be registered at different MBeanServers.
+ */
+public final class MBeanInfoCache {
+
+    private final int maxSize;
+    private final long ttl;
+
+    private final Map<ObjectName, CachedInfo> cache = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation, so that an info fetched concurrently
+    // to an (un)registration is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param pMaxSize maximum number of cached entries. If 0, nothing is cached.
+     * @param pTtl time to live of an entry in milliseconds. If 0, entries don't expire.
+     */
+    public MBeanInfoCache(int pMaxSize, long pTtl) {
+        maxSize = pMaxSize;
+        ttl = pTtl;
+    }
+
+    /**
+     * Get the MBeanInfo of an MBean from the cache or fetch it from the given MBeanServer
+     *
+     * @param pConn MBeanServer at which the MBean is registered
+     * @param pName name of the MBean
+     * @return the MBean info
+     * @throws InstanceNotFoundException if the MBean is not registered at the given server
+     * @throws IntrospectionException if the MBeanInfo cannot be created
+     * @throws ReflectionException if the MBeanInfo cannot be created
+     * @throws IOException if the connection to the MBeanServer fails
+     */
+    public MBeanInfo get(MBeanServerConnection pConn, ObjectName pName)
+        throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException {
+        if (maxSize <= 0) {
+            return pConn.getMBeanInfo(pName);
+        }
+        long now = System.currentTimeMillis();
+        CachedInfo cached = cache.get(pName);
+        if (cached != null && cached.server == pConn && !cached.isExpired(now)) {
+            hits.increment();
+            return cached.info;
+        }
+        misses.increment();
+        long generationBefore = generation.get();
+        MBeanInfo info = pConn.getMBeanInfo(pName);
+        if (info != null && (ttl > 0 || isImmutable(info))) {
+            if (cached == null && cache.size() >= maxSize) {
+                evict(now);
+            }
+            cache.put(pName, new CachedInfo(pConn, info, now));
+            if (generation.get() != generationBefore) {
+                // The MBean might have been unregistered while fetching
+                cache.remove(pName);
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Remove the cached info of an MBean, e.g. because it has been (un)registered
+     *
+     * @param pName name of the MBean
+     */
+    public void invalidate(ObjectName pName) {
+        generation.incrementAndGet();
+        cache.remove(pName);
+    }
+
+    /**
+     * Remove all cached entries. The counters are not reset.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Number of lookups answered from the cache
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups for which the info had to be fetched from the MBeanServer. Lookups are
+     * not counted when caching is disabled.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of cached entries
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    // Whether the info is declared not to change during the lifetime of the MBean
+    private static boolean isImmutable(MBeanInfo pInfo) {
+        Descriptor descriptor = pInfo.getDescriptor();
+        return descriptor != null && "true".equalsIgnoreCase(String.valueOf(descriptor.getFieldValue("immutableInfo")));
+    }
+
+    // Make room for a new entry by removing the expired entries or, if there are none, an arbitrary one
+    private void evict(long pNow) {
+        cache.values().removeIf(cached -> cached.isExpired(pNow));
+        Iterator<ObjectName> it = cache.keySet().iterator();
+        while (cache.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // Cached info along with the server it has been fetched from
+    private final class CachedInfo {
+        private final MBeanServerConnection server;
+        private final MBeanInfo info;
+        private final long created;
+
+        private CachedInfo(MBeanServerConnection pServer, MBeanInfo pInfo, long pCreated) {
+            server = pServer;
+            info = pInfo;
+            created = pCreated;
+        }
+
+        private boolean isExpired(long pNow) {
+            return ttl > 0 && pNow - created >= ttl;
+        }
+    }
+}
@@ -78,6 +78,23 @@ public interface MBeanServerAccess {
      */
     Set<ObjectName> queryNames(ObjectName pObjectName) throws IOException;
 
+    /**
+     * Get the {@link MBeanInfo} of an MBean registered at the given MBeanServer. Implementations
+     * may return a cached info.
+     *
+     * @param pConn MBeanServer at which the MBean is registered
+     * @param pName name of the MBean
+     * @return the MBean info
+     * @throws InstanceNotFoundException if the MBean is not registered at the given server
+     * @throws IntrospectionException if the MBeanInfo cannot be created
+     * @throws ReflectionException if the MBeanInfo cannot be created
+     * @throws IOException if called remotely and an IOError occured.
+     */
+    default MBeanInfo getMBeanInfo(MBeanServerConnection pConn, ObjectName pName)
+            throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException {
+        return pConn.getMBeanInfo(pName);
+    }
+
     /**
      * Check whether the set of MBeans in all managed MBeanServer has been changed
      * since the given time. The input is the epoch time in seconds, however, milliseconds
@@ -0,0 +1,273 @@
+package org.jolokia.server.core.util.jmx;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.*;
+
+import javax.management.*;
+
+/**
+ * Index of the names of all MBeans registered at a local MBeanServer, by domain and key property values.
+ * It is used for answering queries without scanning all MBeans of the server. The index is built with
+ * a single query on first use and then kept current with the registration notifications of the server,
+ * which must be given to {@link #update(MBeanServerNotification)}.
+ *
+ * Before a query is answered, the number of indexed names is compared with the number of MBeans
+ * registered at the server. If they differ, the query is left to the MBeanServer and the index is
+ * rebuilt on next use. The index disables itself if it cannot be kept consistent with the MBeanServer
+ * (e.g. because some MBeans are not visible to queries).
+ */
+final class ObjectNameIndex {
+
+    // Number of consecutive failed consistency checks after which the index is not used anymore
+    private static final int MAX_INCONSISTENCIES = 10;
+
+    private final MBeanServer server;
+
+    private final Map<String, DomainIndex> domains = new HashMap<>();
+    private int size;
+
+    // Index is in sync with the server
+    private boolean valid;
+
+    // Set while the names are fetched for building the index. Registration changes
+    // happening meanwhile are collected and applied after the build.
+    private List<MBeanServerNotification> pending;
+
+    private int inconsistencies;
+    private boolean disabled;
+
+    /**
+     * Constructor
+     *
+     * @param pServer server whose MBeans are indexed
+     */
+    ObjectNameIndex(MBeanServer pServer) {
+        server = pServer;
+    }
+
+    /**
+     * Update the index for a registration or unregistration
+     *
+     * @param pNotification notification as received from the MBeanServer delegate
+     */
+    synchronized void update(MBeanServerNotification pNotification) {
+        if (pending != null) {
+            pending.add(pNotification);
+        } else if (valid) {
+            apply(pNotification);
+        }
+    }
+
+    /**
+     * Query for the names matching a pattern
+     *
+     * @param pPattern pattern to query for, <code>null</code> for all names
+     * @return the names found or <code>null</code> if the query can't be answered by the index
+     *         and must be done against the MBeanServer
+     * @throws IOException if querying the MBeanServer for building the index fails
+     */
+    Set<ObjectName> query(ObjectName pPattern) throws IOException {
+        if (!isValid()) {
+            return null;
+        }
+        synchronized (this) {
+            if (!valid) {
+                // Invalidated concurrently
+                return null;
+            }
+            if (size != server.getMBeanCount()) {
+                valid = false;
+                disabled = ++inconsistencies >= MAX_INCONSISTENCIES;
+                return null;
+            }
+            inconsistencies = 0;
+            return lookup(pPattern);
+        }
+    }
+
+    // ==================================================================================================
+
+    // Check for a valid index and build it if required
+    private boolean isValid() {
+        synchronized (this) {
+            if (valid || disabled) {
+                return valid;
+            }
+            if (pending != null) {
+                // Concurrently built by another thread
+                return false;
+            }
+            pending = new ArrayList<>();
+        }
+        Set<ObjectName> names = null;
+        try {
+            // Don't block notifications while querying
+            names = server.queryNames(null, null);
+        } finally {
+            synchronized (this) {
+                if (names != null) {
+                    domains.clear();
+                    size = 0;
+                    for (ObjectName name : names) {
+                        add(name);
+                    }
+                    for (MBeanServerNotification notification : pending) {
+                        apply(notification);
+                    }
+                    valid = true;
+                }
+                pending = null;
+            }
+        }
+        return true;
+    }
+
+    private void apply(MBeanServerNotification pNotification) {
+        if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(pNotification.getType())) {
+            add(pNotification.getMBeanName());
+        } else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(pNotification.getType())) {
+            remove(pNotification.getMBeanName());
+        }
+    }
+
+    private void add(ObjectName pName) {
+        if (domains.computeIfAbsent(pName.getDomain(), k -> new DomainIndex()).add(pName)) {
+            size++;
+        }
+    }
+
+    private void remove(ObjectName pName) {
+        DomainIndex domain = domains.get(pName.getDomain());
+        if (domain != null && domain.remove(pName)) {
+            size--;
+            if (domain.names.isEmpty()) {
+                domains.remove(pName.getDomain());
+            }
+        }
+    }
+
+    private Set<ObjectName> lookup(ObjectName pPattern) {
+        Set<ObjectName> ret = new HashSet<>();
+        if (pPattern == null) {
+            for (DomainIndex domain : domains.values()) {
+                ret.addAll(domain.names);
+            }
+        } else if (!pPattern.isPattern()) {
+            DomainIndex domain = domains.get(pPattern.getDomain());
+            if (domain != null && domain.names.contains(pPattern)) {
+                ret.add(pPattern);
+            }
+        } else if (pPattern.isDomainPattern()) {
+            for (Map.Entry<String, DomainIndex> entry : domains.entrySet()) {
+                if (matchesDomain(pPattern.getDomain(), entry.getKey())) {
+                    entry.getValue().lookup(pPattern, ret);
+                }
+            }
+        } else {
+            DomainIndex domain = domains.get(pPattern.getDomain());
+            if (domain != null) {
+                domain.lookup(pPattern, ret);
+            }
+        }
+        return ret;
+    }
+
+    // Match a domain against a domain pattern with '*' and '?' wildcards
+    private static boolean matchesDomain(String pPattern, String pDomain) {
+        int p = 0, d = 0, star = -1, mark = 0;
+        while (d < pDomain.length()) {
+            if (p < pPattern.length() && (pPattern.charAt(p) == '?' || pPattern.charAt(p) == pDomain.charAt(d))) {
+                p++;
+                d++;
+            } else if (p < pPattern.length() && pPattern.charAt(p) == '*') {
+                star = p++;
+                mark = d;
+            } else if (star >= 0) {
+                p = star + 1;
+                d = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pPattern.length() && pPattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pPattern.length();
+    }
+
+    // Names of a single domain, indexed by their key property values
+    private static final class DomainIndex {
+        private final Set<ObjectName> names = new HashSet<>();
+        private final Map<String, Map<String, Set<ObjectName>>> properties = new HashMap<>();
+
+        private boolean add(ObjectName pName) {
+            if (!names.add(pName)) {
+                return false;
+            }
+            for (Map.Entry<String, String> prop : pName.getKeyPropertyList().entrySet()) {
+                properties.computeIfAbsent(prop.getKey(), k -> new HashMap<>())
+                          .computeIfAbsent(prop.getValue(), k -> new HashSet<>())
+                          .add(pName);
+            }
+            return true;
+        }
+
+        private boolean remove(ObjectName pName) {
+            if (!names.remove(pName)) {
+                return false;
+            }
+            for (Map.Entry<String, String> prop : pName.getKeyPropertyList().entrySet()) {
+                Map<String, Set<ObjectName>> values = properties.get(prop.getKey());
+                Set<ObjectName> valueNames = values.get(prop.getValue());
+                valueNames.remove(pName);
+                if (valueNames.isEmpty()) {
+                    values.remove(prop.getValue());
+                    if (values.isEmpty()) {
+                        properties.remove(prop.getKey());
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Add all names matching the pattern, starting with the smallest set of names
+        // having one of the pattern's fixed key property values
+        private void lookup(ObjectName pPattern, Set<ObjectName> pResult) {
+            Set<ObjectName> candidates = names;
+            for (Map.Entry<String, String> prop : pPattern.getKeyPropertyList().entrySet()) {
+                if (pPattern.isPropertyValuePattern(prop.getKey())) {
+                    continue;
+                }
+                Map<String, Set<ObjectName>> values = properties.get(prop.getKey());
+                Set<ObjectName> valueNames = values != null ? values.get(prop.getValue()) : null;
+                if (valueNames == null) {
+                    return;
+                }
+                if (valueNames.size() < candidates.size()) {
+                    candidates = valueNames;
+                }
+            }
+            for (ObjectName name : candidates) {
+                if (pPattern.apply(name)) {
+                    pResult.add(name);
+                }
+            }
+        }
+    }
+}
@@ -17,19 +17,29 @@ package org.jolokia.server.core.backend;
  */
 
 import java.io.IOException;
-import java.util.Map;
+import java.security.PrivilegedExceptionAction;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.*;
+import javax.management.remote.JMXPrincipal;
+import javax.security.auth.Subject;
 
 import org.jolokia.server.core.config.*;
 import org.jolokia.server.core.request.*;
+import org.jolokia.server.core.restrictor.AllowAllRestrictor;
+import org.jolokia.server.core.service.api.AbstractJolokiaService;
 import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.service.api.LogHandler;
+import org.jolokia.server.core.service.api.Restrictor;
 import org.jolokia.server.core.service.impl.StdoutLogHandler;
 import org.jolokia.server.core.service.request.AbstractRequestHandler;
+import org.jolokia.server.core.service.request.RequestInterceptor;
+import org.jolokia.server.core.service.serializer.SerializeOptions;
 import org.jolokia.server.core.service.serializer.Serializer;
 import org.jolokia.server.core.util.*;
 import org.jolokia.json.JSONObject;
+import org.jolokia.json.JSONStreamable;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.*;
@@ -113,8 +123,236 @@ public class BackendManagerTest {
         assertTrue(((String) jsonError.get("testString")).contains("Hans"));
     }
 
+    @Test
+    public void deferredSerialization() throws JMException, IOException, EmptyResponseException {
+        JolokiaRequest req = new JolokiaRequestBuilder(RequestType.READ,"java.lang:type=Memory")
+                .attribute("HeapMemoryUsage")
+                .build();
+        TestJolokiaContext ctx = new TestJolokiaContext.Builder()
+                .services(Serializer.class, new DeferringSerializer())
+                .config(ConfigKey.AGENT_ID, "test")
+                .logHandler(log)
+                .build();
+        BackendManager backendManager = new BackendManager(ctx, createDispatcher(req, "used", 123456L));
+
+        assertTrue(backendManager.handleRequest(req, true).get("value") instanceof JSONStreamable);
+        assertTrue(backendManager.handleRequest(req, false).get("value") instanceof Map);
+        assertTrue(backendManager.handleRequest(req).get("value") instanceof Map);
+    }
+
+    @Test
+    public void noDeferredSerializationWhenInterceptorNeedsValue() throws JMException, IOException, EmptyResponseException {
+        JolokiaRequest req = new JolokiaRequestBuilder(RequestType.READ,"java.lang:type=Memory")
+                .attribute("HeapMemoryUsage")
+                .build();
+        TestJolokiaContext ctx = new TestJolokiaContext.Builder()
+                .services(Serializer.class, new DeferringSerializer())
+                .services(RequestInterceptor.class, new ValueInterceptor())
+                .config(ConfigKey.AGENT_ID, "test")
+                .logHandler(log)
+                .build();
+        BackendManager backendManager = new BackendManager(ctx, createDispatcher(req, "used", 123456L));
+
+        JSONObject ret = backendManager.handleRequest(req, true);
+        assertTrue(ret.get("value") instanceof Map);
+        assertEquals(ret.get("intercepted"), true);
+    }
+
+    @Test
+    public void responseCache() throws JMException, IOException, EmptyResponseException {
+        AtomicInteger dispatches = new AtomicInteger();
+        BackendManager backendManager = createCountingBackendManager(dispatches, null,
+                ConfigKey.RESPONSE_CACHE, "{ \"java.lang:type=Memory\": 60 }");
+
+        JolokiaRequest req = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                .attribute("HeapMemoryUsage")
+                .build();
+        Object value = backendManager.handleRequest(req, true).get("value");
+        assertTrue(value instanceof Map);
+        assertSame(backendManager.handleRequest(req).get("value"), value);
+        assertEquals(dispatches.get(), 1);
+
+        // Other paths and options are cached separately
+        backendManager.handleRequest(new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                .attribute("HeapMemoryUsage")
+                .option(ConfigKey.MAX_DEPTH, "1")
+                .build());
+        assertEquals(dispatches.get(), 2);
+
+        // MBeans without a configured time are cached only when requested by the client
+        JolokiaRequest threads = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Threading")
+                .attribute("ThreadCount")
+                .build();
+        backendManager.handleRequest(threads);
+        backendManager.handleRequest(threads);
+        assertEquals(dispatches.get(), 4);
+        JolokiaRequest threadsWithMaxAge = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Threading")
+                .attribute("ThreadCount")
+                .option(ConfigKey.MAX_AGE, "10")
+                .build();
+        backendManager.handleRequest(threadsWithMaxAge);
+        backendManager.handleRequest(threadsWithMaxAge);
+        assertEquals(dispatches.get(), 5);
+
+        // Patterns and reads of all attributes are not cached
+        JolokiaRequest all = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory").build();
+        backendManager.handleRequest(all);
+        backendManager.handleRequest(all);
+        assertEquals(dispatches.get(), 7);
+    }
+
+    @Test
+    public void responseCacheChecksRestrictor() throws JMException, IOException, EmptyResponseException {
+        AtomicInteger dispatches = new AtomicInteger();
+        Restrictor restrictor = new AllowAllRestrictor() {
+            @Override
+            public boolean isAttributeReadAllowed(ObjectName pName, String pAttribute) {
+                return !"NonHeapMemoryUsage".equals(pAttribute);
+            }
+        };
+        BackendManager backendManager = createCountingBackendManager(dispatches, restrictor,
+                ConfigKey.RESPONSE_CACHE, "{ \"java.lang:*\": 60 }");
+
+        JolokiaRequest denied = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                .attribute("NonHeapMemoryUsage")
+                .build();
+        backendManager.handleRequest(denied);
+        backendManager.handleRequest(denied);
+        assertEquals(dispatches.get(), 2);
+    }
+
+    @Test
+    public void responseCacheBySubject() throws Exception {
+        AtomicInteger dispatches = new AtomicInteger();
+        BackendManager backendManager = createCountingBackendManager(dispatches, null,
+                ConfigKey.RESPONSE_CACHE, "{ \"java.lang:type=Memory\": 60 }");
+
+        JolokiaRequest req = read();
+        Subject alice = createSubject("alice");
+        handleRequestAs(alice, backendManager, req);
+        handleRequestAs(createSubject("alice"), backendManager, req);
+        assertEquals(dispatches.get(), 1);
+        handleRequestAs(createSubject("bob"), backendManager, req);
+        assertEquals(dispatches.get(), 2);
+        backendManager.handleRequest(req);
+        assertEquals(dispatches.get(), 3);
+    }
+
+    @Test
+    public void responseCacheMaxAgeLimit() throws JMException, IOException, EmptyResponseException {
+        AtomicInteger dispatches = new AtomicInteger();
+        BackendManager backendManager = createCountingBackendManager(dispatches, null,
+                ConfigKey.RESPONSE_CACHE, "{}",
+                ConfigKey.RESPONSE_CACHE_MAX_AGE, "0");
+
+        JolokiaRequest req = read(ConfigKey.MAX_AGE, "3600");
+        backendManager.handleRequest(req);
+        backendManager.handleRequest(req);
+        assertEquals(dispatches.get(), 2);
+    }
+
+    @Test
+    public void invalidResponseCacheConfig() throws JMException, IOException, EmptyResponseException {
+        AtomicInteger dispatches = new AtomicInteger();
+        BackendManager backendManager = createCountingBackendManager(dispatches, null,
+                ConfigKey.RESPONSE_CACHE, "java.lang:type=Memory");
+
+        JolokiaRequest req = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                .attribute("HeapMemoryUsage")
+                .build();
+        backendManager.handleRequest(req);
+        backendManager.handleRequest(req);
+        assertEquals(dispatches.get(), 2);
+    }
+
+    @Test
+    public void etag() throws JMException, IOException, EmptyResponseException {
+        Map<String, Object> value = new HashMap<>();
+        value.put("used", 123456L);
+        RequestDispatcher dispatcher = pRequest -> value;
+        TestJolokiaContext ctx = new TestJolokiaContext.Builder()
+                .services(Serializer.class, new DeferringSerializer())
+                .config(ConfigKey.AGENT_ID, "test")
+                .logHandler(log)
+                .build();
+        BackendManager backendManager = new BackendManager(ctx, dispatcher);
+
+        // Only on request
+        assertNull(backendManager.handleRequest(read()).get("etag"));
+
+        JSONObject ret = backendManager.handleRequest(read(ConfigKey.INCLUDE_ETAG, "true"), true);
+        assertTrue(ret.get("value") instanceof Map);
+        String etag = (String) ret.get("etag");
+        assertNotNull(etag);
+        assertEquals(backendManager.handleRequest(read(ConfigKey.INCLUDE_ETAG, "true")).get("etag"), etag);
+
+        ret = backendManager.handleRequest(read(ConfigKey.IF_NONE_MATCH, etag));
+        assertEquals(ret.get("status"), 304);
+        assertNull(ret.get("value"));
+        assertEquals(ret.get("etag"), etag);
+        ret = backendManager.handleRequest(read(ConfigKey.IF_NONE_MATCH, "\"other\", W/\"" + etag + "\""));
+        assertEquals(ret.get("status"), 304);
+
+        value.put("used", 123457L);
+        ret = backendManager.handleRequest(read(ConfigKey.IF_NONE_MATCH, etag));
+        assertEquals(ret.get("status"), 200);
+        assertNotEquals(ret.get("etag"), etag);
+        assertEquals(((Map<?, ?>) ret.get("value")).get("used"), 123457L);
+    }
+
+    // Backend manager with a dispatcher counting its calls and the given agent configuration
+    private BackendManager createCountingBackendManager(AtomicInteger pDispatches, Restrictor pRestrictor, Object ... pConfig) {
+        List<Object> config = new ArrayList<>(Arrays.asList(pConfig));
+        config.add(ConfigKey.AGENT_ID);
+        config.add("test");
+        TestJolokiaContext ctx = new TestJolokiaContext.Builder()
+                .services(Serializer.class, new TestSerializer())
+                .config(config.toArray())
+                .restrictor(pRestrictor)
+                .logHandler(log)
+                .build();
+        return new BackendManager(ctx, pRequest -> {
+            pDispatches.incrementAndGet();
+            return Collections.singletonMap("used", 123456L);
+        });
+    }
+
+    private Subject createSubject(String pUser) {
+        return new Subject(true, Collections.singleton(new JMXPrincipal(pUser)), Collections.emptySet(), Collections.emptySet());
+    }
+
+    private JSONObject handleRequestAs(Subject pSubject, BackendManager pBackendManager, JolokiaRequest pRequest) throws Exception {
+        return Subject.doAs(pSubject, (PrivilegedExceptionAction<JSONObject>) () -> pBackendManager.handleRequest(pRequest));
+    }
+
+    private JolokiaRequest read(Object ... pOptions) throws MalformedObjectNameException {
+        JolokiaRequestBuilder builder = new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                .attribute("HeapMemoryUsage");
+        for (int i = 0; i < pOptions.length; i += 2) {
+            builder.option((ConfigKey) pOptions[i], (String) pOptions[i + 1]);
+        }
+        return builder.build();
+    }
+
     // =========================================================================================
 
+    static class DeferringSerializer extends TestSerializer {
+        @Override
+        public Object serializeDeferred(Object pValue, SerializeOptions pOptions) {
+            return (JSONStreamable) pSink -> pSink.value(pValue.toString());
+        }
+    }
+
+    static class ValueInterceptor extends AbstractJolokiaService<RequestInterceptor> implements RequestInterceptor {
+        ValueInterceptor() {
+            super(RequestInterceptor.class, 0);
+        }
+
+        public void intercept(JolokiaRequest pRequest, JSONObject pRetValue) {
+            pRetValue.put("intercepted", pRetValue.get("value") instanceof Map);
+        }
+    }
+
     static class RequestHandlerTest extends AbstractRequestHandler {
 
         static boolean called = false;
@@ -0,0 +1,179 @@
+package org.jolokia.server.core.backend;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.InterruptedIOException;
+import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.*;
+import javax.management.remote.JMXPrincipal;
+import javax.security.auth.Subject;
+
+import org.jolokia.server.core.config.ConfigKey;
+import org.jolokia.server.core.request.*;
+import org.jolokia.server.core.restrictor.AllowAllRestrictor;
+import org.jolokia.server.core.service.serializer.Serializer;
+import org.jolokia.server.core.util.*;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class RequestCollapserTest {
+
+    private RequestCollapser collapser;
+    private final AllowAllRestrictor restrictor = new AllowAllRestrictor();
+
+    @BeforeMethod
+    public void setup() {
+        collapser = new RequestCollapser();
+    }
+
+    @Test
+    public void collapse() throws Exception {
+        JolokiaRequest req = read("HeapMemoryUsage");
+        RequestCollapser.Flight leader = collapser.join(req, restrictor);
+        assertTrue(leader.isLeader());
+        RequestCollapser.Flight follower = collapser.join(read("HeapMemoryUsage"), restrictor);
+        assertFalse(follower.isLeader());
+
+        // Other requests are not joined
+        assertTrue(collapser.join(read("NonHeapMemoryUsage"), restrictor).isLeader());
+        assertTrue(collapser.join(new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory")
+                                      .attribute("HeapMemoryUsage")
+                                      .option(ConfigKey.MAX_DEPTH, "1")
+                                      .build(), restrictor).isLeader());
+
+        assertTrue(leader.close());
+        // Closed flights can't be joined anymore
+        RequestCollapser.Flight next = collapser.join(req, restrictor);
+        assertTrue(next.isLeader());
+        assertFalse(next.close());
+
+        Object value = new Object();
+        leader.complete(value);
+        assertSame(follower.await(), value);
+    }
+
+    @Test(expectedExceptions = InstanceNotFoundException.class)
+    public void failure() throws Exception {
+        RequestCollapser.Flight leader = collapser.join(read("HeapMemoryUsage"), restrictor);
+        RequestCollapser.Flight follower = collapser.join(read("HeapMemoryUsage"), restrictor);
+        leader.fail(new InstanceNotFoundException("java.lang:type=Memory"));
+        assertEquals(collapser.size(), 0);
+        follower.await();
+    }
+
+    @Test
+    public void separateSubjects() throws Exception {
+        JolokiaRequest req = read("HeapMemoryUsage");
+        assertTrue(joinAs("alice", req).isLeader());
+        assertFalse(joinAs("alice", req).isLeader());
+        assertTrue(joinAs("bob", req).isLeader());
+        assertTrue(collapser.join(req, restrictor).isLeader());
+    }
+
+    @Test(expectedExceptions = TimeoutException.class)
+    public void timeout() throws Exception {
+        collapser = new RequestCollapser(50);
+        collapser.join(read("HeapMemoryUsage"), restrictor);
+        collapser.join(read("HeapMemoryUsage"), restrictor).await();
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+        collapser.join(read("HeapMemoryUsage"), restrictor);
+        RequestCollapser.Flight follower = collapser.join(read("HeapMemoryUsage"), restrictor);
+        Thread.currentThread().interrupt();
+        try {
+            follower.await();
+            fail("Waiting should have been interrupted");
+        } catch (InterruptedIOException exp) {
+            // Interrupt status is kept
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void notCollapsible() throws Exception {
+        assertNull(collapser.join(new JolokiaRequestBuilder(RequestType.EXEC, "java.lang:type=Memory")
+                                      .operation("gc")
+                                      .build(), restrictor));
+        AllowAllRestrictor denyingRestrictor = new AllowAllRestrictor() {
+            @Override
+            public boolean isAttributeReadAllowed(ObjectName pName, String pAttribute) {
+                return false;
+            }
+        };
+        assertNull(collapser.join(read("HeapMemoryUsage"), denyingRestrictor));
+        assertNotNull(collapser.join(new JolokiaRequestBuilder(RequestType.LIST).build(), denyingRestrictor));
+    }
+
+    @Test
+    public void concurrentRequests() throws Exception {
+        AtomicInteger dispatches = new AtomicInteger();
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestDispatcher dispatcher = pRequest -> {
+            dispatches.incrementAndGet();
+            dispatching.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonMap("used", 123456L);
+        };
+        TestJolokiaContext ctx = new TestJolokiaContext.Builder()
+                .services(Serializer.class, new TestSerializer())
+                .config(ConfigKey.AGENT_ID, "test",
+                        ConfigKey.REQUEST_COLLAPSING, "true")
+                .build();
+        BackendManager backendManager = new BackendManager(ctx, dispatcher);
+        JolokiaRequest req = read("HeapMemoryUsage");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> backendManager.handleRequest(req, true).get("value"));
+            assertTrue(dispatching.await(10, TimeUnit.SECONDS));
+            Future<Object> second = executor.submit(() -> backendManager.handleRequest(read("HeapMemoryUsage")).get("value"));
+            // Give the second request time to join
+            Thread.sleep(200);
+            release.countDown();
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertEquals(dispatches.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Without concurrency every request is dispatched
+        backendManager.handleRequest(req);
+        assertEquals(dispatches.get(), 2);
+    }
+
+    private RequestCollapser.Flight joinAs(String pUser, JolokiaRequest pRequest) {
+        Subject subject = new Subject(true, Collections.singleton(new JMXPrincipal(pUser)), Collections.emptySet(), Collections.emptySet());
+        return Subject.doAs(subject, (PrivilegedAction<RequestCollapser.Flight>) () -> collapser.join(pRequest, restrictor));
+    }
+
+    private JolokiaRequest read(String pAttribute) throws MalformedObjectNameException {
+        return new JolokiaRequestBuilder(RequestType.READ, "java.lang:type=Memory").attribute(pAttribute).build();
+    }
+}
@@ -35,6 +35,8 @@ import org.jolokia.server.core.restrictor.AllowAllRestrictor;
 import org.jolokia.server.core.service.api.*;
 import org.jolokia.server.core.util.HttpTestUtil;
 import org.jolokia.json.JSONObject;
+import org.jolokia.json.parser.CBORParser;
+import org.jolokia.json.parser.ParseException;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -253,6 +255,29 @@ public class AgentServletTest {
         checkMimeTypes("application/json", "application/json");
     }
 
+    @Test
+    public void simpleGetWithCbor() throws ServletException, IOException, ParseException {
+        prepareStandardInitialisation();
+
+        ByteArrayOutputStream sw = initRequestResponseMocks(
+            getStandardRequestSetup(),
+            () -> {
+                response.setContentType("application/cbor");
+                response.setStatus(200);
+            });
+        expect(request.getHeader("Accept")).andReturn("application/cbor, application/json;q=0.9").anyTimes();
+        expect(request.getPathInfo()).andReturn(HttpTestUtil.VERSION_GET_REQUEST);
+        expect(request.getAttribute("subject")).andReturn(null);
+        replay(request, response);
+
+        servlet.doGet(request, response);
+
+        JSONObject resp = (JSONObject) new CBORParser().parse(sw.toByteArray());
+        assertEquals(resp.get("status"), 200L);
+        assertEquals(((JSONObject) resp.get("value")).get("agent"), Version.getAgentVersion());
+        servlet.destroy();
+    }
+
     private void checkMimeTypes(String given, final String expected) throws ServletException, IOException {
         prepareStandardInitialisation();
 
@@ -502,6 +527,7 @@ public class AgentServletTest {
 
     private void setNoCacheHeaders(HttpServletResponse pResp) {
         pResp.setHeader("Cache-Control", "no-cache");
+        pResp.setHeader("Vary", "Accept");
         pResp.setDateHeader(eq("Date"),anyLong());
         pResp.setDateHeader(eq("Expires"),anyLong());
     }
@@ -679,6 +705,8 @@ public class AgentServletTest {
         setNoCacheHeaders(response);
 
         expect(request.getParameter(ConfigKey.CALLBACK.getKeyValue())).andReturn(callback).anyTimes();
+        expect(request.getHeader("If-None-Match")).andStubReturn(null);
+        expect(request.getHeader("Accept")).andStubReturn(null);
         requestSetup.run();
         responseSetup.run();
 
@@ -16,9 +16,12 @@ package org.jolokia.server.core.http;
  *  limitations under the License.
  */
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.management.*;
 
@@ -151,6 +154,74 @@ public class HttpRequestHandlerTest {
         verifyDispatcher(2, response);
     }
 
+    @Test
+    public void parallelBulkPost() throws Exception {
+        init(new AllowAllRestrictor(), new StdoutLogHandler(false), ConfigKey.BULK_THREADS, "4");
+        // At least two requests must be handled concurrently to get through
+        CountDownLatch concurrent = new CountDownLatch(2);
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        expect(requestHandler.handleRequest(isA(JolokiaRequest.class), anyObject())).andStubAnswer(() -> {
+            JolokiaReadRequest request = (JolokiaReadRequest) getCurrentArguments()[0];
+            threads.add(Thread.currentThread());
+            concurrent.countDown();
+            assertTrue(concurrent.await(10, TimeUnit.SECONDS));
+            return request.getAttributeName();
+        });
+        // EasyMock serializes calls to thread safe mocks
+        makeThreadSafe(requestHandler, false);
+        replay(requestHandler);
+
+        JSONArray response = (JSONArray) handler.handlePostRequest("/jolokia", createBulkRequest(20), "utf-8",
+                                                                   Map.of("bulkParallelism", new String[] { "3" }));
+        assertEquals(response.size(), 20);
+        for (int i = 0; i < 20; i++) {
+            JSONObject val = (JSONObject) ((JSONObject) response.get(i)).get("value");
+            assertEquals(val.get("testString"), "attr" + i);
+        }
+        assertTrue(threads.size() > 1 && threads.size() <= 3);
+    }
+
+    @Test
+    public void parallelBulkPostDisabled() throws Exception {
+        init();
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        expect(requestHandler.handleRequest(isA(JolokiaRequest.class), anyObject())).andStubAnswer(() -> {
+            threads.add(Thread.currentThread());
+            return ((JolokiaReadRequest) getCurrentArguments()[0]).getAttributeName();
+        });
+        replay(requestHandler);
+
+        JSONArray response = (JSONArray) handler.handlePostRequest("/jolokia", createBulkRequest(5), "utf-8",
+                                                                   Map.of("bulkParallelism", new String[] { "3" }));
+        assertEquals(response.size(), 5);
+        assertEquals(threads, Collections.singleton(Thread.currentThread()));
+    }
+
+    @Test
+    public void invalidBulkParallelism() throws Exception {
+        init(new AllowAllRestrictor(), new StdoutLogHandler(false), ConfigKey.BULK_THREADS, "4", ConfigKey.BULK_PARALLELISM, "many");
+        replay(requestHandler);
+        for (String parallelism : new String[] { "0", "-1", null }) {
+            try {
+                handler.handlePostRequest("/jolokia", createBulkRequest(5), "utf-8",
+                                          parallelism != null ? Map.of("bulkParallelism", new String[] { parallelism }) : null);
+                fail("Invalid bulkParallelism " + parallelism);
+            } catch (BadRequestException exp) {
+                assertTrue(exp.getMessage().contains("bulkParallelism"));
+            }
+        }
+        handler.destroy();
+    }
+
+    private InputStream createBulkRequest(int pNrRequests) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < pNrRequests; i++) {
+            json.append(i > 0 ? "," : "")
+                .append("{\"type\":\"read\",\"mbean\":\"java.lang:type=Memory\",\"attribute\":\"attr").append(i).append("\"}");
+        }
+        return HttpTestUtil.createServletInputStream(json.append("]").toString());
+    }
+
     @Test
     public void preflightCheck() {
         String origin = "http://bla.com";
@@ -191,6 +262,13 @@ public class HttpRequestHandlerTest {
         handler.handlePostRequest("/jolokia", is, "utf-8", null);
     }
 
+    @Test(expectedExceptions = BadRequestException.class, expectedExceptionsMessageRegExp = ".*Invalid UTF-8 sequence starting with byte 0xc3.*")
+    public void invalidUtf8() throws Exception {
+        init();
+        InputStream is = new ByteArrayInputStream(new byte[] { '{', '"', (byte) 0xc3, '"', ':', '1', '}' });
+        handler.handlePostRequest("/jolokia", is, "utf-8", null);
+    }
+
     @Test
     public void requestErrorHandling() throws Exception {
         Object[] exceptions = new Object[] {
@@ -290,7 +368,7 @@ public class HttpRequestHandlerTest {
         init(pRestrictor,new StdoutLogHandler(false));
     }
 
-    private void init(Restrictor pRestrictor, LogHandler pLogHandler) throws Exception {
+    private void init(Restrictor pRestrictor, LogHandler pLogHandler, Object... pConfig) throws Exception {
         requestHandler = createMock(RequestHandler.class);
         requestHandler.destroy();
         expectLastCall().asStub();
@@ -307,6 +385,7 @@ public class HttpRequestHandlerTest {
                 .logHandler(pLogHandler)
                 .services(RequestHandler.class,services)
                 .services(Serializer.class,new TestSerializer())
+                .config(pConfig)
                 .build();
         handler = new HttpRequestHandler(ctx);
     }
@@ -0,0 +1,100 @@
+package org.jolokia.server.core.request;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createMock;
+import static org.jolokia.server.core.util.RequestType.*;
+import static org.testng.Assert.*;
+
+public class BulkReadGroupTest {
+
+    @Test
+    public void grouping() throws Exception {
+        List<JolokiaRequest> requests = asList(
+            read("java.lang:type=Memory", "HeapMemoryUsage"),
+            read("java.lang:type=Memory", "NonHeapMemoryUsage"),
+            read("java.lang:type=Threading", "ThreadCount"),
+            read("java.lang:type=Memory", "HeapMemoryUsage"),
+            new JolokiaRequestBuilder(WRITE, "java.lang:type=Memory").attribute("Verbose").value(true).build(),
+            read("java.lang:type=Memory", "Verbose"),
+            read("java.lang:type=Memory", "ObjectPendingFinalizationCount"),
+            read("java.lang:type=Threading", "PeakThreadCount"),
+            read("java.lang:type=*", "ThreadCount"),
+            new JolokiaRequestBuilder(READ, "java.lang:type=Threading").attributes("ThreadCount", "DaemonThreadCount").build()
+        );
+        BulkReadGroup.groupReads(requests);
+
+        BulkReadGroup before = group(requests.get(0));
+        assertNotNull(before);
+        assertEquals(before.getAttributeNames(), asList("HeapMemoryUsage", "NonHeapMemoryUsage"));
+        assertSame(group(requests.get(1)), before);
+        assertSame(group(requests.get(3)), before);
+        // only a single attribute for this MBean
+        assertNull(group(requests.get(2)));
+
+        // the write starts new groups
+        BulkReadGroup after = group(requests.get(5));
+        assertNotSame(after, before);
+        assertEquals(after.getAttributeNames(), asList("Verbose", "ObjectPendingFinalizationCount"));
+        assertSame(group(requests.get(6)), after);
+        assertNull(group(requests.get(7)));
+
+        // patterns and multi attribute reads are never grouped
+        assertNull(group(requests.get(8)));
+        assertNull(group(requests.get(9)));
+    }
+
+    @Test
+    public void fetchOncePerServer() throws Exception {
+        List<JolokiaRequest> requests = asList(
+            read("java.lang:type=Memory", "HeapMemoryUsage"),
+            read("java.lang:type=Memory", "NonHeapMemoryUsage"));
+        BulkReadGroup.groupReads(requests);
+        BulkReadGroup group = group(requests.get(0));
+
+        AtomicInteger fetches = new AtomicInteger();
+        BulkReadGroup.Fetcher fetcher = (pServer, pObjectName, pAttributeNames) -> {
+            fetches.incrementAndGet();
+            return Collections.singletonMap(pAttributeNames.get(0), "value");
+        };
+        MBeanServerConnection server1 = createMock(MBeanServerConnection.class);
+        MBeanServerConnection server2 = createMock(MBeanServerConnection.class);
+        Map<String, Object> values = group.getValues(server1, fetcher);
+        assertEquals(values.get("HeapMemoryUsage"), "value");
+        assertSame(group.getValues(server1, fetcher), values);
+        assertEquals(fetches.get(), 1);
+        group.getValues(server2, fetcher);
+        assertEquals(fetches.get(), 2);
+    }
+
+    private JolokiaReadRequest read(String pMBean, String pAttribute) throws MalformedObjectNameException {
+        return new JolokiaRequestBuilder(READ, pMBean).attribute(pAttribute).build();
+    }
+
+    private BulkReadGroup group(JolokiaRequest pRequest) {
+        return ((JolokiaReadRequest) pRequest).getReadGroup();
+    }
+}
@@ -16,8 +16,11 @@ package org.jolokia.server.core.request;
  * limitations under the License.
  */
 
+import java.io.IOException;
 import java.util.*;
 
+import org.jolokia.json.parser.JSONPullParser;
+import org.jolokia.json.parser.ParseException;
 import org.jolokia.server.core.config.ConfigKey;
 import org.jolokia.server.core.util.HttpMethod;
 import org.jolokia.server.core.util.RequestType;
@@ -25,6 +28,7 @@ import org.testng.annotations.*;
 
 import static org.jolokia.server.core.request.JolokiaRequestBuilder.createMap;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 /**
  * @author roland
@@ -146,6 +150,36 @@ public class JolokiaRequestFactoryTest {
         JolokiaRequestFactory.createPostRequests(Arrays.asList(reqMap, "Wrong"), procParams);
     }
 
+    @Test
+    public void multiPostRequestsFromParser() throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser("[{\"type\":\"read\",\"mbean\":\"java.lang:type=Memory\"," +
+            "\"attribute\":\"HeapMemoryUsage\",\"path\":\"used\"},{\"type\":\"list\",\"config\":{\"maxDepth\":\"2\"}}]");
+        assertEquals(parser.next(), JSONPullParser.Event.START_ARRAY);
+        List<JolokiaRequest> req = JolokiaRequestFactory.createPostRequests(parser, procParams);
+        assertEquals(req.size(), 2);
+        assertEquals(req.get(0).getType(), RequestType.READ);
+        assertEquals(((JolokiaReadRequest) req.get(0)).getAttributeName(), "HeapMemoryUsage");
+        assertEquals(req.get(0).getPath(), "used");
+        assertEquals(req.get(1).getType(), RequestType.LIST);
+        assertEquals(req.get(1).getParameter(ConfigKey.MAX_DEPTH), "2");
+        assertNull(parser.next());
+    }
+
+    @Test(expectedExceptions = { IllegalArgumentException.class })
+    public void multiPostRequestsFromParserWithWrongArg() throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser("[{\"type\":\"list\"},\"Wrong\"]");
+        parser.next();
+        JolokiaRequestFactory.createPostRequests(parser, procParams);
+    }
+
+    @Test(expectedExceptions = { ParseException.class })
+    public void multiPostRequestsFromParserWithWrongArgAndInvalidJson() throws ParseException, IOException {
+        // syntax errors take precedence over invalid requests
+        JSONPullParser parser = new JSONPullParser("[{\"type\":\"unknown\"},{\"type\":]");
+        parser.next();
+        JolokiaRequestFactory.createPostRequests(parser, procParams);
+    }
+
     @Test
     public void simpleGetWithPath() {
         JolokiaWriteRequest req = JolokiaRequestFactory.createGetRequest("write/java.lang:type=Runtime/SystemProperties/7788/[com.sun.management.jmxremote.port]/value", procParams);
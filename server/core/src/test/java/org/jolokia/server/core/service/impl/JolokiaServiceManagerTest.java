@@ -23,6 +23,7 @@ import org.jolokia.server.core.service.JolokiaServiceManagerFactory;
 import org.jolokia.server.core.service.api.AbstractJolokiaService;
 import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.service.api.JolokiaService;
+import org.jolokia.server.core.service.api.JolokiaServiceLookup;
 import org.jolokia.server.core.service.api.JolokiaServiceManager;
 import org.jolokia.server.core.service.request.RequestHandler;
 import org.jolokia.server.core.util.DebugStore;
@@ -148,6 +149,87 @@ public class JolokiaServiceManagerTest {
         }
     }
 
+    @Test
+    public void serviceSnapshots() {
+        StaticConfiguration config = new StaticConfiguration(
+            ConfigKey.AGENT_ID, "test"
+        );
+
+        JolokiaServiceManager manager = JolokiaServiceManagerFactory
+            .createJolokiaServiceManager(config, null, null, null);
+        VersionedLookup versioned = new VersionedLookup();
+        VersionedLookup unversioned = new VersionedLookup();
+        manager.addServiceLookup(versioned);
+        manager.addServiceLookup(unversioned);
+        JolokiaContext context;
+        try {
+            context = manager.start();
+            SortedSet<JolokiaService.Init> set = context.getServices(JolokiaService.Init.class);
+            // DebugStore only
+            assertEquals(set.size(), 1);
+            assertSame(context.getServices(JolokiaService.Init.class), set);
+            try {
+                set.clear();
+                fail("Snapshot must not be modifiable");
+            } catch (UnsupportedOperationException exp) {
+                // expected
+            }
+
+            // New static service
+            manager.addService(new Service1(JolokiaService.Init.class, 10));
+            SortedSet<JolokiaService.Init> set2 = context.getServices(JolokiaService.Init.class);
+            assertNotSame(set2, set);
+            assertEquals(set2.size(), 2);
+
+            // Lookup without version is always asked
+            unversioned.version = -1;
+            unversioned.services.add(new Service2(JolokiaService.Init.class, -1));
+            assertEquals(context.getServices(JolokiaService.Init.class).size(), 3);
+            assertTrue(context.getService(JolokiaService.Init.class) instanceof Service2);
+            unversioned.services.clear();
+            assertEquals(context.getServices(JolokiaService.Init.class).size(), 2);
+            unversioned.version = 0;
+            set2 = context.getServices(JolokiaService.Init.class);
+            assertSame(context.getServices(JolokiaService.Init.class), set2);
+
+            // Versioned lookup is only asked again after its version has changed
+            versioned.services.add(new Service3(JolokiaService.Init.class, -2));
+            assertSame(context.getServices(JolokiaService.Init.class), set2);
+            versioned.version++;
+            assertEquals(context.getServices(JolokiaService.Init.class).size(), 3);
+            assertTrue(context.getService(JolokiaService.Init.class) instanceof Service3);
+        } finally {
+            manager.stop();
+        }
+    }
+
+    private static class VersionedLookup implements JolokiaServiceLookup {
+        private final Set<JolokiaService<?>> services = new HashSet<>();
+        private volatile long version;
+
+        @SuppressWarnings("unchecked")
+        public <T extends JolokiaService<?>> Set<T> getServices(Class<T> pType) {
+            Set<T> ret = new HashSet<>();
+            for (JolokiaService<?> service : services) {
+                if (service.getType() == pType) {
+                    ret.add((T) service);
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        public void init(JolokiaContext pJolokiaContext) {
+        }
+
+        public void destroy() {
+        }
+    }
+
     public static class Service1 extends AbstractJolokiaService<JolokiaService.Init> {
         protected Service1(Class<JolokiaService.Init> pType, int pOrderId) {
             super(pType, pOrderId);
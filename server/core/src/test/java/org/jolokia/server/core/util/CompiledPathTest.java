@@ -0,0 +1,69 @@
+package org.jolokia.server.core.util;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.*;
+
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.*;
+
+public class CompiledPathTest {
+
+    @Test
+    public void parse() {
+        CompiledPath path = CompiledPath.parse("map/*/a!/b!!/!*");
+        assertEquals(path.size(), 4);
+        assertEquals(path.getElements(), asList("map", null, "a/b!", null));
+        assertTrue(path.hasWildcards());
+        assertNull(path.get(1));
+        assertEquals(path.toStack().pop(), "map");
+        assertEquals(CompiledPath.parse("a//b/"), CompiledPath.of(asList("a", "", "b")));
+        assertFalse(CompiledPath.parse("a/b").hasWildcards());
+        assertSame(CompiledPath.parse(null), CompiledPath.EMPTY);
+        assertSame(CompiledPath.parse("/"), CompiledPath.EMPTY);
+        assertSame(CompiledPath.of(Collections.emptyList()), CompiledPath.EMPTY);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void immutable() {
+        CompiledPath.parse("a/b").getElements().set(0, "c");
+    }
+
+    @Test
+    public void sameAsRegexpSplitting() {
+        // Compare with the generic, regexp based splitting for random paths made of the special chars
+        Random random = new Random(42);
+        char[] chars = { 'a', '/', '!', '*' };
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder path = new StringBuilder();
+            int len = 1 + random.nextInt(8);
+            for (int j = 0; j < len; j++) {
+                path.append(chars[random.nextInt(chars.length)]);
+            }
+            if (path.toString().equals("/")) {
+                continue;
+            }
+            List<String> expected = new ArrayList<>();
+            for (String part : EscapeUtil.split(path.toString(), EscapeUtil.PATH_ESCAPE, "/")) {
+                expected.add("*".equals(part) ? null : part);
+            }
+            assertEquals(CompiledPath.parse(path.toString()).getElements(), expected, "Path " + path);
+        }
+    }
+}
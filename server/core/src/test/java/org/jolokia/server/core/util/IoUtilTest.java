@@ -65,6 +65,36 @@ public class IoUtilTest {
         assertWriterClosed(writer);
     }
 
+    @Test
+    public void checkByteWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JSONArray resp = new JSONArray();
+        for (int i = 0; i < 10000; i++) {
+            JSONObject data = new JSONObject();
+            data.put("value", "hellø");
+            data.put("timestamp", 1700000000L + i);
+            resp.add(data);
+        }
+        String respString = resp.toJSONString();
+
+        IoUtil.streamResponseAndClose(out, resp, null);
+        assertEquals(out.toString(StandardCharsets.UTF_8), respString);
+    }
+
+    @Test
+    public void checkByteWriteWithCallback() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JSONObject resp = new JSONObject();
+        resp.put("value", "hello");
+        String respString = "callbackFunc(" + resp.toJSONString() + ");";
+
+        IoUtil.streamResponseAndClose(out, resp, "callbackFunc");
+        assertEquals(out.size(), respString.length());
+        assertEquals(out.toString(StandardCharsets.UTF_8), respString);
+    }
+
     private void assertWriterClosed(OutputStreamWriter writer) {
         try {
             writer.write(1);
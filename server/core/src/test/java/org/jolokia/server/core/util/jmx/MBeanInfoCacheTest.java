@@ -0,0 +1,142 @@
+package org.jolokia.server.core.util.jmx;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import javax.management.*;
+
+import org.testng.annotations.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.testng.Assert.*;
+
+public class MBeanInfoCacheTest {
+
+    private final ObjectName name1 = objectName("test:type=one");
+    private final ObjectName name2 = objectName("test:type=two");
+
+    @Test
+    public void hitsAndInvalidation() throws Exception {
+        MBeanServerConnection server = createMock(MBeanServerConnection.class);
+        MBeanInfo info = info("one");
+        expect(server.getMBeanInfo(name1)).andReturn(info).times(2);
+        replay(server);
+
+        MBeanInfoCache cache = new MBeanInfoCache(10, 0);
+        assertSame(cache.get(server, name1), info);
+        assertSame(cache.get(server, name1), info);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.size(), 1);
+
+        cache.invalidate(name1);
+        assertEquals(cache.size(), 0);
+        cache.get(server, name1);
+        assertEquals(cache.getMisses(), 2);
+        verify(server);
+    }
+
+    @Test
+    public void perServer() throws Exception {
+        MBeanServerConnection server1 = createMock(MBeanServerConnection.class);
+        MBeanServerConnection server2 = createMock(MBeanServerConnection.class);
+        expect(server1.getMBeanInfo(name1)).andReturn(info("server1"));
+        expect(server2.getMBeanInfo(name1)).andReturn(info("server2"));
+        replay(server1, server2);
+
+        MBeanInfoCache cache = new MBeanInfoCache(10, 0);
+        assertEquals(cache.get(server1, name1).getClassName(), "server1");
+        assertEquals(cache.get(server2, name1).getClassName(), "server2");
+        verify(server1, server2);
+    }
+
+    @Test
+    public void maxSize() throws Exception {
+        MBeanServerConnection server = createMock(MBeanServerConnection.class);
+        expect(server.getMBeanInfo(name1)).andReturn(info("one")).times(2);
+        expect(server.getMBeanInfo(name2)).andReturn(info("two"));
+        replay(server);
+
+        MBeanInfoCache cache = new MBeanInfoCache(1, 0);
+        cache.get(server, name1);
+        // Evicts the info of name1
+        cache.get(server, name2);
+        cache.get(server, name2);
+        cache.get(server, name1);
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getHits(), 1);
+        verify(server);
+    }
+
+    @Test
+    public void ttl() throws Exception {
+        MBeanServerConnection server = createMock(MBeanServerConnection.class);
+        expect(server.getMBeanInfo(name1)).andReturn(info("one")).times(2);
+        replay(server);
+
+        MBeanInfoCache cache = new MBeanInfoCache(10, 1);
+        cache.get(server, name1);
+        Thread.sleep(5);
+        cache.get(server, name1);
+        assertEquals(cache.getHits(), 0);
+        verify(server);
+    }
+
+    @Test
+    public void mutableInfo() throws Exception {
+        MBeanServerConnection server = createMock(MBeanServerConnection.class);
+        MBeanInfo info = new MBeanInfo("mutable", null, null, null, null, null);
+        expect(server.getMBeanInfo(name1)).andReturn(info).times(3);
+        replay(server);
+
+        // Not cached without a time to live, since it could change at any time
+        MBeanInfoCache cache = new MBeanInfoCache(10, 0);
+        cache.get(server, name1);
+        cache.get(server, name1);
+        assertEquals(cache.size(), 0);
+
+        cache = new MBeanInfoCache(10, 60000);
+        cache.get(server, name1);
+        cache.get(server, name1);
+        assertEquals(cache.getHits(), 1);
+        verify(server);
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        MBeanServerConnection server = createMock(MBeanServerConnection.class);
+        expect(server.getMBeanInfo(name1)).andReturn(info("one")).times(2);
+        replay(server);
+
+        MBeanInfoCache cache = new MBeanInfoCache(0, 0);
+        cache.get(server, name1);
+        cache.get(server, name1);
+        assertEquals(cache.size(), 0);
+        verify(server);
+    }
+
+    private MBeanInfo info(String pClassName) {
+        return new MBeanInfo(pClassName, null, null, null, null, null, new ImmutableDescriptor("immutableInfo=true"));
+    }
+
+    private static ObjectName objectName(String pName) {
+        try {
+            return new ObjectName(pName);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.jolokia.server.core.util.jmx;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import javax.management.*;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class ObjectNameIndexTest {
+
+    private MBeanServer server;
+    private ObjectNameIndex index;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        server = MBeanServerFactory.newMBeanServer();
+        index = new ObjectNameIndex(server);
+        JmxUtil.addMBeanRegistrationListener(server,
+                                             (pNotification, pHandback) -> index.update((MBeanServerNotification) pNotification),
+                                             null);
+        for (String name : new String[] {
+            "test:type=one", "test:type=two,name=a", "test:type=two,name=b", "test:type=two,name=\"quoted\"",
+            "other:type=one", "other.sub:type=two,name=a", "broker:type=queue,name=q1,id=1", "broker:type=queue,name=q2,id=2"
+        }) {
+            register(name);
+        }
+    }
+
+    @Test
+    public void wrappedServersAreNotIndexed() {
+        assertTrue(DefaultMBeanServerAccess.isIndexable(server));
+        MBeanServer guarded = (MBeanServer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { MBeanServer.class },
+                                                                   (proxy, method, args) -> method.invoke(server, args));
+        assertFalse(DefaultMBeanServerAccess.isIndexable(guarded));
+    }
+
+    @Test
+    public void sameAsMBeanServer() throws Exception {
+        for (String pattern : new String[] {
+            "test:type=one", "test:type=three", "test:*", "test:type=two,*", "test:name=a,*", "test:type=two,name=a",
+            "test:type=t*,*", "test:name=\"quoted\",*", "*:type=one", "oth*:*", "other?sub:*", "*:name=a,*",
+            "*:*", "nothing:*", "broker:type=queue,name=q?,*", "broker:id=2,*", "*.sub:type=two,*"
+        }) {
+            ObjectName name = new ObjectName(pattern);
+            assertEquals(index.query(name), server.queryNames(name, null), pattern);
+        }
+        assertEquals(index.query(null), server.queryNames(null, null));
+    }
+
+    @Test
+    public void updatedFromNotifications() throws Exception {
+        ObjectName pattern = new ObjectName("test:type=two,*");
+        assertEquals(index.query(pattern).size(), 3);
+        register("test:type=two,name=c");
+        server.unregisterMBean(new ObjectName("test:type=two,name=a"));
+        assertEquals(index.query(pattern), server.queryNames(pattern, null));
+        assertEquals(index.query(pattern).size(), 3);
+    }
+
+    @Test
+    public void fallbackWhenInconsistent() throws Exception {
+        ObjectName pattern = new ObjectName("test:*");
+        assertNotNull(index.query(pattern));
+
+        // A second server with the same index which doesn't get notified
+        MBeanServer silent = MBeanServerFactory.newMBeanServer();
+        ObjectNameIndex silentIndex = new ObjectNameIndex(silent);
+        silent.registerMBean(new Test1(), new ObjectName("test:type=one"));
+        assertEquals(silentIndex.query(pattern).size(), 1);
+        silent.registerMBean(new Test1(), new ObjectName("test:type=two"));
+        assertNull(silentIndex.query(pattern));
+        // Rebuilt on next use
+        assertEquals(silentIndex.query(pattern).size(), 2);
+    }
+
+    private void register(String pName) throws Exception {
+        server.registerMBean(new Test1(), new ObjectName(pName));
+    }
+
+    public interface Test1MBean {
+        int getValue();
+    }
+
+    public static class Test1 implements Test1MBean {
+        public int getValue() {
+            return 1;
+        }
+    }
+}
@@ -191,6 +191,12 @@ public class GlassfishDetector extends AbstractServerDetector {
             }
         }
 
+        @Override
+        public boolean needsValue(JolokiaRequest pRequest) {
+            // Only used as a hook for booting AMX
+            return false;
+        }
+
         @Override
         public void init(JolokiaContext pJolokiaContext) {
             super.init(pJolokiaContext);
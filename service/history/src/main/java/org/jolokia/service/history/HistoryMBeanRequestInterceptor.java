@@ -23,6 +23,9 @@ public class HistoryMBeanRequestInterceptor extends AbstractJolokiaService<Reque
     // Objectname for updating the history
     private ObjectName historyObjectName;
 
+    // Store backing the history MBean
+    private HistoryStore historyStore;
+
     /**
      * Construction of a base service for a given type and order
      *
@@ -39,7 +42,7 @@ public class HistoryMBeanRequestInterceptor extends AbstractJolokiaService<Reque
             super.init(pCtx);
 
             int maxEntries = getMaxEntries(pCtx);
-            HistoryStore historyStore = new HistoryStore(maxEntries);
+            historyStore = new HistoryStore(maxEntries);
             History history = new History(historyStore);
             historyObjectName = registerJolokiaMBean(History.OBJECT_NAME,history);
 
@@ -88,6 +91,17 @@ public class HistoryMBeanRequestInterceptor extends AbstractJolokiaService<Reque
         }
     }
 
+    /**
+     * The value is only needed when a history is tracked at all
+     *
+     * @param pJmxReq request obtained
+     * @return true if the history store is configured for some request
+     */
+    @Override
+    public boolean needsValue(JolokiaRequest pJmxReq) {
+        return historyStore == null || !historyStore.isEmpty();
+    }
+
     private int getMaxEntries(JolokiaContext pCtx) {
         int maxEntries;
         try {
@@ -9,6 +9,7 @@ import javax.management.ObjectName;
 import org.jolokia.server.core.request.*;
 import org.jolokia.server.core.util.RequestType;
 import org.jolokia.json.JSONObject;
+import org.jolokia.json.JSONStreamable;
 
 /*
  * Copyright 2009-2013 Roland Huss
@@ -129,6 +130,15 @@ public class HistoryStore {
         patterns = new HashMap<>();
     }
 
+    /**
+     * Check whether any history tracking is configured at all
+     *
+     * @return true if neither an entry nor a pattern is configured
+     */
+    public synchronized boolean isEmpty() {
+        return historyStore.isEmpty() && patterns.isEmpty();
+    }
+
     /**
      * Update the history store with the value of an an read, write or execute operation. Also, the timestamp
      * of the insertion is recorded. Also, the recorded history values are added to the given json value.
@@ -143,7 +153,8 @@ public class HistoryStore {
         RequestType type  = pJmxReq.getType();
         @SuppressWarnings("unchecked")
         HistoryUpdater<JolokiaRequest> updater = (HistoryUpdater<JolokiaRequest>) historyUpdaters.get(type);
-        if (updater != null) {
+        // A value which is serialized only when written has not been requested for tracking (see isEmpty())
+        if (updater != null && !(pJson.get(KEY_VALUE) instanceof JSONStreamable)) {
             updater.updateHistory(pJson,pJmxReq,timestamp);
         }
     }
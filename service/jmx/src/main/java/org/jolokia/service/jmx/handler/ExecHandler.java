@@ -152,7 +152,7 @@ public class ExecHandler extends AbstractCommandHandler<JolokiaExecRequest> {
                                                                   String pOperation)
             throws InstanceNotFoundException, ReflectionException, IOException {
         try {
-            MBeanInfo mBeanInfo = pServer.getMBeanInfo(pRequest.getObjectName());
+            MBeanInfo mBeanInfo = context.getMBeanServerAccess().getMBeanInfo(pServer, pRequest.getObjectName());
             List<MBeanParameterInfo[]> paramInfos = new ArrayList<>();
             for (MBeanOperationInfo opInfo : mBeanInfo.getOperations()) {
                 if (opInfo.getName().equals(pOperation)) {
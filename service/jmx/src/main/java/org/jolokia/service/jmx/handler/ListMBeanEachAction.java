@@ -106,7 +106,7 @@ class ListMBeanEachAction implements MBeanServerAccess.MBeanEachCallback, MBeanS
         }
         if (!infoData.handleFirstOrSecondLevel(objectName)) {
             try {
-                infoData.addMBeanInfo(pConn, pInstance, customUpdaters, cacheKeyProviders);
+                infoData.addMBeanInfo(context.getMBeanServerAccess(), pConn, pInstance, customUpdaters, cacheKeyProviders);
             } catch (IOException exp) {
                 infoData.handleException(objectName, exp);
             } catch (InstanceNotFoundException exp) {
@@ -5,6 +5,7 @@ import java.util.*;
 
 import javax.management.*;
 
+import org.jolokia.server.core.request.BulkReadGroup;
 import org.jolokia.server.core.request.JolokiaReadRequest;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.server.core.util.RequestType;
@@ -35,14 +36,15 @@ import org.jolokia.server.core.util.jmx.MBeanServerAccess;
  */
 public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
 
-    // MBean Handler used for extracting MBean Meta data
+    // MBean Handler used for extracting MBean Meta data. The MBeanServerAccess is given as extra argument,
+    // so that the MBeanInfo can be looked up from its cache
     private static final MBeanServerAccess.MBeanAction<MBeanInfo> MBEAN_INFO_HANDLER =
             new MBeanServerAccess.MBeanAction<>() {
                 /** {@inheritDoc} */
                 public MBeanInfo execute(MBeanServerConnection pConn, ObjectName pName, Object... extraArgs)
                         throws ReflectionException, InstanceNotFoundException, IOException {
                     try {
-                        return pConn.getMBeanInfo(pName);
+                        return ((MBeanServerAccess) extraArgs[0]).getMBeanInfo(pConn, pName);
                     } catch (IntrospectionException e) {
                         throw new IllegalArgumentException("Cannot inspect " + pName + ": " + e, e);
                     }
@@ -61,6 +63,17 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
             };
 
 
+    // MBean Handler for getting multiple attributes at once
+    private static final MBeanServerAccess.MBeanAction<AttributeList> MBEAN_ATTRIBUTES_READ_HANDLER =
+            new MBeanServerAccess.MBeanAction<>() {
+                /** {@inheritDoc} */
+                public AttributeList execute(MBeanServerConnection pConn, ObjectName pName, Object... extraArgs)
+                        throws ReflectionException, InstanceNotFoundException, IOException {
+                    String[] attributes = (String[]) extraArgs[0];
+                    return pConn.getAttributes(pName, attributes);
+                }
+            };
+
     /** {@inheritDoc} */
     public RequestType getType() {
         return RequestType.READ;
@@ -82,7 +95,8 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
 
     /**
      * Used for a request to a single attribute from a single MBean. Merging of MBeanServers is done
-     * one layer above.
+     * one layer above. If the request is part of a {@link BulkReadGroup}, the attributes of the whole
+     * group are fetched at once.
      *
      *
      * @param pServer server on which to request the attribute
@@ -92,8 +106,17 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
     @Override
     public Object doHandleSingleServerRequest(MBeanServerConnection pServer, JolokiaReadRequest pRequest)
             throws InstanceNotFoundException, AttributeNotFoundException, ReflectionException, MBeanException, IOException {
-        checkRestriction(pRequest.getObjectName(), pRequest.getAttributeName());
-        return pServer.getAttribute(pRequest.getObjectName(), pRequest.getAttributeName());
+        String attribute = pRequest.getAttributeName();
+        checkRestriction(pRequest.getObjectName(), attribute);
+        BulkReadGroup group = pRequest.getReadGroup();
+        if (group != null) {
+            Map<String, Object> values = group.getValues(pServer, this::fetchGroupAttributes);
+            if (values.containsKey(attribute)) {
+                return values.get(attribute);
+            }
+            // Attribute could not be fetched with the group, so read it alone for getting the proper error
+        }
+        return pServer.getAttribute(pRequest.getObjectName(), attribute);
     }
 
     /** {@inheritDoc} */
@@ -177,10 +200,25 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
         List<String> attributes = resolveAttributes(pServerManager, pMBeanName, pAttributeNames);
         Map<String,Object> ret = new HashMap<>();
 
+        Set<String> allowed = new LinkedHashSet<>();
+        for (String attribute : attributes) {
+            if (context.isAttributeReadAllowed(pMBeanName, attribute)) {
+                allowed.add(attribute);
+            }
+        }
+        // All allowed attributes are fetched at once. Those which cannot be fetched this way
+        // are read one by one, so that the error for the specific attribute can be reported
+        Map<String, Object> values =
+            allowed.size() > 1 ? getAttributes(pServerManager, pMBeanName, allowed) : Collections.emptyMap();
+
         for (String attribute : attributes) {
             try {
-                checkRestriction(pMBeanName, attribute);
-                ret.put(attribute,getAttribute(pServerManager, pMBeanName, attribute));
+                if (!allowed.contains(attribute)) {
+                    throw forbiddenAttributeRead(pMBeanName, attribute);
+                }
+                ret.put(attribute, values.containsKey(attribute) ?
+                    values.get(attribute) :
+                    getAttribute(pServerManager, pMBeanName, attribute));
             } catch (MBeanException e) {
                 // The fault handler might to decide to rethrow the
                 // exception in which case nothing is put extra into ret.
@@ -206,6 +244,45 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
         return ret;
     }
 
+    // Fetch all readable attributes of a group at once. Attributes which cannot be fetched are missing
+    // in the returned map, they are read on their own later
+    private Map<String, Object> fetchGroupAttributes(MBeanServerConnection pServer, ObjectName pMBeanName, List<String> pAttributeNames)
+            throws InstanceNotFoundException, IOException {
+        List<String> allowed = new ArrayList<>();
+        for (String attribute : pAttributeNames) {
+            if (context.isAttributeReadAllowed(pMBeanName, attribute)) {
+                allowed.add(attribute);
+            }
+        }
+        if (!allowed.isEmpty()) {
+            try {
+                return toMap(pServer.getAttributes(pMBeanName, allowed.toArray(new String[0])));
+            } catch (ReflectionException | RuntimeException exp) {
+                // All attributes are read one by one then
+            }
+        }
+        return new HashMap<>();
+    }
+
+    // Fetch multiple attributes at once. Attributes which cannot be fetched are missing in the returned map.
+    private Map<String, Object> getAttributes(MBeanServerAccess pServerManager, ObjectName pMBeanName, Collection<String> pAttributes)
+            throws InstanceNotFoundException {
+        try {
+            return toMap(pServerManager.call(pMBeanName, MBEAN_ATTRIBUTES_READ_HANDLER, (Object) pAttributes.toArray(new String[0])));
+        } catch (IOException | ReflectionException | MBeanException | AttributeNotFoundException | RuntimeException exp) {
+            // All attributes are read one by one then
+            return Collections.emptyMap();
+        }
+    }
+
+    private Map<String, Object> toMap(AttributeList pAttributes) {
+        Map<String, Object> ret = new HashMap<>();
+        for (Attribute attribute : pAttributes.asList()) {
+            ret.put(attribute.getName(), attribute.getValue());
+        }
+        return ret;
+    }
+
     // Resolve attributes and look up attribute names if all attributes need to be fetched.
     private List<String> resolveAttributes(MBeanServerAccess pServers, ObjectName pMBeanName, List<String> pAttributeNames)
             throws IOException, ReflectionException, MBeanException, AttributeNotFoundException, InstanceNotFoundException {
@@ -224,7 +301,7 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
     // Get the MBeanInfo from one of the provided MBeanServers
     private MBeanInfo getMBeanInfo(MBeanServerAccess pServerManager, ObjectName pObjectName)
             throws IOException, ReflectionException, MBeanException, AttributeNotFoundException, InstanceNotFoundException {
-        return pServerManager.call(pObjectName, MBEAN_INFO_HANDLER);
+        return pServerManager.call(pObjectName, MBEAN_INFO_HANDLER, pServerManager);
     }
 
     // Try multiple servers for fetching an attribute
@@ -248,11 +325,15 @@ public class ReadHandler extends AbstractCommandHandler<JolokiaReadRequest> {
 
     private void checkRestriction(ObjectName mBeanName, String attribute) {
         if (!context.isAttributeReadAllowed(mBeanName,attribute)) {
-            throw new SecurityException("Reading attribute " + attribute +
-                    " is forbidden for MBean " + mBeanName.getCanonicalName());
+            throw forbiddenAttributeRead(mBeanName, attribute);
         }
     }
 
+    private SecurityException forbiddenAttributeRead(ObjectName mBeanName, String attribute) {
+        return new SecurityException("Reading attribute " + attribute +
+                " is forbidden for MBean " + mBeanName.getCanonicalName());
+    }
+
     /**
      * We override it here with a noop since we do a more fine grained
      * check during processing of the request.
@@ -73,7 +73,7 @@ public class WriteHandler extends AbstractCommandHandler<JolokiaWriteRequest> {
             throws MBeanException, AttributeNotFoundException, InstanceNotFoundException,
             ReflectionException, IntrospectionException, InvalidAttributeValueException, IllegalAccessException, InvocationTargetException, IOException {
 
-        MBeanInfo mInfo = server.getMBeanInfo(request.getObjectName());
+        MBeanInfo mInfo = context.getMBeanServerAccess().getMBeanInfo(server, request.getObjectName());
         MBeanAttributeInfo aInfo = null;
 
         for (MBeanAttributeInfo i : mInfo.getAttributes()) {
@@ -22,6 +22,7 @@ import java.util.*;
 import javax.management.*;
 
 import org.jolokia.json.JSONObject;
+import org.jolokia.server.core.util.jmx.MBeanServerAccess;
 import org.jolokia.service.jmx.api.CacheKeyProvider;
 
 /**
@@ -187,17 +188,18 @@ public class MBeanInfoData {
      * can be restricted by a given path (which has already been prepared as a stack). Also, a max depth as given in the
      * constructor restricts the size of the map from the top.
      *
-     * @param pConn             {@link MBeanServerConnection} to get MBeanInfo from (or from cache if possible)
+     * @param pServerAccess     {@link MBeanServerAccess} used for looking up the MBeanInfo (from its cache if possible)
+     * @param pConn             {@link MBeanServerConnection} to get MBeanInfo from
      * @param pInstance         the object instance of the MBean
      * @param customUpdaters    additional set of discovered updaters to enhance the constructed MBeanInfo (JSON data)
      * @param cacheKeyProviders set of services that help to construct the cache of MBeanInfo
      */
-    public void addMBeanInfo(MBeanServerConnection pConn, ObjectInstance pInstance, Set<DataUpdater> customUpdaters,
-                             Set<CacheKeyProvider> cacheKeyProviders)
+    public void addMBeanInfo(MBeanServerAccess pServerAccess, MBeanServerConnection pConn, ObjectInstance pInstance,
+                             Set<DataUpdater> customUpdaters, Set<CacheKeyProvider> cacheKeyProviders)
             throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException {
 
         ObjectName objectName = pInstance.getObjectName();
-        MBeanInfo mBeanInfo = pConn.getMBeanInfo(objectName);
+        MBeanInfo mBeanInfo = pServerAccess.getMBeanInfo(pConn, objectName);
         String domainName = addProviderIfNeeded(objectName.getDomain());
         String mbeanKeyListing = getKeyPropertyString(objectName);
 
@@ -18,13 +18,14 @@ package org.jolokia.service.jmx;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.*;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
+import javax.management.MBeanInfo;
 import javax.management.MBeanRegistrationException;
 import javax.management.MBeanServer;
 import javax.management.MBeanServerConnection;
@@ -35,12 +36,15 @@ import javax.management.ObjectName;
 import javax.management.ReflectionException;
 
 import org.jolokia.server.core.util.jmx.DefaultMBeanServerAccess;
+import org.jolokia.server.core.util.jmx.MBeanInfoCache;
+import org.jolokia.server.core.util.jmx.MBeanServerAccess;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -138,6 +142,135 @@ public class DefaultMBeanServerAccessTest {
         getAttribute(executor, "test:type=one", "Bla");
     }
 
+    @Test
+    public void mbeanInfoCache() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MBeanInfoCache cache = new MBeanInfoCache(10, 0);
+        DefaultMBeanServerAccess access = new DefaultMBeanServerAccess(Collections.singleton(server), cache);
+        try {
+            ObjectName name = new ObjectName("test:type=cached");
+            server.registerMBean(new Testing(), name);
+            MBeanInfo info = access.getMBeanInfo(server, name);
+            assertSame(access.getMBeanInfo(server, name), info);
+            assertEquals(cache.getHits(), 1);
+            assertEquals(cache.getMisses(), 1);
+
+            // Re-registration with a different MBean evicts the cached info
+            server.unregisterMBean(name);
+            assertEquals(cache.size(), 0);
+            server.registerMBean(new Hidden(), name);
+            assertEquals(access.getMBeanInfo(server, name).getClassName(), Hidden.class.getName());
+            assertEquals(cache.getMisses(), 2);
+            server.unregisterMBean(name);
+        } finally {
+            access.unregisterFromMBeanNotifications();
+        }
+    }
+
+    @Test
+    public void callRouting() throws Exception {
+        MBeanServer server1 = MBeanServerFactory.newMBeanServer();
+        MBeanServer server2 = MBeanServerFactory.newMBeanServer();
+        DefaultMBeanServerAccess access = new DefaultMBeanServerAccess(new LinkedHashSet<>(Arrays.asList(server1, server2)));
+        try {
+            ObjectName name = new ObjectName("test:type=routed");
+            server2.registerMBean(new Testing(), name);
+            List<MBeanServerConnection> called = new ArrayList<>();
+            MBeanServerAccess.MBeanAction<Object> action = (pConn, pName, extraArgs) -> {
+                // Ignore the Jolokia MBeanServer which is always tried first
+                if (pConn == server1 || pConn == server2) {
+                    called.add(pConn);
+                }
+                return pConn.getAttribute(pName, "Name");
+            };
+            access.call(name, action);
+            assertEquals(called, Arrays.asList(server1, server2));
+
+            // Second call goes directly to the server holding the MBean
+            called.clear();
+            access.call(name, action);
+            assertEquals(called, Collections.singletonList(server2));
+
+            // Registration on the first server removes the route
+            server1.registerMBean(new Testing(), name);
+            called.clear();
+            access.call(name, action);
+            assertEquals(called, Collections.singletonList(server1));
+            server1.unregisterMBean(name);
+            server2.unregisterMBean(name);
+        } finally {
+            access.unregisterFromMBeanNotifications();
+        }
+    }
+
+    @Test
+    public void callRoutingWithoutNotifications() throws Exception {
+        MBeanServer server1 = MBeanServerFactory.newMBeanServer();
+        MBeanServer server2 = MBeanServerFactory.newMBeanServer();
+        // Connection which doesn't deliver any notifications
+        MBeanServerConnection silent = (MBeanServerConnection) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { MBeanServerConnection.class },
+            (proxy, method, args) -> {
+                if (method.getName().endsWith("NotificationListener")) {
+                    return null;
+                }
+                try {
+                    return method.invoke(server1, args);
+                } catch (InvocationTargetException exp) {
+                    throw exp.getCause();
+                }
+            });
+        DefaultMBeanServerAccess access = new DefaultMBeanServerAccess(new LinkedHashSet<>(Arrays.asList(silent, server2)));
+        ObjectName name = new ObjectName("test:type=routed");
+        server2.registerMBean(new Testing(), name);
+        // The proxy doesn't implement equals()
+        List<String> called = new ArrayList<>();
+        MBeanServerAccess.MBeanAction<Object> action = (pConn, pName, extraArgs) -> {
+            if (pConn == silent) {
+                called.add("silent");
+            } else if (pConn == server2) {
+                called.add("server2");
+            }
+            return pConn.getAttribute(pName, "Name");
+        };
+        access.call(name, action);
+        access.call(name, action);
+        assertEquals(called, Arrays.asList("silent", "server2", "server2"));
+
+        // The registration is found by probing the silent server
+        server1.registerMBean(new Testing(), name);
+        called.clear();
+        access.call(name, action);
+        assertEquals(called, Collections.singletonList("silent"));
+    }
+
+    @Test
+    public void indexedQueries() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        DefaultMBeanServerAccess access =
+            new DefaultMBeanServerAccess(Collections.singleton(server), new MBeanInfoCache(0, 0), true);
+        try {
+            ObjectName pattern = new ObjectName("test:type=indexed,*");
+            server.registerMBean(new Testing(), new ObjectName("test:type=indexed,name=a"));
+            server.registerMBean(new Testing(), new ObjectName("test:type=other"));
+            assertEquals(access.queryNames(pattern), Collections.singleton(new ObjectName("test:type=indexed,name=a")));
+
+            server.registerMBean(new Testing(), new ObjectName("test:type=indexed,name=b"));
+            server.unregisterMBean(new ObjectName("test:type=indexed,name=a"));
+            assertEquals(access.queryNames(pattern), server.queryNames(pattern, null));
+            Set<ObjectName> found = new HashSet<>();
+            access.each(pattern, (pConn, pInstance) -> {
+                if (pConn == server) {
+                    assertEquals(pInstance.getClassName(), Testing.class.getName());
+                    found.add(pInstance.getObjectName());
+                }
+            });
+            assertEquals(found, Collections.singleton(new ObjectName("test:type=indexed,name=b")));
+        } finally {
+            access.unregisterFromMBeanNotifications();
+        }
+    }
+
     @Test
     public void queryNames() throws IOException, MalformedObjectNameException {
         Set<ObjectName> names = executor.queryNames(null);
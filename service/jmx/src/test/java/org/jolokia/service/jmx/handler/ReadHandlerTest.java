@@ -23,6 +23,7 @@ import java.util.*;
 import javax.management.*;
 
 import org.jolokia.server.core.config.ConfigKey;
+import org.jolokia.server.core.request.BulkReadGroup;
 import org.jolokia.server.core.request.JolokiaReadRequest;
 import org.jolokia.server.core.request.JolokiaRequestBuilder;
 import org.jolokia.server.core.service.api.Restrictor;
@@ -71,6 +72,32 @@ public class ReadHandlerTest extends BaseHandlerTest {
         assertEquals("testValue",res);
     }
 
+    @Test
+    public void groupedSingleAttributes() throws Exception {
+        List<JolokiaReadRequest> requests = new ArrayList<>();
+        for (String attr : new String[] { "attr0", "attr1", "attr2", "attr0" }) {
+            requests.add(new JolokiaRequestBuilder(READ, testBeanName.getCanonicalName()).attribute(attr).build());
+        }
+        BulkReadGroup.groupReads(requests);
+
+        MBeanServerConnection connection = createMock(MBeanServerConnection.class);
+        // attr2 is missing in the result and read alone
+        expect(connection.getAttributes(eq(testBeanName), aryEq(new String[] { "attr0", "attr1", "attr2" })))
+            .andReturn(new AttributeList(Arrays.asList(new Attribute("attr0", "val0"), new Attribute("attr1", null))));
+        expect(connection.getAttribute(testBeanName, "attr2")).andThrow(new AttributeNotFoundException("attr2"));
+        replay(connection);
+        assertEquals("val0", handler.handleSingleServerRequest(connection, requests.get(0)));
+        assertNull(handler.handleSingleServerRequest(connection, requests.get(1)));
+        try {
+            handler.handleSingleServerRequest(connection, requests.get(2));
+            fail("Exception expected");
+        } catch (AttributeNotFoundException exp) {
+            // expected
+        }
+        assertEquals("val0", handler.handleSingleServerRequest(connection, requests.get(3)));
+        verify(connection);
+    }
+
     @Test
     public void singleBeanNoAttributes() throws Exception {
         JolokiaReadRequest request = new JolokiaRequestBuilder(READ, testBeanName.getCanonicalName()).
@@ -82,9 +109,7 @@ public class ReadHandlerTest extends BaseHandlerTest {
         String[] attrs = new String[] {"attr0","atrr1","attr2"};
         String[] vals = new String[] {"val0", "val1", "val2"};
         prepareMBeanInfos(server, testBeanName, attrs);
-        for (int i=0;i<attrs.length;i++) {
-            expect(server.getAttribute(testBeanName,attrs[i])).andReturn(vals[i]);
-        }
+        expectAttributes(server, testBeanName, attrs, vals);
         replay(server);
 
         @SuppressWarnings("unchecked")
@@ -105,8 +130,7 @@ public class ReadHandlerTest extends BaseHandlerTest {
 
         MBeanServer server = createMBeanServer();
         expect(server.isRegistered(testBeanName)).andStubReturn(true);
-        expect(server.getAttribute(testBeanName,"attr0")).andReturn("val0");
-        expect(server.getAttribute(testBeanName,"attr1")).andReturn("val1");
+        expectAttributes(server, testBeanName, new String[] { "attr0", "attr1" }, new String[] { "val0", "val1" });
         replay(server);
 
         @SuppressWarnings("unchecked")
@@ -125,7 +149,9 @@ public class ReadHandlerTest extends BaseHandlerTest {
 
         MBeanServer server = createMock(MBeanServer.class);
         expect(server.isRegistered(testBeanName)).andStubReturn(true);
-        expect(server.getAttribute(testBeanName,"attr0")).andReturn("val0");
+        // attr1 is missing in the result and read alone for getting the error
+        expect(server.getAttributes(eq(testBeanName), aryEq(new String[] { "attr0", "attr1" })))
+            .andReturn(new AttributeList(List.of(new Attribute("attr0", "val0"))));
         expect(server.getAttribute(testBeanName,"attr1")).andThrow(new AttributeNotFoundException("Couldn't find attr1"));
         replay(server);
 
@@ -142,7 +168,9 @@ public class ReadHandlerTest extends BaseHandlerTest {
 
         MBeanServer server = createMock(MBeanServer.class);
         expect(server.isRegistered(testBeanName)).andStubReturn(true);
-        expect(server.getAttribute(testBeanName,"attr0")).andReturn("val0");
+        // attr1 is missing in the result and read alone for getting the error
+        expect(server.getAttributes(eq(testBeanName), aryEq(new String[] { "attr0", "attr1" })))
+            .andReturn(new AttributeList(List.of(new Attribute("attr0", "val0"))));
         expect(server.getAttribute(testBeanName,"attr1")).andThrow(new AttributeNotFoundException("Couldn't find attr1"));
         replay(server);
 
@@ -215,13 +243,10 @@ public class ReadHandlerTest extends BaseHandlerTest {
                     new ObjectName("java.lang:type=GarbageCollection")
             };
             MBeanServer server = prepareMultiAttributeTest(patternMBean, beans);
-            expect(server.getAttribute(beans[0],"mem0")).andReturn("memval0");
-            expect(server.getAttribute(beans[0],"mem1")).andReturn("memval1");
-            expect(server.getAttribute(beans[0],"common")).andReturn("commonVal0");
-            expect(server.getAttribute(beans[1],"gc0")).andReturn("gcval0");
-            expect(server.getAttribute(beans[1],"gc1")).andReturn("gcval1");
-            expect(server.getAttribute(beans[1],"gc3")).andReturn("gcval3");
-            expect(server.getAttribute(beans[1],"common")).andReturn("commonVal1");
+            expectAttributes(server, beans[0], new String[] { "mem0", "mem1", "common" },
+                             new String[] { "memval0", "memval1", "commonVal0" });
+            expectAttributes(server, beans[1], new String[] { "gc0", "gc1", "gc3", "common" },
+                             new String[] { "gcval0", "gcval1", "gcval3", "commonVal1" });
             replay(server);
 
             Map<String, ?> res = (Map<String, ?>) handler.handleAllServerRequest(getMBeanServerManager(server), request, null);
@@ -418,6 +443,33 @@ public class ReadHandlerTest extends BaseHandlerTest {
         verify(restrictor,server);
     }
 
+    @Test
+    public void restrictAccessMultiAttributes() throws Exception {
+        Restrictor restrictor = createMock(Restrictor.class);
+        expect(restrictor.isAttributeReadAllowed(testBeanName,"attr0")).andReturn(true);
+        expect(restrictor.isAttributeReadAllowed(testBeanName,"attr1")).andReturn(false);
+        expect(restrictor.isAttributeReadAllowed(testBeanName,"attr2")).andReturn(true);
+        expect(restrictor.isHttpMethodAllowed(HttpMethod.POST)).andReturn(true);
+        ctx = new TestJolokiaContext.Builder().restrictor(restrictor).build();
+        handler = new ReadHandler();
+        handler.init(ctx,null);
+        JolokiaReadRequest request = new JolokiaRequestBuilder(READ, testBeanName).
+                attributes("attr0", "attr1", "attr2").
+                option(ConfigKey.IGNORE_ERRORS, "true").
+                build();
+        MBeanServer server = createMBeanServer();
+        expect(server.isRegistered(testBeanName)).andStubReturn(true);
+        // forbidden attributes are never fetched
+        expectAttributes(server, testBeanName, new String[] { "attr0", "attr2" }, new String[] { "val0", "val2" });
+        replay(restrictor,server);
+        @SuppressWarnings("unchecked")
+        Map<String, ?> res = (Map<String, ?>) handler.handleAllServerRequest(getMBeanServerManager(server), request, null);
+        verify(restrictor,server);
+        assertEquals("val0", res.get("attr0"));
+        assertEquals("val2", res.get("attr2"));
+        assertTrue(((String) res.get("attr1")).contains("forbidden"));
+    }
+
     @Test
     public void restrictHttpMethodAccess() throws Exception {
         Restrictor restrictor = createMock(Restrictor.class);
@@ -441,6 +493,15 @@ public class ReadHandlerTest extends BaseHandlerTest {
         return createMock(MBeanServer.class);
     }
 
+    private void expectAttributes(MBeanServerConnection pConnection, ObjectName pObjectName, String[] pAttrs, String[] pVals)
+        throws InstanceNotFoundException, ReflectionException, IOException {
+        AttributeList values = new AttributeList();
+        for (int i = 0; i < pAttrs.length; i++) {
+            values.add(new Attribute(pAttrs[i], pVals[i]));
+        }
+        expect(pConnection.getAttributes(eq(pObjectName), aryEq(pAttrs))).andReturn(values);
+    }
+
     // ==============================================================================================================
 
     private MBeanAttributeInfo[] prepareMBeanInfos(MBeanServerConnection pConnection, ObjectName pObjectName, String[] pAttrs)
@@ -1,13 +1,16 @@
 package org.jolokia.service.serializer;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 import javax.management.AttributeNotFoundException;
 import javax.management.openmbean.OpenType;
 
+import org.jolokia.json.JSONStreamable;
 import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.server.core.service.serializer.Serializer;
+import org.jolokia.server.core.util.CompiledPath;
 import org.jolokia.service.serializer.json.ObjectToJsonConverter;
 import org.jolokia.server.core.service.serializer.SerializeOptions;
 import org.jolokia.service.serializer.object.OpenTypeDeserializer;
@@ -76,6 +79,25 @@ public class JolokiaSerializer extends AbstractJolokiaService<Serializer> implem
         return toJsonConverter.serialize(pValue,pPathParts,pOptions);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Object serializeWithPath(Object pValue, CompiledPath pPath, SerializeOptions pOptions) throws AttributeNotFoundException {
+        return toJsonConverter.serializeWithPath(pValue,pPath,pOptions);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object serializeDeferred(Object pValue, SerializeOptions pOptions) {
+        ObjectToJsonConverter converter = toJsonConverter;
+        return (JSONStreamable) pSink -> {
+            try {
+                converter.serialize(pValue, pOptions, pSink);
+            } catch (AttributeNotFoundException exp) {
+                throw new IOException("Cannot serialize " + pValue + ": " + exp.getMessage(), exp);
+            }
+        };
+    }
+
     /** {@inheritDoc} */
     public Object deserialize(String pExpectedClassName, Object pValue) {
         return toObjectConverter.deserialize(pExpectedClassName,pValue);
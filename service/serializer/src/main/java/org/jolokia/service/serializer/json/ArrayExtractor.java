@@ -1,13 +1,15 @@
 package org.jolokia.service.serializer.json;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.json.JSONArray;
@@ -38,6 +40,17 @@ import org.jolokia.json.JSONArray;
  */
 public class ArrayExtractor implements Extractor {
 
+    // Primitive component types which are serialized directly (if their wrapper is not simplified otherwise).
+    // char[] is not in here since Character is serialized via its string representation.
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_WRAPPERS = Map.of(
+        long.class, Long.class,
+        int.class, Integer.class,
+        short.class, Short.class,
+        byte.class, Byte.class,
+        double.class, Double.class,
+        float.class, Float.class,
+        boolean.class, Boolean.class);
+
     /** {@inheritDoc} */
     public Class<?> getType() {
         // Special handler, no specific Type
@@ -65,8 +78,32 @@ public class ArrayExtractor implements Extractor {
         if (pathPart != null) {
             return extractWithPath(pConverter, pValue, pPathParts, jsonify, pathPart);
         } else {
-            return jsonify ? extractArray(pConverter, pValue, pPathParts, jsonify, length) : pValue;
+            if (!jsonify) {
+                return pValue;
+            }
+            return pPathParts.isEmpty() && isDirectlySerializable(pConverter, pValue) ?
+                extractPrimitiveArray(pConverter.getSerializationContext(), pValue, length) :
+                extractArray(pConverter, pValue, pPathParts, jsonify, length);
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        int length = pConverter.getCollectionLength(Array.getLength(pValue));
+        if (isDirectlySerializable(pConverter, pValue)) {
+            streamPrimitiveArray(pConverter.getSerializationContext(), pValue, length, pSink);
+            return;
+        }
+        boolean written = false;
+        pSink.beginArray();
+        for (int i = 0; i < length; i++) {
+            written |= pConverter.streamElement(Array.get(pValue, i), pSink);
+        }
+        if (!written && length > 0) {
+            throw new ValueFaultHandler.AttributeFilteredException();
         }
+        pSink.endArray();
     }
 
     /**
@@ -111,7 +148,7 @@ public class ArrayExtractor implements Extractor {
     private List<Object> extractArray(ObjectToJsonConverter pConverter, Object pValue, Deque<String> pPath, boolean jsonify, int pLength) throws AttributeNotFoundException {
         List<Object> ret = new JSONArray(pLength);
         for (int i = 0; i < pLength; i++) {
-            Deque<String> path = new LinkedList<>(pPath);
+            Deque<String> path = pConverter.copyPath(pPath);
             try {
                 Object obj = Array.get(pValue, i);
                 ret.add(pConverter.extractObject(obj, path, jsonify));
@@ -125,6 +162,122 @@ public class ArrayExtractor implements Extractor {
         return ret;
     }
 
+    // Elements of primitive arrays can be serialized without dispatching them through the converter if
+    // they are not converted by a simplifier and if they wouldn't be replaced by their string representation
+    // because the maximum depth is reached (which is the same for all elements).
+    private boolean isDirectlySerializable(ObjectToJsonConverter pConverter, Object pValue) {
+        Class<?> wrapper = PRIMITIVE_WRAPPERS.get(pValue.getClass().getComponentType());
+        return wrapper != null && pConverter.isSimpleType(wrapper) && !pConverter.getSerializationContext().maxDepthReached();
+    }
+
+    // Same as extractArray(), but without reflection and per element dispatching. The type of the array is
+    // checked once, so that each element type has its own loop. The object limit is checked for each element
+    // as ObjectToJsonConverter.extractObject() does it.
+    private List<Object> extractPrimitiveArray(ObjectSerializationContext pCtx, Object pValue, int pLength) {
+        List<Object> ret = new JSONArray(pLength);
+        int count = pCtx.countElements(pLength);
+        if (pValue instanceof long[]) {
+            long[] array = (long[]) pValue;
+            if ("string".equals(pCtx.getSerializeLong())) {
+                for (int i = 0; i < count; i++) {
+                    ret.add(Long.toString(array[i]));
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    ret.add(array[i]);
+                }
+            }
+        } else if (pValue instanceof int[]) {
+            int[] array = (int[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        } else if (pValue instanceof short[]) {
+            short[] array = (short[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        } else if (pValue instanceof byte[]) {
+            byte[] array = (byte[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        } else if (pValue instanceof double[]) {
+            double[] array = (double[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        } else if (pValue instanceof float[]) {
+            float[] array = (float[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        } else {
+            boolean[] array = (boolean[]) pValue;
+            for (int i = 0; i < count; i++) {
+                ret.add(array[i]);
+            }
+        }
+        for (int i = count; i < pLength; i++) {
+            ret.add(ObjectToJsonConverter.OBJECT_LIMIT_EXCEEDED);
+        }
+        return ret;
+    }
+
+    // Streaming variant of extractPrimitiveArray(), writing integral and double values without boxing
+    private void streamPrimitiveArray(ObjectSerializationContext pCtx, Object pValue, int pLength, JSONSink pSink)
+            throws IOException {
+        pSink.beginArray();
+        int count = pCtx.countElements(pLength);
+        if (pValue instanceof long[]) {
+            long[] array = (long[]) pValue;
+            if ("string".equals(pCtx.getSerializeLong())) {
+                for (int i = 0; i < count; i++) {
+                    pSink.value(Long.toString(array[i]));
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    pSink.value(array[i]);
+                }
+            }
+        } else if (pValue instanceof int[]) {
+            int[] array = (int[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value((long) array[i]);
+            }
+        } else if (pValue instanceof short[]) {
+            short[] array = (short[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value((long) array[i]);
+            }
+        } else if (pValue instanceof byte[]) {
+            byte[] array = (byte[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value((long) array[i]);
+            }
+        } else if (pValue instanceof double[]) {
+            double[] array = (double[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value(array[i]);
+            }
+        } else if (pValue instanceof float[]) {
+            // float has its own string representation, so it can't be widened to double
+            float[] array = (float[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value((Object) array[i]);
+            }
+        } else {
+            boolean[] array = (boolean[]) pValue;
+            for (int i = 0; i < count; i++) {
+                pSink.value((Object) array[i]);
+            }
+        }
+        for (int i = count; i < pLength; i++) {
+            pSink.value(ObjectToJsonConverter.OBJECT_LIMIT_EXCEEDED);
+        }
+        pSink.endArray();
+    }
+
     private Object extractWithPath(ObjectToJsonConverter pConverter, Object pValue, Deque<String> pPath, boolean jsonify, String pPathPart) throws AttributeNotFoundException {
         try {
             Object obj = Array.get(pValue, Integer.parseInt(pPathPart));
@@ -1,13 +1,8 @@
 package org.jolokia.service.serializer.json;
 
-import java.io.OutputStream;
-import java.io.Writer;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.*;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.util.*;
 
 import javax.management.AttributeNotFoundException;
@@ -55,21 +50,6 @@ public class BeanExtractor implements Extractor {
             Boolean.class
     ));
 
-    private static final Set<String> IGNORE_METHODS = new HashSet<>(Arrays.asList(
-            "getClass",
-            // Ommit internal stuff
-            "getStackTrace",
-            "getClassLoader"
-    ));
-
-    @SuppressWarnings("rawtypes")
-    private static final Class[] IGNORED_RETURN_TYPES = new Class[]{
-            OutputStream.class,
-            Writer.class
-    };
-
-    private static final String[] GETTER_PREFIX = new String[]{"get", "is", "has"};
-
     /** {@inheritDoc} */
     public Class<?> getType() {
         return Object.class;
@@ -102,41 +82,21 @@ public class BeanExtractor implements Extractor {
     /** {@inheritDoc} */
     public Object setObjectValue(StringToObjectConverter pConverter,Object pInner, String pAttribute, Object pValue)
             throws IllegalAccessException, InvocationTargetException {
-        // Move this to plain object handler
-        String rest = new StringBuilder(pAttribute.substring(0,1).toUpperCase())
-                .append(pAttribute.substring(1)).toString();
-        String setter = new StringBuilder("set").append(rest).toString();
-        String getter = new StringBuilder("get").append(rest).toString();
-
         Class<?> clazz = pInner.getClass();
-        Method found = null;
-        for (Method method : clazz.getMethods()) {
-            if (method.getName().equals(setter)) {
-                found = method;
-                break;
-            }
-        }
-        if (found == null) {
+        BeanProperties.Setter setter = BeanProperties.of(clazz).getSetter(pAttribute);
+        if (!setter.exists()) {
             throw new IllegalArgumentException(
-                    "No Method " + setter + " known for object of type " + clazz.getName());
+                    "No Method " + setter.getName() + " known for object of type " + clazz.getName());
         }
-        Class<?>[] params = found.getParameterTypes();
+        Class<?>[] params = setter.getParameterTypes();
         if (params.length != 1) {
             throw new IllegalArgumentException(
-                    "Invalid parameter signature for " + setter + " known for object of type "
+                    "Invalid parameter signature for " + setter.getName() + " known for object of type "
                             + clazz.getName() + ". Setter must take exactly one parameter.");
         }
-        Object oldValue;
-        try {
-            final Method getMethod = clazz.getMethod(getter);
-            AccessController.doPrivileged(new SetMethodAccessibleAction(getMethod));
-            oldValue = getMethod.invoke(pInner);
-        } catch (NoSuchMethodException exp) {
-            // Ignored, we simply dont return an old value
-            oldValue = null;
-        }
-        AccessController.doPrivileged(new SetMethodAccessibleAction(found));
-        found.invoke(pInner,pConverter.deserialize(params[0].getName(), pValue));
+        // If there is no getter, we simply dont return an old value
+        Object oldValue = setter.hasGetter() ? setter.getOldValue(pInner) : null;
+        setter.set(pInner,pConverter.deserialize(params[0].getName(), pValue));
         return oldValue;
     }
 
@@ -161,7 +121,7 @@ public class BeanExtractor implements Extractor {
             }
         } else {
             // For the rest we build up a JSON map with the attributes as keys and the value are
-            List<String> attributes = extractBeanAttributes(pValue);
+            List<String> attributes = BeanProperties.of(pClazz).getAttributes();
             if (!attributes.isEmpty()) {
                 return extractBeanValues(pConverter, pValue, pPathParts, attributes);
             } else {
@@ -174,7 +134,7 @@ public class BeanExtractor implements Extractor {
     private Object extractBeanValues(ObjectToJsonConverter pConverter, Object pValue, Deque<String> pPathParts, List<String> pAttributes) throws AttributeNotFoundException {
         Map<String, Object> ret = new JSONObject();
         for (String attribute : pAttributes) {
-            Deque<String> path = new LinkedList<>(pPathParts);
+            Deque<String> path = pConverter.copyPath(pPathParts);
             try {
                 ret.put(attribute, extractJsonifiedPropertyValue(pConverter, pValue, attribute, path));
             } catch (ValueFaultHandler.AttributeFilteredException exp) {
@@ -212,121 +172,18 @@ public class BeanExtractor implements Extractor {
         }
     }
 
-    // Extract all attributes from a given bean
-    private List<String> extractBeanAttributes(Object pValue) {
-        List<String> attrs = new ArrayList<>();
-        for (Method method : pValue.getClass().getMethods()) {
-            if (!Modifier.isStatic(method.getModifiers()) &&
-                !IGNORE_METHODS.contains(method.getName()) &&
-                !isIgnoredType(method.getReturnType()) &&
-                !hasAnnotation(method, "java.beans.Transient")) {
-                addAttributes(attrs, method);
-            }
-        }
-        return attrs;
-    }
-
-    private boolean hasAnnotation(Method method, String annotation) {
-        for (Annotation anno : method.getAnnotations()) {
-            if (anno.annotationType().getName().equals(annotation)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    // Add attributes, which are taken from get methods to the given list
-    @SuppressWarnings("PMD.UnnecessaryCaseChange")
-    private void addAttributes(List<String> pAttrs, Method pMethod) {
-        String name = pMethod.getName();
-        for (String pref : GETTER_PREFIX) {
-            if (name.startsWith(pref) && name.length() > pref.length()
-                    && pMethod.getParameterTypes().length == 0) {
-                int len = pref.length();
-                String firstLetter = name.substring(len,len+1);
-                // Only for getter compliant to the beans conventions (first letter after prefix is upper case)
-                if (firstLetter.toUpperCase().equals(firstLetter)) {
-                    String attribute =
-                            new StringBuffer(firstLetter.toLowerCase()).
-                                    append(name.substring(len+1)).toString();
-                    pAttrs.add(attribute);
-                }
-            }
-        }
-    }
-
     private Object extractBeanPropertyValue(Object pValue, String pAttribute, ValueFaultHandler pFaultHandler)
             throws AttributeNotFoundException {
-        Class<?> clazz = pValue.getClass();
-
-        Method method = null;
-
-        String suffix = new StringBuilder(pAttribute.substring(0,1).toUpperCase()).append(pAttribute.substring(1)).toString();
-        for (String pref : GETTER_PREFIX) {
-            try {
-                String methodName = new StringBuilder(pref).append(suffix).toString();
-                method = clazz.getMethod(methodName);
-            } catch (NoSuchMethodException e) {
-                // Try next one
-                continue;
-            }
-            // We found a valid method
-            break;
-        }
-        // Finally, try the attribute name directly
-        if (method == null) {
-            try {
-                method = clazz.getMethod(new StringBuilder(pAttribute.substring(0,1).toLowerCase())
-                        .append(pAttribute.substring(1)).toString());
-            } catch (NoSuchMethodException exp) {
-                method = null;
-            }
-        }
-        if (method == null) {
+        BeanProperties.Getter getter = BeanProperties.of(pValue.getClass()).getGetter(pAttribute);
+        if (!getter.exists()) {
             return pFaultHandler.handleException(new AttributeNotFoundException(
                     "No getter known for attribute " + pAttribute + " for class " + pValue.getClass().getName()));
         }
         try {
-            method.setAccessible(true);
-            return method.invoke(pValue);
+            return getter.get(pValue);
         } catch (IllegalAccessException | InvocationTargetException e) {
             return pFaultHandler.handleException(new IllegalStateException("Error while extracting " + pAttribute
                     + " from " + pValue,e));
         }
     }
-
-    /**
-     * Privileged action for setting the accesibility mode for a method to true
-     */
-    private static class SetMethodAccessibleAction implements PrivilegedAction<Void> {
-
-        private final Method getMethod;
-        /**
-         * Which method to set accessible
-         *
-         * @param pMethod  method to set accessible
-         */
-        public SetMethodAccessibleAction(Method pMethod) {
-            getMethod = pMethod;
-        }
-
-        /** {@inheritDoc} */
-        public Void run() {
-            getMethod.setAccessible(true);
-            return null;
-        }
-
-    }
-    // Ignore certain return types, since their getter tend to have bad
-    // side effects like nuking files etc. See Jetty FileResource.getOutputStream() as a bad example
-    // This method is not necessarily cheap (since it called quite often), however necessary
-    // as safety net. I messed up my complete local Maven repository only be serializing a Jetty ServletContext
-    private boolean isIgnoredType(Class<?> pReturnType) {
-        for (Class<?> type : IGNORED_RETURN_TYPES) {
-            if (type.isAssignableFrom(pReturnType)) {
-                return true;
-            }
-        }
-        return false;
-    }
 }
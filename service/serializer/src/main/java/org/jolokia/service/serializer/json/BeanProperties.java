@@ -0,0 +1,423 @@
+package org.jolokia.service.serializer.json;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Introspection data of a single class as used by the {@link BeanExtractor}: the readable bean
+ * attributes and the getters and setters for attributes, bound as {@link MethodHandle}s. Lookups which
+ * didn't find a method are remembered, too.
+ * <p>
+ * Instances are cached per class with a {@link ClassValue}, so that the cached data is attached to the class
+ * itself and goes away together with its class loader (e.g. when a web application is redeployed or an
+ * OSGi bundle is refreshed).
+ */
+final class BeanProperties {
+
+    private static final ClassValue<BeanProperties> CACHE = new ClassValue<>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> pType) {
+            return new BeanProperties(pType);
+        }
+    };
+
+    private static final Set<String> IGNORE_METHODS = new HashSet<>(Arrays.asList(
+            "getClass",
+            // Ommit internal stuff
+            "getStackTrace",
+            "getClassLoader"
+    ));
+
+    @SuppressWarnings("rawtypes")
+    private static final Class[] IGNORED_RETURN_TYPES = new Class[]{
+            OutputStream.class,
+            Writer.class
+    };
+
+    private static final String[] GETTER_PREFIX = new String[]{"get", "is", "has"};
+
+    // Lookups for attributes which are not bean attributes (e.g. coming from a path) are cached only up to
+    // this number, since the attribute names can be chosen freely by the client
+    private static final int MAX_CACHED_LOOKUPS = 256;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+
+    private final List<String> attributes;
+
+    private final Map<String, Getter> getters = new ConcurrentHashMap<>();
+    private final Map<String, Setter> setters = new ConcurrentHashMap<>();
+
+    private BeanProperties(Class<?> pType) {
+        type = pType;
+        attributes = Collections.unmodifiableList(extractBeanAttributes(pType));
+    }
+
+    /**
+     * Get the introspection data for a class
+     *
+     * @param pType class to lookup
+     * @return the cached introspection data
+     */
+    static BeanProperties of(Class<?> pType) {
+        return CACHE.get(pType);
+    }
+
+    /**
+     * Names of all attributes which have a getter method
+     *
+     * @return list of attribute names
+     */
+    List<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Lookup the getter for a given attribute. An attribute <code>name</code> is read via
+     * <code>getName()</code>, <code>isName()</code>, <code>hasName()</code> or finally <code>name()</code>.
+     *
+     * @param pAttribute attribute name
+     * @return the getter, which has no method if no getter could be found
+     */
+    Getter getGetter(String pAttribute) {
+        Getter getter = getters.get(pAttribute);
+        if (getter == null) {
+            getter = lookupGetter(pAttribute);
+            cache(getters, pAttribute, getter);
+        }
+        return getter;
+    }
+
+    /**
+     * Lookup the setter for a given attribute. An attribute <code>name</code> is written via
+     * <code>setName(value)</code>. Also, the old value can be fetched via <code>getName()</code> if existent
+     *
+     * @param pAttribute attribute name
+     * @return the setter, which has no method if no setter could be found
+     */
+    Setter getSetter(String pAttribute) {
+        Setter setter = setters.get(pAttribute);
+        if (setter == null) {
+            setter = lookupSetter(pAttribute);
+            cache(setters, pAttribute, setter);
+        }
+        return setter;
+    }
+
+    private <T> void cache(Map<String, T> pCache, String pAttribute, T pValue) {
+        if (attributes.contains(pAttribute) || pCache.size() < MAX_CACHED_LOOKUPS) {
+            pCache.putIfAbsent(pAttribute, pValue);
+        }
+    }
+
+    // =====================================================================================================
+
+    private Getter lookupGetter(String pAttribute) {
+        Method method = null;
+        String suffix = pAttribute.substring(0,1).toUpperCase() + pAttribute.substring(1);
+        for (String pref : GETTER_PREFIX) {
+            method = getPublicMethod(pref + suffix);
+            if (method != null) {
+                // We found a valid method
+                break;
+            }
+        }
+        // Finally, try the attribute name directly
+        if (method == null) {
+            method = getPublicMethod(pAttribute.substring(0,1).toLowerCase() + pAttribute.substring(1));
+        }
+        if (method == null) {
+            return new Getter(null, null);
+        }
+        try {
+            return new Getter(unreflect(method).asType(GETTER_TYPE), null);
+        } catch (IllegalAccessException exp) {
+            return new Getter(null, exp);
+        }
+    }
+
+    private Setter lookupSetter(String pAttribute) {
+        String rest = pAttribute.substring(0,1).toUpperCase() + pAttribute.substring(1);
+        String setterName = "set" + rest;
+        Method found = null;
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(setterName)) {
+                found = method;
+                break;
+            }
+        }
+        if (found == null) {
+            return new Setter(setterName, null, null, null, null);
+        }
+        Class<?>[] params = found.getParameterTypes();
+        if (params.length != 1) {
+            return new Setter(setterName, params, null, null, null);
+        }
+        try {
+            Method getMethod = getPublicMethod("get" + rest);
+            return new Setter(setterName, params,
+                              unreflect(found).asType(SETTER_TYPE),
+                              getMethod != null ? unreflect(getMethod).asType(GETTER_TYPE) : null,
+                              null);
+        } catch (IllegalAccessException exp) {
+            return new Setter(setterName, params, null, null, exp);
+        }
+    }
+
+    private Method getPublicMethod(String pName) {
+        try {
+            return type.getMethod(pName);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle unreflect(Method pMethod) throws IllegalAccessException {
+        try {
+            AccessController.doPrivileged(new SetMethodAccessibleAction(pMethod));
+        } catch (RuntimeException exp) {
+            // Not allowed (e.g. a class in a package which is not opened), so try as it is
+        }
+        return MethodHandles.lookup().unreflect(pMethod);
+    }
+
+    // Extract all attributes from a given class
+    private static List<String> extractBeanAttributes(Class<?> pType) {
+        List<String> attrs = new ArrayList<>();
+        for (Method method : pType.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) &&
+                !IGNORE_METHODS.contains(method.getName()) &&
+                !isIgnoredType(method.getReturnType()) &&
+                !hasAnnotation(method, "java.beans.Transient")) {
+                addAttributes(attrs, method);
+            }
+        }
+        return attrs;
+    }
+
+    private static boolean hasAnnotation(Method method, String annotation) {
+        for (Annotation anno : method.getAnnotations()) {
+            if (anno.annotationType().getName().equals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Add attributes, which are taken from get methods to the given list
+    @SuppressWarnings("PMD.UnnecessaryCaseChange")
+    private static void addAttributes(List<String> pAttrs, Method pMethod) {
+        String name = pMethod.getName();
+        for (String pref : GETTER_PREFIX) {
+            if (name.startsWith(pref) && name.length() > pref.length()
+                    && pMethod.getParameterTypes().length == 0) {
+                int len = pref.length();
+                String firstLetter = name.substring(len,len+1);
+                // Only for getter compliant to the beans conventions (first letter after prefix is upper case)
+                if (firstLetter.toUpperCase().equals(firstLetter)) {
+                    String attribute =
+                            new StringBuffer(firstLetter.toLowerCase()).
+                                    append(name.substring(len+1)).toString();
+                    pAttrs.add(attribute);
+                }
+            }
+        }
+    }
+
+    // Ignore certain return types, since their getter tend to have bad
+    // side effects like nuking files etc. See Jetty FileResource.getOutputStream() as a bad example
+    // This is only done once per class, but still necessary
+    // as safety net. I messed up my complete local Maven repository only be serializing a Jetty ServletContext
+    private static boolean isIgnoredType(Class<?> pReturnType) {
+        for (Class<?> type : IGNORED_RETURN_TYPES) {
+            if (type.isAssignableFrom(pReturnType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =====================================================================================================
+
+    /**
+     * Getter for an attribute
+     */
+    static final class Getter {
+
+        private final MethodHandle handle;
+        private final IllegalAccessException accessError;
+
+        private Getter(MethodHandle pHandle, IllegalAccessException pAccessError) {
+            handle = pHandle;
+            accessError = pAccessError;
+        }
+
+        /**
+         * @return whether a getter method exists
+         */
+        boolean exists() {
+            return handle != null || accessError != null;
+        }
+
+        /**
+         * Get the attribute's value
+         *
+         * @param pBean object to read from
+         * @return the attribute value
+         * @throws IllegalAccessException if the getter method is not accessible
+         * @throws InvocationTargetException if the getter throws an exception
+         */
+        Object get(Object pBean) throws IllegalAccessException, InvocationTargetException {
+            if (accessError != null) {
+                throw accessError;
+            }
+            try {
+                return handle.invokeExact(pBean);
+            } catch (Throwable exp) {
+                throw new InvocationTargetException(exp);
+            }
+        }
+    }
+
+    /**
+     * Setter for an attribute together with the getter for fetching the old value
+     */
+    static final class Setter {
+
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final MethodHandle handle;
+        private final MethodHandle getter;
+        private final IllegalAccessException accessError;
+
+        private Setter(String pName, Class<?>[] pParameterTypes, MethodHandle pHandle, MethodHandle pGetter,
+                       IllegalAccessException pAccessError) {
+            name = pName;
+            parameterTypes = pParameterTypes;
+            handle = pHandle;
+            getter = pGetter;
+            accessError = pAccessError;
+        }
+
+        /**
+         * @return name of the setter method
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return whether a setter method exists
+         */
+        boolean exists() {
+            return parameterTypes != null;
+        }
+
+        /**
+         * @return parameter types of the setter method (only valid if the setter exists)
+         */
+        Class<?>[] getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * @return whether the old value can be fetched by a getter
+         */
+        boolean hasGetter() {
+            return getter != null;
+        }
+
+        /**
+         * Get the current value via the getter
+         *
+         * @param pBean object to read from
+         * @return the attribute value
+         * @throws InvocationTargetException if the getter throws an exception
+         */
+        Object getOldValue(Object pBean) throws InvocationTargetException {
+            try {
+                return getter.invokeExact(pBean);
+            } catch (Throwable exp) {
+                throw new InvocationTargetException(exp);
+            }
+        }
+
+        /**
+         * Set the value
+         *
+         * @param pBean object on which to set the value
+         * @param pValue value to set, which must fit to the parameter type
+         * @throws IllegalAccessException if the setter method is not accessible
+         * @throws InvocationTargetException if the setter throws an exception
+         * @throws IllegalArgumentException if the value doesn't fit to the parameter type
+         */
+        void set(Object pBean, Object pValue) throws IllegalAccessException, InvocationTargetException {
+            if (accessError != null) {
+                throw accessError;
+            }
+            Class<?> paramType = parameterTypes[0];
+            Class<?> boxedType = MethodType.methodType(paramType).wrap().returnType();
+            if (pValue == null ? paramType.isPrimitive() : !boxedType.isInstance(pValue)) {
+                throw new IllegalArgumentException("Cannot call " + name + " with value " + pValue +
+                                                   " (expected type: " + paramType.getName() + ")");
+            }
+            try {
+                handle.invokeExact(pBean, pValue);
+            } catch (Throwable exp) {
+                throw new InvocationTargetException(exp);
+            }
+        }
+    }
+
+    /**
+     * Privileged action for setting the accesibility mode for a method to true
+     */
+    private static class SetMethodAccessibleAction implements PrivilegedAction<Void> {
+
+        private final Method method;
+
+        /**
+         * Which method to set accessible
+         *
+         * @param pMethod  method to set accessible
+         */
+        public SetMethodAccessibleAction(Method pMethod) {
+            method = pMethod;
+        }
+
+        /** {@inheritDoc} */
+        public Void run() {
+            method.setAccessible(true);
+            return null;
+        }
+    }
+}
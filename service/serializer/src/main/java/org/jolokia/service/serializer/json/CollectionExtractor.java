@@ -96,7 +96,7 @@ public class CollectionExtractor implements Extractor {
         Iterator<?> it = pCollection.iterator();
         for (int i = 0;i < pLength; i++) {
             Object val = it.next();
-            Deque<String> path = new LinkedList<>(pPathParts);
+            Deque<String> path = pConverter.copyPath(pPathParts);
             ret.add(pConverter.extractObject(val, path, true));
         }
         return ret;
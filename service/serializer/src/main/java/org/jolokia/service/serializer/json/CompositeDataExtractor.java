@@ -1,12 +1,13 @@
 package org.jolokia.service.serializer.json;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Deque;
-import java.util.LinkedList;
 import javax.management.AttributeNotFoundException;
 import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.InvalidKeyException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.json.JSONObject;
@@ -59,10 +60,26 @@ public class CompositeDataExtractor implements Extractor {
         }
     }
 
+    /** {@inheritDoc} */
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        CompositeData cd = (CompositeData) pValue;
+        boolean written = false;
+        pSink.beginObject();
+        for (String key : cd.getCompositeType().keySet()) {
+            written |= pConverter.streamMember(key, cd.get(key), pSink);
+        }
+        if (!written) {
+            // If every key was filtered, this composite data should be skipped completely
+            throw new ValueFaultHandler.AttributeFilteredException();
+        }
+        pSink.endObject();
+    }
+
     private Object extractCompleteCdAsJson(ObjectToJsonConverter pConverter, CompositeData pData, Deque<String> pPath) throws AttributeNotFoundException {
         JSONObject ret = new JSONObject();
         for (String key : pData.getCompositeType().keySet()) {
-            Deque<String> path = new LinkedList<>(pPath);
+            Deque<String> path = pConverter.copyPath(pPath);
             try {
                 ret.put(key, pConverter.extractObject(pData.get(key), path, true));
             } catch (ValueFaultHandler.AttributeFilteredException exp) {
@@ -16,11 +16,14 @@ package org.jolokia.service.serializer.json;
  * limitations under the License.
  */
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Deque;
+import java.util.LinkedList;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 
 /**
@@ -57,6 +60,24 @@ public interface Extractor {
     Object extractObject(ObjectToJsonConverter pConverter, Object pValue, Deque<String> pExtraArgs, boolean jsonify)
             throws AttributeNotFoundException;
 
+    /**
+     * Serialize the complete value (no path) directly into the given sink. The default implementation
+     * builds the JSON representation with {@link #extractObject} and writes it as a single value. Extractors
+     * for containers can override this method to emit their members one by one, dispatching back to
+     * {@link ObjectToJsonConverter#streamObject(Object, JSONSink)} for inner values.
+     *
+     * @param pConverter the global converter in order to be able do dispatch for
+     *        serializing inner data types
+     * @param pValue the value to convert
+     * @param pSink sink to write the JSON events to
+     * @throws AttributeNotFoundException if an attribute is not found during traversal
+     * @throws IOException if writing to the sink fails
+     */
+    default void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        pSink.value(extractObject(pConverter, pValue, new LinkedList<>(), true));
+    }
+
     /**
      * If this extractor is able to set a value (see {@link #canSetValue()}), this method sets the value
      * even on an inner object
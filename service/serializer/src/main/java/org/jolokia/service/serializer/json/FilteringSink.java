@@ -0,0 +1,133 @@
+package org.jolokia.service.serializer.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jolokia.json.JSONSink;
+import org.jolokia.server.core.service.serializer.ValueFaultHandler;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Sink used for streaming serialization which holds back the start of objects and arrays and the
+ * member keys until a value or the end of a structure is written. This way a member for which a
+ * {@link ValueFaultHandler.AttributeFilteredException} is thrown can be dropped again with
+ * {@link #reset(long)}, like the tree based serialization simply doesn't add it to its parent.
+ */
+final class FilteringSink implements JSONSink {
+
+    private static final Object BEGIN_OBJECT = new Object();
+    private static final Object BEGIN_ARRAY = new Object();
+
+    private final JSONSink delegate;
+
+    // begin markers and keys which are not yet written to the delegate
+    private final List<Object> pending = new ArrayList<>();
+
+    // number of pending events already written to the delegate
+    private long flushed;
+
+    FilteringSink(JSONSink pDelegate) {
+        delegate = pDelegate;
+    }
+
+    /**
+     * Get a mark for the current position, which can be used for dropping everything
+     * written afterwards as long as it is still pending.
+     *
+     * @return mark to be used with {@link #reset(long)}
+     */
+    long mark() {
+        return flushed + pending.size();
+    }
+
+    /**
+     * Drop all pending events after the given mark
+     *
+     * @param pMark mark as obtained from {@link #mark()}
+     * @throws IllegalStateException if something after the mark has already been written
+     */
+    void reset(long pMark) {
+        if (pMark < flushed) {
+            throw new IllegalStateException("Cannot drop a value which has already been written");
+        }
+        pending.subList((int) (pMark - flushed), pending.size()).clear();
+    }
+
+    @Override
+    public void beginObject() {
+        pending.add(BEGIN_OBJECT);
+    }
+
+    @Override
+    public void key(String pKey) {
+        pending.add(pKey);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        flush();
+        delegate.endObject();
+    }
+
+    @Override
+    public void beginArray() {
+        pending.add(BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        flush();
+        delegate.endArray();
+    }
+
+    @Override
+    public void value(Object pValue) throws IOException {
+        flush();
+        delegate.value(pValue);
+    }
+
+    @Override
+    public void value(long pValue) throws IOException {
+        flush();
+        delegate.value(pValue);
+    }
+
+    @Override
+    public void value(double pValue) throws IOException {
+        flush();
+        delegate.value(pValue);
+    }
+
+    private void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Object event : pending) {
+            if (event == BEGIN_OBJECT) {
+                delegate.beginObject();
+            } else if (event == BEGIN_ARRAY) {
+                delegate.beginArray();
+            } else {
+                delegate.key((String) event);
+            }
+        }
+        flushed += pending.size();
+        pending.clear();
+    }
+}
@@ -1,12 +1,13 @@
 package org.jolokia.service.serializer.json;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.json.JSONArray;
@@ -69,6 +70,22 @@ public class ListExtractor implements Extractor {
         }
     }
 
+    /** {@inheritDoc} */
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        List<?> list = (List<?>) pValue;
+        int length = pConverter.getCollectionLength(list.size());
+        boolean written = false;
+        pSink.beginArray();
+        for (int i = 0; i < length; i++) {
+            written |= pConverter.streamElement(list.get(i), pSink);
+        }
+        if (!written && length > 0) {
+            throw new ValueFaultHandler.AttributeFilteredException();
+        }
+        pSink.endArray();
+    }
+
     /**
      * Set a value within a list
      *
@@ -128,7 +145,7 @@ public class ListExtractor implements Extractor {
     private Object extractListAsJson(ObjectToJsonConverter pConverter, List<?> pList, Deque<String> pPath, int pLength) throws AttributeNotFoundException {
         List<Object> ret = new JSONArray(pLength);
         for (int i = 0;i < pLength; i++) {
-            Deque<String> path = new LinkedList<>(pPath);
+            Deque<String> path = pConverter.copyPath(pPath);
             try {
                 ret.add(pConverter.extractObject(pList.get(i), path, true));
             } catch (ValueFaultHandler.AttributeFilteredException exp) {
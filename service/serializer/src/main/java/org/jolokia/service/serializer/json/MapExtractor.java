@@ -1,12 +1,13 @@
 package org.jolokia.service.serializer.json;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Map;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.json.JSONObject;
@@ -70,11 +71,47 @@ public class MapExtractor implements Extractor {
         }
     }
 
+    /**
+     * Stream the map as JSON object. Maps with keys other than strings are serialized via
+     * {@link #extractObject(ObjectToJsonConverter, Object, Deque, boolean)}, since their string representations
+     * might collide, which is resolved by overwriting the earlier entry there.
+     *
+     * @param pConverter the global converter in order to be able do dispatch for
+     *        serializing inner data types
+     * @param pValue the value to convert which must be a {@link Map}
+     * @param pSink sink to write the JSON events to
+     * @throws AttributeNotFoundException
+     * @throws IOException
+     */
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        Map<?, ?> map = (Map<?, ?>) pValue;
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                Extractor.super.streamObject(pConverter, pValue, pSink);
+                return;
+            }
+        }
+        int length = pConverter.getCollectionLength(map.size());
+        int i = 0;
+        pSink.beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (pConverter.streamMember((String) entry.getKey(), entry.getValue(), pSink) && ++i > length) {
+                break;
+            }
+        }
+        if (i == 0 && length > 0) {
+            // Not a single value passed the filter
+            throw new ValueFaultHandler.AttributeFilteredException();
+        }
+        pSink.endObject();
+    }
+
     private JSONObject extractMapValues(ObjectToJsonConverter pConverter, Deque<String> pPathParts, boolean jsonify, Map<?, ?> pMap, int pLength) throws AttributeNotFoundException {
         JSONObject ret = new JSONObject();
         int i = 0;
         for(Map.Entry<?, ?> entry : pMap.entrySet()) {
-            Deque<String> paths = new LinkedList<>(pPathParts);
+            Deque<String> paths = pConverter.copyPath(pPathParts);
             try {
                 ret.put(entry.getKey().toString(),
                         pConverter.extractObject(entry.getValue(), paths, jsonify));
@@ -41,7 +41,13 @@ class ObjectSerializationContext {
             Date.class
     ));
 
-    private final Set<Integer>   objectsInCallStack = new HashSet<>();
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Objects in the current call stack, compared by identity. They are kept in an open addressing
+    // hash table with linear probing, so that no allocation is needed unless the table has to grow.
+    private Object[] objectsInCallStack = new Object[INITIAL_CAPACITY];
+    private int callStackSize;
+
     private final SerializeOptions options;
 
     private int objectCount = 0;
@@ -62,7 +68,7 @@ class ObjectSerializationContext {
      * @return true if the object has been already visited
      */
     boolean alreadyVisited(Object object) {
-        return objectsInCallStack.contains(System.identityHashCode(object));
+        return indexOf(object) >= 0;
     }
 
     /**
@@ -71,7 +77,7 @@ class ObjectSerializationContext {
      * @return true if the max depth limit has been reached
      */
     public boolean maxDepthReached() {
-        return options.maxDepthReached(objectsInCallStack.size());
+        return options.maxDepthReached(callStackSize);
     }
 
     /**
@@ -122,18 +128,108 @@ class ObjectSerializationContext {
      */
     void push(Object object) {
         if (object != null && !SIMPLE_TYPES.contains(object.getClass())) {
-            objectsInCallStack.add(System.identityHashCode(object));
+            add(object);
         }
         objectCount++;
     }
 
+    /**
+     * Count the elements of a primitive array, which are serialized directly without being pushed on
+     * the call stack. Elements are counted until the maximum number of objects is exceeded.
+     *
+     * @param pLength number of elements to serialize
+     * @return number of elements which can be serialized, the remaining ones have to be replaced
+     *         by the marker for an exceeded object limit
+     */
+    int countElements(int pLength) {
+        int counted = 0;
+        while (counted < pLength && !maxObjectsExceeded()) {
+            objectCount++;
+            counted++;
+        }
+        return counted;
+    }
+
     /**
      * Remove an object from top of the call stack
      * @return the object popped
      */
     void pop(Object value) {
         if (value != null && !SIMPLE_TYPES.contains(value.getClass())) {
-            objectsInCallStack.remove(System.identityHashCode(value));
+            remove(value);
+        }
+    }
+
+    // =====================================================
+    // Identity hash table
+
+    private static int slot(Object pObject, int pMask) {
+        int h = System.identityHashCode(pObject);
+        return (h ^ (h >>> 16)) & pMask;
+    }
+
+    private int indexOf(Object pObject) {
+        Object[] table = objectsInCallStack;
+        int mask = table.length - 1;
+        for (int i = slot(pObject, mask); table[i] != null; i = (i + 1) & mask) {
+            if (table[i] == pObject) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void add(Object pObject) {
+        if ((callStackSize + 1) * 2 > objectsInCallStack.length) {
+            resize();
+        }
+        Object[] table = objectsInCallStack;
+        int mask = table.length - 1;
+        int i = slot(pObject, mask);
+        while (table[i] != null) {
+            if (table[i] == pObject) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = pObject;
+        callStackSize++;
+    }
+
+    private void remove(Object pObject) {
+        int i = indexOf(pObject);
+        if (i < 0) {
+            return;
+        }
+        Object[] table = objectsInCallStack;
+        int mask = table.length - 1;
+        table[i] = null;
+        callStackSize--;
+        // Move up following entries of the same probe sequence, so that they stay reachable
+        for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+            int home = slot(table[j], mask);
+            boolean inPlace = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!inPlace) {
+                table[i] = table[j];
+                table[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void resize() {
+        Object[] old = objectsInCallStack;
+        Object[] table = new Object[old.length * 2];
+        int mask = table.length - 1;
+        for (Object object : old) {
+            if (object != null) {
+                int i = slot(object, mask);
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = object;
+            }
         }
+        objectsInCallStack = table;
     }
 }
@@ -1,17 +1,20 @@
 package org.jolokia.service.serializer.json;
 
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.config.ConfigKey;
 import org.jolokia.server.core.service.api.JolokiaContext;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.server.core.service.serializer.SerializeOptions;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.server.core.util.LocalServiceFactory;
+import org.jolokia.server.core.util.CompiledPath;
 import org.jolokia.server.core.util.EscapeUtil;
 
 /*
@@ -49,12 +52,36 @@ public final class ObjectToJsonConverter {
 
     private final ArrayExtractor arrayExtractor;
 
+    // Extractors resolved per class, for serializing and for setting values
+    private final ClassValue<Extractor> extractorsByClass = new ClassValue<>() {
+        @Override
+        protected Extractor computeValue(Class<?> pType) {
+            return findExtractor(pType, false);
+        }
+    };
+    private final ClassValue<Extractor> settableExtractorsByClass = new ClassValue<>() {
+        @Override
+        protected Extractor computeValue(Class<?> pType) {
+            return findExtractor(pType, true);
+        }
+    };
+
+    // Types which are used directly as JSON values, without dispatching to an extractor.
+    private static final Set<Class<?>> SIMPLE_TYPES = Set.of(
+        String.class, Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+    // The subset of SIMPLE_TYPES for which no simplifier is registered
+    private final Set<Class<?>> simpleTypes;
+
     // Thread-Local set in order to prevent infinite recursions
     private final ThreadLocal<ObjectSerializationContext> stackContextLocal = new ThreadLocal<>();
 
     // Used for converting string to objects when setting attributes
     private final StringToObjectConverter stringToObjectConverter;
 
+    // Replacement for values beyond the maximum number of objects
+    static final String OBJECT_LIMIT_EXCEEDED = "[Object limit exceeded]";
+
     // Definition of simplifiers
     private static final String SIMPLIFIERS_DEFAULT_DEF = "META-INF/jolokia/simplifiers-default";
     private static final String SIMPLIFIERS_DEF         = "META-INF/jolokia/simplifiers";
@@ -104,6 +131,13 @@ public final class ObjectToJsonConverter {
 
         arrayExtractor = new ArrayExtractor();
 
+        simpleTypes = new HashSet<>();
+        for (Class<?> type : SIMPLE_TYPES) {
+            if (findExtractor(type, false) instanceof BeanExtractor) {
+                simpleTypes.add(type);
+            }
+        }
+
         stringToObjectConverter = pStringToObjectConverter;
 
         this.context = context;
@@ -125,6 +159,46 @@ public final class ObjectToJsonConverter {
         return extractObjectWithContext(pValue, extraStack, pOptions, true);
     }
 
+    /**
+     * Convert the return value to a JSON object, using an already parsed path for extraction.
+     *
+     * @param pValue the value to convert
+     * @param pPath path to use for extraction
+     * @param pOptions options used for parsing
+     * @return the converter object. This either a subclass of {@link org.jolokia.json.JSONStructure} or a basic data type like String or Long.
+     * @throws AttributeNotFoundException if within a path an attribute could not be found
+     */
+    public Object serializeWithPath(Object pValue, CompiledPath pPath, SerializeOptions pOptions)
+            throws AttributeNotFoundException {
+        return extractObjectWithContext(pValue, pPath.toStack(), pOptions, true);
+    }
+
+    /**
+     * Serialize the complete value directly into the given sink, without building up the JSON representation
+     * in memory first. The result is the same as for {@link #serialize(Object, List, SerializeOptions)} without
+     * a path, including the limits taken from the options.
+     *
+     * @param pValue the value to convert
+     * @param pOptions options used for serializing
+     * @param pSink sink to write the JSON representation to
+     * @throws AttributeNotFoundException if an attribute is not found during traversal
+     * @throws IOException if writing to the sink fails
+     */
+    public void serialize(Object pValue, SerializeOptions pOptions, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        setupContext(pOptions);
+        FilteringSink sink = new FilteringSink(pSink);
+        long mark = sink.mark();
+        try {
+            streamObject(pValue, sink);
+        } catch (ValueFaultHandler.AttributeFilteredException exp) {
+            sink.reset(mark);
+            sink.value(null);
+        } finally {
+            clearContext();
+        }
+    }
+
     /**
      * Set an inner value of a complex object. A given path must point to the attribute/index to set within the outer object.
      *
@@ -139,8 +213,8 @@ public final class ObjectToJsonConverter {
      */
     public Object setInnerValue(Object pOuterObject, Object pNewValue, List<String> pPathParts)
             throws AttributeNotFoundException, IllegalAccessException, InvocationTargetException {
-        String lastPathElement = pPathParts.remove(pPathParts.size()-1);
-        Deque<String> extraStack = EscapeUtil.reversePath(pPathParts);
+        String lastPathElement = pPathParts.get(pPathParts.size()-1);
+        Deque<String> extraStack = EscapeUtil.reversePath(pPathParts.subList(0, pPathParts.size()-1));
 
         // Get the object pointed to do with path-1
         // We are using no limits here, since a path must have been given (see above), and hence we should
@@ -186,11 +260,50 @@ public final class ObjectToJsonConverter {
                                 new AttributeNotFoundException("Cannot apply a path to an null value"));
             }
 
-            if (pValue.getClass().isArray()) {
+            Class<?> clazz = pValue.getClass();
+            if (pathStack.isEmpty() && simpleTypes.contains(clazz)) {
+                return pJsonify ? simpleValue(pValue) : pValue;
+            }
+            if (clazz.isArray()) {
                 // Special handling for arrays
                 return arrayExtractor.extractObject(this,pValue,pathStack,pJsonify);
             }
-            return callHandler(pValue, pathStack, pJsonify);
+            return lookupExtractor(pValue, pathStack).extractObject(this, pValue, pathStack, pJsonify);
+        } finally {
+            stackContext.pop(pValue);
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #extractObject(Object, Deque, boolean)}, which writes the JSON representation
+     * of the given value to a sink. Like {@link #extractObject(Object, Deque, boolean)} this method is called back
+     * from the extractors and must not be used as entry point. Use {@link #serialize(Object, SerializeOptions, JSONSink)}
+     * instead.
+     *
+     * @param pValue value to serialize
+     * @param pSink sink to write to
+     * @throws AttributeNotFoundException if an attribute is not found during traversal
+     * @throws IOException if writing to the sink fails
+     */
+    public void streamObject(Object pValue, JSONSink pSink) throws AttributeNotFoundException, IOException {
+        ObjectSerializationContext stackContext = stackContextLocal.get();
+        String limitReached = checkForLimits(pValue, stackContext);
+        if (limitReached != null) {
+            pSink.value(limitReached);
+            return;
+        }
+        try {
+            stackContext.push(pValue);
+
+            if (pValue == null) {
+                pSink.value(null);
+            } else if (simpleTypes.contains(pValue.getClass())) {
+                pSink.value(simpleValue(pValue));
+            } else if (pValue.getClass().isArray()) {
+                arrayExtractor.streamObject(this, pValue, pSink);
+            } else {
+                lookupExtractor(pValue, null).streamObject(this, pValue, pSink);
+            }
         } finally {
             stackContext.pop(pValue);
         }
@@ -246,7 +359,7 @@ public final class ObjectToJsonConverter {
         if (clazz.isArray()) {
             return arrayExtractor.setObjectValue(stringToObjectConverter,pInner,pAttribute,pValue);
         }
-        Extractor handler = getExtractor(clazz);
+        Extractor handler = settableExtractorsByClass.get(clazz);
 
         if (handler != null) {
             return handler.setObjectValue(stringToObjectConverter,pInner,pAttribute,pValue);
@@ -271,6 +384,86 @@ public final class ObjectToJsonConverter {
         return ctx.getCollectionSizeTruncated(originalLength);
     }
 
+    /**
+     * Stream a member of a JSON object. If the value is filtered out, nothing is written at all.
+     * This method is to be used from within {@link Extractor#streamObject(ObjectToJsonConverter, Object, JSONSink)}.
+     *
+     * @param pKey key of the member
+     * @param pValue value to serialize
+     * @param pSink sink as given to {@link Extractor#streamObject(ObjectToJsonConverter, Object, JSONSink)}
+     * @return true if the member has been written, false if it has been filtered
+     * @throws AttributeNotFoundException if an attribute is not found during traversal
+     * @throws IOException if writing to the sink fails
+     */
+    public boolean streamMember(String pKey, Object pValue, JSONSink pSink) throws AttributeNotFoundException, IOException {
+        FilteringSink sink = (FilteringSink) pSink;
+        long mark = sink.mark();
+        try {
+            sink.key(pKey);
+            streamObject(pValue, sink);
+            return true;
+        } catch (ValueFaultHandler.AttributeFilteredException exp) {
+            sink.reset(mark);
+            return false;
+        }
+    }
+
+    /**
+     * Stream an element of a JSON array. If the value is filtered out, nothing is written at all.
+     * This method is to be used from within {@link Extractor#streamObject(ObjectToJsonConverter, Object, JSONSink)}.
+     *
+     * @param pValue value to serialize
+     * @param pSink sink as given to {@link Extractor#streamObject(ObjectToJsonConverter, Object, JSONSink)}
+     * @return true if the element has been written, false if it has been filtered
+     * @throws AttributeNotFoundException if an attribute is not found during traversal
+     * @throws IOException if writing to the sink fails
+     */
+    public boolean streamElement(Object pValue, JSONSink pSink) throws AttributeNotFoundException, IOException {
+        FilteringSink sink = (FilteringSink) pSink;
+        long mark = sink.mark();
+        try {
+            streamObject(pValue, sink);
+            return true;
+        } catch (ValueFaultHandler.AttributeFilteredException exp) {
+            sink.reset(mark);
+            return false;
+        }
+    }
+
+    /**
+     * Check whether values of the given type are serialized as they are, i.e. there is no simplifier or
+     * extractor registered which would convert them to something else.
+     *
+     * @param pType type to check
+     * @return true if values of this type are written without any conversion (except for long values
+     *         serialized as string)
+     */
+    boolean isSimpleType(Class<?> pType) {
+        return simpleTypes.contains(pType);
+    }
+
+    /**
+     * Get the serialization context of the current thread, for extractors which are checking the limits
+     * on their own.
+     *
+     * @return the current serialization context
+     */
+    ObjectSerializationContext getSerializationContext() {
+        return stackContextLocal.get();
+    }
+
+    /**
+     * Get a copy of the remaining path for navigating into one of several inner values, so that
+     * each of them starts with the same path. An empty path is not copied since nothing is
+     * taken from it during navigation.
+     *
+     * @param pPath path to copy
+     * @return path which can be used for navigating into a single inner value
+     */
+    public Deque<String> copyPath(Deque<String> pPath) {
+        return pPath.isEmpty() ? pPath : new LinkedList<>(pPath);
+    }
+
     /**
      * Get the option for serializing long values.
      *
@@ -318,16 +511,26 @@ public final class ObjectToJsonConverter {
 
     // =================================================================================
 
-    // Get the extractor for a certain class
-    private Extractor getExtractor(Class<?> pClazz) {
+    // Get the first extractor responsible for a certain class
+    private Extractor findExtractor(Class<?> pClazz, boolean pForSetting) {
         for (Extractor handler : handlers) {
-            if (handler.canSetValue() && handler.getType() != null && handler.getType().isAssignableFrom(pClazz)) {
+            if ((!pForSetting || handler.canSetValue()) && handler.getType() != null && handler.getType().isAssignableFrom(pClazz)) {
                 return handler;
             }
         }
         return null;
     }
 
+    // Same as the BeanExtractor does for these types
+    private Object simpleValue(Object pValue) {
+        if (pValue instanceof Long && "string".equals(getSerializeLong())) {
+            // Long value can exceed max safe integer in JS, so convert it to
+            // a string when the option is specified
+            return pValue.toString();
+        }
+        return pValue;
+    }
+
     private String checkForLimits(Object pValue, ObjectSerializationContext pStackContext) {
         if (pValue != null) {
             if (pStackContext.maxDepthReached()) {
@@ -339,20 +542,18 @@ public final class ObjectToJsonConverter {
             }
         }
         if (pStackContext.maxObjectsExceeded()) {
-            return "[Object limit exceeded]";
+            return OBJECT_LIMIT_EXCEEDED;
         }
         return null;
     }
 
 
 
-    private Object callHandler(Object pValue, Deque<String> pPathParts, boolean pJsonify)
-            throws AttributeNotFoundException {
+    private Extractor lookupExtractor(Object pValue, Deque<String> pPathParts) {
         Class<?> pClazz = pValue.getClass();
-        for (Extractor handler : handlers) {
-            if (handler.getType() != null && handler.getType().isAssignableFrom(pClazz)) {
-                return handler.extractObject(this,pValue,pPathParts,pJsonify);
-            }
+        Extractor handler = extractorsByClass.get(pClazz);
+        if (handler != null) {
+            return handler;
         }
         throw new IllegalStateException(
                 "Internal error: No handler found for class " + pClazz +
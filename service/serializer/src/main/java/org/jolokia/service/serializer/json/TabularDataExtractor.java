@@ -182,7 +182,7 @@ public class TabularDataExtractor implements Extractor {
         boolean found = false;
         //noinspection unchecked
         for (CompositeData cd : (Collection<CompositeData>) pTd.values()) {
-            Deque<String> path = new LinkedList<>(pExtraArgs);
+            Deque<String> path = pConverter.copyPath(pExtraArgs);
             try {
                 JSONObject targetJSONObject = ret;
                 // TODO: Check whether all keys can be represented as simple types. If not, well
@@ -311,7 +311,7 @@ public class TabularDataExtractor implements Extractor {
         JSONObject ret = new JSONObject();
         for (Object rowObject : pTd.values()) {
             CompositeData row = (CompositeData) rowObject;
-            Deque<String> path = new LinkedList<>(pExtraArgs);
+            Deque<String> path = pConverter.copyPath(pExtraArgs);
             Object keyObject = row.get("key");
             if (keyObject != null) {
                 try {
@@ -1,10 +1,12 @@
 package org.jolokia.service.serializer.json.simplifier;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
 import javax.management.AttributeNotFoundException;
 
+import org.jolokia.json.JSONSink;
 import org.jolokia.server.core.service.serializer.ValueFaultHandler;
 import org.jolokia.service.serializer.json.Extractor;
 import org.jolokia.service.serializer.json.ObjectToJsonConverter;
@@ -74,10 +76,32 @@ public abstract class SimplifierExtractor<T> implements Extractor {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        boolean written = false;
+        pSink.beginObject();
+        for (Map.Entry<String, AttributeExtractor<T>> entry : extractorMap.entrySet()) {
+            try {
+                //noinspection unchecked
+                Object value = entry.getValue().extract((T) pValue);
+                written |= pConverter.streamMember(entry.getKey(), value, pSink);
+            } catch (AttributeExtractor.SkipAttributeException e) {
+                // Skip this one
+            }
+        }
+        if (!written) {
+            // Everything filtered, bubble up ...
+            throw new ValueFaultHandler.AttributeFilteredException();
+        }
+        pSink.endObject();
+    }
+
     private Object extractAll(ObjectToJsonConverter pConverter, T pValue, Deque<String> pPathParts, boolean jsonify) throws AttributeNotFoundException {
         JSONObject ret = new JSONObject();
         for (Map.Entry<String, AttributeExtractor<T>> entry : extractorMap.entrySet()) {
-            Deque<String> paths = new LinkedList<>(pPathParts);
+            Deque<String> paths = pConverter.copyPath(pPathParts);
             try {
                 Object value = entry.getValue().extract(pValue);
                 ret.put(entry.getKey(),pConverter.extractObject(value, paths, jsonify));
@@ -0,0 +1,222 @@
+package org.jolokia.service.serializer.object;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Bounded cache for lookups done when converting values (like resolving a type name to a class), which
+ * counts its hits and misses. Once the maximum size is reached, lookups for new keys are still
+ * done but their results are not cached anymore.
+ * <p>
+ * Entries can be cached per scope (like the class loader used for the lookup). Scopes are weakly
+ * referenced, so that their entries are dropped as soon as a scope is garbage collected. Cached values
+ * must not hold strong references to their scope. Values which are not valid anymore (e.g. expired
+ * negative results) are looked up again.
+ * <p>
+ * Lookups don't take any lock. The entries of each scope are kept in their own concurrent map, and the
+ * number of entries is counted separately, so that the size limit can be checked without visiting all scopes.
+ *
+ * @param <K> key type
+ * @param <V> type of the cached values, negative results must be represented by a non-null value
+ */
+public final class ConversionCache<K, V> {
+
+    private final int maxSize;
+
+    private final Predicate<V> valid;
+
+    // Entries without scope
+    private final Map<K, V> unscoped = new ConcurrentHashMap<>();
+
+    // Entries per weakly referenced scope
+    private final Map<ScopeKey, Map<K, V>> scopes = new ConcurrentHashMap<>();
+
+    // Keys of garbage collected scopes, whose entries have to be removed
+    private final ReferenceQueue<Object> staleScopes = new ReferenceQueue<>();
+
+    // Number of entries in all scopes
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor for a cache whose entries are always valid
+     *
+     * @param pMaxSize maximum number of entries to cache
+     */
+    ConversionCache(int pMaxSize) {
+        this(pMaxSize, pValue -> true);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param pMaxSize maximum number of entries to cache
+     * @param pValid check whether a cached value can still be used
+     */
+    ConversionCache(int pMaxSize, Predicate<V> pValid) {
+        maxSize = pMaxSize;
+        valid = pValid;
+    }
+
+    /**
+     * Get the cached value for a key or look it up and cache it.
+     *
+     * @param pKey key to lookup
+     * @param pLookup function for the lookup of an uncached value, must not return null
+     * @return the cached or looked up value
+     * @see #get(Object, Object, Function)
+     */
+    V get(K pKey, Function<K, V> pLookup) {
+        return get(null, pKey, pLookup);
+    }
+
+    /**
+     * Get the cached value for a key within a scope or look it up and cache it. The lookup is not done
+     * while holding any lock, so it can be done concurrently for the same key and may use this cache recursively.
+     *
+     * @param pScope scope of the key, which is weakly referenced. Can be null.
+     * @param pKey key to lookup
+     * @param pLookup function for the lookup of an uncached value, must not return null
+     * @return the cached or looked up value
+     */
+    V get(Object pScope, K pKey, Function<K, V> pLookup) {
+        Map<K, V> entries = getEntries(pScope);
+        V cached = entries.get(pKey);
+        if (cached != null && valid.test(cached)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        V value = pLookup.apply(pKey);
+        if (cached != null) {
+            entries.put(pKey, value);
+        } else if (size.get() < maxSize && entries.putIfAbsent(pKey, value) == null) {
+            size.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Number of lookups answered from the cache
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups which had to be done because the key was not cached or its value was not valid anymore
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of cached entries
+     *
+     * @return size of the cache
+     */
+    public int size() {
+        expungeStaleScopes();
+        return size.get();
+    }
+
+    /**
+     * Remove all cached entries, e.g. when classes might have been reloaded. The counters are not reset.
+     */
+    public void clear() {
+        clear(unscoped);
+        for (Map<K, V> entries : scopes.values()) {
+            clear(entries);
+        }
+    }
+
+    // ==================================================================================================
+
+    // Entries of a scope, which are created on the first lookup for this scope
+    private Map<K, V> getEntries(Object pScope) {
+        if (pScope == null) {
+            return unscoped;
+        }
+        Map<K, V> entries = scopes.get(new ScopeKey(pScope, null));
+        if (entries != null) {
+            return entries;
+        }
+        expungeStaleScopes();
+        return scopes.computeIfAbsent(new ScopeKey(pScope, staleScopes), key -> new ConcurrentHashMap<>());
+    }
+
+    // Remove the entries of garbage collected scopes
+    private void expungeStaleScopes() {
+        Reference<?> stale;
+        while ((stale = staleScopes.poll()) != null) {
+            Map<K, V> entries = scopes.remove(stale);
+            if (entries != null) {
+                size.addAndGet(-entries.size());
+            }
+        }
+    }
+
+    private void clear(Map<K, V> pEntries) {
+        for (K key : pEntries.keySet()) {
+            if (pEntries.remove(key) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    // Weak reference to a scope, which is compared by identity
+    private static final class ScopeKey extends WeakReference<Object> {
+        private final int hash;
+
+        private ScopeKey(Object pScope, ReferenceQueue<Object> pQueue) {
+            super(pScope, pQueue);
+            hash = System.identityHashCode(pScope);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object pOther) {
+            if (this == pOther) {
+                return true;
+            }
+            if (!(pOther instanceof ScopeKey)) {
+                return false;
+            }
+            Object scope = get();
+            return scope != null && scope == ((ScopeKey) pOther).get();
+        }
+    }
+}
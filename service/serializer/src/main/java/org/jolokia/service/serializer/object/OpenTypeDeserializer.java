@@ -2,6 +2,7 @@ package org.jolokia.service.serializer.object;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import javax.management.openmbean.OpenType;
 
@@ -38,6 +39,12 @@ public class OpenTypeDeserializer {
     @SuppressWarnings("rawtypes")
     private final List<OpenTypeConverter<? extends OpenType>> converters;
 
+    // Converter responsible for a kind of OpenType. The converters decide only on the class of an OpenType,
+    // so this is used as key instead of the (possibly deeply nested) OpenType itself. There is a
+    // fixed number of OpenType classes, so the limit is just a safeguard.
+    @SuppressWarnings("rawtypes")
+    private final ConversionCache<Class<?>, Optional<OpenTypeConverter>> converterCache = new ConversionCache<>(50);
+
     /**
      * Constructor
      *
@@ -64,16 +71,34 @@ public class OpenTypeDeserializer {
         if (pValue == null) {
             return null;
         } else {
-            for (OpenTypeConverter converter : converters) {
-                if (converter.canConvert(pOpenType)) {
-                    return converter.convertToObject(pOpenType,pValue);
-                }
+            Optional<OpenTypeConverter> converter = converterCache.get(pOpenType.getClass(), type -> lookupConverter(pOpenType));
+            if (converter.isPresent()) {
+                return converter.get().convertToObject(pOpenType,pValue);
             }
             throw new IllegalArgumentException(
                     "Cannot convert " + pValue + " to " + pOpenType + ": " + "No converter could be found");
         }
 	}
 
+    /**
+     * Get the cache used for looking up the converter for an {@link OpenType}, e.g. for checking its hit rate.
+     *
+     * @return the converter cache
+     */
+    public ConversionCache<?, ?> getConverterCache() {
+        return converterCache;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Optional<OpenTypeConverter> lookupConverter(OpenType pOpenType) {
+        for (OpenTypeConverter<? extends OpenType> converter : converters) {
+            if (converter.canConvert(pOpenType)) {
+                return Optional.of(converter);
+            }
+        }
+        return Optional.empty();
+    }
+
     public void makeForgiving() {
         this.forgiving = true;
     }
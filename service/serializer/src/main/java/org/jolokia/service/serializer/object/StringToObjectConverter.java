@@ -1,6 +1,7 @@
 package org.jolokia.service.serializer.object;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.math.BigDecimal;
@@ -11,6 +12,7 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +56,35 @@ public class StringToObjectConverter {
     @SuppressWarnings("rawtypes")
     private static final Map<String,Class> TYPE_SIGNATURE_MAP = new HashMap<>();
 
+    // Upper limit for the number of cached types. Only a limited set of types is used
+    // for writing attributes and operation arguments, so this is reached only if arbitrary
+    // type names are used.
+    private static final int MAX_CACHED_TYPES = 500;
+
+    // Time after which a type which couldn't be found is looked up again
+    private static final long NEGATIVE_TYPE_TTL_MILLIS = 60_000L;
+
+    // Public constructors with a single parameter which accepts a string. Stored with the class
+    // itself, so that it can still be unloaded.
+    private static final ClassValue<List<Constructor<?>>> STRING_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected List<Constructor<?>> computeValue(Class<?> pType) {
+            List<Constructor<?>> ret = new ArrayList<>();
+            for (Constructor<?> constructor : pType.getConstructors()) {
+                // support only 1 constructor parameter
+                if (constructor.getParameterTypes().length == 1 &&
+                    constructor.getParameterTypes()[0].isAssignableFrom(String.class)) {
+                    ret.add(constructor);
+                }
+            }
+            return ret;
+        }
+    };
+
+    // Resolved types (including negative results), scoped by the context class loader as this
+    // influences the class lookup
+    private final ConversionCache<String, ResolvedType> typeCache = new ConversionCache<>(MAX_CACHED_TYPES, ResolvedType::isValid);
+
     private final TemporalParser temporalParser = new TemporalParser();
 
     static {
@@ -110,7 +141,7 @@ public class StringToObjectConverter {
         if (pValue == null) {
             return null;
         } else {
-            Class<?> expectedClass = ClassUtil.classForName(pExpectedClassName);
+            Class<?> expectedClass = resolveType(pExpectedClassName);
             Object param = null;
             if (expectedClass != null) {
                 param = prepareValue(expectedClass,pValue);
@@ -162,22 +193,31 @@ public class StringToObjectConverter {
     }
 
     private Object convertByConstructor(String pType, String pValue) {
-        Class<?> expectedClass = ClassUtil.classForName(pType);
-        if (expectedClass != null) {
-            for (Constructor<?> constructor : expectedClass.getConstructors()) {
-                // support only 1 constructor parameter
-                if (constructor.getParameterTypes().length == 1 &&
-                    constructor.getParameterTypes()[0].isAssignableFrom(String.class)) {
-                    try {
-                        return constructor.newInstance(pValue);
-                    } catch (Exception ignore) { }
-                }
+        Class<?> type = resolveType(pType);
+        if (type != null) {
+            for (Constructor<?> constructor : STRING_CONSTRUCTORS.get(type)) {
+                try {
+                    return constructor.newInstance(pValue);
+                } catch (Exception ignore) { }
             }
         }
-
         return null;
     }
 
+    /**
+     * Get the cache used for resolving type names to classes, e.g. for checking its hit rate.
+     *
+     * @return the type cache
+     */
+    public ConversionCache<?, ?> getTypeCache() {
+        return typeCache;
+    }
+
+    // Lookup a type via the cache, returns null if the type can't be found
+    private Class<?> resolveType(String pType) {
+        return typeCache.get(Thread.currentThread().getContextClassLoader(), pType, ResolvedType::resolve).getType(pType);
+    }
+
     /**
      * Deserialize a string representation to an object for a given type
      *
@@ -202,7 +242,7 @@ public class StringToObjectConverter {
 
         if (pType.startsWith("java.time.")) {
             // we'll try to parse as some Temporal
-            return temporalParser.extract(value, pType);
+            return temporalParser.extract(value, pType, resolveType(pType));
         }
 
         Object cValue = convertByConstructor(pType, pValue);
@@ -223,7 +263,7 @@ public class StringToObjectConverter {
         if (t.equals("L")) {
             // It's an object-type
             String oType = pType.substring(2,pType.length()-1).replace('/','.');
-            valueType = ClassUtil.classForName(oType);
+            valueType = resolveType(oType);
             if (valueType == null) {
                 throw new IllegalArgumentException("No class of type " + oType + "found");
             }
@@ -379,10 +419,12 @@ public class StringToObjectConverter {
 
     private static class TemporalParser {
 
-        public Object extract(String pValue, String temporalImpl) {
+        public Object extract(String pValue, String temporalImpl, Class<?> clz) {
+            if (clz == null) {
+                throw new IllegalArgumentException("Can't find Temporal class \"" + temporalImpl + "\"");
+            }
             // client should send a unix nano time
             try {
-                Class<?> clz = Class.forName(temporalImpl);
                 long unixNano = Long.parseLong(pValue);
                 // we assume that an instant is always in UTC
                 Instant instant = Instant.ofEpochSecond(unixNano / 1_000_000_000, unixNano % 1_000_000_000);
@@ -398,10 +440,39 @@ public class StringToObjectConverter {
                 throw new IllegalArgumentException("Cannot handle Temporal of class \"" + temporalImpl + "\" for value " + pValue);
             } catch (NumberFormatException e) {
                 throw new IllegalArgumentException("Cannot parse Temporal " + pValue + ": " + e, e);
-            } catch (ClassNotFoundException e) {
-                throw new IllegalArgumentException("Can't find Temporal class \"" + temporalImpl + "\"");
             }
         }
     }
 
+    // Result of looking up a type by its name. The class is weakly referenced, so that the cache doesn't
+    // keep it (and its class loader) from being unloaded.
+    private static final class ResolvedType {
+        // null if the class couldn't be found
+        private final WeakReference<Class<?>> type;
+        // when a negative result has to be looked up again
+        private final long expires;
+
+        private ResolvedType(Class<?> pType) {
+            type = pType != null ? new WeakReference<>(pType) : null;
+            expires = pType != null ? Long.MAX_VALUE : System.currentTimeMillis() + NEGATIVE_TYPE_TTL_MILLIS;
+        }
+
+        private static ResolvedType resolve(String pName) {
+            return new ResolvedType(ClassUtil.classForName(pName));
+        }
+
+        private boolean isValid() {
+            return type != null ? type.get() != null : System.currentTimeMillis() < expires;
+        }
+
+        private Class<?> getType(String pName) {
+            if (type == null) {
+                return null;
+            }
+            Class<?> ret = type.get();
+            // unloaded in the meantime, so it is looked up again
+            return ret != null ? ret : ClassUtil.classForName(pName);
+        }
+    }
+
 }
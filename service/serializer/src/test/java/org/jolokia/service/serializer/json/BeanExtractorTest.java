@@ -276,6 +276,22 @@ public class BeanExtractorTest extends AbstractExtractorTest {
         extractJson(this,"blablub");
     }
 
+    @Test
+    public void cachedIntrospection() throws Exception {
+        BeanProperties props = BeanProperties.of(BeanExtractorTest.class);
+        assertSame(BeanProperties.of(BeanExtractorTest.class), props);
+        assertTrue(props.getAttributes().contains("text"));
+        assertFalse(props.getAttributes().contains("forbiddenStream"));
+        assertSame(props.getGetter("text"), props.getGetter("text"));
+        assertEquals(props.getGetter("text").get(this), "Test");
+
+        // Negative lookups are remembered, too
+        assertFalse(props.getGetter("blablub").exists());
+        assertSame(props.getGetter("blablub"), props.getGetter("blablub"));
+        assertFalse(props.getSetter("number").exists());
+        assertSame(props.getSetter("number"), props.getSetter("number"));
+    }
+
     @Test
     public void simplSet() throws InvocationTargetException, IllegalAccessException {
         assertTrue(extractor.canSetValue());
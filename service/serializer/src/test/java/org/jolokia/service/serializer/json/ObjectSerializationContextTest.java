@@ -0,0 +1,84 @@
+package org.jolokia.service.serializer.json;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import org.jolokia.server.core.service.serializer.SerializeOptions;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public class ObjectSerializationContextTest {
+
+    @Test
+    public void pushAndPop() {
+        ObjectSerializationContext ctx = new ObjectSerializationContext(new SerializeOptions.Builder().maxDepth(3).build());
+        Object a = new Object();
+        Object b = new Object();
+        ctx.push(a);
+        ctx.push(b);
+        assertTrue(ctx.alreadyVisited(a));
+        assertTrue(ctx.alreadyVisited(b));
+        assertFalse(ctx.maxDepthReached());
+        // Simple types are not tracked
+        ctx.push("string");
+        assertFalse(ctx.alreadyVisited("string"));
+        assertFalse(ctx.maxDepthReached());
+        ctx.push(new Object());
+        assertTrue(ctx.maxDepthReached());
+        ctx.pop("string");
+        ctx.pop(b);
+        assertFalse(ctx.alreadyVisited(b));
+        assertTrue(ctx.alreadyVisited(a));
+    }
+
+    @Test
+    public void equalObjectsAreDistinct() {
+        ObjectSerializationContext ctx = new ObjectSerializationContext(SerializeOptions.DEFAULT);
+        List<Integer> list = new ArrayList<>();
+        ctx.push(list);
+        assertFalse(ctx.alreadyVisited(new ArrayList<Integer>()));
+        assertTrue(ctx.alreadyVisited(list));
+    }
+
+    @Test
+    public void deepStack() {
+        ObjectSerializationContext ctx = new ObjectSerializationContext(SerializeOptions.DEFAULT);
+        Random random = new Random(42);
+        Deque<Object> stack = new ArrayDeque<>();
+        for (int round = 0; round < 20; round++) {
+            int depth = random.nextInt(500);
+            while (stack.size() < depth) {
+                Object o = new Object();
+                assertFalse(ctx.alreadyVisited(o));
+                ctx.push(o);
+                stack.push(o);
+            }
+            while (stack.size() > depth / 2) {
+                ctx.pop(stack.pop());
+            }
+            for (Object o : stack) {
+                assertTrue(ctx.alreadyVisited(o));
+            }
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package org.jolokia.service.serializer.json;
 
 import java.beans.Transient;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import javax.management.*;
+import javax.management.openmbean.*;
 
+import org.jolokia.json.JSONStreamable;
+import org.jolokia.json.JSONWriter;
+import org.jolokia.json.Utf8JSONWriter;
 import org.jolokia.service.serializer.object.StringToObjectConverter;
 import org.jolokia.server.core.service.serializer.SerializeOptions;
 import org.testng.annotations.*;
@@ -196,6 +204,104 @@ public class ObjectToJsonConverterTest {
         assertEquals("900719925474099123", ret2);
     }
 
+    @Test
+    public void simpleTypes() throws AttributeNotFoundException {
+        assertEquals("text", converter.extractObject("text", new LinkedList<>(), true));
+        assertEquals(42, converter.extractObject(42, new LinkedList<>(), true));
+        assertEquals(Boolean.TRUE, converter.extractObject(true, null, false));
+        // Paths are still applied to simple values
+        assertEquals(4, converter.extractObject("text", new LinkedList<>(Collections.singletonList("length")), true));
+        // Second lookup for the same class uses the cached extractor
+        assertEquals(4, converter.extractObject("four", new LinkedList<>(Collections.singletonList("length")), true));
+    }
+
+    @Test
+    public void streamingSameAsTree() throws Exception {
+        CompositeType type = new CompositeType("point", "Point",
+                                               new String[] { "x", "y", "label" },
+                                               new String[] { "x", "y", "label" },
+                                               new OpenType<?>[] { SimpleType.LONG, SimpleType.LONG, SimpleType.STRING });
+        CompositeData point = new CompositeDataSupport(type, new String[] { "x", "y", "label" }, new Object[] { 1L, 2L, null });
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", Arrays.asList(1, "two", null, new int[] { 3, 4, 5 }, Collections.singletonMap("deep", Arrays.asList("a", "b"))));
+        map.put("point", point);
+        map.put("bean", new SelfRefBean1());
+        map.put("set", new TreeSet<>(Arrays.asList("x", "y", "z")));
+        map.put("long", 900719925474099123L);
+        Map<Object, Object> objectKeys = new LinkedHashMap<>();
+        objectKeys.put(1, "one");
+        objectKeys.put("1", "eins");
+        map.put("objectKeys", objectKeys);
+        map.put("empty", new HashMap<>());
+
+        Object[] values = new Object[] { map, new String[] { "a", "b" }, point, Collections.emptyList(), null, 42, "plain" };
+        SerializeOptions[] options = new SerializeOptions[] {
+            SerializeOptions.DEFAULT,
+            new SerializeOptions.Builder().maxDepth(2).build(),
+            new SerializeOptions.Builder().maxCollectionSize(1).build(),
+            new SerializeOptions.Builder().maxObjects(5).build(),
+            new SerializeOptions.Builder().serializeLong("string").build()
+        };
+        for (Object value : values) {
+            for (SerializeOptions opts : options) {
+                StringWriter tree = new StringWriter();
+                JSONWriter.serialize(converter.serialize(value, null, opts), tree);
+                StringWriter streamed = new StringWriter();
+                JSONWriter.serialize((JSONStreamable) sink -> stream(value, opts, sink), streamed);
+                assertEquals(tree.toString(), streamed.toString());
+            }
+        }
+    }
+
+    @Test
+    public void primitiveArraysSameAsBoxed() throws Exception {
+        Object[][] arrays = new Object[][] {
+            { new long[] { Long.MIN_VALUE, 0L, 900719925474099123L }, new Long[] { Long.MIN_VALUE, 0L, 900719925474099123L } },
+            { new int[] { -1, 2, 3 }, new Integer[] { -1, 2, 3 } },
+            { new short[] { -1, 2, 3 }, new Short[] { -1, 2, 3 } },
+            { new byte[] { -1, 2, 3 }, new Byte[] { -1, 2, 3 } },
+            { new double[] { 0.1, Double.NaN, -2.5e300 }, new Double[] { 0.1, Double.NaN, -2.5e300 } },
+            { new float[] { 0.1f, Float.POSITIVE_INFINITY, 3f }, new Float[] { 0.1f, Float.POSITIVE_INFINITY, 3f } },
+            { new boolean[] { true, false, true }, new Boolean[] { true, false, true } },
+            { new char[] { 'a', 'b', 'c' }, new Character[] { 'a', 'b', 'c' } }
+        };
+        SerializeOptions[] options = new SerializeOptions[] {
+            SerializeOptions.DEFAULT,
+            new SerializeOptions.Builder().maxDepth(2).build(),
+            new SerializeOptions.Builder().maxCollectionSize(2).build(),
+            new SerializeOptions.Builder().maxObjects(2).build(),
+            new SerializeOptions.Builder().serializeLong("string").build()
+        };
+        for (Object[] pair : arrays) {
+            for (SerializeOptions opts : options) {
+                // nested in a list for checking the depth limit
+                List<Object> primitive = Collections.singletonList(pair[0]);
+                String expected = toJson(converter.serialize(Collections.singletonList(pair[1]), null, opts));
+                assertEquals(expected, toJson(converter.serialize(primitive, null, opts)));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (Utf8JSONWriter writer = new Utf8JSONWriter(out)) {
+                    stream(primitive, opts, writer);
+                }
+                assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(2L, converter.serialize(new long[] { 1L, 2L }, Collections.singletonList("1"), SerializeOptions.DEFAULT));
+    }
+
+    private String toJson(Object pValue) throws IOException {
+        StringWriter writer = new StringWriter();
+        JSONWriter.serialize(pValue, writer);
+        return writer.toString();
+    }
+
+    private void stream(Object pValue, SerializeOptions pOpts, org.jolokia.json.JSONSink pSink) throws IOException {
+        try {
+            converter.serialize(pValue, pOpts, pSink);
+        } catch (AttributeNotFoundException exp) {
+            throw new IOException(exp);
+        }
+    }
+
     // ============================================================================
     // TestBeans:
 
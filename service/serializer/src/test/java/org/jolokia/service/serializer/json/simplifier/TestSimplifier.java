@@ -16,8 +16,13 @@ package org.jolokia.service.serializer.json.simplifier;
  * limitations under the License.
  */
 
+import java.io.IOException;
 import java.util.Date;
 
+import javax.management.AttributeNotFoundException;
+
+import org.jolokia.json.JSONSink;
+import org.jolokia.service.serializer.json.ObjectToJsonConverter;
 import org.testng.annotations.Test;
 
 
@@ -33,4 +38,12 @@ public class TestSimplifier extends SimplifierExtractor<Date> {
         Object[][] pAttrs = {{"millis", (AttributeExtractor<Date>) Date::getTime}};
         addExtractors(pAttrs);
     }
+
+    // Overridden only so that the disabled class annotation applies to it. Otherwise TestNG runs the
+    // inherited method, which implements a default method of Extractor, as a test
+    @Override
+    public void streamObject(ObjectToJsonConverter pConverter, Object pValue, JSONSink pSink)
+            throws AttributeNotFoundException, IOException {
+        super.streamObject(pConverter, pValue, pSink);
+    }
 }
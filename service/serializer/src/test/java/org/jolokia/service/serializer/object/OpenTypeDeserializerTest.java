@@ -75,6 +75,17 @@ public class OpenTypeDeserializerTest {
     }
 
 
+    @Test
+    public void converterCache() {
+        OpenTypeDeserializer deserializer = new OpenTypeDeserializer(new StringToObjectConverter());
+        ConversionCache<?, ?> cache = deserializer.getConverterCache();
+        assertEquals(deserializer.deserialize(SimpleType.STRING, "bla"), "bla");
+        assertEquals(deserializer.deserialize(SimpleType.LONG, "42"), 42L);
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.size(), 1);
+    }
+
     @Test(expectedExceptions = { NumberFormatException.class })
     public void simpleTypeFailed() {
         converter.deserialize(SimpleType.INTEGER, "4.52");
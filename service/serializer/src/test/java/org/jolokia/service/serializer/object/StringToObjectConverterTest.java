@@ -57,6 +57,62 @@ public class StringToObjectConverterTest {
        converter = new StringToObjectConverter();
     }
 
+    @Test
+    public void typeCache() {
+        StringToObjectConverter conv = new StringToObjectConverter();
+        ConversionCache<?, ?> cache = conv.getTypeCache();
+        assertEquals(new StringBuffer("bla").toString(), conv.convertFromString(StringBuffer.class.getName(), "bla").toString());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertEquals("blub", conv.deserialize(StringBuffer.class.getName(), "blub").toString());
+        assertEquals(1, cache.getMisses());
+        assertTrue(cache.getHits() > 0);
+
+        // Negative results are cached, too
+        for (int i = 0; i < 2; i++) {
+            try {
+                conv.deserialize("org.jolokia.NotExistingClass", "bla");
+                fail("Unknown class");
+            } catch (IllegalArgumentException exp) {
+                assertTrue(exp.getMessage().contains("org.jolokia.NotExistingClass"));
+            }
+        }
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+
+        // Lookup depends on the context class loader
+        ClassLoader old = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(new ClassLoader(old) {});
+            assertEquals("bla", conv.convertFromString(StringBuffer.class.getName(), "bla").toString());
+        } finally {
+            Thread.currentThread().setContextClassLoader(old);
+        }
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidCacheEntries() {
+        ConversionCache<String, String> cache = new ConversionCache<>(10, value -> !value.startsWith("stale"));
+        assertEquals("stale a", cache.get("a", key -> "stale " + key));
+        // Invalid values are looked up again and replaced
+        assertEquals("fresh a", cache.get("a", key -> "fresh " + key));
+        assertEquals("fresh a", cache.get("a", key -> "other " + key));
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // Scopes are separate
+        Object scope = new Object();
+        assertEquals("scoped a", cache.get(scope, "a", key -> "scoped " + key));
+        assertEquals("scoped a", cache.get(scope, "a", key -> "other " + key));
+        assertEquals(2, cache.size());
+    }
+
     @Test
     public void simpleConversions() {
         Object obj = converter.convertFromString(int.class.getCanonicalName(),"10");
@@ -9,6 +9,7 @@ import javax.management.openmbean.OpenType;
 import org.jolokia.server.core.service.api.AbstractJolokiaService;
 import org.jolokia.server.core.service.serializer.SerializeOptions;
 import org.jolokia.server.core.service.serializer.Serializer;
+import org.jolokia.server.core.util.CompiledPath;
 import org.osgi.framework.BundleContext;
 import org.osgi.util.tracker.ServiceTracker;
 
@@ -48,6 +49,12 @@ public class TrackingSerializer extends AbstractJolokiaService<Serializer> imple
         return getDelegate().serialize(pValue,pPathParts,pOptions);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Object serializeWithPath(Object pValue, CompiledPath pPath, SerializeOptions pOptions) throws AttributeNotFoundException {
+        return getDelegate().serializeWithPath(pValue,pPath,pOptions);
+    }
+
     /** {@inheritDoc} */
     public Object deserialize(String pExpectedClassName, Object pValue) {
         return getDelegate().deserialize(pExpectedClassName,pValue);
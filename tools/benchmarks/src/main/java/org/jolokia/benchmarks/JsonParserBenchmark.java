@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jolokia.json.parser.JSONParser;
+import org.jolokia.json.parser.JSONPullParser;
+import org.jolokia.json.parser.ParseException;
+import org.jolokia.server.core.request.JolokiaRequest;
+import org.jolokia.server.core.request.JolokiaRequestFactory;
+import org.jolokia.server.core.request.ProcessingParameters;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing of request and response bodies with {@link JSONParser} and {@link JSONPullParser}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParserBenchmark {
+
+    /** Number of requests/responses in the bulk document */
+    @Param({ "1", "50" })
+    public int size;
+
+    private String request;
+    private byte[] requestBytes;
+    private String response;
+    private byte[] responseBytes;
+    private String numbers;
+    private ProcessingParameters params;
+
+    @Setup
+    public void setup() {
+        request = Payloads.bulkRequest(size).toJSONString();
+        requestBytes = request.getBytes(StandardCharsets.UTF_8);
+        response = Payloads.bulkResponse(size).toJSONString();
+        responseBytes = response.getBytes(StandardCharsets.UTF_8);
+        numbers = Payloads.numbers(size * 20);
+        params = new ProcessingParameters(new HashMap<>());
+    }
+
+    @Benchmark
+    public Object parseRequest() throws ParseException, IOException {
+        return new JSONParser().parse(new StringReader(request));
+    }
+
+    @Benchmark
+    public Object parseRequestUtf8Bytes() throws ParseException, IOException {
+        return new JSONParser().parse(requestBytes);
+    }
+
+    // what the agent did before parsing directly from UTF-8 bytes
+    @Benchmark
+    public Object parseRequestInputStreamReader() throws ParseException, IOException {
+        return new JSONParser().parse(new InputStreamReader(new ByteArrayInputStream(requestBytes), StandardCharsets.UTF_8));
+    }
+
+    // request objects created directly from pull parser events, as done for POST requests
+    @Benchmark
+    public List<JolokiaRequest> parseBulkRequestToJolokiaRequests() throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser(new ByteArrayInputStream(requestBytes));
+        parser.next();
+        return JolokiaRequestFactory.createPostRequests(parser, params);
+    }
+
+    @Benchmark
+    public Object parseResponse() throws ParseException, IOException {
+        return new JSONParser().parse(new StringReader(response));
+    }
+
+    @Benchmark
+    public Object parseResponseUtf8Bytes() throws ParseException, IOException {
+        return new JSONParser().parse(responseBytes);
+    }
+
+    @Benchmark
+    public void skipResponseWithPullParser(Blackhole bh) throws ParseException, IOException {
+        JSONPullParser parser = new JSONPullParser(new StringReader(response));
+        parser.next();
+        parser.skipValue();
+        bh.consume(parser.currentEvent());
+    }
+
+    @Benchmark
+    public Object parseNumbers() throws ParseException, IOException {
+        return new JSONParser().parse(numbers);
+    }
+
+    @Benchmark
+    public Object parseNumbersDecimalsAsDouble() throws ParseException, IOException {
+        return new JSONParser(true).parse(numbers);
+    }
+
+}
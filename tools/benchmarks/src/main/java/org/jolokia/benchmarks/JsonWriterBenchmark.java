@@ -0,0 +1,78 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONWriter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Writing of response bodies with {@link JSONWriter} - to {@link String}, to {@link Writer} and directly
+ * as UTF-8 bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonWriterBenchmark {
+
+    /** Number of responses in the bulk document */
+    @Param({ "1", "50" })
+    public int size;
+
+    private JSONArray response;
+
+    // reused, so only the allocations of the writer itself are measured
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        response = Payloads.bulkResponse(size);
+        out = new ByteArrayOutputStream(response.toJSONString().length() * 2);
+    }
+
+    @Benchmark
+    public String toJSONString() {
+        return response.toJSONString();
+    }
+
+    // what the agent did before writing UTF-8 bytes directly
+    @Benchmark
+    public int writeWithOutputStreamWriter() throws IOException {
+        out.reset();
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        JSONWriter.serialize(response, writer);
+        writer.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeUtf8() throws IOException {
+        out.reset();
+        JSONWriter.serialize(response, out);
+        return out.size();
+    }
+
+}
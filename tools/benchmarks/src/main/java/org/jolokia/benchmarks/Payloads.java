@@ -0,0 +1,163 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.util.Random;
+
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONObject;
+
+/**
+ * JSON documents resembling what the agent gets and sends. The content depends only on
+ * the size, so results are comparable between runs.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * Bulk request with read, exec and list requests, as sent by consoles polling the agent.
+     *
+     * @param pCount number of requests in the bulk
+     * @return JSON array with the requests
+     */
+    static JSONArray bulkRequest(int pCount) {
+        JSONArray requests = new JSONArray(pCount);
+        for (int i = 0; i < pCount; i++) {
+            JSONObject req = new JSONObject();
+            JSONObject config = new JSONObject();
+            switch (i % 4) {
+                case 0:
+                    req.put("type", "read");
+                    req.put("mbean", "java.lang:type=Memory");
+                    req.put("attribute", "HeapMemoryUsage");
+                    req.put("path", "used");
+                    break;
+                case 1:
+                    req.put("type", "read");
+                    req.put("mbean", "org.jolokia.bench:type=Sample,name=sample-" + i);
+                    JSONArray attributes = new JSONArray();
+                    attributes.add("Counter");
+                    attributes.add("Name");
+                    attributes.add("Ratio");
+                    req.put("attribute", attributes);
+                    break;
+                case 2:
+                    req.put("type", "exec");
+                    req.put("mbean", "org.jolokia.bench:type=Sample,name=sample-" + i);
+                    req.put("operation", "add(int,int)");
+                    JSONArray arguments = new JSONArray();
+                    arguments.add(i);
+                    arguments.add(-i * 1000L);
+                    req.put("arguments", arguments);
+                    break;
+                default:
+                    req.put("type", "list");
+                    req.put("path", "java.lang/type=Runtime");
+                    config.put("maxDepth", 2);
+                    break;
+            }
+            config.put("ignoreErrors", true);
+            config.put("serializeLong", "number");
+            req.put("config", config);
+            requests.add(req);
+        }
+        return requests;
+    }
+
+    /**
+     * Bulk response with nested maps, arrays, strings with non-ASCII characters and numbers.
+     *
+     * @param pCount number of responses
+     * @return JSON array with the responses
+     */
+    static JSONArray bulkResponse(int pCount) {
+        Random random = new Random(pCount);
+        JSONArray responses = new JSONArray(pCount);
+        for (int i = 0; i < pCount; i++) {
+            JSONObject request = new JSONObject();
+            request.put("type", "read");
+            request.put("mbean", "org.jolokia.bench:type=Sample,name=sample-" + i);
+
+            JSONObject value = new JSONObject();
+            value.put("Counter", random.nextInt(100_000));
+            value.put("Timestamp", System.currentTimeMillis() - random.nextInt(1_000_000));
+            value.put("Ratio", random.nextDouble());
+            value.put("Name", "Sample \"" + i + "\" – ünïcödé\tvalue");
+            value.put("Enabled", random.nextBoolean());
+            value.put("Missing", null);
+            JSONArray history = new JSONArray(16);
+            for (int j = 0; j < 16; j++) {
+                history.add(random.nextLong());
+            }
+            value.put("History", history);
+            JSONObject usage = new JSONObject();
+            usage.put("init", 268435456L);
+            usage.put("committed", 1073741824L);
+            usage.put("max", 4294967296L);
+            usage.put("used", (long) random.nextInt(Integer.MAX_VALUE));
+            value.put("HeapMemoryUsage", usage);
+
+            JSONObject response = new JSONObject();
+            response.put("request", request);
+            response.put("value", value);
+            response.put("status", 200);
+            response.put("timestamp", 1_700_000_000L + i);
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * Array of numbers - half integers (some of them not fitting into {@code long}) and half decimals
+     * in various notations.
+     *
+     * @param pCount number of values
+     * @return JSON text
+     */
+    static String numbers(int pCount) {
+        Random random = new Random(pCount);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < pCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            switch (i % 6) {
+                case 0:
+                    sb.append(random.nextInt(1000));
+                    break;
+                case 1:
+                    sb.append(random.nextLong());
+                    break;
+                case 2:
+                    sb.append("1844674407370955161").append(random.nextInt(10)).append('7');
+                    break;
+                case 3:
+                    sb.append(random.nextInt(100_000) / 100.0);
+                    break;
+                case 4:
+                    sb.append(random.nextDouble());
+                    break;
+                default:
+                    sb.append(random.nextInt(1000)).append(".5e-").append(random.nextInt(20));
+                    break;
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.*;
+
+import org.jolokia.json.JSONArray;
+import org.jolokia.json.JSONObject;
+import org.jolokia.json.JSONStructure;
+import org.jolokia.json.JSONWriter;
+import org.jolokia.server.core.backend.BackendManager;
+import org.jolokia.server.core.config.ConfigKey;
+import org.jolokia.server.core.config.StaticConfiguration;
+import org.jolokia.server.core.http.HttpRequestHandler;
+import org.jolokia.server.core.request.EmptyResponseException;
+import org.jolokia.server.core.request.JolokiaRequest;
+import org.jolokia.server.core.request.JolokiaRequestFactory;
+import org.jolokia.server.core.request.ProcessingParameters;
+import org.jolokia.server.core.restrictor.AllowAllRestrictor;
+import org.jolokia.server.core.service.JolokiaServiceManagerFactory;
+import org.jolokia.server.core.service.api.JolokiaContext;
+import org.jolokia.server.core.service.api.JolokiaServiceManager;
+import org.jolokia.server.core.service.impl.ClasspathServiceCreator;
+import org.jolokia.server.core.service.impl.QuietLogHandler;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * <p>End-to-end processing of Jolokia requests against a dedicated {@link MBeanServer} with configurable
+ * number of synthetic {@link SampleMBean}s. The agent is wired the same way as the JVM agent does it -
+ * services are discovered from the classpath.</p>
+ *
+ * <p>Benchmarks calling {@link BackendManager#handleRequest} measure request dispatching, MBean access
+ * and serialization. {@link #postBulkRequest()} additionally includes parsing of POST body and writing
+ * of the response.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPipelineBenchmark {
+
+    static final String DOMAIN = "org.jolokia.bench";
+
+    /** Number of synthetic MBeans registered */
+    @Param({ "10", "1000" })
+    public int mbeans;
+
+    private MBeanServer mBeanServer;
+    private JolokiaServiceManager serviceManager;
+    private BackendManager backendManager;
+    private HttpRequestHandler httpRequestHandler;
+
+    private JolokiaRequest readAttribute;
+    private JolokiaRequest readAllAttributes;
+    private JolokiaRequest readPattern;
+    private JolokiaRequest search;
+    private JolokiaRequest listDomain;
+    private JolokiaRequest listMBean;
+    private JolokiaRequest exec;
+
+    private byte[] bulkRequest;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() throws JMException {
+        mBeanServer = MBeanServerFactory.createMBeanServer();
+        for (int i = 0; i < mbeans; i++) {
+            mBeanServer.registerMBean(new Sample(i), sampleName(i));
+        }
+
+        serviceManager = JolokiaServiceManagerFactory.createJolokiaServiceManager(
+            new StaticConfiguration(ConfigKey.AGENT_ID, "benchmark"),
+            new QuietLogHandler(),
+            new AllowAllRestrictor());
+        serviceManager.addServices(new ClasspathServiceCreator(getClass().getClassLoader(), "services"));
+        JolokiaContext context = serviceManager.start();
+        backendManager = new BackendManager(context);
+        httpRequestHandler = new HttpRequestHandler(context);
+
+        ProcessingParameters params = new ProcessingParameters(new HashMap<>());
+        String sample = DOMAIN + ":name=sample-" + (mbeans / 2) + ",type=Sample";
+        readAttribute = JolokiaRequestFactory.createGetRequest("read/" + sample + "/Counter", params);
+        readAllAttributes = JolokiaRequestFactory.createGetRequest("read/" + sample, params);
+        readPattern = JolokiaRequestFactory.createGetRequest("read/" + DOMAIN + ":type=Sample,*/Counter", params);
+        search = JolokiaRequestFactory.createGetRequest("search/" + DOMAIN + ":*", params);
+        listDomain = JolokiaRequestFactory.createGetRequest("list/" + DOMAIN, params);
+        listMBean = JolokiaRequestFactory.createGetRequest("list/" + DOMAIN + "/name=sample-0,type=Sample", params);
+        exec = JolokiaRequestFactory.createGetRequest("exec/" + sample + "/add/17/25", params);
+
+        bulkRequest = bulkRequest(Math.min(mbeans, 20)).toJSONString().getBytes(StandardCharsets.UTF_8);
+        out = new ByteArrayOutputStream(64 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceManager.stop();
+        MBeanServerFactory.releaseMBeanServer(mBeanServer);
+    }
+
+    @Benchmark
+    public JSONObject readAttribute() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(readAttribute);
+    }
+
+    @Benchmark
+    public JSONObject readAllAttributes() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(readAllAttributes);
+    }
+
+    @Benchmark
+    public JSONObject readPattern() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(readPattern);
+    }
+
+    @Benchmark
+    public JSONObject search() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(search);
+    }
+
+    @Benchmark
+    public JSONObject listDomain() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(listDomain);
+    }
+
+    @Benchmark
+    public JSONObject listMBean() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(listMBean);
+    }
+
+    @Benchmark
+    public JSONObject exec() throws JMException, IOException, EmptyResponseException {
+        return backendManager.handleRequest(exec);
+    }
+
+    @Benchmark
+    public int postBulkRequest() throws IOException, EmptyResponseException {
+        JSONStructure response = httpRequestHandler.handlePostRequest("/jolokia", new ByteArrayInputStream(bulkRequest), "UTF-8", null);
+        out.reset();
+        JSONWriter.serialize(response, out);
+        return out.size();
+    }
+
+    // bulk with reads of single and all attributes of different MBeans and an exec
+    private JSONArray bulkRequest(int pCount) {
+        JSONArray requests = new JSONArray(pCount);
+        for (int i = 0; i < pCount; i++) {
+            JSONObject req = new JSONObject();
+            req.put("mbean", DOMAIN + ":type=Sample,name=sample-" + i);
+            if (i % 5 == 4) {
+                req.put("type", "exec");
+                req.put("operation", "add");
+                JSONArray arguments = new JSONArray();
+                arguments.add(i);
+                arguments.add(i * 2);
+                req.put("arguments", arguments);
+            } else {
+                req.put("type", "read");
+                if (i % 2 == 0) {
+                    req.put("attribute", "Counter");
+                }
+            }
+            requests.add(req);
+        }
+        return requests;
+    }
+
+    private static ObjectName sampleName(int pIndex) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=Sample,name=sample-" + pIndex);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.lang.management.MemoryUsage;
+import java.util.*;
+
+/**
+ * Synthetic MBean with attributes of various types
+ */
+public class Sample implements SampleMBean {
+
+    private final String name;
+    private long counter;
+    private final long[] history = new long[16];
+    private final List<String> tags;
+    private final Map<String, Long> statistics = new LinkedHashMap<>();
+    private final MemoryUsage usage;
+
+    Sample(int pIndex) {
+        name = "sample-" + pIndex;
+        counter = pIndex;
+        for (int i = 0; i < history.length; i++) {
+            history[i] = pIndex * 1_000_000L + i;
+        }
+        tags = Arrays.asList("benchmark", "group-" + (pIndex % 10), name);
+        statistics.put("min", 0L);
+        statistics.put("max", pIndex * 100L);
+        statistics.put("count", (long) pIndex);
+        usage = new MemoryUsage(1024L * pIndex, 2048L * pIndex, 4096L * pIndex, 8192L * pIndex);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCounter() {
+        return counter;
+    }
+
+    @Override
+    public void setCounter(long pCounter) {
+        counter = pCounter;
+    }
+
+    @Override
+    public double getRatio() {
+        return counter / 3.0;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return counter % 2 == 0;
+    }
+
+    @Override
+    public long[] getHistory() {
+        return history;
+    }
+
+    @Override
+    public List<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Map<String, Long> getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public MemoryUsage getUsage() {
+        return usage;
+    }
+
+    @Override
+    public long add(int pA, int pB) {
+        return (long) pA + pB;
+    }
+
+    @Override
+    public void reset() {
+        counter = 0;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface of MBeans registered for {@link RequestPipelineBenchmark}
+ */
+public interface SampleMBean {
+
+    String getName();
+
+    long getCounter();
+
+    void setCounter(long pCounter);
+
+    double getRatio();
+
+    boolean isEnabled();
+
+    long[] getHistory();
+
+    List<String> getTags();
+
+    Map<String, Long> getStatistics();
+
+    MemoryUsage getUsage();
+
+    long add(int pA, int pB);
+
+    void reset();
+
+}
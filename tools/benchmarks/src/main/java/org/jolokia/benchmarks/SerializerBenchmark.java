@@ -0,0 +1,171 @@
+/*
+ * Copyright 2009-2024 Roland Huss
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jolokia.benchmarks;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.AttributeNotFoundException;
+import javax.management.openmbean.*;
+
+import org.jolokia.server.core.service.serializer.SerializeOptions;
+import org.jolokia.service.serializer.JolokiaSerializer;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Conversion of JMX values ({@link CompositeData}, {@link TabularData}, plain beans) into JSON structures
+ * with {@link JolokiaSerializer}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    /** Number of rows in tabular data, elements in collections and children of bean nodes */
+    @Param({ "10", "100" })
+    public int size;
+
+    private JolokiaSerializer serializer;
+    private SerializeOptions options;
+    private SerializeOptions limitedOptions;
+    private List<String> path;
+
+    private CompositeData composite;
+    private TabularData tabular;
+    private Node beanGraph;
+    private long[] longArray;
+
+    @Setup
+    public void setup() throws OpenDataException {
+        serializer = new JolokiaSerializer();
+        options = new SerializeOptions.Builder().build();
+        limitedOptions = new SerializeOptions.Builder().maxDepth(3).maxCollectionSize(size / 2).build();
+        path = Collections.emptyList();
+
+        CompositeType rowType = new CompositeType("Row", "Table row",
+            new String[] { "name", "count", "ratio", "enabled", "since" },
+            new String[] { "Name", "Count", "Ratio", "Enabled", "Since" },
+            new OpenType<?>[] { SimpleType.STRING, SimpleType.LONG, SimpleType.DOUBLE, SimpleType.BOOLEAN, SimpleType.DATE });
+        composite = row(rowType, 0);
+        tabular = new TabularDataSupport(new TabularType("Table", "Benchmark table", rowType, new String[] { "name" }));
+        for (int i = 0; i < size; i++) {
+            tabular.put(row(rowType, i));
+        }
+
+        beanGraph = Node.create("root", 3, Math.max(2, (int) Math.cbrt(size * 10)), size);
+        longArray = new long[size];
+        for (int i = 0; i < size; i++) {
+            longArray[i] = i * 1_000_003L;
+        }
+    }
+
+    @Benchmark
+    public Object compositeData() throws AttributeNotFoundException {
+        return serializer.serialize(composite, path, options);
+    }
+
+    @Benchmark
+    public Object tabularData() throws AttributeNotFoundException {
+        return serializer.serialize(tabular, path, options);
+    }
+
+    @Benchmark
+    public Object beanGraph() throws AttributeNotFoundException {
+        return serializer.serialize(beanGraph, path, options);
+    }
+
+    @Benchmark
+    public Object beanGraphWithLimits() throws AttributeNotFoundException {
+        return serializer.serialize(beanGraph, path, limitedOptions);
+    }
+
+    @Benchmark
+    public Object beanGraphWithPath() throws AttributeNotFoundException {
+        return serializer.serialize(beanGraph, Arrays.asList("children", "1", "attributes", "key-1"), options);
+    }
+
+    @Benchmark
+    public Object primitiveArray() throws AttributeNotFoundException {
+        return serializer.serialize(longArray, path, options);
+    }
+
+    private CompositeData row(CompositeType pType, int pIndex) throws OpenDataException {
+        return new CompositeDataSupport(pType,
+            new String[] { "name", "count", "ratio", "enabled", "since" },
+            new Object[] { "row-" + pIndex, pIndex * 31L, pIndex / 7.0, pIndex % 2 == 0, new Date(1_700_000_000_000L + pIndex) });
+    }
+
+    /**
+     * Bean with nested beans, collections, maps and arrays
+     */
+    public static class Node {
+        private final String name;
+        private final int weight;
+        private final List<Node> children = new ArrayList<>();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private final int[] counters;
+
+        Node(String pName, int pWeight, int pCounters) {
+            name = pName;
+            weight = pWeight;
+            counters = new int[pCounters];
+            for (int i = 0; i < pCounters; i++) {
+                counters[i] = i * pWeight;
+            }
+        }
+
+        static Node create(String pName, int pDepth, int pFanOut, int pCounters) {
+            Node node = new Node(pName, pDepth * pFanOut, pCounters);
+            for (int i = 0; i < pFanOut; i++) {
+                node.attributes.put("key-" + i, i % 2 == 0 ? "value-" + i : (Object) (long) i);
+            }
+            if (pDepth > 1) {
+                for (int i = 0; i < pFanOut; i++) {
+                    node.children.add(create(pName + "/" + i, pDepth - 1, pFanOut, pCounters));
+                }
+            }
+            return node;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public boolean isLeaf() {
+            return children.isEmpty();
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        public int[] getCounters() {
+            return counters;
+        }
+    }
+
+}